@@ -0,0 +1,577 @@
+package ca.bcit.comp2522.lab7;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes the reports of many datasets in one process.
+ * <p>
+ * A batch is described by a manifest with one dataset per line: the input file and the output file,
+ * separated by a tab, or by spaces when neither path contains one. Blank lines and lines starting
+ * with '#' are skipped, and relative paths are resolved against the manifest's directory. Every
+ * dataset gets the same sections and thresholds.
+ * </p>
+ * <p>
+ * Datasets run on a fixed pool of worker threads, at most one per job, so the loader, report and
+ * writer code stays warmed up from one dataset to the next. Each worker keeps its own
+ * {@link CountryLoader}, whose scan buffer cannot be shared, and encodes every report it writes
+ * through its own direct buffer. Each report is published through a {@link ReportPublisher},
+ * so a dataset whose report has not changed is not written again. A dataset that fails is recorded
+ * with its error and does not stop the others.
+ * </p>
+ * <p>
+ * Example usage:
+ * <pre>
+ *     try(BatchRunner runner = new BatchRunner(4, List.of(ReportSection.values()), 3, 4))
+ *     {
+ *         for(BatchRunner.Result result : runner.run(BatchRunner.readManifest(manifestPath)))
+ *         {
+ *             System.out.println(result);
+ *         }
+ *     }
+ * </pre>
+ * </p>
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+public final class BatchRunner implements AutoCloseable
+{
+   private static final String COMMENT_PREFIX = "#";
+   private static final String TAB            = "\t";
+   private static final String SPACES         = " +";
+   private static final int    LOAD_STEP      = 0;
+   private static final int    REPORT_STEP    = 1;
+   private static final int    WRITE_STEP     = 2;
+   private static final int    STEPS          = 3;
+
+   private final List<ReportSection>        sections;
+   private final int                        minChar;
+   private final int                        minWord;
+   private final ThreadLocal<CountryLoader> loaders;
+   private final ExecutorService            workers;
+   private final ThreadLocal<ByteBuffer>    buffers;
+
+   /**
+    * Constructs a BatchRunner that runs up to the given number of datasets at the same time.
+    *
+    * @param jobs     the number of datasets that may run at the same time, at least 1
+    * @param sections the sections every report holds, in output order
+    * @param minChar  the length every name is compared against for the "all longer than" section
+    * @param minWord  the word count a name must exceed to be listed as a multi-word name
+    */
+   public BatchRunner(final int jobs,
+                      final List<ReportSection> sections,
+                      final int minChar,
+                      final int minWord)
+   {
+      final AtomicInteger threads;
+
+      if(jobs < 1)
+      {
+         throw new IllegalArgumentException("Jobs must be at least 1: " + jobs);
+      }
+
+      if(sections == null || sections.isEmpty())
+      {
+         throw new IllegalArgumentException("Sections must not be empty!");
+      }
+
+      threads = new AtomicInteger();
+
+      this.sections = List.copyOf(sections);
+      this.minChar  = minChar;
+      this.minWord  = minWord;
+      this.loaders  = ThreadLocal.withInitial(CountryLoader::new);
+      this.buffers  = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(ReportWriter.DEFAULT_BUFFER_SIZE));
+      this.workers  = Executors.newFixedThreadPool(jobs, task ->
+                      {
+                         final Thread thread;
+
+                         thread = new Thread(task, "batch-runner-" + threads.incrementAndGet());
+                         thread.setDaemon(true);
+
+                         return thread;
+                      });
+   }
+
+   /**
+    * Reads the datasets of a manifest, in manifest order.
+    *
+    * @param manifest the manifest file
+    * @return the datasets
+    * @throws IOException if the manifest cannot be read
+    * @throws IllegalArgumentException if a line does not hold two paths, or two datasets share an
+    *                                  output file
+    */
+   public static List<Dataset> readManifest(final Path manifest) throws IOException
+   {
+      final Path          directory;
+      final List<Dataset> datasets;
+      final Set<Path>     outputs;
+      final List<String>  lines;
+
+      directory = manifest.toAbsolutePath().getParent();
+      datasets  = new ArrayList<>();
+      outputs   = new HashSet<>();
+      lines     = Files.readAllLines(manifest, StandardCharsets.UTF_8);
+
+      for(int i = 0; i < lines.size(); i++)
+      {
+         final String   line;
+         final String[] paths;
+         final Dataset  dataset;
+
+         line = lines.get(i).strip();
+
+         if(line.isEmpty() || line.startsWith(COMMENT_PREFIX))
+         {
+            continue;
+         }
+
+         paths = line.contains(TAB) ? line.split(TAB) : line.split(SPACES);
+
+         if(paths.length != 2 || paths[0].isBlank() || paths[1].isBlank())
+         {
+            throw new IllegalArgumentException("Expected an input and an output path on line " + (i + 1) +
+                                               " of " + manifest + ": " + line);
+         }
+
+         dataset = new Dataset(directory.resolve(paths[0].strip()).normalize(),
+                               directory.resolve(paths[1].strip()).normalize());
+
+         if(!outputs.add(dataset.getOutput()))
+         {
+            throw new IllegalArgumentException("Output " + dataset.getOutput() + " is listed twice in " + manifest);
+         }
+
+         datasets.add(dataset);
+      }
+
+      return datasets;
+   }
+
+   /**
+    * Writes the report of every dataset and waits until all of them are done.
+    *
+    * @param datasets the datasets to run
+    * @return the result of each dataset, in the given order
+    */
+   public List<Result> run(final List<Dataset> datasets)
+   {
+      final List<Future<Result>> futures;
+      final List<Result>         results;
+
+      futures = new ArrayList<>(datasets.size());
+      results = new ArrayList<>(datasets.size());
+
+      for(final Dataset dataset : datasets)
+      {
+         futures.add(workers.submit(() -> runOne(dataset)));
+      }
+
+      for(final Future<Result> future : futures)
+      {
+         try
+         {
+            results.add(future.get());
+         } catch(final InterruptedException e)
+         {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the batch", e);
+         } catch(final ExecutionException e)
+         {
+            throw new IllegalStateException("Dataset failed unexpectedly", e.getCause());
+         }
+      }
+
+      return results;
+   }
+
+   /**
+    * Returns the results as a JSON document with one object per dataset, in run order, plus the
+    * totals of the batch.
+    *
+    * @param results the results of a run
+    * @return the JSON summary
+    */
+   public static String toJson(final List<Result> results)
+   {
+      final StringBuilder out;
+      long                totalNanos;
+      long                bytesWritten;
+      int                 failed;
+
+      out          = new StringBuilder();
+      totalNanos   = 0;
+      bytesWritten = 0;
+      failed       = 0;
+
+      out.append("{\"datasets\":[");
+
+      for(int i = 0; i < results.size(); i++)
+      {
+         final Result result;
+
+         result        = results.get(i);
+         totalNanos   += result.getTotalNanos();
+         bytesWritten += result.getBytesWritten();
+
+         if(i > 0)
+         {
+            out.append(',');
+         }
+
+         out.append(System.lineSeparator())
+            .append("{\"input\":").append(CountryServer.quote(result.getDataset().getInput().toString()))
+            .append(",\"output\":").append(CountryServer.quote(result.getDataset().getOutput().toString()))
+            .append(",\"names\":").append(result.getNames())
+            .append(",\"loadNanos\":").append(result.getLoadNanos())
+            .append(",\"reportNanos\":").append(result.getReportNanos())
+            .append(",\"writeNanos\":").append(result.getWriteNanos())
+            .append(",\"bytesWritten\":").append(result.getBytesWritten())
+            .append(",\"written\":").append(result.isWritten())
+            .append(",\"error\":");
+
+         if(result.getError() == null)
+         {
+            out.append("null");
+         } else
+         {
+            failed++;
+            out.append(CountryServer.quote(result.getError()));
+         }
+
+         out.append('}');
+      }
+
+      out.append("],")
+         .append(System.lineSeparator())
+         .append("\"totalNanos\":").append(totalNanos)
+         .append(",\"totalBytesWritten\":").append(bytesWritten)
+         .append(",\"failed\":").append(failed)
+         .append('}')
+         .append(System.lineSeparator());
+
+      return out.toString();
+   }
+
+   @Override
+   public void close()
+   {
+      workers.shutdown();
+   }
+
+   /*
+    * Loads, reports and publishes one dataset on the calling worker thread, timing each step. The
+    * time until a failure is counted in the step that failed.
+    */
+   private Result runOne(final Dataset dataset)
+   {
+      final long[] nanos;
+      final long[] bytesWritten;
+      long         mark;
+      int          step;
+      int          names;
+      boolean      written;
+      String       error;
+
+      nanos        = new long[STEPS];
+      bytesWritten = new long[1];
+      mark         = System.nanoTime();
+      step         = LOAD_STEP;
+      names        = 0;
+      written      = false;
+      error        = null;
+
+      try
+      {
+         final CountryReport report;
+         final List<String>  texts;
+
+         // The load lap ends where the report step starts, at the mark plus the load time.
+         report = loadReport(dataset, nanos, mark);
+         names  = (int) report.getTotalCount();
+         mark  += nanos[step++];
+         texts  = new ArrayList<>(sections.size());
+
+         for(final ReportSection section : sections)
+         {
+            texts.add(section.render(report));
+         }
+
+         mark    = lap(nanos, step++, mark);
+         written = new ReportPublisher(dataset.getOutput()).publish(ReportPublisher.hashSections(sections, texts),
+                                                                    buffers.get(), writer ->
+         {
+            for(final String text : texts)
+            {
+               writer.writeString(text);
+            }
+
+            writer.flush();
+            bytesWritten[0] = writer.getBytesWritten();
+         });
+      } catch(final IOException | RuntimeException e)
+      {
+         error = e.toString();
+      }
+
+      lap(nanos, step, mark);
+
+      return new Result(dataset, names, nanos[LOAD_STEP], nanos[REPORT_STEP], nanos[WRITE_STEP], bytesWritten[0],
+                        written, error);
+   }
+
+   /*
+    * Loads the dataset, records the load time and builds the report. The table is only held here,
+    * so its arena can be collected once the report has decoded the names.
+    */
+   private CountryReport loadReport(final Dataset dataset,
+                                    final long[] nanos,
+                                    final long mark) throws IOException
+   {
+      final CountryTable table;
+
+      table = loaders.get().loadTable(dataset.getInput());
+      lap(nanos, LOAD_STEP, mark);
+
+      return CountryReport.of(table, minChar, minWord);
+   }
+
+   /*
+    * Records the time since the mark as the given step and returns the new mark.
+    */
+   private static long lap(final long[] nanos,
+                           final int step,
+                           final long mark)
+   {
+      final long now;
+
+      now         = System.nanoTime();
+      nanos[step] = now - mark;
+
+      return now;
+   }
+
+   /**
+    * One input file of a batch and the report file written for it.
+    *
+    * @author Linh Hoang
+    * @author Pouyan Norouzi Iranzadeh
+    * @version 1.0
+    */
+   public static final class Dataset
+   {
+      private final Path input;
+      private final Path output;
+
+      /**
+       * Constructs a Dataset.
+       *
+       * @param input  the input file
+       * @param output the report file
+       */
+      public Dataset(final Path input,
+                     final Path output)
+      {
+         if(input == null || output == null)
+         {
+            throw new IllegalArgumentException("Input and output must not be null!");
+         }
+
+         this.input  = input;
+         this.output = output;
+      }
+
+      /**
+       * Returns the input file.
+       *
+       * @return the input path
+       */
+      public Path getInput()
+      {
+         return input;
+      }
+
+      /**
+       * Returns the report file.
+       *
+       * @return the output path
+       */
+      public Path getOutput()
+      {
+         return output;
+      }
+
+      @Override
+      public String toString()
+      {
+         return input + " -> " + output;
+      }
+   }
+
+   /**
+    * What running one dataset did and how long each step took.
+    *
+    * @author Linh Hoang
+    * @author Pouyan Norouzi Iranzadeh
+    * @version 1.0
+    */
+   public static final class Result
+   {
+      private static final long NANOS_PER_MILLI = 1_000_000L;
+
+      private final Dataset dataset;
+      private final int     names;
+      private final long    loadNanos;
+      private final long    reportNanos;
+      private final long    writeNanos;
+      private final long    bytesWritten;
+      private final boolean written;
+      private final String  error;
+
+      private Result(final Dataset dataset,
+                     final int names,
+                     final long loadNanos,
+                     final long reportNanos,
+                     final long writeNanos,
+                     final long bytesWritten,
+                     final boolean written,
+                     final String error)
+      {
+         this.dataset      = dataset;
+         this.names        = names;
+         this.loadNanos    = loadNanos;
+         this.reportNanos  = reportNanos;
+         this.writeNanos   = writeNanos;
+         this.bytesWritten = bytesWritten;
+         this.written      = written;
+         this.error        = error;
+      }
+
+      /**
+       * Returns the dataset this result is for.
+       *
+       * @return the dataset
+       */
+      public Dataset getDataset()
+      {
+         return dataset;
+      }
+
+      /**
+       * Returns the number of names read from the input file.
+       *
+       * @return the name count
+       */
+      public int getNames()
+      {
+         return names;
+      }
+
+      /**
+       * Returns the time spent reading the input file.
+       *
+       * @return the load time in nanoseconds
+       */
+      public long getLoadNanos()
+      {
+         return loadNanos;
+      }
+
+      /**
+       * Returns the time spent collecting the report and rendering its sections.
+       *
+       * @return the report time in nanoseconds
+       */
+      public long getReportNanos()
+      {
+         return reportNanos;
+      }
+
+      /**
+       * Returns the time spent publishing the report file.
+       *
+       * @return the write time in nanoseconds
+       */
+      public long getWriteNanos()
+      {
+         return writeNanos;
+      }
+
+      /**
+       * Returns the time the whole dataset took.
+       *
+       * @return the total time in nanoseconds
+       */
+      public long getTotalNanos()
+      {
+         return loadNanos + reportNanos + writeNanos;
+      }
+
+      /**
+       * Returns the size of the report written, or 0 if none was.
+       *
+       * @return the bytes written
+       */
+      public long getBytesWritten()
+      {
+         return bytesWritten;
+      }
+
+      /**
+       * Returns whether the report file was replaced, as opposed to kept because it was unchanged.
+       *
+       * @return true if the report was written
+       */
+      public boolean isWritten()
+      {
+         return written;
+      }
+
+      /**
+       * Returns what went wrong with the dataset.
+       *
+       * @return the error, or null if the dataset succeeded
+       */
+      public String getError()
+      {
+         return error;
+      }
+
+      @Override
+      public String toString()
+      {
+         final String status;
+
+         if(error != null)
+         {
+            status = "FAILED " + error;
+         } else if(written)
+         {
+            status = "wrote " + bytesWritten + " bytes";
+         } else
+         {
+            status = "unchanged";
+         }
+
+         return dataset + ": " + names + " names in " + getTotalNanos() / NANOS_PER_MILLI + " ms (load " +
+                loadNanos / NANOS_PER_MILLI + " ms, report " + reportNanos / NANOS_PER_MILLI + " ms, write " +
+                writeNanos / NANOS_PER_MILLI + " ms), " + status;
+      }
+   }
+}
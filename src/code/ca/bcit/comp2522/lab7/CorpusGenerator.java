@@ -0,0 +1,523 @@
+package ca.bcit.comp2522.lab7;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates large input files of made-up country names for load and regression testing.
+ * <p>
+ * The output depends on nothing but the seed and the {@link Mix}, so the same arguments always
+ * produce the same file, on any machine and JDK, and a corpus of any size never has to be stored.
+ * Names are built from syllables into one or more capitalized words, and the mix controls how
+ * long the words are, how many names have several words, and how many start with 'A' or 'Z', end
+ * with "land" or contain "United". Names outside those shares never match them, so each share is
+ * exactly what the matching report section sees, give or take the randomness. A share of the lines
+ * is left blank or holds only whitespace, including a non-ASCII space, which the loader must skip.
+ * </p>
+ * <p>
+ * Example usage:
+ * <pre>
+ *     CorpusGenerator generator = new CorpusGenerator(2522, CorpusGenerator.Mix.parse(new String[]{"--land=10"}));
+ *     generator.write(Paths.get("corpus.txt"), 1_000_000);
+ * </pre>
+ * or from the command line, with the same mix options:
+ * <pre>
+ *     java ca.bcit.comp2522.lab7.CorpusGenerator 1000000 corpus.txt --seed=2522 --land=10
+ * </pre>
+ * </p>
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+public final class CorpusGenerator
+{
+   public static final long DEFAULT_SEED = 2522L;
+
+   private static final String   SEED_PREFIX    = "--seed=";
+   private static final String[] ONSETS         = {"b", "br", "c", "ch", "d", "f", "g", "gr", "h", "k", "l", "m",
+                                                   "n", "p", "r", "s", "st", "t", "tr", "v", "w"};
+   private static final String[] VOWELS         = {"a", "e", "i", "o", "u", "ia", "ea", "o"};
+   private static final String[] CODAS          = {"", "", "", "n", "r", "s", "m", "t"};
+   private static final String[] CONNECTORS     = {"and", "of", "the"};
+   private static final String   FIRST_LETTERS  = "BCDEFGHIJKLMNOPRSTVW";
+   private static final String   UNITED_WORD    = "United";
+   private static final String   UNITED_TEXT    = "united";
+   private static final String   LAND_SUFFIX    = "land";
+   private static final String[] INVALID_LINES  = {"   ", "\t", " \t ", "\u2003"};
+   private static final int      CONNECTOR_ODDS = 5;
+   private static final int      WRITE_BUFFER   = 1 << 16;
+   private static final double   PERCENT        = 100.0;
+
+   private final Random        random;
+   private final Mix           mix;
+   private final StringBuilder line;
+
+   /**
+    * Constructs a CorpusGenerator with the default mix.
+    *
+    * @param seed the seed of the generated lines
+    */
+   public CorpusGenerator(final long seed)
+   {
+      this(seed, Mix.DEFAULT);
+   }
+
+   /**
+    * Constructs a CorpusGenerator.
+    *
+    * @param seed the seed of the generated lines
+    * @param mix  the shares of each kind of name and line
+    */
+   public CorpusGenerator(final long seed,
+                          final Mix mix)
+   {
+      if(mix == null)
+      {
+         throw new IllegalArgumentException("Mix must not be null!");
+      }
+
+      this.random = new Random(seed);
+      this.mix    = mix;
+      this.line   = new StringBuilder();
+   }
+
+   /**
+    * Writes a corpus file, generating {@code args[0]} lines into the file {@code args[1]}. The
+    * remaining arguments are {@code --seed=N} and the options of {@link Mix#parse(String[])}.
+    *
+    * @param args the line count, the output path and the options
+    */
+   public static void main(final String[] args)
+   {
+      final long            lines;
+      final Path            outputPath;
+      final List<String>    mixArgs;
+      final CorpusGenerator generator;
+      long                  seed;
+
+      if(args == null || args.length < 2)
+      {
+         System.out.println("Invalid arguments! Expected a line count and an output path.");
+         return;
+      }
+
+      try
+      {
+         lines      = Long.parseLong(args[0]);
+         outputPath = Paths.get(args[1]);
+         mixArgs    = new ArrayList<>();
+         seed       = DEFAULT_SEED;
+
+         for(int i = 2; i < args.length; i++)
+         {
+            if(args[i].startsWith(SEED_PREFIX))
+            {
+               seed = Long.parseLong(args[i].substring(SEED_PREFIX.length()));
+            } else
+            {
+               mixArgs.add(args[i]);
+            }
+         }
+
+         generator = new CorpusGenerator(seed, Mix.parse(mixArgs.toArray(new String[0])));
+      } catch(final IllegalArgumentException e)
+      {
+         System.out.println("Invalid arguments! " + e.getMessage());
+         return;
+      }
+
+      try
+      {
+         System.out.println("Wrote " + generator.write(outputPath, lines) + " lines to " + outputPath);
+      } catch(final IOException e)
+      {
+         System.out.println("Error writing corpus! " + e.getMessage());
+      }
+   }
+
+   /**
+    * Returns the next line of the corpus: a name, a blank line or a line of whitespace.
+    *
+    * @return the line, without a line break
+    */
+   public String nextLine()
+   {
+      final double kind;
+
+      kind = random.nextDouble() * PERCENT;
+
+      if(kind < mix.blankPercent)
+      {
+         return "";
+      }
+
+      if(kind < mix.blankPercent + mix.invalidPercent)
+      {
+         return INVALID_LINES[random.nextInt(INVALID_LINES.length)];
+      }
+
+      return nextName();
+   }
+
+   /**
+    * Writes the given number of lines to a file, replacing it if it exists. Every line ends with a
+    * line feed, whatever the platform, so the file is the same everywhere.
+    *
+    * @param outputPath the file to write
+    * @param lines      the number of lines
+    * @return the number of lines written
+    * @throws IOException if the file cannot be written
+    */
+   public long write(final Path outputPath,
+                     final long lines) throws IOException
+   {
+      if(lines < 0)
+      {
+         throw new IllegalArgumentException("Line count must not be negative: " + lines);
+      }
+
+      try(final Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(outputPath),
+                                                                          StandardCharsets.UTF_8),
+                                                   WRITE_BUFFER))
+      {
+         for(long i = 0; i < lines; i++)
+         {
+            writer.write(nextLine());
+            writer.write('\n');
+         }
+      }
+
+      return lines;
+   }
+
+   /*
+    * Builds one name from its words, then sets its first letter and adds "United" and "land" as the
+    * mix decides.
+    */
+   private String nextName()
+   {
+      final int     words;
+      final double  prefix;
+      final boolean startsWithA;
+      final boolean startsWithZ;
+      final boolean endsWithLand;
+      final boolean containsUnited;
+      final char    firstLetter;
+
+      words          = random.nextDouble() * PERCENT < mix.multiWordPercent ? 2 + random.nextInt(mix.maxWords - 1) : 1;
+      prefix         = random.nextDouble() * PERCENT;
+      startsWithA    = prefix < mix.aPrefixPercent;
+      startsWithZ    = !startsWithA && prefix < mix.aPrefixPercent + mix.zPrefixPercent;
+      endsWithLand   = random.nextDouble() * PERCENT < mix.landPercent;
+      containsUnited = random.nextDouble() * PERCENT < mix.unitedPercent;
+      firstLetter    = FIRST_LETTERS.charAt(random.nextInt(FIRST_LETTERS.length()));
+
+      line.setLength(0);
+
+      for(int word = 0; word < words; word++)
+      {
+         if(word > 0)
+         {
+            line.append(' ');
+         }
+
+         if(word > 0 && word < words - 1 && random.nextInt(CONNECTOR_ODDS) == 0)
+         {
+            line.append(CONNECTORS[random.nextInt(CONNECTORS.length)]);
+         } else
+         {
+            appendWord();
+         }
+      }
+
+      if(startsWithA)
+      {
+         line.setCharAt(0, 'A');
+      } else if(startsWithZ)
+      {
+         line.setCharAt(0, 'Z');
+      } else
+      {
+         line.setCharAt(0, firstLetter);
+      }
+
+      if(containsUnited)
+      {
+         if(startsWithA || startsWithZ)
+         {
+            final int firstSpace;
+
+            firstSpace = line.indexOf(" ");
+            line.insert(firstSpace < 0 ? line.length() : firstSpace, " " + UNITED_WORD);
+         } else
+         {
+            line.insert(0, UNITED_WORD + " ");
+         }
+      }
+
+      if(endsWithLand)
+      {
+         line.append(LAND_SUFFIX);
+      } else if(endsWith(LAND_SUFFIX))
+      {
+         line.setCharAt(line.length() - 1, 'e');
+      }
+
+      return line.toString();
+   }
+
+   /*
+    * Appends one capitalized word of syllables, cut to a length drawn from the mix. A word that
+    * happens to spell "united" is changed so only the names the mix picks contain it.
+    */
+   private void appendWord()
+   {
+      final int start;
+      final int length;
+      final int united;
+
+      start  = line.length();
+      length = mix.minWordLength + random.nextInt(mix.maxWordLength - mix.minWordLength + 1);
+
+      while(line.length() - start < length)
+      {
+         line.append(ONSETS[random.nextInt(ONSETS.length)])
+             .append(VOWELS[random.nextInt(VOWELS.length)])
+             .append(CODAS[random.nextInt(CODAS.length)]);
+      }
+
+      line.setLength(start + length);
+      line.setCharAt(start, Character.toUpperCase(line.charAt(start)));
+
+      united = line.indexOf(UNITED_TEXT, start);
+
+      if(united >= 0)
+      {
+         line.setCharAt(united, 'o');
+      }
+   }
+
+   private boolean endsWith(final String suffix)
+   {
+      return line.length() >= suffix.length() &&
+             line.substring(line.length() - suffix.length()).equals(suffix);
+   }
+
+   /**
+    * The shares of each kind of name and line in a generated corpus, as percentages of the lines or
+    * of the names, and the word lengths and counts of the names.
+    * <p>
+    * Supported options, with their defaults:
+    * <ul>
+    *     <li>{@code --blank=P} blank lines, 1% of the lines</li>
+    *     <li>{@code --invalid=P} lines of whitespace only, 1% of the lines</li>
+    *     <li>{@code --multi-word=P} names of more than one word, 30% of the names</li>
+    *     <li>{@code --max-words=N} the most words in a name, 6</li>
+    *     <li>{@code --min-word-length=N} and {@code --max-word-length=N} the length range of a
+    *     word, 3 to 11 letters</li>
+    *     <li>{@code --a-prefix=P} names starting with 'A', 6% of the names</li>
+    *     <li>{@code --z-prefix=P} names starting with 'Z', 1% of the names</li>
+    *     <li>{@code --land=P} names ending with "land", 5% of the names</li>
+    *     <li>{@code --united=P} names containing "United", 2% of the names</li>
+    * </ul>
+    * </p>
+    *
+    * @author Linh Hoang
+    * @author Pouyan Norouzi Iranzadeh
+    * @version 1.0
+    */
+   public static final class Mix
+   {
+      /**
+       * The mix used when no option is given.
+       */
+      public static final Mix DEFAULT = parse(new String[0]);
+
+      private static final String BLANK_PREFIX           = "--blank=";
+      private static final String INVALID_PREFIX         = "--invalid=";
+      private static final String MULTI_WORD_PREFIX      = "--multi-word=";
+      private static final String MAX_WORDS_PREFIX       = "--max-words=";
+      private static final String MIN_WORD_LENGTH_PREFIX = "--min-word-length=";
+      private static final String MAX_WORD_LENGTH_PREFIX = "--max-word-length=";
+      private static final String A_PREFIX_PREFIX        = "--a-prefix=";
+      private static final String Z_PREFIX_PREFIX        = "--z-prefix=";
+      private static final String LAND_PREFIX            = "--land=";
+      private static final String UNITED_PREFIX          = "--united=";
+
+      private final double blankPercent;
+      private final double invalidPercent;
+      private final double multiWordPercent;
+      private final int    maxWords;
+      private final int    minWordLength;
+      private final int    maxWordLength;
+      private final double aPrefixPercent;
+      private final double zPrefixPercent;
+      private final double landPercent;
+      private final double unitedPercent;
+
+      private Mix(final double blankPercent,
+                  final double invalidPercent,
+                  final double multiWordPercent,
+                  final int maxWords,
+                  final int minWordLength,
+                  final int maxWordLength,
+                  final double aPrefixPercent,
+                  final double zPrefixPercent,
+                  final double landPercent,
+                  final double unitedPercent)
+      {
+         this.blankPercent     = blankPercent;
+         this.invalidPercent   = invalidPercent;
+         this.multiWordPercent = multiWordPercent;
+         this.maxWords         = maxWords;
+         this.minWordLength    = minWordLength;
+         this.maxWordLength    = maxWordLength;
+         this.aPrefixPercent   = aPrefixPercent;
+         this.zPrefixPercent   = zPrefixPercent;
+         this.landPercent      = landPercent;
+         this.unitedPercent    = unitedPercent;
+      }
+
+      /**
+       * Parses the mix options. Options that are not given keep their defaults.
+       *
+       * @param args the options
+       * @return the mix
+       * @throws IllegalArgumentException if an option is unknown or has an invalid value
+       */
+      public static Mix parse(final String[] args)
+      {
+         double blankPercent;
+         double invalidPercent;
+         double multiWordPercent;
+         int    maxWords;
+         int    minWordLength;
+         int    maxWordLength;
+         double aPrefixPercent;
+         double zPrefixPercent;
+         double landPercent;
+         double unitedPercent;
+
+         blankPercent     = 1;
+         invalidPercent   = 1;
+         multiWordPercent = 30;
+         maxWords         = 6;
+         minWordLength    = 3;
+         maxWordLength    = 11;
+         aPrefixPercent   = 6;
+         zPrefixPercent   = 1;
+         landPercent      = 5;
+         unitedPercent    = 2;
+
+         for(final String arg : args)
+         {
+            if(arg.startsWith(BLANK_PREFIX))
+            {
+               blankPercent = parsePercent(arg, BLANK_PREFIX);
+            } else if(arg.startsWith(INVALID_PREFIX))
+            {
+               invalidPercent = parsePercent(arg, INVALID_PREFIX);
+            } else if(arg.startsWith(MULTI_WORD_PREFIX))
+            {
+               multiWordPercent = parsePercent(arg, MULTI_WORD_PREFIX);
+            } else if(arg.startsWith(MAX_WORDS_PREFIX))
+            {
+               maxWords = parseCount(arg, MAX_WORDS_PREFIX, 2);
+            } else if(arg.startsWith(MIN_WORD_LENGTH_PREFIX))
+            {
+               minWordLength = parseCount(arg, MIN_WORD_LENGTH_PREFIX, 2);
+            } else if(arg.startsWith(MAX_WORD_LENGTH_PREFIX))
+            {
+               maxWordLength = parseCount(arg, MAX_WORD_LENGTH_PREFIX, 2);
+            } else if(arg.startsWith(A_PREFIX_PREFIX))
+            {
+               aPrefixPercent = parsePercent(arg, A_PREFIX_PREFIX);
+            } else if(arg.startsWith(Z_PREFIX_PREFIX))
+            {
+               zPrefixPercent = parsePercent(arg, Z_PREFIX_PREFIX);
+            } else if(arg.startsWith(LAND_PREFIX))
+            {
+               landPercent = parsePercent(arg, LAND_PREFIX);
+            } else if(arg.startsWith(UNITED_PREFIX))
+            {
+               unitedPercent = parsePercent(arg, UNITED_PREFIX);
+            } else
+            {
+               throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+         }
+
+         if(blankPercent + invalidPercent > PERCENT)
+         {
+            throw new IllegalArgumentException("Blank and invalid lines cannot exceed 100% together");
+         }
+
+         if(aPrefixPercent + zPrefixPercent > PERCENT)
+         {
+            throw new IllegalArgumentException("Names starting with 'A' and 'Z' cannot exceed 100% together");
+         }
+
+         if(minWordLength > maxWordLength)
+         {
+            throw new IllegalArgumentException("The minimum word length cannot exceed the maximum: " +
+                                               minWordLength + " > " + maxWordLength);
+         }
+
+         return new Mix(blankPercent, invalidPercent, multiWordPercent, maxWords, minWordLength, maxWordLength,
+                        aPrefixPercent, zPrefixPercent, landPercent, unitedPercent);
+      }
+
+      private static double parsePercent(final String arg,
+                                         final String prefix)
+      {
+         final double percent;
+
+         try
+         {
+            percent = Double.parseDouble(arg.substring(prefix.length()));
+         } catch(final NumberFormatException e)
+         {
+            throw new IllegalArgumentException("Not a number in " + arg);
+         }
+
+         if(!(percent >= 0 && percent <= PERCENT))
+         {
+            throw new IllegalArgumentException("Percentage must be between 0 and 100 in " + arg);
+         }
+
+         return percent;
+      }
+
+      private static int parseCount(final String arg,
+                                    final String prefix,
+                                    final int minimum)
+      {
+         final int count;
+
+         try
+         {
+            count = Integer.parseInt(arg.substring(prefix.length()));
+         } catch(final NumberFormatException e)
+         {
+            throw new IllegalArgumentException("Not a number in " + arg);
+         }
+
+         if(count < minimum)
+         {
+            throw new IllegalArgumentException("Value must be at least " + minimum + " in " + arg);
+         }
+
+         return count;
+      }
+   }
+}
@@ -1,21 +1,11 @@
 package ca.bcit.comp2522.lab7;
 
-import java.io.BufferedReader;
 import java.io.IOException;
+import java.net.InetAddress;
 import java.nio.file.Files;
-import java.nio.file.OpenOption;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Objects;
-import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * The CountryLab class provides various methods to manipulate and analyze a list of Country objects.
@@ -40,558 +30,377 @@ public class CountryLab
 {
    public static final int MIN_CHAR = 3;
    public static final int MIN_WORD = 4;
+
+   private static final Path SNAPSHOT_DIRECTORY = Paths.get(System.getProperty("java.io.tmpdir"),
+                                                            "countrylab-snapshots");
+
    /**
     * Entry point of the CountryLab application. Reads country names from an input file, performs
     * various operations on the list of countries, and writes the results to an output file.
     *
-    * @param args command-line arguments (not used in this program)
+    * @param args command-line arguments, see {@link ReportOptions}; may be null
     */
    public static void main(final String[] args)
    {
-      final List<Country> countriesList;
+      final ReportOptions   options;
+      final List<Path>      shards;
+      final ReportMetrics   metrics;
       final Path inputPath;
       final Path outputPath;
       final Path rootDirPath;
       final Path subDirPath;
 
-      countriesList = new ArrayList<>();
-      inputPath     = Paths.get("src", "resources", "week8countries.txt");
+      try
+      {
+         options = ReportOptions.parse(args);
+      } catch(final IllegalArgumentException e)
+      {
+         System.out.println("Invalid arguments! " + e.getMessage());
+         return;
+      }
+
+      if(options.getBatchPath() != null)
+      {
+         batch(options);
+         return;
+      }
+
       rootDirPath   = Paths.get("src");
       subDirPath    = Paths.get("src", "matches");
 
-      try(final BufferedReader reader = Files.newBufferedReader(inputPath))
+      try
       {
-         String line;
-
-         while((line = reader.readLine()) != null)
-         {
-            countriesList.add(new Country(line));
-         }
+         shards = options.getInput() == null ? List.of(Paths.get("src", "resources", "week8countries.txt"))
+                                             : ShardedInput.resolve(options.getInput());
       } catch(final IOException e)
       {
          System.out.println("Error reading file! " + e.getMessage());
+         return;
       }
 
-      outputPath = createOutputFile(rootDirPath, subDirPath, "data.txt");
-
-      writeLongCountryName(outputPath, countriesList);
-      writeShortCountryNames(outputPath, countriesList);
-      writeCountryNameStartsWithA(outputPath, countriesList);
-      writeCountryNameEndingWithLand(outputPath, countriesList);
-      writeCountryNamesContainingUnited(outputPath, countriesList);
-      writeInAscendingOrder(outputPath, countriesList);
-      writeInDescendingOrder(outputPath, countriesList);
-      writeUniqueFirstLetters(outputPath, countriesList);
-      writeTotalCountryNames(outputPath, countriesList);
-      writeLongestCountryName(outputPath, countriesList);
-      writeShortestCountryName(outputPath, countriesList);
-      writeCountryNameInUpperCase(outputPath, countriesList);
-      writeCountriesWithMoreThanNWord(outputPath, countriesList, MIN_WORD);
-      writeCharacterCount(outputPath, countriesList);
-      writeAnyNameStartsWithZ(outputPath, countriesList);
-      writeIsAllNamesLongerThanN(outputPath, countriesList, MIN_CHAR);
-   }
-
-   private static Path createOutputFile(final Path rootDirPath,
-                                        final Path subDirPath,
-                                        final String fileName)
-   {
-      final Path outputPath;
-      final Path subDirPathResolved;
+      inputPath = shards.get(0);
 
-      if(Files.exists(rootDirPath))
+      if(shards.size() > 1 && (options.isWatch() || options.isSnapshot() || (options.isStream() && !options.isStdin())))
       {
-         System.out.println("Folder exists! " + rootDirPath);
-      } else
+         System.out.println("Invalid arguments! Watch, stream and snapshot modes need a single input file, " +
+                            options.getInput() + " has " + shards.size());
+         return;
+      }
+
+      if(options.getServePort() > 0)
       {
-         generateFolders(rootDirPath);
+         serve(options, shards);
+         return;
       }
 
-      subDirPathResolved = rootDirPath.resolve("matches");
+      outputPath = options.getOutputPath() == null ? createOutputFile(rootDirPath, subDirPath, "data.txt")
+                                                   : options.getOutputPath();
 
-      if(Files.exists(subDirPathResolved))
+      if(options.isWatch())
       {
-         System.out.println("Subfolder already exists!");
-      } else
+         watch(options, inputPath, outputPath);
+         return;
+      }
+
+      if(options.isStream())
       {
-         generateFolders(subDirPathResolved);
+         stream(options, inputPath, outputPath);
+         return;
       }
 
-      outputPath = subDirPath.resolve(fileName);
+      metrics = new ReportMetrics();
 
-      if(Files.exists(outputPath))
+      try(final ReportEngine engine = new ReportEngine(options.getParallelism(), metrics))
       {
-         System.out.println("File already exists.");
+         final CountryReport report;
+
          try
          {
-            Files.delete(outputPath);
-            Files.createFile(outputPath);
-         } catch (final IOException e)
+            report = loadReport(options, inputPath, shards, engine, metrics);
+         } catch(final IOException e)
          {
-            System.out.println("Could not delete and create the file again: " + e.getMessage());
+            System.out.println("Error reading file! " + e.getMessage());
+            return;
          }
-      } else
-      {
+
          try
          {
-            Files.createFile(outputPath);
-            System.out.println("File created. " + outputPath);
-         } catch (final IOException e)
+            final List<ReportSection> sections;
+            final List<String>        sectionTexts;
+            final boolean             written;
+
+            sections     = options.getSections();
+            sectionTexts = engine.render(report, sections);
+            written      = new ReportPublisher(outputPath).publish(ReportPublisher.hashSections(sections, sectionTexts),
+                                                                   writer ->
+            {
+               for(int i = 0; i < sections.size(); i++)
+               {
+                  final ReportMetrics.Probe probe;
+                  final long                start;
+
+                  probe = metrics.start("write", sections.get(i));
+                  start = writer.getPosition();
+                  writer.writeString(sectionTexts.get(i));
+                  probe.stop(sections.get(i).countItems(report), writer.getPosition() - start);
+               }
+
+               writer.flush();
+               System.out.println("Wrote " + writer.getBytesWritten() + " bytes to " + outputPath +
+                                  " in " + writer.getFlushCount() + " flush(es).");
+            });
+
+            if(!written)
+            {
+               System.out.println("Report unchanged, kept " + outputPath);
+            }
+
+            if(options.getMetricsPath() != null)
+            {
+               Files.writeString(options.getMetricsPath(), metrics.toJson());
+               System.out.println("Wrote metrics to " + options.getMetricsPath());
+            }
+         } catch(final IOException e)
          {
-            System.out.println("Error creating file. " + e.getMessage());
+            System.out.println("Error writing report! " + e.getMessage());
          }
       }
-
-      return outputPath;
-   }
-
-   private static void generateFolders(final Path path)
-   {
-      try
-      {
-         Files.createDirectories(path);
-      } catch (final IOException e)
-      {
-         System.out.println("Error creating folder! " + path);
-      }
    }
 
-   /**
-    * Filters out null Country objects and those with null or blank names from the given list.
-    *
-    * @param countries the list of Country objects to be filtered
-    * @return a Stream of Country objects with valid names
-    */
-   private static Stream<Country> filteredCountries(final List<Country> countries)
-   {
-      return countries.stream()
-              .filter(Objects::nonNull)
-              .filter(c -> c.getName() != null)
-              .filter(c -> !c.getName().isBlank());
-   }
-
-   /**
-    * Writes country names longer than 10 characters to the specified output file.
-    *
-    * @param outputPath the path of the output file
-    * @param countries  the list of Country objects to filter
+   /*
+    * Loads the countries and builds their report. The table is only held here, so its arena can be
+    * collected once the report has decoded the names.
     */
-   private static void writeLongCountryName(final Path outputPath,
-                                            final List<Country> countries)
+   private static CountryReport loadReport(final ReportOptions options,
+                                           final Path inputPath,
+                                           final List<Path> shards,
+                                           final ReportEngine engine,
+                                           final ReportMetrics metrics) throws IOException
    {
-      final List<String>  filteredCountryNames;
+      final ReportMetrics.Probe probe;
+      final CountrySnapshot     snapshot;
+      final CountryTable        countryTable;
 
-      filteredCountryNames = new ArrayList<>();
-      filteredCountries(countries)
-              .filter(c -> c.getName().length() > 10)
-              .forEach(c -> filteredCountryNames.add(c.getName()));
+      probe = metrics.start("load", null);
 
-      writeListToFile(outputPath, "Country names longer than 10 characters:" +
-              System.lineSeparator(),
-              filteredCountryNames,
-              StandardOpenOption.CREATE, StandardOpenOption.APPEND);
-   }
-
-   /**
-    * Writes country names shorter than 5 characters to the specified output file.
-    *
-    * @param outputPath the path of the output file
-    * @param countries  the list of Country objects to filter
-    */
-   private static void writeShortCountryNames(final Path outputPath,
-                                              final List<Country> countries)
-   {
-      final List<String> filteredCountryNames;
-      final Stream<Country> countryStream;
-
-      filteredCountryNames = new ArrayList<>();
-      countryStream = filteredCountries(countries);
-
-      countryStream.filter(c -> c.getName().length() < 5)
-              .forEach(c -> filteredCountryNames.add(c.getName()));
-
-      writeListToFile(outputPath, System.lineSeparator() +
-                        "*******Short Country Names*******" + System.lineSeparator(),
-                        filteredCountryNames, StandardOpenOption.APPEND);
-   }
-
-   /**
-    * Writes country names that start with the letter 'A' to the specified output file.
-    *
-    * @param outputPath the path of the output file
-    * @param countries  the list of Country objects to filter
-    */
-   private static void writeCountryNameStartsWithA(final Path outputPath,
-                                                   final List<Country> countries)
-   {
-      final List<String> countryNameStartsWithA;
-
-      countryNameStartsWithA = new ArrayList<>();
-
-      filteredCountries(countries)
-              .filter(c -> c.getName().startsWith("A"))
-              .forEach(c -> countryNameStartsWithA.add(c.getName()));
-
-      writeListToFile(outputPath, System.lineSeparator() +
-              "Country names starting with 'A':" +
-              System.lineSeparator(),
-              countryNameStartsWithA, StandardOpenOption.APPEND);
-   }
-
-   /**
-    * Writes country names ending with "land" to the specified output file.
-    *
-    * @param outputPath the path of the output file
-    * @param countries  the list of Country objects to filter
-    */
-   private static void writeCountryNameEndingWithLand(final Path outputPath,
-                                                      final List<Country> countries)
-   {
-      final List<String> countryNameEndsWithLand;
-
-      countryNameEndsWithLand = new ArrayList<>();
-
-      filteredCountries(countries)
-              .filter(c -> c.getName().endsWith("land"))
-              .forEach(c -> countryNameEndsWithLand.add(c.getName()));
-
-      writeListToFile(outputPath, System.lineSeparator() +
-              "********* Country name ends with 'land' ***********" +
-              System.lineSeparator(),
-              countryNameEndsWithLand, StandardOpenOption.APPEND);
-   }
-
-   /**
-    * Writes country names containing the substring "united" (case-insensitive) to the specified output file.
-    *
-    * @param outputPath the path of the output file
-    * @param countries  the list of Country objects to filter
-    */
-   private static void writeCountryNamesContainingUnited(final Path outputPath,
-                                                         final List<Country> countries)
-   {
-      final List<String> filteredCountryNames;
-      final Stream<Country> countryStream;
-
-      filteredCountryNames = new ArrayList<>();
-      countryStream = filteredCountries(countries);
-
-      countryStream.filter(c -> c.getName().toLowerCase().contains("united"))
-              .forEach(c -> filteredCountryNames.add(c.getName()));
-
-      writeListToFile(outputPath, System.lineSeparator() +
-                                    "*******Countries Containing United*******" +
-                                    System.lineSeparator(),
-                                    filteredCountryNames, StandardOpenOption.APPEND);
-   }
-
-   /**
-    * Writes country names sorted in ascending order to the specified output file.
-    *
-    * @param outputPath the path of the output file
-    * @param countries  the list of Country objects to sort
-    */
-   private static void writeInAscendingOrder(final Path outputPath,
-                                             final List<Country> countries)
-   {
-      final List<String> filteredCountryNames;
-      final Stream<Country> countryStream;
+      if(options.isSnapshot())
+      {
+         snapshot     = CountrySnapshot.load(inputPath, SNAPSHOT_DIRECTORY);
+         countryTable = snapshot.getTable();
+         System.out.println((snapshot.isFromCache() ? "Loaded " : "Parsed and cached ") + countryTable.size() +
+                            " names from snapshot " + CountrySnapshot.snapshotPath(inputPath, SNAPSHOT_DIRECTORY));
+      } else if(shards.size() > 1)
+      {
+         snapshot     = engine.load(shards);
+         countryTable = snapshot.getTable();
+         System.out.println("Loaded " + countryTable.size() + " names from " + shards.size() + " shards.");
+      } else
+      {
+         snapshot     = null;
+         countryTable = new CountryLoader().loadTable(inputPath);
+      }
 
-      filteredCountryNames = new ArrayList<>();
-      countryStream = filteredCountries(countries);
+      probe.stop(countryTable.size(), 0);
 
-      countryStream.sorted(Comparator.comparing(Country::getName))
-              .forEachOrdered(c -> filteredCountryNames.add(c.getName()));
+      if(snapshot != null)
+      {
+         return engine.collect(snapshot, options.getMinChar(), options.getMinWord());
+      }
 
-      writeListToFile(outputPath, System.lineSeparator() +
-                                    "********* Sorted Country Name (DSC) *********" +
-                                    System.lineSeparator(),
-                                    filteredCountryNames,
-                                    StandardOpenOption.APPEND);
+      return engine.collect(countryTable, options.getMinChar(), options.getMinWord());
    }
 
-   /**
-    * Writes country names sorted in descending order to the specified output file.
-    *
-    * @param outputPath the path of the output file
-    * @param countries  the list of Country objects to sort
+   /*
+    * Writes the report of every dataset in the manifest and prints the timing of each of them.
     */
-   private static void writeInDescendingOrder(final Path outputPath,
-                                              final List<Country> countries)
+   private static void batch(final ReportOptions options)
    {
-      final List<String> descendingSortedCountries;
-
-      descendingSortedCountries = new ArrayList<>();
+      final List<BatchRunner.Dataset> datasets;
+      final List<BatchRunner.Result>  results;
 
-      filteredCountries(countries)
-              .sorted(Comparator.comparing(Country::getName).reversed())
-              .forEachOrdered(c -> descendingSortedCountries.add(c.getName()));
-
-      writeListToFile(outputPath, System.lineSeparator() +
-                                    "********* Sorted Country Name (DSC) *********" +
-                                    System.lineSeparator(),
-                                    descendingSortedCountries,
-                                    StandardOpenOption.APPEND);
-   }
+      try
+      {
+         datasets = BatchRunner.readManifest(options.getBatchPath());
+      } catch(final IOException | IllegalArgumentException e)
+      {
+         System.out.println("Error reading manifest! " + e.getMessage());
+         return;
+      }
 
-   /**
-    * Writes unique first letters of country names to the specified output file.
-    *
-    * @param outputPath the path of the output file
-    * @param countries  the list of Country objects to filter
-    */
-   private static void writeUniqueFirstLetters(final Path outputPath,
-                                               final List<Country> countries)
-   {
-      final List<String> filteredCountryNames;
-      final Stream<Country> countryStream;
-      final Map<Character, List<Country>> countryMap;
+      try(final BatchRunner runner = new BatchRunner(options.getJobs(), options.getSections(),
+                                                     options.getMinChar(), options.getMinWord()))
+      {
+         results = runner.run(datasets);
+      }
 
-      filteredCountryNames = new ArrayList<>();
-      countryStream = filteredCountries(countries);
+      for(final BatchRunner.Result result : results)
+      {
+         System.out.println(result);
+      }
 
-      countryMap = countryStream.collect(Collectors.groupingBy(c -> c.getName().toUpperCase().charAt(0)));
+      System.out.println("Ran " + results.size() + " dataset(s), " +
+                         results.stream().filter(result -> result.getError() != null).count() + " failed.");
 
-      countryMap.forEach((k, c) ->
+      if(options.getMetricsPath() != null)
       {
-         if(c.size() == 1)
+         try
          {
-            filteredCountryNames.add(c.getFirst().getName());
+            Files.writeString(options.getMetricsPath(), BatchRunner.toJson(results));
+            System.out.println("Wrote metrics to " + options.getMetricsPath());
+         } catch(final IOException e)
+         {
+            System.out.println("Error writing metrics! " + e.getMessage());
          }
-      });
-
-      writeListToFile(outputPath, System.lineSeparator() +
-                                     "********* Unique First Letters *********" +
-                                     System.lineSeparator(), filteredCountryNames,
-                                     StandardOpenOption.APPEND);
-   }
-
-   /**
-    * Writes the total number of country names to the specified output file.
-    *
-    * @param outputPath the path of the output file
-    * @param countries  the list of Country objects to count
-    */
-   private static void writeTotalCountryNames(final Path outputPath,
-                                              final List<Country> countries)
-   {
-      writeStringToFile(outputPath, System.lineSeparator() +
-                      "********* Total country names: " +
-                      filteredCountries(countries).count() +
-                      System.lineSeparator(),
-                      StandardOpenOption.APPEND);
-   }
-
-   /**
-    * Writes the longest country name to the specified output file.
-    *
-    * @param outputPath the path of the output file
-    * @param countries  the list of Country objects to filter
-    */
-   private static void writeLongestCountryName(final Path outputPath,
-                                               final List<Country> countries)
-   {
-      final Optional<Country> longestName;
-
-      longestName = filteredCountries(countries)
-              .max(Comparator.comparing(c -> c.getName().length()));
-
-      longestName.ifPresent(c -> writeStringToFile(outputPath, System.lineSeparator() +
-                                                   "Longest country name: " + c.getName() +
-                                                   System.lineSeparator(),
-                                                   StandardOpenOption.APPEND)
-      );
+      }
    }
 
-   /**
-    * Writes the shortest country name to the specified output file.
-    *
-    * @param outputPath the path of the output file
-    * @param countries  the list of Country objects to filter
+   /*
+    * Loads the names into a registry and answers requests from it over HTTP until the process is
+    * stopped. The server's threads keep the JVM running after main returns.
     */
-   private static void writeShortestCountryName(final Path outputPath,
-                                                final List<Country> countries)
+   private static void serve(final ReportOptions options,
+                             final List<Path> shards)
    {
-      final Optional<Country> shortestName;
-
-      shortestName = filteredCountries(countries)
-              .min(Comparator.comparing(c -> c.getName().length()));
-
-      shortestName.ifPresent(country -> writeStringToFile(outputPath, System.lineSeparator() +
-                                                         "Shortest Country Name: " + country +
-                                                         System.lineSeparator(),
-                                                         StandardOpenOption.APPEND)
-      );
-   }
+      final CountryRegistry registry;
+      final CountryServer   server;
 
-   /**
-    * Writes country names in uppercase to the specified output file.
-    *
-    * @param outputPath the path of the output file
-    * @param countries  the list of Country objects to convert
-    */
-   private static void writeCountryNameInUpperCase(final Path outputPath,
-                                                   final List<Country> countries)
-   {
-      final List<String> resultUpperCase;
+      try
+      {
+         registry = new CountryRegistry(() -> CountryReport.of(ShardedInput.load(shards, null),
+                                                                 options.getMinChar(), options.getMinWord()));
+      } catch(final IOException e)
+      {
+         System.out.println("Error reading file! " + e.getMessage());
+         return;
+      }
 
-      resultUpperCase = filteredCountries(countries)
-                                                .map(c -> c.getName().toUpperCase())
-                                                .toList();
+      try
+      {
+         server = CountryServer.onLoopback(registry, options.getServePort());
+      } catch(final IOException e)
+      {
+         registry.close();
+         System.out.println("Error starting server! " + e.getMessage());
+         return;
+      }
 
-      writeListToFile(outputPath, System.lineSeparator() +
-              "******** Country Name in UPPERCASE ********" +
-              System.lineSeparator(), resultUpperCase, StandardOpenOption.APPEND);
+      Runtime.getRuntime().addShutdownHook(new Thread(() ->
+      {
+         server.close();
+         registry.close();
+      }));
+      System.out.println("Serving " + registry.current().getReport().getTotalCount() + " names on http://" +
+                         InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getPort() +
+                         "/, press Ctrl+C to stop.");
    }
 
-   /**
-    * Writes country names that contain more than one word to the specified output file.
-    *
-    * @param outputPath the path of the output file
-    * @param countries  the list of Country objects to filter
+   /*
+    * Writes the report, then keeps it up to date until the process is stopped.
     */
-   private static void writeCountriesWithMoreThanNWord(final Path outputPath,
-                                                       final List<Country> countries,
-                                                       final int n)
-   {
-      final List<String> filteredCountryNames;
-      final Stream<Country> countryStream;
-
-      filteredCountryNames = new ArrayList<>();
-      countryStream = filteredCountries(countries);
-
-      countryStream.filter(c -> findNWordsInString(c.getName(), n))
-                                 .forEach(c -> filteredCountryNames.add(c.getName()));
-
-      writeListToFile(outputPath, System.lineSeparator() +
-                              "*******Countries With Multiple Words*******" + System.lineSeparator(),
-                              filteredCountryNames,
-                              StandardOpenOption.APPEND);
-   }
-
-   private static boolean findNWordsInString(final String s, final int n)
+   private static void watch(final ReportOptions options,
+                             final Path inputPath,
+                             final Path outputPath)
    {
-      final String[] splitString;
-
-      splitString = s.split(" ");
-
-      return splitString.length > n;
+      try(final ReportWatcher watcher = new ReportWatcher(inputPath, outputPath, options.getMinChar(),
+                                                          options.getMinWord()))
+      {
+         System.out.println("Watching " + inputPath + " for changes, press Ctrl+C to stop.");
+         watcher.run();
+      } catch(final IOException e)
+      {
+         System.out.println("Error watching file! " + e.getMessage());
+      }
    }
 
-   /**
-    * Writes each country name and its character count to the specified output file.
-    *
-    * @param outputPath the path of the output file
-    * @param countries  the list of Country objects to count characters
+   /*
+    * Builds and writes the report in bounded memory while the names are read, from standard input
+    * if requested.
     */
-   private static void writeCharacterCount(final Path outputPath,
-                                           final List<Country> countries)
+   private static void stream(final ReportOptions options,
+                              final Path inputPath,
+                              final Path outputPath)
    {
-      final Map<String, Integer> countryMap;
-      final Stream<Country> countryStream;
-
-      countryStream = filteredCountries(countries);
-
-      countryMap = countryStream.collect(HashMap::new,
-                                          (m, c) -> m.put(c.getName(), c.getName().length()),
-                                          HashMap::putAll);
-
-      writeStringToFile(outputPath, System.lineSeparator() +
-                        "******* Countries and Character Counts *******" + System.lineSeparator(),
-                              StandardOpenOption.APPEND);
-
-      countryMap.forEach((c, l) ->
+      try(final StreamingReport report = new StreamingReport(options.getMinChar(), options.getMinWord(),
+                                                             StreamingReport.DEFAULT_RUN_SIZE))
       {
-         final String str;
+         final boolean written;
 
-         str = String.format("%s: %d characters", c, l) +
-                 System.lineSeparator();
+         if(options.isStdin())
+         {
+            report.addAll(System.in);
+         } else
+         {
+            report.addAll(inputPath);
+         }
 
-         writeStringToFile(outputPath, str, StandardOpenOption.APPEND);
-      });
+         written = new ReportPublisher(outputPath).publish(null, writer ->
+         {
+            report.writeTo(writer);
+            writer.flush();
+            System.out.println("Streamed " + report.getCount() + " names (about " + report.getDistinctEstimate() +
+                               " distinct) in " + report.getRunCount() + " sorted run(s); longest: " +
+                               report.getLongestNames());
+            System.out.println("Wrote " + writer.getBytesWritten() + " bytes to " + outputPath +
+                               " in " + writer.getFlushCount() + " flush(es).");
+         });
+
+         if(!written)
+         {
+            System.out.println("Report unchanged, kept " + outputPath);
+         }
+      } catch(final IOException e)
+      {
+         System.out.println("Error streaming report! " + e.getMessage());
+      }
    }
 
-   /**
-    * Writes whether any country name starts with 'Z' to the specified output file.
-    *
-    * @param outputPath the path of the output file
-    * @param countries  the list of Country objects to check
-    */
-   private static void writeAnyNameStartsWithZ(final Path outputPath,
-                                               final List<Country> countries)
+   static Path createOutputFile(final Path rootDirPath,
+                                final Path subDirPath,
+                                final String fileName)
    {
-      final boolean anyStartsWithZ;
-
-      anyStartsWithZ = filteredCountries(countries)
-                                    .anyMatch(c -> c.getName().toLowerCase().startsWith("z"));
-
-      writeStringResultToFile(outputPath, "Any country name starts with 'z': ",
-                              anyStartsWithZ, StandardOpenOption.APPEND);
-   }
+      final Path outputPath;
+      final Path subDirPathResolved;
 
-   /**
-    * Writes whether all country names are longer than 3 characters to the specified output file.
-    *
-    * @param outputPath the path of the output file
-    * @param countries  the list of Country objects to check
-    */
-   private static void writeIsAllNamesLongerThanN(final Path outputPath,
-                                                  final List<Country> countries,
-                                                  final int n)
-   {
-      final boolean isAllCountryNameLongerThanN;
-      
-      isAllCountryNameLongerThanN = filteredCountries(countries)
-                                          .allMatch(c -> c.getName().length() > n);
+      if(Files.exists(rootDirPath))
+      {
+         System.out.println("Folder exists! " + rootDirPath);
+      } else
+      {
+         generateFolders(rootDirPath);
+      }
 
-      writeStringResultToFile(outputPath, "Are all country names longer than " + n +
-                      " characters: ", isAllCountryNameLongerThanN, StandardOpenOption.APPEND);
-   }
+      subDirPathResolved = rootDirPath.resolve("matches");
 
-   private static <T> void writeStringResultToFile(final Path outputPath,
-                                                   final String criterion,
-                                                   final T result,
-                                                   final OpenOption... options)
-   {
-      try
+      if(Files.exists(subDirPathResolved))
       {
-         Files.writeString(outputPath, System.lineSeparator() + criterion +
-                 System.lineSeparator() + result.toString() + System.lineSeparator(),
-                 options);
-      } catch(final IOException e)
+         System.out.println("Subfolder already exists!");
+      } else
       {
-         System.out.println("Error writing " + criterion + " to file, " + e.getMessage());
+         generateFolders(subDirPathResolved);
       }
 
-   }
+      outputPath = subDirPath.resolve(fileName);
 
-   private static <T> void writeStringToFile(final Path outputPath,
-                                             final T result,
-                                             final OpenOption... options)
-   {
-      try
+      // The report is published over the file in one atomic step, see ReportPublisher.
+      if(Files.exists(outputPath))
       {
-         Files.writeString(outputPath,  result.toString(),
-                 options);
-      } catch(final IOException e)
+         System.out.println("File already exists.");
+      } else
       {
-         System.out.println("Error writing " + result.toString()  + " to file, " + e.getMessage());
+         System.out.println("File will be created. " + outputPath);
       }
+
+      return outputPath;
    }
 
-   private static void writeListToFile(final Path outputPath,
-                                       final String criterion,
-                                       final List<String> result,
-                                       final OpenOption... options)
+   private static void generateFolders(final Path path)
    {
       try
       {
-         writeStringToFile(outputPath, criterion,
-                           StandardOpenOption.APPEND);
-         Files.write(outputPath, result, options);
-      } catch(final IOException e)
+         Files.createDirectories(path);
+      } catch (final IOException e)
       {
-         System.out.println("Error writing " + result.toString() + " to file, " + e.getMessage());
+         System.out.println("Error creating folder! " + path);
       }
    }
 }
@@ -0,0 +1,353 @@
+package ca.bcit.comp2522.lab7;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Loads countries from a text file with one country name per line by memory-mapping the file
+ * and scanning the mapped bytes for line breaks.
+ * <p>
+ * No String is created for a line until it is known to hold a valid name, so blank lines cost no
+ * allocation at all and every other line costs exactly the String its Country keeps. Files larger
+ * than the chunk size (by default just under 2 GB, the most a single mapping can hold) are mapped
+ * one chunk at a time, and each new chunk starts at the first line the previous one did not finish.
+ * </p>
+ * <p>
+ * {@link #loadTable(Path)} goes one step further and copies the names into a compact
+ * {@link CountryTable} without creating a String or Country per line. Streams that cannot be
+ * mapped, such as standard input, are read line by line with {@link #forEach(InputStream, Consumer)}.
+ * </p>
+ * <p>
+ * A CountryLoader is not thread-safe: every scan copies the mapped file through the same reusable
+ * block array, so threads loading files at the same time need a loader each.
+ * </p>
+ * <p>
+ * Example usage:
+ * <pre>
+ *     List&lt;Country&gt; countries = new CountryLoader().load(Paths.get("countries.txt"));
+ * </pre>
+ * </p>
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+public final class CountryLoader
+{
+   public static final int DEFAULT_CHUNK_SIZE = Integer.MAX_VALUE - 8;
+
+   private static final int BLOCK_SIZE = 1 << 16;
+
+   private final int chunkSize;
+   private byte[]    block;
+
+   /**
+    * Constructs a CountryLoader that maps files in chunks of {@link #DEFAULT_CHUNK_SIZE} bytes.
+    */
+   public CountryLoader()
+   {
+      this(DEFAULT_CHUNK_SIZE);
+   }
+
+   /**
+    * Constructs a CountryLoader that maps files in chunks of the given size.
+    * Every line in a loaded file must fit in one chunk.
+    *
+    * @param chunkSize the maximum number of bytes mapped at once, must be positive
+    * @throws IllegalArgumentException if the chunk size is not positive
+    */
+   public CountryLoader(final int chunkSize)
+   {
+      if(chunkSize <= 0)
+      {
+         throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+      }
+
+      this.chunkSize = chunkSize;
+      this.block     = new byte[BLOCK_SIZE];
+   }
+
+   /**
+    * Reads every valid country in the file into a list, in file order.
+    *
+    * @param inputPath the path of the input file
+    * @return the countries read from the file
+    * @throws IOException if the file cannot be read or a line is longer than the chunk size
+    */
+   public List<Country> load(final Path inputPath) throws IOException
+   {
+      final List<Country> countries;
+
+      countries = new ArrayList<>();
+      forEach(inputPath, countries::add);
+
+      return countries;
+   }
+
+   /**
+    * Passes every valid country in the file to the given action, in file order, without keeping
+    * the countries.
+    *
+    * @param inputPath the path of the input file
+    * @param action    the action receiving each country
+    * @throws IOException if the file cannot be read or a line is longer than the chunk size
+    */
+   public void forEach(final Path inputPath,
+                       final Consumer<Country> action) throws IOException
+   {
+      scanFile(inputPath, (bytes, start, end) ->
+      {
+         final String name;
+
+         name = decodeIfNotBlank(bytes, start, end);
+
+         if(name != null)
+         {
+            action.accept(new Country(name));
+         }
+      });
+   }
+
+   /**
+    * Passes every valid country read from the stream to the given action, in order, without keeping
+    * the countries. Lines end at a line feed, a carriage return or both, as in a file, and the
+    * stream is read as UTF-8. The stream is not closed.
+    *
+    * @param input  the stream to read
+    * @param action the action receiving each country
+    * @throws IOException if the stream cannot be read
+    */
+   public void forEach(final InputStream input,
+                       final Consumer<Country> action) throws IOException
+   {
+      final BufferedReader reader;
+      String               line;
+
+      reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), BLOCK_SIZE);
+      line   = reader.readLine();
+
+      while(line != null)
+      {
+         if(!line.isBlank())
+         {
+            action.accept(new Country(line));
+         }
+
+         line = reader.readLine();
+      }
+   }
+
+   /**
+    * Reads every valid country in the file straight into a {@link CountryTable}, in file order.
+    * Names are copied from the mapped file into the table's arena as bytes; a String is only
+    * decoded for the rare line whose first visible byte is not ASCII, to check it is not blank.
+    *
+    * @param inputPath the path of the input file
+    * @return the table of countries read from the file
+    * @throws IOException if the file cannot be read or a line is longer than the chunk size
+    */
+   public CountryTable loadTable(final Path inputPath) throws IOException
+   {
+      final CountryTable.Builder builder;
+
+      builder = new CountryTable.Builder();
+
+      scanFile(inputPath, (bytes, start, end) ->
+      {
+         final int firstVisible;
+
+         firstVisible = firstVisibleByte(bytes, start, end);
+
+         if(firstVisible == end)
+         {
+            return;
+         }
+
+         if(bytes[firstVisible] < 0 &&
+            new String(bytes, start, end - start, StandardCharsets.UTF_8).isBlank())
+         {
+            return;
+         }
+
+         builder.addUtf8(bytes, start, end);
+      });
+
+      return builder.build();
+   }
+
+   private void scanFile(final Path inputPath,
+                         final LineHandler handler) throws IOException
+   {
+      try(final FileChannel channel = FileChannel.open(inputPath, StandardOpenOption.READ))
+      {
+         final long size;
+         long       position;
+
+         size     = channel.size();
+         position = 0;
+
+         while(position < size)
+         {
+            final int              length;
+            final boolean          lastChunk;
+            final MappedByteBuffer chunk;
+            final int              consumed;
+
+            length    = (int) Math.min(chunkSize, size - position);
+            lastChunk = position + length == size;
+            chunk     = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            consumed  = scanChunk(chunk, length, lastChunk, handler);
+
+            if(consumed == 0 && !lastChunk)
+            {
+               throw new IOException("Line at offset " + position + " is longer than the chunk size " +
+                                     chunkSize);
+            }
+
+            position += consumed;
+         }
+      }
+   }
+
+   /*
+    * Copies the chunk into the reusable block array one window at a time and passes every complete
+    * line to the handler. Scanning a heap array is much cheaper than reading the mapped buffer one
+    * byte at a time. Each window starts at the first line the previous window did not finish.
+    * Returns how many bytes of the chunk were consumed; an unfinished last line is left for the
+    * next chunk unless this is the last chunk of the file.
+    */
+   private int scanChunk(final MappedByteBuffer chunk,
+                         final int length,
+                         final boolean lastChunk,
+                         final LineHandler handler)
+   {
+      int windowStart;
+
+      windowStart = 0;
+
+      while(windowStart < length)
+      {
+         final int windowLength;
+         int       lineStart;
+
+         windowLength = Math.min(block.length, length - windowStart);
+         chunk.get(windowStart, block, 0, windowLength);
+         lineStart = 0;
+
+         for(int i = 0; i < windowLength; i++)
+         {
+            final byte b;
+
+            b = block[i];
+
+            if(b == '\n' || b == '\r')
+            {
+               acceptLine(lineStart, i, handler);
+               lineStart = i + 1;
+            }
+         }
+
+         if(windowStart + windowLength == length)
+         {
+            if(lastChunk)
+            {
+               acceptLine(lineStart, windowLength, handler);
+               return length;
+            }
+
+            return windowStart + lineStart;
+         }
+
+         if(lineStart == 0)
+         {
+            block = new byte[block.length * 2];
+         }
+
+         windowStart += lineStart;
+      }
+
+      return windowStart;
+   }
+
+   /*
+    * Passes a non-empty line to the handler. CR and LF both end a line, so the empty line between
+    * the two bytes of a CRLF is dropped here.
+    */
+   private void acceptLine(final int start,
+                           final int end,
+                           final LineHandler handler)
+   {
+      if(start < end)
+      {
+         handler.accept(block, start, end);
+      }
+   }
+
+   /*
+    * Decodes bytes[start, end) unless the line is blank, in which case null is returned.
+    * A line of ASCII whitespace is rejected before any String is made; the decoded name is only
+    * checked with isBlank when its first non-space byte is not ASCII and might be Unicode whitespace.
+    */
+   private static String decodeIfNotBlank(final byte[] bytes,
+                                          final int start,
+                                          final int end)
+   {
+      final int    firstVisible;
+      final String name;
+
+      firstVisible = firstVisibleByte(bytes, start, end);
+
+      if(firstVisible == end)
+      {
+         return null;
+      }
+
+      name = new String(bytes, start, end - start, StandardCharsets.UTF_8);
+
+      if(bytes[firstVisible] < 0 && name.isBlank())
+      {
+         return null;
+      }
+
+      return name;
+   }
+
+   /*
+    * Returns the index of the first byte in [start, end) that is not ASCII whitespace, or end.
+    */
+   private static int firstVisibleByte(final byte[] bytes,
+                                       final int start,
+                                       final int end)
+   {
+      int index;
+
+      index = start;
+
+      while(index < end && bytes[index] >= 0 && Character.isWhitespace(bytes[index]))
+      {
+         index++;
+      }
+
+      return index;
+   }
+
+   /*
+    * Receives each non-empty line as the bytes [start, end) of a buffer that is reused afterwards.
+    */
+   private interface LineHandler
+   {
+      void accept(byte[] bytes,
+                  int start,
+                  int end);
+   }
+}
@@ -0,0 +1,439 @@
+package ca.bcit.comp2522.lab7;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * A query over country names, built from simple predicates combined with and, or and not.
+ * <p>
+ * Queries are immutable descriptions. {@link #test(String)} evaluates one directly, which is handy
+ * for a single name, but a dataset is meant to be queried through a {@link QueryBatch}: it compiles
+ * any number of queries together, orders each and/or by how selective and how cheap its parts are,
+ * evaluates every predicate at most once per name and answers all the queries in one scan.
+ * </p>
+ * <p>
+ * Prefix, suffix and contains predicates compare characters exactly, like the matching
+ * {@link String} methods; {@link #containsIgnoreCase(String)} folds case the way {@link NGramIndex}
+ * does. Word counts follow {@link NameTokenizer}.
+ * </p>
+ * <p>
+ * Example usage:
+ * <pre>
+ *     CountryQuery query = CountryQuery.startsWith("S")
+ *                                      .and(CountryQuery.moreWordsThan(2))
+ *                                      .and(CountryQuery.contains("and").not());
+ *     boolean match = query.test("Saint Kitts and Nevis");          // false
+ * </pre>
+ * </p>
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+public abstract class CountryQuery
+{
+   private static final int LENGTH_COST   = 1;
+   private static final int AFFIX_COST    = 2;
+   private static final int WORD_COST     = 3;
+   private static final int CONTAINS_COST = 4;
+
+   private CountryQuery()
+   {
+   }
+
+   /**
+    * Returns a query matching names that start with the prefix.
+    *
+    * @param prefix the prefix to look for
+    * @return the query
+    */
+   public static CountryQuery startsWith(final String prefix)
+   {
+      Objects.requireNonNull(prefix, "prefix");
+
+      return new Leaf("startsWith(" + prefix + ")", AFFIX_COST, name -> name.startsWith(prefix));
+   }
+
+   /**
+    * Returns a query matching names that end with the suffix.
+    *
+    * @param suffix the suffix to look for
+    * @return the query
+    */
+   public static CountryQuery endsWith(final String suffix)
+   {
+      Objects.requireNonNull(suffix, "suffix");
+
+      return new Leaf("endsWith(" + suffix + ")", AFFIX_COST, name -> name.endsWith(suffix));
+   }
+
+   /**
+    * Returns a query matching names that contain the text.
+    *
+    * @param text the text to look for
+    * @return the query
+    */
+   public static CountryQuery contains(final String text)
+   {
+      Objects.requireNonNull(text, "text");
+
+      return new Leaf("contains(" + text + ")", CONTAINS_COST, name -> name.contains(text));
+   }
+
+   /**
+    * Returns a query matching names that contain the text, ignoring case.
+    *
+    * @param text the text to look for
+    * @return the query
+    */
+   public static CountryQuery containsIgnoreCase(final String text)
+   {
+      Objects.requireNonNull(text, "text");
+
+      return new Leaf("containsIgnoreCase(" + text + ")", CONTAINS_COST,
+                      name -> NGramIndex.containsIgnoreCase(name, text));
+   }
+
+   /**
+    * Returns a query matching names whose length is between min and max, both inclusive.
+    *
+    * @param min the smallest length matched
+    * @param max the largest length matched
+    * @return the query
+    * @throws IllegalArgumentException if min is greater than max
+    */
+   public static CountryQuery lengthBetween(final int min,
+                                            final int max)
+   {
+      if(min > max)
+      {
+         throw new IllegalArgumentException("Empty length range: " + min + " > " + max);
+      }
+
+      return new Leaf("lengthBetween(" + min + ", " + max + ")", LENGTH_COST,
+                      name -> name.length() >= min && name.length() <= max);
+   }
+
+   /**
+    * Returns a query matching names longer than n characters. No name is longer than
+    * {@link Integer#MAX_VALUE} characters, so that length gives a query matching no name.
+    *
+    * @param n the length the names must exceed
+    * @return the query
+    */
+   public static CountryQuery longerThan(final int n)
+   {
+      if(n == Integer.MAX_VALUE)
+      {
+         return anyOf();
+      }
+
+      return lengthBetween(n + 1, Integer.MAX_VALUE);
+   }
+
+   /**
+    * Returns a query matching names shorter than n characters. No name is shorter than zero
+    * characters, so a length of zero or less gives a query matching no name.
+    *
+    * @param n the length the names must be below
+    * @return the query
+    */
+   public static CountryQuery shorterThan(final int n)
+   {
+      if(n <= 0)
+      {
+         return anyOf();
+      }
+
+      return lengthBetween(0, n - 1);
+   }
+
+   /**
+    * Returns a query matching names with a word count between min and max, both inclusive.
+    * Counting stops as soon as the name has more than max words.
+    *
+    * @param min the smallest word count matched
+    * @param max the largest word count matched
+    * @return the query
+    * @throws IllegalArgumentException if min is greater than max
+    */
+   public static CountryQuery wordsBetween(final int min,
+                                           final int max)
+   {
+      if(min > max)
+      {
+         throw new IllegalArgumentException("Empty word range: " + min + " > " + max);
+      }
+
+      return new Leaf("wordsBetween(" + min + ", " + max + ")", WORD_COST,
+                      name -> NameTokenizer.hasMoreWordsThan(name, min - 1) &&
+                              !NameTokenizer.hasMoreWordsThan(name, max));
+   }
+
+   /**
+    * Returns a query matching names with more than n words.
+    *
+    * @param n the word count the names must exceed
+    * @return the query
+    */
+   public static CountryQuery moreWordsThan(final int n)
+   {
+      return new Leaf("moreWordsThan(" + n + ")", WORD_COST, name -> NameTokenizer.hasMoreWordsThan(name, n));
+   }
+
+   /**
+    * Returns a query matching names that every given query matches. With no queries it matches
+    * every name.
+    *
+    * @param queries the queries to combine
+    * @return the query
+    */
+   public static CountryQuery allOf(final CountryQuery... queries)
+   {
+      return new Composite(Kind.AND, flatten(Kind.AND, queries));
+   }
+
+   /**
+    * Returns a query matching names that at least one given query matches. With
+    * no queries it matches no name.
+    *
+    * @param queries the queries to combine
+    * @return the query
+    */
+   public static CountryQuery anyOf(final CountryQuery... queries)
+   {
+      return new Composite(Kind.OR, flatten(Kind.OR, queries));
+   }
+
+   /**
+    * Returns a query matching names that both this query and the other match.
+    *
+    * @param other the other query
+    * @return the query
+    */
+   public CountryQuery and(final CountryQuery other)
+   {
+      return allOf(this, other);
+   }
+
+   /**
+    * Returns a query matching names that this query or the other matches.
+    *
+    * @param other the other query
+    * @return the query
+    */
+   public CountryQuery or(final CountryQuery other)
+   {
+      return anyOf(this, other);
+   }
+
+   /**
+    * Returns a query matching the names this query does not match.
+    *
+    * @return the query
+    */
+   public CountryQuery not()
+   {
+      return new Composite(Kind.NOT, List.of(this));
+   }
+
+   /**
+    * Evaluates the query against one name, in the order it was written.
+    *
+    * @param name the country name
+    * @return true if the name matches
+    */
+   public abstract boolean test(String name);
+
+   abstract Kind kind();
+
+   /*
+    * Returns the children of an and, or or not; a leaf has none.
+    */
+   abstract List<CountryQuery> children();
+
+   /*
+    * Returns the relative cost of evaluating the query once, the sum of the costs of its leaves.
+    */
+   abstract int cost();
+
+   private static List<CountryQuery> flatten(final Kind kind,
+                                             final CountryQuery[] queries)
+   {
+      final List<CountryQuery> result;
+
+      result = new ArrayList<>();
+
+      for(final CountryQuery query : queries)
+      {
+         Objects.requireNonNull(query, "query");
+
+         if(query.kind() == kind)
+         {
+            result.addAll(query.children());
+         } else
+         {
+            result.add(query);
+         }
+      }
+
+      return List.copyOf(result);
+   }
+
+   /*
+    * The kinds of query node.
+    */
+   enum Kind
+   {
+      LEAF,
+      AND,
+      OR,
+      NOT
+   }
+
+   /*
+    * A single predicate. Two leaves with the same description test the same thing, which lets a
+    * QueryBatch evaluate a predicate shared by several queries only once per name.
+    */
+   private static final class Leaf extends CountryQuery
+   {
+      private final String            description;
+      private final int               cost;
+      private final Predicate<String> predicate;
+
+      private Leaf(final String description,
+                   final int cost,
+                   final Predicate<String> predicate)
+      {
+         this.description = description;
+         this.cost        = cost;
+         this.predicate   = predicate;
+      }
+
+      @Override
+      public boolean test(final String name)
+      {
+         return predicate.test(name);
+      }
+
+      @Override
+      Kind kind()
+      {
+         return Kind.LEAF;
+      }
+
+      @Override
+      List<CountryQuery> children()
+      {
+         return List.of();
+      }
+
+      @Override
+      int cost()
+      {
+         return cost;
+      }
+
+      @Override
+      public boolean equals(final Object o)
+      {
+         return o instanceof Leaf other && description.equals(other.description);
+      }
+
+      @Override
+      public int hashCode()
+      {
+         return description.hashCode();
+      }
+
+      @Override
+      public String toString()
+      {
+         return description;
+      }
+   }
+
+   /*
+    * An and, or or not over other queries.
+    */
+   private static final class Composite extends CountryQuery
+   {
+      private final Kind               kind;
+      private final List<CountryQuery> children;
+
+      private Composite(final Kind kind,
+                        final List<CountryQuery> children)
+      {
+         this.kind     = kind;
+         this.children = children;
+      }
+
+      @Override
+      public boolean test(final String name)
+      {
+         switch(kind)
+         {
+            case NOT:
+               return !children.get(0).test(name);
+            case AND:
+               for(final CountryQuery child : children)
+               {
+                  if(!child.test(name))
+                  {
+                     return false;
+                  }
+               }
+               return true;
+            default:
+               for(final CountryQuery child : children)
+               {
+                  if(child.test(name))
+                  {
+                     return true;
+                  }
+               }
+               return false;
+         }
+      }
+
+      @Override
+      Kind kind()
+      {
+         return kind;
+      }
+
+      @Override
+      List<CountryQuery> children()
+      {
+         return children;
+      }
+
+      @Override
+      int cost()
+      {
+         int cost;
+
+         cost = 0;
+
+         for(final CountryQuery child : children)
+         {
+            cost += child.cost();
+         }
+
+         return cost;
+      }
+
+      @Override
+      public String toString()
+      {
+         if(kind == Kind.NOT)
+         {
+            return "not(" + children.get(0) + ")";
+         }
+
+         return kind.name().toLowerCase() + children;
+      }
+   }
+}
@@ -0,0 +1,294 @@
+package ca.bcit.comp2522.lab7;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds the countries and their indexes for code that queries them from many threads while they
+ * are refreshed.
+ * <p>
+ * The registry publishes immutable {@link Snapshot}s through an atomic reference. A reader calls
+ * {@link #current()} once and queries that snapshot's {@link CountryReport}: reading takes no lock,
+ * and a snapshot never changes, so a reader sees one consistent version however long it holds it.
+ * A reload builds the next report and all of its indexes aside from the published one and swaps
+ * it in with a single write, so readers keep using the previous snapshot while the next one is
+ * built and never block on a reload or on an index being built.
+ * </p>
+ * <p>
+ * Reloads run one at a time. {@link #reloadAsync()} builds the next snapshot on a background
+ * thread; requests made while a reload is still waiting to start share that reload, so a burst of
+ * requests costs one build. If a reload fails, the previous snapshot stays published.
+ * </p>
+ * <p>
+ * Example usage:
+ * <pre>
+ *     try(CountryRegistry registry = CountryRegistry.forFile(inputPath, 3, 4))
+ *     {
+ *         List&lt;String&gt; names = registry.current().getReport().getPrefixTrie().withPrefix("Ch");
+ *         registry.reloadAsync();
+ *     }
+ * </pre>
+ * </p>
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+public final class CountryRegistry implements AutoCloseable
+{
+   private final Source                    source;
+   private final AtomicReference<Snapshot> current;
+   private final ReentrantLock             reloadLock;
+   private final ExecutorService           reloader;
+   private final Object                    queueLock;
+   private CompletableFuture<Snapshot>     queued;
+
+   /**
+    * Builds the first snapshot from the source and publishes it.
+    *
+    * @param source builds the report of each snapshot
+    * @throws IOException if the first report cannot be built
+    */
+   public CountryRegistry(final Source source) throws IOException
+   {
+      if(source == null)
+      {
+         throw new IllegalArgumentException("Source must not be null!");
+      }
+
+      this.source     = source;
+      this.current    = new AtomicReference<>(new Snapshot(load(source), 1));
+      this.reloadLock = new ReentrantLock();
+      this.queueLock  = new Object();
+      this.reloader   = Executors.newSingleThreadExecutor(task ->
+                        {
+                           final Thread thread;
+
+                           thread = new Thread(task, "country-registry-reload");
+                           thread.setDaemon(true);
+
+                           return thread;
+                        });
+   }
+
+   /**
+    * Returns a registry whose snapshots are built from the country names in a file.
+    *
+    * @param inputPath the file holding the country names, read again on every reload
+    * @param minChar   the length every name is compared against for the "all longer than" section
+    * @param minWord   the word count a name must exceed to be listed as a multi-word name
+    * @return the registry
+    * @throws IOException if the file cannot be read
+    */
+   public static CountryRegistry forFile(final Path inputPath,
+                                         final int minChar,
+                                         final int minWord) throws IOException
+   {
+      return new CountryRegistry(() -> CountryReport.of(CountrySnapshot.of(new CountryLoader().loadTable(inputPath)),
+                                                        minChar, minWord));
+   }
+
+   /**
+    * Returns the snapshot published last. Never blocks.
+    *
+    * @return the current snapshot
+    */
+   public Snapshot current()
+   {
+      return current.get();
+   }
+
+   /**
+    * Builds the next snapshot on the calling thread and publishes it. Waits for a reload already
+    * running to finish first; readers are not held up.
+    *
+    * @return the snapshot published
+    * @throws IOException if the report cannot be built, in which case the current snapshot stays
+    */
+   public Snapshot reload() throws IOException
+   {
+      reloadLock.lock();
+
+      try
+      {
+         final CountryReport report;
+         final Snapshot      next;
+
+         report = load(source);
+         next   = new Snapshot(report, current.get().version + 1);
+         current.set(next);
+
+         return next;
+      } finally
+      {
+         reloadLock.unlock();
+      }
+   }
+
+   /**
+    * Builds and publishes the next snapshot on the registry's background thread. If a reload has
+    * been requested but not started yet, its future is returned instead of queueing another.
+    *
+    * @return a future completed with the published snapshot, or exceptionally if the reload fails
+    * @throws IllegalStateException if the registry is closed
+    */
+   public CompletableFuture<Snapshot> reloadAsync()
+   {
+      synchronized(queueLock)
+      {
+         if(queued != null)
+         {
+            return queued;
+         }
+
+         queued = new CompletableFuture<>();
+
+         try
+         {
+            reloader.execute(this::runQueued);
+         } catch(final RejectedExecutionException e)
+         {
+            queued = null;
+            throw new IllegalStateException("Registry is closed!", e);
+         }
+
+         return queued;
+      }
+   }
+
+   /**
+    * Stops the background thread. A reload already requested still runs; later requests are refused.
+    */
+   @Override
+   public void close()
+   {
+      reloader.shutdown();
+   }
+
+   /*
+    * Loads the next report and builds all its indexes before it is published, so no reader ever
+    * waits on a lazy index being built.
+    */
+   private static CountryReport load(final Source source) throws IOException
+   {
+      final CountryReport report;
+
+      report = source.load();
+
+      if(report != null)
+      {
+         report.buildAll();
+      }
+
+      return report;
+   }
+
+   /*
+    * Takes the queued request, so that requests from here on queue a new reload, and runs it.
+    */
+   private void runQueued()
+   {
+      final CompletableFuture<Snapshot> request;
+
+      synchronized(queueLock)
+      {
+         request = queued;
+         queued  = null;
+      }
+
+      try
+      {
+         request.complete(reload());
+      } catch(final IOException e)
+      {
+         request.completeExceptionally(new UncheckedIOException(e));
+      } catch(final RuntimeException e)
+      {
+         request.completeExceptionally(e);
+      }
+   }
+
+   /**
+    * Builds the report of each snapshot, for example by reading the input file again.
+    *
+    * @author Linh Hoang
+    * @author Pouyan Norouzi Iranzadeh
+    * @version 1.0
+    */
+   @FunctionalInterface
+   public interface Source
+   {
+      /**
+       * Builds a new report.
+       *
+       * @return the report
+       * @throws IOException if the names cannot be read
+       */
+      CountryReport load() throws IOException;
+   }
+
+   /**
+    * One published version of the countries and their indexes.
+    *
+    * @author Linh Hoang
+    * @author Pouyan Norouzi Iranzadeh
+    * @version 1.0
+    */
+   public static final class Snapshot
+   {
+      private final CountryReport report;
+      private final long          version;
+      private final Instant       loadedAt;
+
+      private Snapshot(final CountryReport report,
+                       final long version)
+      {
+         if(report == null)
+         {
+            throw new IllegalArgumentException("Source returned no report!");
+         }
+
+         this.report   = report;
+         this.version  = version;
+         this.loadedAt = Instant.now();
+      }
+
+      /**
+       * Returns the report holding the countries and their indexes.
+       *
+       * @return the report
+       */
+      public CountryReport getReport()
+      {
+         return report;
+      }
+
+      /**
+       * Returns the version of the snapshot, 1 for the first and one more for each reload.
+       *
+       * @return the version
+       */
+      public long getVersion()
+      {
+         return version;
+      }
+
+      /**
+       * Returns when the snapshot was published.
+       *
+       * @return the publish time
+       */
+      public Instant getLoadedAt()
+      {
+         return loadedAt;
+      }
+   }
+}
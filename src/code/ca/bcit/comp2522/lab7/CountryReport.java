@@ -0,0 +1,764 @@
+package ca.bcit.comp2522.lab7;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collector;
+
+/**
+ * Holds the results of every CountryLab report section, answered from the names gathered in a
+ * single traversal of the countries. The suffix, substring, length and sorted-order sections are
+ * answered by indexes built from the collected names, and those indexes stay available for ad-hoc
+ * queries. The first-letter sections only need one pass over the names, so the prefix trie is
+ * built for ad-hoc prefix queries alone. Every index and section result is built the first time it
+ * is asked for and kept from then on, so rendering only the total count never sorts, groups or
+ * maps the names.
+ * <p>
+ * Example usage:
+ * <pre>
+ *     CountryReport report = countries.stream()
+ *                                     .collect(CountryReport.collector(3, 4));
+ *     System.out.println(report.getTotalCount());
+ * </pre>
+ * </p>
+ * <p>
+ * The collector is order-preserving, so the lists in the report keep the encounter order of the
+ * source, and it can also be used with a parallel stream.
+ * </p>
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+public final class CountryReport implements ReportResults
+{
+   static final int    LONG_NAME_LENGTH  = 10;
+   static final int    SHORT_NAME_LENGTH = 5;
+   static final String A_PREFIX          = "A";
+   static final String LAND_SUFFIX       = "land";
+   static final String UNITED_TEXT       = "united";
+   static final String Z_PREFIX          = "z";
+
+   private static final int SHARED_LETTER = -1;
+
+   private final int                        minChar;
+   private final int                        minWord;
+   private final String[]                   names;
+   private final long                       totalCount;
+   private final List<Lazy<?>>              parts;
+   private final Lazy<LengthIndex>          lengthIndex;
+   private final Lazy<PrefixTrie>           prefixTrie;
+   private final Lazy<SuffixIndex>          suffixIndex;
+   private final Lazy<NGramIndex>           ngramIndex;
+   private final Lazy<SortedCountryIndex>   sortedIndex;
+   private final Lazy<FuzzyIndex>           fuzzyIndex;
+   private final Lazy<List<String>>         longNames;
+   private final Lazy<List<String>>         shortNames;
+   private final Lazy<List<String>>         namesStartingWithA;
+   private final Lazy<List<String>>         namesEndingWithLand;
+   private final Lazy<List<String>>         namesContainingUnited;
+   private final Lazy<List<String>>         uniqueFirstLetterNames;
+   private final Lazy<List<String>>         upperCaseNames;
+   private final Lazy<int[]>                wordCounts;
+   private final Lazy<List<String>>         namesWithMoreThanNWords;
+   private final Lazy<Map<String, Integer>> characterCounts;
+   private final Lazy<Boolean>              anyStartsWithZ;
+   private final Lazy<Boolean>              allLongerThanN;
+
+   private CountryReport(final Accumulator acc)
+   {
+      final int[] sortedRows;
+      final int[] suffixRows;
+      final int[] knownLengths;
+      final int[] knownWordCounts;
+
+      sortedRows      = acc.sortedRows;
+      suffixRows      = acc.suffixRows;
+      knownLengths    = acc.lengths;
+      knownWordCounts = acc.wordCounts;
+
+      this.minChar                 = acc.minChar;
+      this.minWord                 = acc.minWord;
+      this.names                   = acc.names.toArray(new String[0]);
+      this.totalCount              = acc.count;
+      this.parts                   = new ArrayList<>();
+      this.lengthIndex             = part("length index",
+                                          () -> knownLengths == null ? new LengthIndex(nameList())
+                                                                     : new LengthIndex(nameList(), knownLengths));
+      this.prefixTrie              = part("prefix trie", () -> new PrefixTrie(nameList()));
+      this.suffixIndex             = part("suffix index",
+                                          () -> suffixRows == null ? new SuffixIndex(nameList())
+                                                                   : new SuffixIndex(nameList(), suffixRows));
+      this.ngramIndex              = part("ngram index", () -> new NGramIndex(nameList()));
+      this.sortedIndex             = part("sorted index",
+                                          () -> sortedRows == null ? new SortedCountryIndex(nameList())
+                                                                   : new SortedCountryIndex(nameList(), sortedRows));
+      this.fuzzyIndex              = part("fuzzy index", () -> new FuzzyIndex(nameList()));
+      this.longNames               = part("long names",
+                                          () -> Collections.unmodifiableList(lengthIndex.get().longerThan(LONG_NAME_LENGTH)));
+      this.shortNames              = part("short names",
+                                          () -> Collections.unmodifiableList(lengthIndex.get().shorterThan(SHORT_NAME_LENGTH)));
+      this.namesStartingWithA      = part("names starting with A",
+                                          () -> Arrays.stream(names)
+                                                      .filter(name -> name.startsWith(A_PREFIX))
+                                                      .toList());
+      this.namesEndingWithLand     = part("names ending with land",
+                                          () -> Collections.unmodifiableList(suffixIndex.get().endingWith(LAND_SUFFIX)));
+      this.namesContainingUnited   = part("names containing united",
+                                          () -> Collections.unmodifiableList(ngramIndex.get().containing(UNITED_TEXT)));
+      this.uniqueFirstLetterNames  = part("unique first letter names",
+                                          () -> Collections.unmodifiableList(namesWithUniqueFirstLetter()));
+      this.upperCaseNames          = part("upper case names", this::toUpperCase);
+      this.wordCounts              = part("word counts",
+                                          () -> knownWordCounts == null ? countWords()
+                                                                        : Arrays.copyOf(knownWordCounts, names.length));
+      this.namesWithMoreThanNWords = part("names with more than N words",
+                                          () -> Collections.unmodifiableList(namesWithMoreThanNWords(minWord)));
+      this.characterCounts         = part("character counts",
+                                          () -> Collections.unmodifiableMap(countCharacters()));
+      this.anyStartsWithZ          = part("any starts with z",
+                                          () -> Arrays.stream(names)
+                                                      .anyMatch(name -> foldedFirstLetter(name) == foldedFirstLetter(Z_PREFIX)));
+      this.allLongerThanN          = part("all longer than N", () -> lengthIndex.get().allLongerThan(minChar));
+   }
+
+   /**
+    * Returns a collector that builds a CountryReport in one pass over a stream of valid countries.
+    * The pass only gathers the names; each index and section result is built from them the first
+    * time it is asked for, so a report that renders a few sections pays for those alone.
+    *
+    * @param minChar the length every name is compared against for the "all longer than" section
+    * @param minWord the word count a name must exceed to be listed as a multi-word name
+    * @return a collector producing a CountryReport
+    */
+   public static Collector<Country, ?, CountryReport> collector(final int minChar,
+                                                                final int minWord)
+   {
+      return Collector.of(() -> new Accumulator(minChar, minWord),
+                          Accumulator::accept,
+                          Accumulator::combine,
+                          CountryReport::new);
+   }
+
+   /**
+    * Builds a CountryReport from the rows of a table. The table's length and word count columns
+    * are used as they are, so no Country is created and no name is measured or tokenized again.
+    *
+    * @param table   the table holding the countries, every row a valid name
+    * @param minChar the length every name is compared against for the "all longer than" section
+    * @param minWord the word count a name must exceed to be listed as a multi-word name
+    * @return the report
+    */
+   public static CountryReport of(final CountryTable table,
+                                  final int minChar,
+                                  final int minWord)
+   {
+      return new CountryReport(accumulate(table, minChar, minWord));
+   }
+
+   /**
+    * Builds a CountryReport from the rows of a snapshot. The word counts and the sorted and suffix
+    * orders stored in the snapshot are used as they are, so no name is tokenized or sorted again.
+    *
+    * @param snapshot the snapshot holding the countries
+    * @param minChar  the length every name is compared against for the "all longer than" section
+    * @param minWord  the word count a name must exceed to be listed as a multi-word name
+    * @return the report
+    */
+   public static CountryReport of(final CountrySnapshot snapshot,
+                                  final int minChar,
+                                  final int minWord)
+   {
+      final Accumulator acc;
+
+      acc            = accumulate(snapshot.getTable(), minChar, minWord);
+      acc.sortedRows = snapshot.sortedRows();
+      acc.suffixRows = snapshot.suffixRows();
+
+      return new CountryReport(acc);
+   }
+
+   /**
+    * Returns the character length used by the "all names longer than" section.
+    *
+    * @return the minimum character threshold
+    */
+   @Override
+   public int getMinChar()
+   {
+      return minChar;
+   }
+
+   /**
+    * Returns the word count used by the multi-word names section.
+    *
+    * @return the minimum word threshold
+    */
+   public int getMinWord()
+   {
+      return minWord;
+   }
+
+   /**
+    * Returns the country names longer than 10 characters.
+    *
+    * @return the long country names in encounter order
+    */
+   @Override
+   public List<String> getLongNames()
+   {
+      return longNames.get();
+   }
+
+   /**
+    * Returns the country names shorter than 5 characters.
+    *
+    * @return the short country names in encounter order
+    */
+   @Override
+   public List<String> getShortNames()
+   {
+      return shortNames.get();
+   }
+
+   /**
+    * Returns the country names starting with 'A'.
+    *
+    * @return the matching country names in encounter order
+    */
+   @Override
+   public List<String> getNamesStartingWithA()
+   {
+      return namesStartingWithA.get();
+   }
+
+   /**
+    * Returns the country names ending with "land".
+    *
+    * @return the matching country names in encounter order
+    */
+   @Override
+   public List<String> getNamesEndingWithLand()
+   {
+      return namesEndingWithLand.get();
+   }
+
+   /**
+    * Returns the country names containing "united", ignoring case.
+    *
+    * @return the matching country names in encounter order
+    */
+   @Override
+   public List<String> getNamesContainingUnited()
+   {
+      return namesContainingUnited.get();
+   }
+
+   /**
+    * Returns the index of the country names in sorted order, for ordered and range queries.
+    *
+    * @return the sorted name index
+    */
+   public SortedCountryIndex getSortedIndex()
+   {
+      return sortedIndex.get();
+   }
+
+   /**
+    * Returns the case-insensitive prefix trie over the country names, for ad-hoc prefix queries.
+    *
+    * @return the prefix trie
+    */
+   public PrefixTrie getPrefixTrie()
+   {
+      return prefixTrie.get();
+   }
+
+   /**
+    * Returns the suffix index over the country names, for ad-hoc "ends with" queries.
+    *
+    * @return the suffix index
+    */
+   public SuffixIndex getSuffixIndex()
+   {
+      return suffixIndex.get();
+   }
+
+   /**
+    * Returns the trigram index over the country names, for ad-hoc case-insensitive "contains" queries.
+    *
+    * @return the trigram index
+    */
+   public NGramIndex getNGramIndex()
+   {
+      return ngramIndex.get();
+   }
+
+   /**
+    * Returns the length index over the country names, for ad-hoc length threshold and range queries.
+    *
+    * @return the length index
+    */
+   public LengthIndex getLengthIndex()
+   {
+      return lengthIndex.get();
+   }
+
+   /**
+    * Returns the edit-distance index over the country names, for fuzzy lookups of misspelled names.
+    * No report section needs it, so only fuzzy lookups ever build it.
+    *
+    * @return the fuzzy index
+    */
+   public FuzzyIndex getFuzzyIndex()
+   {
+      return fuzzyIndex.get();
+   }
+
+   /**
+    * Returns the country names sorted in ascending order.
+    *
+    * @return the sorted country names
+    */
+   @Override
+   public List<String> getAscendingNames()
+   {
+      return sortedIndex.get().ascending();
+   }
+
+   /**
+    * Returns the country names sorted in descending order.
+    *
+    * @return the reverse sorted country names
+    */
+   @Override
+   public List<String> getDescendingNames()
+   {
+      return sortedIndex.get().descending();
+   }
+
+   /**
+    * Returns the country names that are the only name starting with their first letter.
+    *
+    * @return the names with a unique first letter
+    */
+   @Override
+   public List<String> getUniqueFirstLetterNames()
+   {
+      return uniqueFirstLetterNames.get();
+   }
+
+   /**
+    * Returns the total number of country names.
+    *
+    * @return the country count
+    */
+   @Override
+   public long getTotalCount()
+   {
+      return totalCount;
+   }
+
+   /**
+    * Returns the longest country name, or null if there are no countries.
+    *
+    * @return the first of the longest names
+    */
+   @Override
+   public String getLongestName()
+   {
+      return lengthIndex.get().longest();
+   }
+
+   /**
+    * Returns the shortest country name, or null if there are no countries.
+    *
+    * @return the first of the shortest names
+    */
+   @Override
+   public String getShortestName()
+   {
+      return lengthIndex.get().shortest();
+   }
+
+   /**
+    * Returns the country names converted to uppercase.
+    *
+    * @return the uppercase names in encounter order
+    */
+   @Override
+   public List<String> getUpperCaseNames()
+   {
+      return upperCaseNames.get();
+   }
+
+   /**
+    * Returns the country names with more than {@link #getMinWord()} words.
+    *
+    * @return the multi-word names in encounter order
+    */
+   @Override
+   public List<String> getNamesWithMoreThanNWords()
+   {
+      return namesWithMoreThanNWords.get();
+   }
+
+   /**
+    * Returns the country names with more than n words, in encounter order. Word counts are counted
+    * once, or taken from the snapshot, so any threshold costs one pass over an int array.
+    *
+    * @param n the word count a name must exceed
+    * @return the names with more than n words
+    * @see NameTokenizer
+    */
+   public List<String> namesWithMoreThanNWords(final int n)
+   {
+      final int[]        counts;
+      final List<String> result;
+
+      counts = wordCounts.get();
+      result = new ArrayList<>();
+
+      for(int row = 0; row < counts.length; row++)
+      {
+         if(counts[row] > n)
+         {
+            result.add(names[row]);
+         }
+      }
+
+      return result;
+   }
+
+   /**
+    * Returns the cached word count of each country name, in encounter order.
+    *
+    * @return a copy of the word count column
+    */
+   public int[] getWordCounts()
+   {
+      return wordCounts.get().clone();
+   }
+
+   /**
+    * Returns each country name mapped to its character count.
+    *
+    * @return the character count map
+    */
+   @Override
+   public Map<String, Integer> getCharacterCounts()
+   {
+      return characterCounts.get();
+   }
+
+   /**
+    * Returns whether any country name starts with 'z', ignoring case.
+    *
+    * @return true if a name starts with 'z'
+    */
+   @Override
+   public boolean isAnyStartsWithZ()
+   {
+      return anyStartsWithZ.get();
+   }
+
+   /**
+    * Returns whether all country names are longer than {@link #getMinChar()} characters.
+    *
+    * @return true if every name is longer than the threshold
+    */
+   @Override
+   public boolean isAllLongerThanN()
+   {
+      return allLongerThanN.get();
+   }
+
+   /*
+    * Builds every index and section result that has not been built yet, so that later reads only
+    * look values up.
+    */
+   void buildAll()
+   {
+      for(final Lazy<?> part : parts)
+      {
+         part.get();
+      }
+   }
+
+   /*
+    * Returns the names of the indexes and section results built so far, in declaration order.
+    */
+   List<String> builtParts()
+   {
+      final List<String> built;
+
+      built = new ArrayList<>();
+
+      for(final Lazy<?> part : parts)
+      {
+         if(part.isBuilt())
+         {
+            built.add(part.name);
+         }
+      }
+
+      return built;
+   }
+
+   /*
+    * Gathers the names of a table together with its length and word count columns.
+    */
+   private static Accumulator accumulate(final CountryTable table,
+                                         final int minChar,
+                                         final int minWord)
+   {
+      final Accumulator acc;
+
+      acc = new Accumulator(minChar, minWord);
+
+      for(int row = 0; row < table.size(); row++)
+      {
+         acc.add(table.name(row));
+      }
+
+      acc.lengths    = table.lengths();
+      acc.wordCounts = table.wordCounts();
+
+      return acc;
+   }
+
+   /*
+    * Registers a part of the report that is built by the supplier the first time it is asked for.
+    */
+   private <T> Lazy<T> part(final String name,
+                            final Supplier<T> supplier)
+   {
+      final Lazy<T> part;
+
+      part = new Lazy<>(name, supplier);
+      parts.add(part);
+
+      return part;
+   }
+
+   private List<String> nameList()
+   {
+      return Arrays.asList(names);
+   }
+
+   private List<String> toUpperCase()
+   {
+      final List<String> upperCase;
+
+      upperCase = new ArrayList<>(names.length);
+
+      for(final String name : names)
+      {
+         upperCase.add(name.toUpperCase());
+      }
+
+      return Collections.unmodifiableList(upperCase);
+   }
+
+   /*
+    * Returns the names whose first letter, ignoring case, no other name shares, in alphabetical
+    * order of that letter. Answers the same question as PrefixTrie.namesWithUniquePrefix(1) with a
+    * single pass over the first letters, so the section never builds a node per character.
+    */
+   private List<String> namesWithUniqueFirstLetter()
+   {
+      final Map<Character, Integer> firstRows;
+      final List<String>            unique;
+
+      firstRows = new TreeMap<>();
+      unique    = new ArrayList<>();
+
+      for(int row = 0; row < names.length; row++)
+      {
+         firstRows.merge(foldedFirstLetter(names[row]), row, (first, next) -> SHARED_LETTER);
+      }
+
+      for(final int row : firstRows.values())
+      {
+         if(row != SHARED_LETTER)
+         {
+            unique.add(names[row]);
+         }
+      }
+
+      return unique;
+   }
+
+   /*
+    * Folds the first letter of a name to upper case, the way PrefixTrie compares prefixes.
+    */
+   private static char foldedFirstLetter(final String name)
+   {
+      return Character.toUpperCase(name.charAt(0));
+   }
+
+   private int[] countWords()
+   {
+      final int[] counts;
+
+      counts = new int[names.length];
+
+      for(int row = 0; row < names.length; row++)
+      {
+         counts[row] = NameTokenizer.countWords(names[row]);
+      }
+
+      return counts;
+   }
+
+   /*
+    * Maps each name to its length, putting the names in encounter order so the map iterates
+    * exactly as one filled while the names were read.
+    */
+   private Map<String, Integer> countCharacters()
+   {
+      final Map<String, Integer> counts;
+
+      counts = new HashMap<>();
+
+      for(final String name : names)
+      {
+         counts.put(name, name.length());
+      }
+
+      return counts;
+   }
+
+   /*
+    * Returns the test a name must pass to be listed in a section that filters names one at a time,
+    * or null for the sections that depend on all the names together. Used by the reports that do
+    * not have the indexes to answer those sections from.
+    */
+   static Predicate<String> nameFilter(final ReportSection section,
+                                       final int minWord)
+   {
+      switch(section)
+      {
+         case LONG_NAMES:
+            return name -> name.length() > LONG_NAME_LENGTH;
+         case SHORT_NAMES:
+            return name -> name.length() < SHORT_NAME_LENGTH;
+         case STARTS_WITH_A:
+            return name -> name.startsWith(A_PREFIX);
+         case ENDS_WITH_LAND:
+            return name -> name.endsWith(LAND_SUFFIX);
+         case CONTAINS_UNITED:
+            return name -> NGramIndex.containsIgnoreCase(name, UNITED_TEXT);
+         case UPPER_CASE:
+            return name -> true;
+         case MORE_THAN_N_WORDS:
+            return name -> NameTokenizer.hasMoreWordsThan(name, minWord);
+         default:
+            return null;
+      }
+   }
+
+   /*
+    * Returns how a name passing a section's filter is listed in that section.
+    */
+   static UnaryOperator<String> nameMapper(final ReportSection section)
+   {
+      return section == ReportSection.UPPER_CASE ? String::toUpperCase : UnaryOperator.identity();
+   }
+
+   /*
+    * Mutable state for one pass of the collector. Only the names are gathered, and partial results
+    * from a parallel stream are combined in encounter order.
+    */
+   private static final class Accumulator
+   {
+      private final int          minChar;
+      private final int          minWord;
+      private final List<String> names;
+      private int[]              lengths;
+      private int[]              wordCounts;
+      private int[]              sortedRows;
+      private int[]              suffixRows;
+      private long               count;
+
+      private Accumulator(final int minChar,
+                          final int minWord)
+      {
+         this.minChar = minChar;
+         this.minWord = minWord;
+         this.names   = new ArrayList<>();
+      }
+
+      private void accept(final Country country)
+      {
+         add(country.getName());
+      }
+
+      private void add(final String name)
+      {
+         names.add(name);
+         count++;
+      }
+
+      private Accumulator combine(final Accumulator other)
+      {
+         names.addAll(other.names);
+         count += other.count;
+
+         return this;
+      }
+   }
+
+   /*
+    * A part of the report built by its supplier the first time it is asked for, and only once even
+    * when several sections that need it are rendered at the same time.
+    */
+   private static final class Lazy<T>
+   {
+      private final String      name;
+      private final Supplier<T> supplier;
+      private volatile T        value;
+
+      private Lazy(final String name,
+                   final Supplier<T> supplier)
+      {
+         this.name     = name;
+         this.supplier = supplier;
+      }
+
+      private T get()
+      {
+         T result;
+
+         result = value;
+
+         if(result == null)
+         {
+            synchronized(this)
+            {
+               result = value;
+
+               if(result == null)
+               {
+                  result = supplier.get();
+                  value  = result;
+               }
+            }
+         }
+
+         return result;
+      }
+
+      private boolean isBuilt()
+      {
+         return value != null;
+      }
+   }
+}
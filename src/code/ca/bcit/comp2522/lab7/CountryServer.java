@@ -0,0 +1,591 @@
+package ca.bcit.comp2522.lab7;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Answers report and query requests over HTTP from the countries held in a {@link CountryRegistry}.
+ * <p>
+ * The server runs on the JDK's built-in HTTP server and handles every request on its own virtual
+ * thread. Each request reads the registry's current snapshot once and answers from its in-memory
+ * indexes, so no file is read or written per request and a reload never holds up a request.
+ * Rendered section texts are cached per snapshot. Every answer is a JSON object carrying the
+ * version of the snapshot it came from.
+ * </p>
+ * <p>
+ * Endpoints:
+ * <ul>
+ *     <li>{@code GET /status} the snapshot version, load time and name count</li>
+ *     <li>{@code GET /sections} the names of the report sections, in file order</li>
+ *     <li>{@code GET /sections/NAME} the rendered text and item count of one section, such as
+ *     {@code /sections/long_names}</li>
+ *     <li>{@code GET /query/prefix?q=TEXT}, {@code /query/suffix?q=TEXT} and
+ *     {@code /query/contains?q=TEXT} the names starting with, ending with or containing TEXT</li>
+ *     <li>{@code GET /query/length?min=N&max=M} the names whose length is between N and M, both
+ *     inclusive</li>
+ *     <li>{@code GET /query/fuzzy?q=TEXT&k=N} the names within N edits of TEXT, closest first, with
+ *     their distances; N is {@value #DEFAULT_FUZZY_DISTANCE} unless the request sets it, see
+ *     {@link FuzzyIndex}</li>
+ *     <li>{@code POST /reload} builds and publishes the next snapshot</li>
+ * </ul>
+ * Query answers list at most {@code limit} names, {@value #DEFAULT_LIMIT} unless the request sets
+ * it, and always give the total count. Bad parameters get a 400 answer and unknown paths a 404,
+ * both with an {@code error} message.
+ * </p>
+ * <p>
+ * Example usage:
+ * <pre>
+ *     try(CountryServer server = new CountryServer(registry, new InetSocketAddress(InetAddress.getLoopbackAddress(), 8080)))
+ *     {
+ *         // curl 'http://127.0.0.1:8080/query/prefix?q=Ch'
+ *     }
+ * </pre>
+ * </p>
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+public final class CountryServer implements AutoCloseable
+{
+   public static final int DEFAULT_LIMIT          = 1000;
+   public static final int DEFAULT_FUZZY_DISTANCE = 2;
+
+   private static final int    BACKLOG       = 128;
+   private static final String JSON_TYPE     = "application/json; charset=utf-8";
+   private static final String SECTIONS_PATH = "/sections";
+   private static final String QUERY_PATH    = "/query/";
+
+   private final CountryRegistry               registry;
+   private final HttpServer                    server;
+   private final ExecutorService               executor;
+   private final AtomicReference<SectionCache> sectionCache;
+
+   /**
+    * Starts serving the registry on the given address.
+    *
+    * @param registry the registry to answer from
+    * @param address  the address to listen on, port 0 picks a free port
+    * @throws IOException if the address cannot be bound
+    */
+   public CountryServer(final CountryRegistry registry,
+                        final InetSocketAddress address) throws IOException
+   {
+      if(registry == null)
+      {
+         throw new IllegalArgumentException("Registry must not be null!");
+      }
+
+      this.registry     = registry;
+      this.sectionCache = new AtomicReference<>(new SectionCache(registry.current()));
+      this.executor     = Executors.newVirtualThreadPerTaskExecutor();
+      this.server       = HttpServer.create(address, BACKLOG);
+
+      server.setExecutor(executor);
+      server.createContext("/", this::handle);
+      server.start();
+   }
+
+   /**
+    * Starts serving the registry on the loopback interface.
+    *
+    * @param registry the registry to answer from
+    * @param port     the port to listen on, 0 picks a free port
+    * @return the running server
+    * @throws IOException if the port cannot be bound
+    */
+   public static CountryServer onLoopback(final CountryRegistry registry,
+                                          final int port) throws IOException
+   {
+      return new CountryServer(registry, new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+   }
+
+   /**
+    * Returns the port the server listens on.
+    *
+    * @return the bound port
+    */
+   public int getPort()
+   {
+      return server.getAddress().getPort();
+   }
+
+   /**
+    * Stops accepting requests, closes open connections and ends the request threads.
+    */
+   @Override
+   public void close()
+   {
+      server.stop(0);
+      executor.close();
+   }
+
+   /*
+    * Routes one request and always sends an answer, turning bad parameters into a 400.
+    */
+   private void handle(final HttpExchange exchange) throws IOException
+   {
+      try(exchange)
+      {
+         final String path;
+         final String method;
+
+         path   = exchange.getRequestURI().getPath();
+         method = exchange.getRequestMethod();
+
+         try
+         {
+            if(path.equals("/reload"))
+            {
+               if(method.equals("POST"))
+               {
+                  reload(exchange);
+               } else
+               {
+                  send(exchange, 405, error("Use POST for " + path));
+               }
+            } else if(!method.equals("GET"))
+            {
+               send(exchange, 405, error("Use GET for " + path));
+            } else if(path.equals("/status"))
+            {
+               send(exchange, 200, status(registry.current()));
+            } else if(path.equals(SECTIONS_PATH))
+            {
+               send(exchange, 200, sections(registry.current()));
+            } else if(path.startsWith(SECTIONS_PATH + "/"))
+            {
+               section(exchange, path.substring(SECTIONS_PATH.length() + 1));
+            } else if(path.startsWith(QUERY_PATH))
+            {
+               query(exchange, path.substring(QUERY_PATH.length()), parameters(exchange.getRequestURI().getRawQuery()));
+            } else
+            {
+               send(exchange, 404, error("No endpoint at " + path));
+            }
+         } catch(final IllegalArgumentException e)
+         {
+            send(exchange, 400, error(e.getMessage()));
+         }
+      }
+   }
+
+   private void section(final HttpExchange exchange,
+                        final String name) throws IOException
+   {
+      final ReportSection            section;
+      final CountryRegistry.Snapshot snapshot;
+      final StringBuilder            out;
+
+      try
+      {
+         section = ReportSection.valueOf(name.toUpperCase(Locale.ROOT));
+      } catch(final IllegalArgumentException e)
+      {
+         send(exchange, 404, error("No section named " + name));
+         return;
+      }
+
+      snapshot = registry.current();
+      out      = new StringBuilder();
+
+      out.append("{\"version\":").append(snapshot.getVersion())
+         .append(",\"section\":").append(quote(section.name()))
+         .append(",\"items\":").append(section.countItems(snapshot.getReport()))
+         .append(",\"text\":").append(quote(sectionText(snapshot, section)))
+         .append('}');
+
+      send(exchange, 200, out.toString());
+   }
+
+   private void query(final HttpExchange exchange,
+                      final String kind,
+                      final Map<String, String> parameters) throws IOException
+   {
+      final CountryRegistry.Snapshot snapshot;
+      final CountryReport            report;
+      final int                      limit;
+      final List<String>             names;
+      final StringBuilder            out;
+
+      snapshot = registry.current();
+      report   = snapshot.getReport();
+      limit    = parameters.containsKey("limit") ? intParameter(parameters, "limit", 0) : DEFAULT_LIMIT;
+      out      = new StringBuilder();
+
+      out.append("{\"version\":").append(snapshot.getVersion())
+         .append(",\"query\":").append(quote(kind));
+
+      switch(kind)
+      {
+         case "prefix":
+            names = report.getPrefixTrie().withPrefix(textParameter(parameters, out));
+            break;
+         case "suffix":
+            names = report.getSuffixIndex().endingWith(textParameter(parameters, out));
+            break;
+         case "contains":
+            names = report.getNGramIndex().containing(textParameter(parameters, out));
+            break;
+         case "length":
+            names = lengthQuery(report, parameters, out);
+            break;
+         case "fuzzy":
+            fuzzyQuery(report, parameters, limit, out);
+            send(exchange, 200, out.toString());
+            return;
+         default:
+            send(exchange, 404, error("No query named " + kind));
+            return;
+      }
+
+      out.append(",\"count\":").append(names.size());
+      appendNames(out, names.subList(0, Math.min(limit, names.size())));
+      out.append('}');
+
+      send(exchange, 200, out.toString());
+   }
+
+   /*
+    * Returns the names in the requested length range, after appending the range to the answer.
+    * Without max the range is open-ended.
+    */
+   private static List<String> lengthQuery(final CountryReport report,
+                                           final Map<String, String> parameters,
+                                           final StringBuilder out)
+   {
+      final int min;
+      final int max;
+
+      min = intParameter(parameters, "min", 0);
+      max = parameters.containsKey("max") ? intParameter(parameters, "max", min) : Integer.MAX_VALUE;
+
+      out.append(",\"min\":").append(min)
+         .append(",\"max\":").append(max);
+
+      return report.getLengthIndex().lengthBetween(min, max);
+   }
+
+   /*
+    * Appends the names within k edits of q, closest first, each with its distance, and closes the
+    * answer. k defaults to 2.
+    */
+   private static void fuzzyQuery(final CountryReport report,
+                                  final Map<String, String> parameters,
+                                  final int limit,
+                                  final StringBuilder out)
+   {
+      final String                 text;
+      final int                    k;
+      final List<FuzzyIndex.Match> matches;
+
+      text    = textParameter(parameters, out);
+      k       = parameters.containsKey("k") ? intParameter(parameters, "k", 0) : DEFAULT_FUZZY_DISTANCE;
+      matches = report.getFuzzyIndex().within(text, k);
+
+      out.append(",\"k\":").append(k)
+         .append(",\"count\":").append(matches.size())
+         .append(",\"matches\":[");
+
+      for(int i = 0; i < Math.min(limit, matches.size()); i++)
+      {
+         if(i > 0)
+         {
+            out.append(',');
+         }
+
+         out.append("{\"name\":").append(quote(matches.get(i).getName()))
+            .append(",\"distance\":").append(matches.get(i).getDistance())
+            .append('}');
+      }
+
+      out.append("]}");
+   }
+
+   private void reload(final HttpExchange exchange) throws IOException
+   {
+      final CountryRegistry.Snapshot snapshot;
+
+      try
+      {
+         snapshot = registry.reloadAsync().get();
+      } catch(final ExecutionException e)
+      {
+         send(exchange, 500, error("Reload failed: " + e.getCause().getMessage()));
+         return;
+      } catch(final InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+         send(exchange, 503, error("Interrupted while reloading"));
+         return;
+      }
+
+      send(exchange, 200, status(snapshot));
+   }
+
+   /*
+    * Returns the rendered text of a section of the snapshot, rendering it only the first time it is
+    * asked for. The cache follows the latest snapshot; a request still holding an older one renders
+    * without caching.
+    */
+   private String sectionText(final CountryRegistry.Snapshot snapshot,
+                              final ReportSection section)
+   {
+      SectionCache cache;
+      String       text;
+
+      cache = sectionCache.get();
+
+      if(cache.snapshot != snapshot && snapshot == registry.current())
+      {
+         final SectionCache next;
+
+         next = new SectionCache(snapshot);
+         sectionCache.compareAndSet(cache, next);
+         cache = sectionCache.get();
+      }
+
+      if(cache.snapshot != snapshot)
+      {
+         return section.render(snapshot.getReport());
+      }
+
+      text = cache.texts.get(section.ordinal());
+
+      if(text == null)
+      {
+         text = section.render(snapshot.getReport());
+         cache.texts.compareAndSet(section.ordinal(), null, text);
+      }
+
+      return text;
+   }
+
+   private static String status(final CountryRegistry.Snapshot snapshot)
+   {
+      return "{\"version\":" + snapshot.getVersion() +
+             ",\"loadedAt\":" + quote(snapshot.getLoadedAt().toString()) +
+             ",\"names\":" + snapshot.getReport().getTotalCount() + '}';
+   }
+
+   private static String sections(final CountryRegistry.Snapshot snapshot)
+   {
+      final StringBuilder out;
+
+      out = new StringBuilder();
+      out.append("{\"version\":").append(snapshot.getVersion())
+         .append(",\"sections\":[");
+
+      for(final ReportSection section : ReportSection.values())
+      {
+         if(section.ordinal() > 0)
+         {
+            out.append(',');
+         }
+
+         out.append(quote(section.name()));
+      }
+
+      return out.append("]}").toString();
+   }
+
+   private static String error(final String message)
+   {
+      return "{\"error\":" + quote(message) + '}';
+   }
+
+   private static void appendNames(final StringBuilder out,
+                                   final List<String> names)
+   {
+      out.append(",\"names\":[");
+
+      for(int i = 0; i < names.size(); i++)
+      {
+         if(i > 0)
+         {
+            out.append(',');
+         }
+
+         out.append(quote(names.get(i)));
+      }
+
+      out.append(']');
+   }
+
+   /*
+    * Returns the required q parameter, after appending it to the answer.
+    */
+   private static String textParameter(final Map<String, String> parameters,
+                                       final StringBuilder out)
+   {
+      final String text;
+
+      text = parameters.get("q");
+
+      if(text == null || text.isEmpty())
+      {
+         throw new IllegalArgumentException("Missing parameter q");
+      }
+
+      out.append(",\"q\":").append(quote(text));
+
+      return text;
+   }
+
+   private static int intParameter(final Map<String, String> parameters,
+                                   final String name,
+                                   final int min)
+   {
+      final String value;
+      final int    number;
+
+      value = parameters.get(name);
+
+      if(value == null)
+      {
+         throw new IllegalArgumentException("Missing parameter " + name);
+      }
+
+      try
+      {
+         number = Integer.parseInt(value);
+      } catch(final NumberFormatException e)
+      {
+         throw new IllegalArgumentException("Not a number in " + name + "=" + value);
+      }
+
+      if(number < min)
+      {
+         throw new IllegalArgumentException("Parameter " + name + " must be at least " + min);
+      }
+
+      return number;
+   }
+
+   /*
+    * Decodes a raw query string; the last value of a repeated parameter wins.
+    */
+   private static Map<String, String> parameters(final String rawQuery)
+   {
+      final Map<String, String> parameters;
+
+      parameters = new HashMap<>();
+
+      if(rawQuery == null || rawQuery.isEmpty())
+      {
+         return parameters;
+      }
+
+      for(final String pair : rawQuery.split("&"))
+      {
+         final int equals;
+
+         equals = pair.indexOf('=');
+
+         if(equals < 0)
+         {
+            parameters.put(URLDecoder.decode(pair, StandardCharsets.UTF_8), "");
+         } else
+         {
+            parameters.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                           URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+         }
+      }
+
+      return parameters;
+   }
+
+   private static void send(final HttpExchange exchange,
+                            final int status,
+                            final String json) throws IOException
+   {
+      final byte[] body;
+
+      body = json.getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().set("Content-Type", JSON_TYPE);
+      exchange.sendResponseHeaders(status, body.length);
+
+      try(final OutputStream out = exchange.getResponseBody())
+      {
+         out.write(body);
+      }
+   }
+
+   /*
+    * Returns the text as a JSON string literal.
+    */
+   static String quote(final String text)
+   {
+      final StringBuilder out;
+
+      out = new StringBuilder(text.length() + 2);
+      out.append('"');
+
+      for(int i = 0; i < text.length(); i++)
+      {
+         final char c;
+
+         c = text.charAt(i);
+
+         switch(c)
+         {
+            case '"':
+               out.append("\\\"");
+               break;
+            case '\\':
+               out.append("\\\\");
+               break;
+            case '\n':
+               out.append("\\n");
+               break;
+            case '\r':
+               out.append("\\r");
+               break;
+            case '\t':
+               out.append("\\t");
+               break;
+            default:
+               if(c < 0x20)
+               {
+                  out.append(String.format("\\u%04x", (int) c));
+               } else
+               {
+                  out.append(c);
+               }
+         }
+      }
+
+      return out.append('"').toString();
+   }
+
+   /*
+    * The section texts rendered so far for one snapshot.
+    */
+   private static final class SectionCache
+   {
+      private final CountryRegistry.Snapshot     snapshot;
+      private final AtomicReferenceArray<String> texts;
+
+      private SectionCache(final CountryRegistry.Snapshot snapshot)
+      {
+         this.snapshot = snapshot;
+         this.texts    = new AtomicReferenceArray<>(ReportSection.values().length);
+      }
+   }
+}
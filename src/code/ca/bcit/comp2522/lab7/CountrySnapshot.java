@@ -0,0 +1,537 @@
+package ca.bcit.comp2522.lab7;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * A parsed input file together with the orderings its report needs, cached on disk in a binary
+ * file that later runs map instead of parsing the input again.
+ * <p>
+ * The snapshot file holds a fixed header followed by the {@link CountryTable} columns and two
+ * prebuilt indexes, all as raw big-endian arrays:
+ * <pre>
+ *     header      magic, input size, input last-modified time, input CRC-32C,
+ *                 row count, arena size, CRC-32C of everything after the header
+ *     offsets     int[rows + 1]  where each name starts in the arena
+ *     lengths     int[rows]      name lengths in chars
+ *     words       int[rows]      word counts
+ *     sorted      int[rows]      rows in ascending name order
+ *     suffix      int[rows]      rows in suffix order, as {@link SuffixIndex} sorts them
+ *     arena       byte[arena]    the names as UTF-8, back to back
+ * </pre>
+ * A snapshot is used only if the input still has the recorded size, last-modified time and
+ * content hash, and if its own checksum is intact. Otherwise the input is parsed again and the
+ * snapshot is rewritten. The new file is written next to the old one and moved into place, so a
+ * reader never sees a half-written snapshot. Reading maps each section of the file and copies it
+ * straight into the table's arrays, with no line splitting, validation, tokenizing or sorting.
+ * </p>
+ * <p>
+ * Example usage:
+ * <pre>
+ *     CountrySnapshot snapshot = CountrySnapshot.load(inputPath, cacheDirectory);
+ *     CountryReport report = CountryReport.of(snapshot, 3, 4);
+ * </pre>
+ * </p>
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+public final class CountrySnapshot
+{
+   public static final String EXTENSION = ".snapshot";
+
+   private static final long MAGIC          = 0x434C534E41503031L;
+   private static final int  HEADER_SIZE    = 48;
+   private static final int  INT_COLUMNS    = 5;
+   private static final int  WRITE_BUFFER   = 1 << 16;
+   private static final int  MAX_MAP_LENGTH = Integer.MAX_VALUE - 8;
+
+   private final CountryTable table;
+   private final int[]        sortedRows;
+   private final int[]        suffixRows;
+   private final boolean      fromCache;
+
+   private CountrySnapshot(final CountryTable table,
+                           final int[] sortedRows,
+                           final int[] suffixRows,
+                           final boolean fromCache)
+   {
+      this.table      = table;
+      this.sortedRows = sortedRows;
+      this.suffixRows = suffixRows;
+      this.fromCache  = fromCache;
+   }
+
+   /**
+    * Returns the snapshot of the input file, read from the cache directory if a valid snapshot is
+    * there, or parsed from the input and written to the cache directory otherwise.
+    *
+    * @param inputPath the input file of country names
+    * @param directory the directory snapshots are kept in, created if needed
+    * @return the snapshot
+    * @throws IOException if the input cannot be read or the snapshot cannot be written
+    */
+   public static CountrySnapshot load(final Path inputPath,
+                                      final Path directory) throws IOException
+   {
+      final Key             key;
+      final Path            snapshotPath;
+      final CountrySnapshot cached;
+      final CountrySnapshot parsed;
+
+      key          = Key.of(inputPath);
+      snapshotPath = snapshotPath(inputPath, directory);
+      cached       = read(snapshotPath, key);
+
+      if(cached != null)
+      {
+         return cached;
+      }
+
+      parsed = of(new CountryLoader().loadTable(inputPath));
+
+      // Only cache what was parsed if the input did not change while it was being read.
+      if(key.equals(Key.of(inputPath)))
+      {
+         Files.createDirectories(directory);
+         parsed.write(snapshotPath, key);
+      }
+
+      return parsed;
+   }
+
+   /**
+    * Builds a snapshot of a table in memory, sorting its rows for the prebuilt indexes.
+    *
+    * @param table the table of countries
+    * @return the snapshot
+    */
+   public static CountrySnapshot of(final CountryTable table)
+   {
+      final String[] names;
+
+      names = names(table);
+
+      return new CountrySnapshot(table, sortedRows(names), suffixRows(names), false);
+   }
+
+   /*
+    * Wraps a table with orderings already worked out for it, such as the merged orderings of
+    * several shards. An ordering may be null if it was not worked out, in which case the report
+    * sorts the names itself. Such a snapshot is only used in memory and never written.
+    */
+   static CountrySnapshot of(final CountryTable table,
+                             final int[] sortedRows,
+                             final int[] suffixRows)
+   {
+      return new CountrySnapshot(table, sortedRows, suffixRows, false);
+   }
+
+   /*
+    * Decodes every name of the table.
+    */
+   static String[] names(final CountryTable table)
+   {
+      final String[] names;
+
+      names = new String[table.size()];
+
+      for(int row = 0; row < names.length; row++)
+      {
+         names[row] = table.name(row);
+      }
+
+      return names;
+   }
+
+   /*
+    * Returns the rows of the names in ascending name order.
+    */
+   static int[] sortedRows(final String[] names)
+   {
+      final int[] rows;
+
+      rows = new int[names.length];
+
+      for(int row = 0; row < rows.length; row++)
+      {
+         rows[row] = row;
+      }
+
+      sortByName(names, rows, new int[rows.length], 0, rows.length);
+
+      return rows;
+   }
+
+   /*
+    * Stable merge sort of rows[from, to) by name, using scratch as the merge buffer, the same way
+    * SuffixIndex sorts its rows without boxing them.
+    */
+   private static void sortByName(final String[] names,
+                                  final int[] rows,
+                                  final int[] scratch,
+                                  final int from,
+                                  final int to)
+   {
+      final int mid;
+      int       left;
+      int       right;
+
+      if(to - from < 2)
+      {
+         return;
+      }
+
+      mid = (from + to) >>> 1;
+      sortByName(names, rows, scratch, from, mid);
+      sortByName(names, rows, scratch, mid, to);
+
+      if(names[rows[mid - 1]].compareTo(names[rows[mid]]) <= 0)
+      {
+         return;
+      }
+
+      System.arraycopy(rows, from, scratch, from, to - from);
+      left  = from;
+      right = mid;
+
+      for(int i = from; i < to; i++)
+      {
+         if(right >= to ||
+            (left < mid && names[scratch[left]].compareTo(names[scratch[right]]) <= 0))
+         {
+            rows[i] = scratch[left++];
+         } else
+         {
+            rows[i] = scratch[right++];
+         }
+      }
+   }
+
+   /*
+    * Returns the rows of the names in the suffix order SuffixIndex uses.
+    */
+   static int[] suffixRows(final String[] names)
+   {
+      return new SuffixIndex(Arrays.asList(names)).rowsBySuffix();
+   }
+
+   /**
+    * Returns the path of the snapshot of the input file in the given directory. Inputs with the
+    * same file name in different directories get different snapshots.
+    *
+    * @param inputPath the input file
+    * @param directory the snapshot directory
+    * @return the snapshot path
+    */
+   public static Path snapshotPath(final Path inputPath,
+                                   final Path directory)
+   {
+      return directory.resolve(inputPath.getFileName() + "-" +
+                               Integer.toHexString(inputPath.toAbsolutePath().normalize().hashCode()) +
+                               EXTENSION);
+   }
+
+   /**
+    * Returns the table of countries.
+    *
+    * @return the table
+    */
+   public CountryTable getTable()
+   {
+      return table;
+   }
+
+   /**
+    * Returns whether the snapshot was read from the cache rather than parsed from the input.
+    *
+    * @return true if the cached snapshot was used
+    */
+   public boolean isFromCache()
+   {
+      return fromCache;
+   }
+
+   /*
+    * The rows of the table in ascending name order, or null if they were not worked out. Callers
+    * must not modify them.
+    */
+   int[] sortedRows()
+   {
+      return sortedRows;
+   }
+
+   /*
+    * The rows of the table in suffix order, or null if they were not worked out. Callers must not
+    * modify them.
+    */
+   int[] suffixRows()
+   {
+      return suffixRows;
+   }
+
+   /*
+    * Maps a snapshot file and returns its contents, or null if it is missing, was taken from a
+    * different version of the input or is damaged.
+    */
+   private static CountrySnapshot read(final Path snapshotPath,
+                                       final Key key) throws IOException
+   {
+      if(!Files.isRegularFile(snapshotPath))
+      {
+         return null;
+      }
+
+      try(final FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ))
+      {
+         final ByteBuffer header;
+         final int        rows;
+         final int        arenaSize;
+         final long       payloadCrc;
+         final CRC32C     crc;
+         final int[]      offsets;
+         final int[]      lengths;
+         final int[]      wordCounts;
+         final int[]      sortedRows;
+         final int[]      suffixRows;
+         final byte[]     arena;
+         long             position;
+
+         if(channel.size() < HEADER_SIZE)
+         {
+            return null;
+         }
+
+         header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+
+         if(header.getLong() != MAGIC || !key.equals(new Key(header.getLong(), header.getLong(), header.getLong())))
+         {
+            return null;
+         }
+
+         rows       = header.getInt();
+         arenaSize  = header.getInt();
+         payloadCrc = header.getLong();
+
+         if(rows < 0 || arenaSize < 0 ||
+            channel.size() != HEADER_SIZE + (INT_COLUMNS * (long) rows + 1) * Integer.BYTES + arenaSize)
+         {
+            return null;
+         }
+
+         crc        = new CRC32C();
+         position   = HEADER_SIZE;
+         offsets    = readInts(channel, position, rows + 1, crc);
+         position  += (rows + 1L) * Integer.BYTES;
+         lengths    = readInts(channel, position, rows, crc);
+         position  += (long) rows * Integer.BYTES;
+         wordCounts = readInts(channel, position, rows, crc);
+         position  += (long) rows * Integer.BYTES;
+         sortedRows = readInts(channel, position, rows, crc);
+         position  += (long) rows * Integer.BYTES;
+         suffixRows = readInts(channel, position, rows, crc);
+         position  += (long) rows * Integer.BYTES;
+         arena      = readBytes(channel, position, arenaSize, crc);
+
+         if(crc.getValue() != payloadCrc)
+         {
+            return null;
+         }
+
+         return new CountrySnapshot(new CountryTable(arena, offsets, lengths, wordCounts),
+                                    sortedRows, suffixRows, true);
+      }
+   }
+
+   /*
+    * Writes the snapshot to a temporary file in the snapshot's directory, forces it to disk and
+    * moves it over the old snapshot.
+    */
+   private void write(final Path snapshotPath,
+                      final Key key) throws IOException
+   {
+      final Path temporary;
+
+      temporary = Files.createTempFile(snapshotPath.getParent(), snapshotPath.getFileName().toString(), ".tmp");
+
+      try
+      {
+         try(final FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE))
+         {
+            final ByteBuffer buffer;
+            final CRC32C     crc;
+
+            buffer = ByteBuffer.allocate(WRITE_BUFFER);
+            crc    = new CRC32C();
+
+            channel.position(HEADER_SIZE);
+            writeInts(channel, buffer, table.offsets(), crc);
+            writeInts(channel, buffer, table.lengths(), crc);
+            writeInts(channel, buffer, table.wordCounts(), crc);
+            writeInts(channel, buffer, sortedRows, crc);
+            writeInts(channel, buffer, suffixRows, crc);
+            crc.update(table.arena());
+            writeFully(channel, ByteBuffer.wrap(table.arena()));
+
+            buffer.clear();
+            buffer.putLong(MAGIC)
+                  .putLong(key.size)
+                  .putLong(key.modified)
+                  .putLong(key.contentCrc)
+                  .putInt(table.size())
+                  .putInt(table.arenaSize())
+                  .putLong(crc.getValue());
+            buffer.flip();
+            channel.position(0);
+            writeFully(channel, buffer);
+            channel.force(true);
+         }
+
+         Files.move(temporary, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } finally
+      {
+         Files.deleteIfExists(temporary);
+      }
+   }
+
+   private static int[] readInts(final FileChannel channel,
+                                 final long position,
+                                 final int count,
+                                 final CRC32C crc) throws IOException
+   {
+      final MappedByteBuffer mapped;
+      final int[]            values;
+
+      mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, (long) count * Integer.BYTES);
+      values = new int[count];
+
+      mapped.asIntBuffer().get(values);
+      crc.update(mapped);
+
+      return values;
+   }
+
+   private static byte[] readBytes(final FileChannel channel,
+                                   final long position,
+                                   final int count,
+                                   final CRC32C crc) throws IOException
+   {
+      final MappedByteBuffer mapped;
+      final byte[]           values;
+
+      mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, count);
+      values = new byte[count];
+
+      mapped.get(values);
+      crc.update(values);
+
+      return values;
+   }
+
+   private static void writeInts(final FileChannel channel,
+                                 final ByteBuffer buffer,
+                                 final int[] values,
+                                 final CRC32C crc) throws IOException
+   {
+      int index;
+
+      index = 0;
+
+      while(index < values.length)
+      {
+         buffer.clear();
+
+         while(index < values.length && buffer.remaining() >= Integer.BYTES)
+         {
+            buffer.putInt(values[index++]);
+         }
+
+         crc.update(buffer.array(), 0, buffer.position());
+         buffer.flip();
+         writeFully(channel, buffer);
+      }
+   }
+
+   private static void writeFully(final FileChannel channel,
+                                  final ByteBuffer buffer) throws IOException
+   {
+      while(buffer.hasRemaining())
+      {
+         channel.write(buffer);
+      }
+   }
+
+   /*
+    * What a snapshot is keyed by: the input's size and last-modified time, which are cheap to
+    * check, and a CRC-32C of its contents, which catches edits that keep both.
+    */
+   private static final class Key
+   {
+      private final long size;
+      private final long modified;
+      private final long contentCrc;
+
+      private Key(final long size,
+                  final long modified,
+                  final long contentCrc)
+      {
+         this.size       = size;
+         this.modified   = modified;
+         this.contentCrc = contentCrc;
+      }
+
+      private static Key of(final Path inputPath) throws IOException
+      {
+         final BasicFileAttributes attributes;
+         final CRC32C              crc;
+
+         attributes = Files.readAttributes(inputPath, BasicFileAttributes.class);
+         crc        = new CRC32C();
+
+         try(final FileChannel channel = FileChannel.open(inputPath, StandardOpenOption.READ))
+         {
+            final long size;
+            long       position;
+
+            size     = channel.size();
+            position = 0;
+
+            while(position < size)
+            {
+               final long length;
+
+               length = Math.min(MAX_MAP_LENGTH, size - position);
+               crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+               position += length;
+            }
+         }
+
+         return new Key(attributes.size(), attributes.lastModifiedTime().toMillis(), crc.getValue());
+      }
+
+      @Override
+      public boolean equals(final Object o)
+      {
+         return o instanceof Key other &&
+                size == other.size &&
+                modified == other.modified &&
+                contentCrc == other.contentCrc;
+      }
+
+      @Override
+      public int hashCode()
+      {
+         return Long.hashCode(size ^ modified ^ contentCrc);
+      }
+   }
+}
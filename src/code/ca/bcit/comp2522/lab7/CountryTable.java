@@ -0,0 +1,366 @@
+package ca.bcit.comp2522.lab7;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Compact column storage for a list of country names.
+ * <p>
+ * All names live back to back as UTF-8 in one byte arena, with an {@code int[]} offset column
+ * marking where each row starts and precomputed columns for each name's length (in chars, as
+ * {@link String#length()} counts them) and word count. A row costs its bytes plus twelve bytes of
+ * columns, instead of a Country object, a String object and a separate byte array. Length and
+ * word-count scans read plain int arrays and never touch the names.
+ * </p>
+ * <p>
+ * Rows are turned into Strings or Country objects only when asked for, through {@link #name(int)},
+ * {@link #country(int)} or the {@link #asCountries()} view, so the existing Country-based report
+ * code can run over a table unchanged. The arena is a single array, so a table holds at most 2 GB
+ * of name bytes.
+ * </p>
+ * <p>
+ * Example usage:
+ * <pre>
+ *     CountryTable table = new CountryTable.Builder().add("Canada").add("Chad").build();
+ *     int length = table.length(0);          // 6
+ *     Country chad = table.country(1);
+ * </pre>
+ * </p>
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+public final class CountryTable
+{
+   private final byte[] arena;
+   private final int[]  offsets;
+   private final int[]  lengths;
+   private final int[]  wordCounts;
+   private final int    size;
+
+   /*
+    * Wraps columns that are already trimmed to size, such as the ones read from a CountrySnapshot.
+    */
+   CountryTable(final byte[] arena,
+                final int[] offsets,
+                final int[] lengths,
+                final int[] wordCounts)
+   {
+      this.size       = lengths.length;
+      this.arena      = arena;
+      this.offsets    = offsets;
+      this.lengths    = lengths;
+      this.wordCounts = wordCounts;
+   }
+
+   /**
+    * Returns the number of rows.
+    *
+    * @return the row count
+    */
+   public int size()
+   {
+      return size;
+   }
+
+   /**
+    * Returns the number of bytes the names take up in the arena.
+    *
+    * @return the arena size in bytes
+    */
+   public int arenaSize()
+   {
+      return arena.length;
+   }
+
+   /**
+    * Decodes the name stored in the given row.
+    *
+    * @param row the row index
+    * @return the country name
+    */
+   public String name(final int row)
+   {
+      return new String(arena, offsets[row], offsets[row + 1] - offsets[row], StandardCharsets.UTF_8);
+   }
+
+   /**
+    * Returns the length of the name in the given row, in chars.
+    *
+    * @param row the row index
+    * @return the name length
+    */
+   public int length(final int row)
+   {
+      return lengths[row];
+   }
+
+   /**
+    * Returns the number of words in the name in the given row, as {@link NameTokenizer} counts them.
+    *
+    * @param row the row index
+    * @return the word count
+    */
+   public int wordCount(final int row)
+   {
+      return wordCounts[row];
+   }
+
+   /**
+    * Creates a Country for the given row.
+    *
+    * @param row the row index
+    * @return a Country holding the row's name
+    */
+   public Country country(final int row)
+   {
+      return new Country(name(row));
+   }
+
+   /**
+    * Returns a read-only list view of the table that creates each Country when it is read.
+    *
+    * @return the rows as a list of countries
+    */
+   public List<Country> asCountries()
+   {
+      return new CountryView();
+   }
+
+   /**
+    * Returns a table holding the rows of the first table followed by the rows of the second.
+    *
+    * @param first  the table whose rows come first
+    * @param second the table whose rows follow
+    * @return the combined table
+    * @throws IllegalStateException if the combined arena would be larger than 2 GB
+    */
+   public static CountryTable concat(final CountryTable first,
+                                     final CountryTable second)
+   {
+      final int    rows;
+      final byte[] arena;
+      final int[]  offsets;
+
+      if((long) first.arena.length + second.arena.length > Integer.MAX_VALUE - 8)
+      {
+         throw new IllegalStateException("Country table arena is full at row " + first.size);
+      }
+
+      rows    = first.size + second.size;
+      arena   = Arrays.copyOf(first.arena, first.arena.length + second.arena.length);
+      offsets = Arrays.copyOf(first.offsets, rows + 1);
+
+      System.arraycopy(second.arena, 0, arena, first.arena.length, second.arena.length);
+
+      for(int row = 0; row <= second.size; row++)
+      {
+         offsets[first.size + row] = first.arena.length + second.offsets[row];
+      }
+
+      return new CountryTable(arena,
+                              offsets,
+                              concat(first.lengths, second.lengths),
+                              concat(first.wordCounts, second.wordCounts));
+   }
+
+   /*
+    * The raw columns, for CountrySnapshot to write out. Callers must not modify them.
+    */
+   byte[] arena()
+   {
+      return arena;
+   }
+
+   int[] offsets()
+   {
+      return offsets;
+   }
+
+   int[] lengths()
+   {
+      return lengths;
+   }
+
+   int[] wordCounts()
+   {
+      return wordCounts;
+   }
+
+   private static int[] concat(final int[] first,
+                               final int[] second)
+   {
+      final int[] result;
+
+      result = Arrays.copyOf(first, first.length + second.length);
+      System.arraycopy(second, 0, result, first.length, second.length);
+
+      return result;
+   }
+
+   /*
+    * Counts the chars the UTF-8 bytes decode to: one per code point, two for code points outside
+    * the Basic Multilingual Plane, which start with a four-byte lead byte.
+    */
+   private static int charLength(final byte[] bytes,
+                                 final int start,
+                                 final int end)
+   {
+      int length;
+
+      length = 0;
+
+      for(int i = start; i < end; i++)
+      {
+         final int b;
+
+         b = bytes[i] & 0xFF;
+
+         if((b & 0xC0) != 0x80)
+         {
+            length += b >= 0xF0 ? 2 : 1;
+         }
+      }
+
+      return length;
+   }
+
+   /*
+    * A list of countries backed by the table's rows.
+    */
+   private final class CountryView extends AbstractList<Country> implements RandomAccess
+   {
+      @Override
+      public Country get(final int index)
+      {
+         if(index < 0 || index >= size)
+         {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+         }
+
+         return country(index);
+      }
+
+      @Override
+      public int size()
+      {
+         return size;
+      }
+   }
+
+   /**
+    * Builds a CountryTable one name at a time.
+    *
+    * @author Linh Hoang
+    * @author Pouyan Norouzi Iranzadeh
+    * @version 1.0
+    */
+   public static final class Builder
+   {
+      private static final int INITIAL_ROWS       = 256;
+      private static final int INITIAL_ARENA_SIZE = 4096;
+
+      private byte[] arena;
+      private int[]  offsets;
+      private int[]  lengths;
+      private int[]  wordCounts;
+      private int    size;
+
+      /**
+       * Constructs an empty Builder.
+       */
+      public Builder()
+      {
+         this.arena      = new byte[INITIAL_ARENA_SIZE];
+         this.offsets    = new int[INITIAL_ROWS + 1];
+         this.lengths    = new int[INITIAL_ROWS];
+         this.wordCounts = new int[INITIAL_ROWS];
+      }
+
+      /**
+       * Appends a row holding the given name.
+       *
+       * @param name the country name, must be non-null and not blank
+       * @return this builder
+       * @throws IllegalArgumentException if the name is null or blank
+       */
+      public Builder add(final String name)
+      {
+         final byte[] bytes;
+
+         if(name == null || name.isBlank())
+         {
+            throw new IllegalArgumentException("Name must not be empty!");
+         }
+
+         bytes = name.getBytes(StandardCharsets.UTF_8);
+
+         return addUtf8(bytes, 0, bytes.length);
+      }
+
+      /**
+       * Appends a row holding the name encoded as UTF-8 in bytes[start, end).
+       * The caller is responsible for only passing non-blank names.
+       *
+       * @param bytes the buffer holding the encoded name
+       * @param start the index of the first byte of the name
+       * @param end   the index after the last byte of the name
+       * @return this builder
+       * @throws IllegalStateException if the arena would grow past 2 GB
+       */
+      public Builder addUtf8(final byte[] bytes,
+                             final int start,
+                             final int end)
+      {
+         final int length;
+         final int offset;
+
+         length = end - start;
+         offset = offsets[size];
+
+         if(offset > Integer.MAX_VALUE - length)
+         {
+            throw new IllegalStateException("Country table arena is full at row " + size);
+         }
+
+         if(size == lengths.length)
+         {
+            offsets    = Arrays.copyOf(offsets, size * 2 + 1);
+            lengths    = Arrays.copyOf(lengths, size * 2);
+            wordCounts = Arrays.copyOf(wordCounts, size * 2);
+         }
+
+         if(offset + length > arena.length)
+         {
+            arena = Arrays.copyOf(arena, (int) Math.min(Integer.MAX_VALUE - 8,
+                                                        Math.max((long) arena.length * 2, offset + length)));
+         }
+
+         System.arraycopy(bytes, start, arena, offset, length);
+
+         lengths[size]     = charLength(bytes, start, end);
+         wordCounts[size]  = NameTokenizer.countWords(bytes, start, end);
+         offsets[size + 1] = offset + length;
+         size++;
+
+         return this;
+      }
+
+      /**
+       * Builds a CountryTable holding the rows added so far, trimmed to size.
+       *
+       * @return the built table
+       */
+      public CountryTable build()
+      {
+         return new CountryTable(Arrays.copyOf(arena, offsets[size]),
+                                 Arrays.copyOf(offsets, size + 1),
+                                 Arrays.copyOf(lengths, size),
+                                 Arrays.copyOf(wordCounts, size));
+      }
+   }
+}
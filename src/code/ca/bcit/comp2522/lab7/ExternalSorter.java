@@ -0,0 +1,350 @@
+package ca.bcit.comp2522.lab7;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts more lines than fit in memory by spilling sorted runs to temporary files and merging them.
+ * <p>
+ * Lines are collected in memory until a run holds the configured number of lines. The run is then
+ * sorted in natural {@link String} order and written to a file in the sorter's directory, once in
+ * each direction, so both ascending and descending order can be merged back without reading a
+ * file backwards. If the input never fills a run nothing is written and the lines are read straight
+ * from memory. At most {@link #DEFAULT_MERGE_WIDTH} runs, or the configured merge width, are merged
+ * at once: when more runs were spilled, groups of them are first merged into longer runs in further
+ * passes. Heap use is therefore bounded by one run plus one buffered reader per merged run, however
+ * many lines are added. Lines must not contain line breaks.
+ * </p>
+ * <p>
+ * Example usage:
+ * <pre>
+ *     try(ExternalSorter sorter = new ExternalSorter(tempDir, 100_000))
+ *     {
+ *         names.forEach(sorter::add);
+ *         sorter.forEachSorted(false, line -&gt; System.out.println(line));
+ *     }
+ * </pre>
+ * </p>
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+public final class ExternalSorter implements AutoCloseable
+{
+   public static final int DEFAULT_MERGE_WIDTH = 64;
+
+   private static final int MIN_MERGE_WIDTH = 2;
+
+   private final Path         directory;
+   private final int          runSize;
+   private final int          mergeWidth;
+   private final List<String> buffer;
+   private final List<Path>   ascendingRuns;
+   private final List<Path>   descendingRuns;
+   private long               size;
+   private int                runCount;
+
+   /**
+    * Constructs an empty ExternalSorter that merges up to {@link #DEFAULT_MERGE_WIDTH} runs at once.
+    *
+    * @param directory the directory the run files are created in
+    * @param runSize   the number of lines sorted in memory before a run is spilled
+    * @throws IllegalArgumentException if the run size is not positive
+    */
+   public ExternalSorter(final Path directory,
+                         final int runSize)
+   {
+      this(directory, runSize, DEFAULT_MERGE_WIDTH);
+   }
+
+   /**
+    * Constructs an empty ExternalSorter that merges up to the given number of runs at once.
+    *
+    * @param directory  the directory the run files are created in
+    * @param runSize    the number of lines sorted in memory before a run is spilled
+    * @param mergeWidth the most runs read at the same time during a merge, at least 2
+    * @throws IllegalArgumentException if the run size is not positive or the merge width is below 2
+    */
+   public ExternalSorter(final Path directory,
+                         final int runSize,
+                         final int mergeWidth)
+   {
+      if(runSize <= 0)
+      {
+         throw new IllegalArgumentException("Run size must be positive: " + runSize);
+      }
+
+      if(mergeWidth < MIN_MERGE_WIDTH)
+      {
+         throw new IllegalArgumentException("Merge width must be at least " + MIN_MERGE_WIDTH + ": " + mergeWidth);
+      }
+
+      this.directory      = directory;
+      this.runSize        = runSize;
+      this.mergeWidth     = mergeWidth;
+      this.buffer         = new ArrayList<>();
+      this.ascendingRuns  = new ArrayList<>();
+      this.descendingRuns = new ArrayList<>();
+   }
+
+   /**
+    * Adds a line, spilling a run to disk if the in-memory run is full.
+    *
+    * @param line the line to sort
+    * @throws IOException if a run cannot be written
+    */
+   public void add(final String line) throws IOException
+   {
+      buffer.add(line);
+      size++;
+
+      if(buffer.size() == runSize)
+      {
+         spill();
+      }
+   }
+
+   /**
+    * Returns the number of lines added.
+    *
+    * @return the line count
+    */
+   public long size()
+   {
+      return size;
+   }
+
+   /**
+    * Returns the number of runs spilled to disk so far.
+    *
+    * @return the run count
+    */
+   public int runCount()
+   {
+      return runCount;
+   }
+
+   /**
+    * Passes every line to the sink in sorted order. Can be called more than once.
+    *
+    * @param descending true for descending order, false for ascending
+    * @param sink       the sink receiving each line
+    * @throws IOException if a run cannot be read or the sink fails
+    */
+   public void forEachSorted(final boolean descending,
+                             final Sink sink) throws IOException
+   {
+      final Comparator<String> order;
+      final List<Path>         runs;
+
+      order = descending ? Comparator.reverseOrder() : Comparator.naturalOrder();
+      runs  = descending ? descendingRuns : ascendingRuns;
+
+      if(ascendingRuns.isEmpty())
+      {
+         buffer.sort(order);
+
+         for(final String line : buffer)
+         {
+            sink.accept(line);
+         }
+
+         return;
+      }
+
+      if(!buffer.isEmpty())
+      {
+         spill();
+      }
+
+      mergeDown(runs, order);
+      merge(runs, order, sink);
+   }
+
+   /**
+    * Deletes every run file.
+    *
+    * @throws IOException if a run file cannot be deleted
+    */
+   @Override
+   public void close() throws IOException
+   {
+      for(final Path run : ascendingRuns)
+      {
+         Files.deleteIfExists(run);
+      }
+
+      for(final Path run : descendingRuns)
+      {
+         Files.deleteIfExists(run);
+      }
+
+      ascendingRuns.clear();
+      descendingRuns.clear();
+      buffer.clear();
+   }
+
+   private void spill() throws IOException
+   {
+      Collections.sort(buffer);
+      ascendingRuns.add(writeRun(buffer));
+      Collections.reverse(buffer);
+      descendingRuns.add(writeRun(buffer));
+      buffer.clear();
+      runCount++;
+   }
+
+   private Path writeRun(final List<String> lines) throws IOException
+   {
+      final Path run;
+
+      run = Files.createTempFile(directory, "run", ".txt");
+
+      try(final BufferedWriter writer = Files.newBufferedWriter(run, StandardCharsets.UTF_8))
+      {
+         for(final String line : lines)
+         {
+            writer.write(line);
+            writer.newLine();
+         }
+      }
+
+      return run;
+   }
+
+   /*
+    * Merges the first mergeWidth runs into one longer run at the end of the list until no more than
+    * mergeWidth runs are left, so the final merge never opens more files than that. The merged runs
+    * replace the ones they were made from, so later calls do not merge them again.
+    */
+   private void mergeDown(final List<Path> runs,
+                          final Comparator<String> order) throws IOException
+   {
+      while(runs.size() > mergeWidth)
+      {
+         final List<Path> group;
+         final Path       merged;
+
+         group  = runs.subList(0, mergeWidth);
+         merged = Files.createTempFile(directory, "run", ".txt");
+
+         try(final BufferedWriter writer = Files.newBufferedWriter(merged, StandardCharsets.UTF_8))
+         {
+            merge(group, order, line ->
+            {
+               writer.write(line);
+               writer.newLine();
+            });
+         } catch(final IOException | RuntimeException e)
+         {
+            Files.deleteIfExists(merged);
+            throw e;
+         }
+
+         for(final Path run : group)
+         {
+            Files.delete(run);
+         }
+
+         group.clear();
+         runs.add(merged);
+      }
+   }
+
+   /*
+    * K-way merge of sorted runs, keeping the head line of every run in a priority queue.
+    */
+   private static void merge(final List<Path> runs,
+                             final Comparator<String> order,
+                             final Sink sink) throws IOException
+   {
+      final List<BufferedReader>  readers;
+      final PriorityQueue<Cursor> heads;
+
+      readers = new ArrayList<>();
+      heads   = new PriorityQueue<>((first, second) -> order.compare(first.line, second.line));
+
+      try
+      {
+         for(final Path run : runs)
+         {
+            final BufferedReader reader;
+            final String         line;
+
+            reader = Files.newBufferedReader(run, StandardCharsets.UTF_8);
+            readers.add(reader);
+            line   = reader.readLine();
+
+            if(line != null)
+            {
+               heads.add(new Cursor(reader, line));
+            }
+         }
+
+         while(!heads.isEmpty())
+         {
+            final Cursor cursor;
+
+            cursor = heads.poll();
+            sink.accept(cursor.line);
+            cursor.line = cursor.reader.readLine();
+
+            if(cursor.line != null)
+            {
+               heads.add(cursor);
+            }
+         }
+      } finally
+      {
+         for(final BufferedReader reader : readers)
+         {
+            reader.close();
+         }
+      }
+   }
+
+   /**
+    * Receives the sorted lines.
+    *
+    * @author Linh Hoang
+    * @author Pouyan Norouzi Iranzadeh
+    * @version 1.0
+    */
+   @FunctionalInterface
+   public interface Sink
+   {
+      /**
+       * Receives the next line.
+       *
+       * @param line the line
+       * @throws IOException if the line cannot be handled
+       */
+      void accept(String line) throws IOException;
+   }
+
+   /*
+    * The current line of one run during a merge.
+    */
+   private static final class Cursor
+   {
+      private final BufferedReader reader;
+      private String               line;
+
+      private Cursor(final BufferedReader reader,
+                     final String line)
+      {
+         this.reader = reader;
+         this.line   = line;
+      }
+   }
+}
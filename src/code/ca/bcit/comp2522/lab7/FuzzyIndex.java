@@ -0,0 +1,445 @@
+package ca.bcit.comp2522.lab7;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * A BK-tree over the distinct country names, for finding the names closest to a misspelled one.
+ * <p>
+ * Names are compared by Levenshtein distance, ignoring case: the number of single-character
+ * insertions, deletions and substitutions turning one into the other. Every node of the tree is a
+ * name, and each child hangs off its parent at their distance. The triangle inequality means a
+ * lookup within distance k only descends into children whose distance to the parent is within k of
+ * the query's own distance to it, so only a small part of the tree is compared. Each comparison
+ * also stops as soon as the distance exceeds the largest one that could still matter at that node.
+ * </p>
+ * <p>
+ * The tree is kept in parallel arrays, with the children of a node in a linked list. It is never
+ * changed after construction, so lookups may run on any number of threads at once.
+ * {@link #closestAll(List, int, ForkJoinPool)} reconciles a whole batch of names, looking up each
+ * distinct one once.
+ * </p>
+ * <p>
+ * Example usage:
+ * <pre>
+ *     FuzzyIndex index = new FuzzyIndex(names);
+ *     List&lt;FuzzyIndex.Match&gt; matches = index.within("Untied States", 2);
+ *     FuzzyIndex.Match best = index.closest("Phillipines", 2);
+ * </pre>
+ * </p>
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+public final class FuzzyIndex
+{
+   private static final int NONE = -1;
+
+   private final String[] names;
+   private final String[] keys;
+   private final int[]    firstChild;
+   private final int[]    nextSibling;
+   private final int[]    parentDistance;
+   private final int[]    maxChildDistance;
+
+   /**
+    * Constructs a FuzzyIndex over the given names. Repeated names are indexed once.
+    *
+    * @param names the country names to index, in the order equally close matches should be returned
+    */
+   public FuzzyIndex(final List<String> names)
+   {
+      final String[] distinct;
+
+      distinct = names.stream().distinct().toArray(String[]::new);
+
+      this.names            = distinct;
+      this.keys             = new String[distinct.length];
+      this.firstChild       = new int[distinct.length];
+      this.nextSibling      = new int[distinct.length];
+      this.parentDistance   = new int[distinct.length];
+      this.maxChildDistance = new int[distinct.length];
+
+      Arrays.fill(firstChild, NONE);
+      Arrays.fill(nextSibling, NONE);
+      Arrays.fill(maxChildDistance, -1);
+
+      for(int node = 0; node < distinct.length; node++)
+      {
+         keys[node] = distinct[node].toLowerCase(Locale.ROOT);
+
+         if(node > 0)
+         {
+            insert(node);
+         }
+      }
+   }
+
+   /**
+    * Returns the number of distinct names in the index.
+    *
+    * @return the distinct name count
+    */
+   public int size()
+   {
+      return names.length;
+   }
+
+   /**
+    * Returns every name within the given distance of the query, ignoring case, closest first.
+    * Equally close names come in the order they were given to the index.
+    *
+    * @param query       the name to look up
+    * @param maxDistance the largest distance a match may have
+    * @return the matches
+    * @throws IllegalArgumentException if the distance is negative
+    */
+   public List<Match> within(final String query,
+                             final int maxDistance)
+   {
+      final List<int[]> found;
+      final List<Match> matches;
+
+      checkDistance(maxDistance);
+
+      found   = search(query, maxDistance, false);
+      matches = new ArrayList<>(found.size());
+
+      for(final int[] hit : found)
+      {
+         matches.add(new Match(names[hit[1]], hit[0]));
+      }
+
+      return matches;
+   }
+
+   /**
+    * Returns the name closest to the query, ignoring case, if it is within the given distance.
+    *
+    * @param query       the name to look up
+    * @param maxDistance the largest distance a match may have
+    * @return the closest match, or null if no name is close enough
+    * @throws IllegalArgumentException if the distance is negative
+    */
+   public Match closest(final String query,
+                        final int maxDistance)
+   {
+      final List<int[]> found;
+
+      checkDistance(maxDistance);
+
+      found = search(query, maxDistance, true);
+
+      return found.isEmpty() ? null : new Match(names[found.get(0)[1]], found.get(0)[0]);
+   }
+
+   /**
+    * Returns the closest name to each query, as {@link #closest(String, int)} does. A query given
+    * more than once is looked up once.
+    *
+    * @param queries     the names to reconcile
+    * @param maxDistance the largest distance a match may have
+    * @param pool        the pool to run the lookups on, or null to run them on the calling thread
+    * @return the closest match to each query, in query order, with null where nothing is close enough
+    * @throws IllegalArgumentException if the distance is negative
+    */
+   public List<Match> closestAll(final List<String> queries,
+                                 final int maxDistance,
+                                 final ForkJoinPool pool)
+   {
+      final Map<String, Match> byQuery;
+      final String[]           distinct;
+      final Match[]            best;
+      final List<Match>        result;
+
+      checkDistance(maxDistance);
+
+      byQuery  = new HashMap<>();
+      distinct = queries.stream().distinct().toArray(String[]::new);
+      best     = new Match[distinct.length];
+
+      if(pool == null)
+      {
+         for(int i = 0; i < distinct.length; i++)
+         {
+            best[i] = closest(distinct[i], maxDistance);
+         }
+      } else
+      {
+         pool.submit(() -> IntStream.range(0, distinct.length)
+                                    .parallel()
+                                    .forEach(i -> best[i] = closest(distinct[i], maxDistance)))
+             .join();
+      }
+
+      for(int i = 0; i < distinct.length; i++)
+      {
+         byQuery.put(distinct[i], best[i]);
+      }
+
+      result = new ArrayList<>(queries.size());
+
+      for(final String query : queries)
+      {
+         result.add(byQuery.get(query));
+      }
+
+      return result;
+   }
+
+   /*
+    * Walks the tree from the root and returns the {distance, node} pairs within maxDistance of the
+    * query, closest first and then in node order. When only the closest is wanted, the distance
+    * allowed shrinks to the best one found so far, which prunes far more of the tree.
+    */
+   private List<int[]> search(final String query,
+                              final int maxDistance,
+                              final boolean closestOnly)
+   {
+      final String      key;
+      final Scratch     scratch;
+      final List<int[]> found;
+      int[]             stack;
+      int               top;
+      int               bound;
+
+      found = new ArrayList<>();
+
+      if(names.length == 0)
+      {
+         return found;
+      }
+
+      key     = query.toLowerCase(Locale.ROOT);
+      scratch = new Scratch(key.length());
+      stack   = new int[16];
+      top     = 0;
+      bound   = maxDistance;
+
+      stack[top++] = 0;
+
+      while(top > 0)
+      {
+         final int node;
+         final int limit;
+         final int distance;
+
+         node     = stack[--top];
+         limit    = Math.max(bound, maxChildDistance[node] + bound);
+         distance = scratch.distance(keys[node], key, limit);
+
+         if(distance <= bound)
+         {
+            found.add(new int[]{distance, node});
+
+            if(closestOnly)
+            {
+               bound = distance;
+            }
+         }
+
+         if(distance > limit)
+         {
+            continue;
+         }
+
+         for(int child = firstChild[node]; child != NONE; child = nextSibling[child])
+         {
+            if(Math.abs(parentDistance[child] - distance) <= bound)
+            {
+               if(top == stack.length)
+               {
+                  stack = Arrays.copyOf(stack, top * 2);
+               }
+
+               stack[top++] = child;
+            }
+         }
+      }
+
+      found.sort((first, second) -> first[0] != second[0] ? Integer.compare(first[0], second[0])
+                                                           : Integer.compare(first[1], second[1]));
+
+      return found;
+   }
+
+   /*
+    * Hangs a node under the first node on its path whose children have no entry at its distance.
+    */
+   private void insert(final int node)
+   {
+      final Scratch scratch;
+      int           parent;
+
+      scratch = new Scratch(keys[node].length());
+      parent  = 0;
+
+      while(true)
+      {
+         final int distance;
+         int       child;
+
+         distance = scratch.distance(keys[parent], keys[node], Integer.MAX_VALUE);
+         child    = firstChild[parent];
+
+         while(child != NONE && parentDistance[child] != distance)
+         {
+            child = nextSibling[child];
+         }
+
+         if(child == NONE)
+         {
+            parentDistance[node]     = distance;
+            nextSibling[node]        = firstChild[parent];
+            firstChild[parent]       = node;
+            maxChildDistance[parent] = Math.max(maxChildDistance[parent], distance);
+            return;
+         }
+
+         parent = child;
+      }
+   }
+
+   private static void checkDistance(final int maxDistance)
+   {
+      if(maxDistance < 0)
+      {
+         throw new IllegalArgumentException("Distance must not be negative: " + maxDistance);
+      }
+   }
+
+   /*
+    * Two rows of the Levenshtein table, sized for the string every comparison of one lookup is
+    * made against, so a lookup allocates them once.
+    */
+   private static final class Scratch
+   {
+      private int[] previous;
+      private int[] current;
+
+      private Scratch(final int length)
+      {
+         this.previous = new int[length + 1];
+         this.current  = new int[length + 1];
+      }
+
+      /*
+       * Returns the distance between the two strings, or limit + 1 as soon as it is known to be
+       * larger than limit. The second string must be the one the scratch was sized for.
+       */
+      private int distance(final String first,
+                           final String second,
+                           final int limit)
+      {
+         final int cap;
+
+         cap = limit == Integer.MAX_VALUE ? limit : limit + 1;
+
+         if(Math.abs(first.length() - second.length()) > limit)
+         {
+            return cap;
+         }
+
+         for(int j = 0; j <= second.length(); j++)
+         {
+            previous[j] = j;
+         }
+
+         for(int i = 1; i <= first.length(); i++)
+         {
+            final char  c;
+            final int[] swap;
+            int         rowMin;
+
+            c          = first.charAt(i - 1);
+            current[0] = i;
+            rowMin     = i;
+
+            for(int j = 1; j <= second.length(); j++)
+            {
+               final int substitution;
+
+               substitution = previous[j - 1] + (c == second.charAt(j - 1) ? 0 : 1);
+               current[j]   = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+               rowMin       = Math.min(rowMin, current[j]);
+            }
+
+            if(rowMin > limit)
+            {
+               return cap;
+            }
+
+            swap     = previous;
+            previous = current;
+            current  = swap;
+         }
+
+         return Math.min(previous[second.length()], cap);
+      }
+   }
+
+   /**
+    * A name found by a fuzzy lookup and its distance from the query.
+    *
+    * @author Linh Hoang
+    * @author Pouyan Norouzi Iranzadeh
+    * @version 1.0
+    */
+   public static final class Match
+   {
+      private final String name;
+      private final int    distance;
+
+      private Match(final String name,
+                    final int distance)
+      {
+         this.name     = name;
+         this.distance = distance;
+      }
+
+      /**
+       * Returns the matching country name, as it was given to the index.
+       *
+       * @return the name
+       */
+      public String getName()
+      {
+         return name;
+      }
+
+      /**
+       * Returns the Levenshtein distance between the query and the name, ignoring case.
+       *
+       * @return the distance
+       */
+      public int getDistance()
+      {
+         return distance;
+      }
+
+      @Override
+      public boolean equals(final Object o)
+      {
+         return o instanceof Match other && other.name.equals(name) && other.distance == distance;
+      }
+
+      @Override
+      public int hashCode()
+      {
+         return name.hashCode() * 31 + distance;
+      }
+
+      @Override
+      public String toString()
+      {
+         return name + " (" + distance + ")";
+      }
+   }
+}
@@ -0,0 +1,169 @@
+package ca.bcit.comp2522.lab7;
+
+/**
+ * Estimates the number of distinct names seen in a fixed amount of memory.
+ * <p>
+ * Each name is hashed to 64 bits. The top {@code precision} bits pick one of
+ * {@code 2^precision} registers, and the register keeps the longest run of leading zeros seen in
+ * the remaining bits. The harmonic mean of the registers gives the estimate, with linear counting
+ * used instead while many registers are still empty. The standard error is about
+ * {@code 1.04 / sqrt(2^precision)}, so the default precision of 14 uses 16 KiB and is typically
+ * within 1%. Two sketches with the same precision can be merged, which gives the estimate for the
+ * union of their inputs.
+ * </p>
+ * <p>
+ * Example usage:
+ * <pre>
+ *     HyperLogLog distinct = new HyperLogLog();
+ *     names.forEach(distinct::add);
+ *     long estimate = distinct.estimate();
+ * </pre>
+ * </p>
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+public final class HyperLogLog
+{
+   public static final int DEFAULT_PRECISION = 14;
+   public static final int MIN_PRECISION     = 4;
+   public static final int MAX_PRECISION     = 18;
+
+   private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+   private static final long FNV_PRIME  = 0x100000001B3L;
+   private static final long MIX_FIRST  = 0xFF51AFD7ED558CCDL;
+   private static final long MIX_SECOND = 0xC4CEB9FE1A85EC53L;
+
+   private final int    precision;
+   private final byte[] registers;
+
+   /**
+    * Constructs an empty HyperLogLog with the default precision.
+    */
+   public HyperLogLog()
+   {
+      this(DEFAULT_PRECISION);
+   }
+
+   /**
+    * Constructs an empty HyperLogLog.
+    *
+    * @param precision the number of hash bits used to pick a register, between
+    *                  {@link #MIN_PRECISION} and {@link #MAX_PRECISION}
+    * @throws IllegalArgumentException if the precision is out of range
+    */
+   public HyperLogLog(final int precision)
+   {
+      if(precision < MIN_PRECISION || precision > MAX_PRECISION)
+      {
+         throw new IllegalArgumentException("Precision must be between " + MIN_PRECISION + " and " +
+                                            MAX_PRECISION + ": " + precision);
+      }
+
+      this.precision = precision;
+      this.registers = new byte[1 << precision];
+   }
+
+   /**
+    * Adds a name to the sketch.
+    *
+    * @param name the name
+    */
+   public void add(final String name)
+   {
+      final long hash;
+      final int  register;
+      final int  rank;
+
+      hash     = hash(name);
+      register = (int) (hash >>> (Long.SIZE - precision));
+      rank     = Math.min(Long.numberOfLeadingZeros(hash << precision), Long.SIZE - precision) + 1;
+
+      if(rank > registers[register])
+      {
+         registers[register] = (byte) rank;
+      }
+   }
+
+   /**
+    * Adds every name seen by another sketch to this one.
+    *
+    * @param other the sketch to merge in
+    * @throws IllegalArgumentException if the precisions differ
+    */
+   public void merge(final HyperLogLog other)
+   {
+      if(other.precision != precision)
+      {
+         throw new IllegalArgumentException("Cannot merge precision " + other.precision + " into " + precision);
+      }
+
+      for(int i = 0; i < registers.length; i++)
+      {
+         registers[i] = (byte) Math.max(registers[i], other.registers[i]);
+      }
+   }
+
+   /**
+    * Returns the estimated number of distinct names added.
+    *
+    * @return the distinct count estimate
+    */
+   public long estimate()
+   {
+      final int    m;
+      final double alpha;
+      final double raw;
+      double       sum;
+      int          empty;
+
+      m     = registers.length;
+      alpha = 0.7213 / (1 + 1.079 / m);
+      sum   = 0;
+      empty = 0;
+
+      for(final byte register : registers)
+      {
+         sum += Math.scalb(1.0, -register);
+
+         if(register == 0)
+         {
+            empty++;
+         }
+      }
+
+      raw = alpha * m * m / sum;
+
+      if(raw <= 2.5 * m && empty > 0)
+      {
+         return Math.round(m * Math.log((double) m / empty));
+      }
+
+      return Math.round(raw);
+   }
+
+   /*
+    * FNV-1a over the chars followed by a 64-bit finalizer, so similar names spread over all bits.
+    */
+   private static long hash(final String name)
+   {
+      long hash;
+
+      hash = FNV_OFFSET;
+
+      for(int i = 0; i < name.length(); i++)
+      {
+         hash ^= name.charAt(i);
+         hash *= FNV_PRIME;
+      }
+
+      hash ^= hash >>> 33;
+      hash *= MIX_FIRST;
+      hash ^= hash >>> 33;
+      hash *= MIX_SECOND;
+      hash ^= hash >>> 33;
+
+      return hash;
+   }
+}
@@ -0,0 +1,624 @@
+package ca.bcit.comp2522.lab7;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * The CountryLab report results, kept up to date as names are added and removed instead of being
+ * rebuilt from scratch.
+ * <p>
+ * Applying a {@link NameDelta} only touches the state the edited names belong to. The filtered
+ * sections splice their matches in at the edit position, counting matches from whichever end of
+ * the list is closer to the edit, so appending to a large list costs only the appended lines.
+ * Sorted order is a counted {@link TreeMap}, the shortest and longest names come from a length
+ * histogram, and the unique-first-letter and 'z' sections come from per-letter groups.
+ * {@link #apply(NameDelta)} reports which sections changed, so only those need to be rendered again.
+ * </p>
+ * <p>
+ * The results match those of a {@link CountryReport} collected over the same names.
+ * </p>
+ * <p>
+ * Example usage:
+ * <pre>
+ *     IncrementalReport report = new IncrementalReport(names, 3, 4);
+ *     Set&lt;ReportSection&gt; changed = report.apply(NameDelta.between(names, newNames));
+ *     String text = ReportSection.LONGEST.render(report);
+ * </pre>
+ * </p>
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+public final class IncrementalReport implements ReportResults
+{
+   private final int                              minChar;
+   private final int                              minWord;
+   private final List<String>                     names;
+   private final Map<ReportSection, FilteredList> filteredLists;
+   private final TreeMap<String, Integer>         sortedCounts;
+   private final TreeMap<Integer, Integer>        lengthCounts;
+   private final TreeMap<Character, LetterGroup>  letterGroups;
+   private Map<String, Integer>                   characterCounts;
+   private List<String>                           distinctNames;
+   private int                                    longestRow;
+   private int                                    shortestRow;
+
+   /**
+    * Constructs an IncrementalReport over the given names.
+    *
+    * @param names   the country names, in encounter order
+    * @param minChar the length every name is compared against for the "all longer than" section
+    * @param minWord the word count a name must exceed to be listed as a multi-word name
+    */
+   public IncrementalReport(final List<String> names,
+                            final int minChar,
+                            final int minWord)
+   {
+      this.minChar                 = minChar;
+      this.minWord                 = minWord;
+      this.names                   = new ArrayList<>();
+      this.filteredLists           = new EnumMap<>(ReportSection.class);
+      this.sortedCounts            = new TreeMap<>();
+      this.lengthCounts            = new TreeMap<>();
+      this.letterGroups            = new TreeMap<>();
+      this.characterCounts         = new HashMap<>();
+      this.distinctNames           = new ArrayList<>();
+      this.longestRow              = -1;
+      this.shortestRow             = -1;
+
+      for(final ReportSection section : ReportSection.values())
+      {
+         final Predicate<String> filter;
+
+         filter = CountryReport.nameFilter(section, minWord);
+
+         if(filter != null)
+         {
+            filteredLists.put(section, new FilteredList(section, filter, CountryReport.nameMapper(section)));
+         }
+      }
+
+      apply(NameDelta.between(List.of(), names));
+   }
+
+   /**
+    * Applies an edit to the names and updates the sections it affects.
+    *
+    * @param delta the edit, relative to the current names
+    * @return the sections whose text may have changed
+    * @throws IllegalArgumentException if the delta does not fit the current names
+    */
+   public Set<ReportSection> apply(final NameDelta delta)
+   {
+      final Set<ReportSection> affected;
+      final long               countBefore;
+      final String             longestBefore;
+      final String             shortestBefore;
+      final List<String>       uniqueBefore;
+      final boolean            anyZBefore;
+      final boolean            allLongerBefore;
+      final int                maxLengthBefore;
+      final int                minLengthBefore;
+      final boolean            appendOnly;
+
+      if(delta.getFrom() + delta.getRemoved().size() > names.size() ||
+         !names.subList(delta.getFrom(), delta.getFrom() + delta.getRemoved().size()).equals(delta.getRemoved()))
+      {
+         throw new IllegalArgumentException("Delta does not match the current names: " + delta);
+      }
+
+      affected        = EnumSet.noneOf(ReportSection.class);
+      countBefore     = getTotalCount();
+      longestBefore   = getLongestName();
+      shortestBefore  = getShortestName();
+      uniqueBefore    = getUniqueFirstLetterNames();
+      anyZBefore      = isAnyStartsWithZ();
+      allLongerBefore = isAllLongerThanN();
+      maxLengthBefore = maxLength();
+      minLengthBefore = minLength();
+      appendOnly      = delta.getFrom() == names.size() && delta.getRemoved().isEmpty();
+
+      for(final FilteredList list : filteredLists.values())
+      {
+         if(list.splice(names, delta))
+         {
+            affected.add(list.section);
+         }
+      }
+
+      names.subList(delta.getFrom(), delta.getFrom() + delta.getRemoved().size()).clear();
+      names.addAll(delta.getFrom(), delta.getAdded());
+
+      if(updateSortedCounts(delta))
+      {
+         affected.add(ReportSection.ASCENDING);
+         affected.add(ReportSection.DESCENDING);
+      }
+
+      if(updateCharacterCounts(delta, appendOnly))
+      {
+         affected.add(ReportSection.CHARACTER_COUNT);
+      }
+
+      longestRow  = firstRowWithLength(longestRow, maxLengthBefore, maxLength(), delta.getFrom());
+      shortestRow = firstRowWithLength(shortestRow, minLengthBefore, minLength(), delta.getFrom());
+
+      addIfChanged(affected, ReportSection.TOTAL_COUNT, countBefore, getTotalCount());
+      addIfChanged(affected, ReportSection.LONGEST, longestBefore, getLongestName());
+      addIfChanged(affected, ReportSection.SHORTEST, shortestBefore, getShortestName());
+      addIfChanged(affected, ReportSection.UNIQUE_FIRST_LETTERS, uniqueBefore, getUniqueFirstLetterNames());
+      addIfChanged(affected, ReportSection.ANY_STARTS_WITH_Z, anyZBefore, isAnyStartsWithZ());
+      addIfChanged(affected, ReportSection.ALL_LONGER_THAN_N, allLongerBefore, isAllLongerThanN());
+
+      return affected;
+   }
+
+   /**
+    * Returns the current names in encounter order.
+    *
+    * @return an unmodifiable view of the names
+    */
+   public List<String> getNames()
+   {
+      return Collections.unmodifiableList(names);
+   }
+
+   @Override
+   public int getMinChar()
+   {
+      return minChar;
+   }
+
+   /**
+    * Returns the word count used by the multi-word names section.
+    *
+    * @return the minimum word threshold
+    */
+   public int getMinWord()
+   {
+      return minWord;
+   }
+
+   @Override
+   public List<String> getLongNames()
+   {
+      return filteredLists.get(ReportSection.LONG_NAMES).view();
+   }
+
+   @Override
+   public List<String> getShortNames()
+   {
+      return filteredLists.get(ReportSection.SHORT_NAMES).view();
+   }
+
+   @Override
+   public List<String> getNamesStartingWithA()
+   {
+      return filteredLists.get(ReportSection.STARTS_WITH_A).view();
+   }
+
+   @Override
+   public List<String> getNamesEndingWithLand()
+   {
+      return filteredLists.get(ReportSection.ENDS_WITH_LAND).view();
+   }
+
+   @Override
+   public List<String> getNamesContainingUnited()
+   {
+      return filteredLists.get(ReportSection.CONTAINS_UNITED).view();
+   }
+
+   @Override
+   public List<String> getAscendingNames()
+   {
+      return expand(sortedCounts);
+   }
+
+   @Override
+   public List<String> getDescendingNames()
+   {
+      return expand(sortedCounts.descendingMap());
+   }
+
+   @Override
+   public List<String> getUniqueFirstLetterNames()
+   {
+      final List<String> result;
+
+      result = new ArrayList<>();
+
+      for(final LetterGroup group : letterGroups.values())
+      {
+         if(group.count == 1)
+         {
+            result.add(group.names.keySet().iterator().next());
+         }
+      }
+
+      return result;
+   }
+
+   @Override
+   public long getTotalCount()
+   {
+      return names.size();
+   }
+
+   @Override
+   public String getLongestName()
+   {
+      return longestRow < 0 ? null : names.get(longestRow);
+   }
+
+   @Override
+   public String getShortestName()
+   {
+      return shortestRow < 0 ? null : names.get(shortestRow);
+   }
+
+   @Override
+   public List<String> getUpperCaseNames()
+   {
+      return filteredLists.get(ReportSection.UPPER_CASE).view();
+   }
+
+   @Override
+   public List<String> getNamesWithMoreThanNWords()
+   {
+      return filteredLists.get(ReportSection.MORE_THAN_N_WORDS).view();
+   }
+
+   @Override
+   public Map<String, Integer> getCharacterCounts()
+   {
+      return Collections.unmodifiableMap(characterCounts);
+   }
+
+   @Override
+   public boolean isAnyStartsWithZ()
+   {
+      return letterGroups.containsKey(foldFirst(CountryReport.Z_PREFIX));
+   }
+
+   @Override
+   public boolean isAllLongerThanN()
+   {
+      return names.isEmpty() || minLength() > minChar;
+   }
+
+   /*
+    * Updates the sorted name counts, the length histogram and the letter groups. Returns whether
+    * the names as a multiset changed, which is what the sorted sections depend on.
+    */
+   private boolean updateSortedCounts(final NameDelta delta)
+   {
+      final List<String> removed;
+      final List<String> added;
+
+      for(final String name : delta.getRemoved())
+      {
+         sortedCounts.computeIfPresent(name, (key, count) -> count == 1 ? null : count - 1);
+         lengthCounts.computeIfPresent(name.length(), (key, count) -> count == 1 ? null : count - 1);
+
+         if(letterGroups.get(foldFirst(name)).remove(name))
+         {
+            letterGroups.remove(foldFirst(name));
+         }
+      }
+
+      for(final String name : delta.getAdded())
+      {
+         sortedCounts.merge(name, 1, Integer::sum);
+         lengthCounts.merge(name.length(), 1, Integer::sum);
+         letterGroups.computeIfAbsent(foldFirst(name), letter -> new LetterGroup()).add(name);
+      }
+
+      removed = new ArrayList<>(delta.getRemoved());
+      added   = new ArrayList<>(delta.getAdded());
+      Collections.sort(removed);
+      Collections.sort(added);
+
+      return !removed.equals(added);
+   }
+
+   /*
+    * Updates the character count map. A fresh build puts the distinct names into a HashMap in the
+    * order they first occur, and that order decides how the map iterates, so the map is kept equal
+    * to one filled in that order. Appended names only add distinct names at the end, so they are
+    * put into the existing map. Any other edit can also move the first occurrence of a name, for
+    * example by removing an earlier duplicate, so the first-occurrence order is recomputed and the
+    * map is rebuilt whenever it changed.
+    */
+   private boolean updateCharacterCounts(final NameDelta delta,
+                                         final boolean appendOnly)
+   {
+      final List<String> order;
+
+      if(appendOnly)
+      {
+         boolean changed;
+
+         changed = false;
+
+         for(final String name : delta.getAdded())
+         {
+            if(!characterCounts.containsKey(name))
+            {
+               characterCounts.put(name, name.length());
+               distinctNames.add(name);
+               changed = true;
+            }
+         }
+
+         return changed;
+      }
+
+      if(delta.getRemoved().isEmpty() && delta.getAdded().isEmpty())
+      {
+         return false;
+      }
+
+      order = firstOccurrences(names);
+
+      if(order.equals(distinctNames))
+      {
+         return false;
+      }
+
+      distinctNames   = order;
+      characterCounts = new HashMap<>();
+
+      for(final String name : order)
+      {
+         characterCounts.put(name, name.length());
+      }
+
+      return true;
+   }
+
+   /*
+    * Returns the distinct names in the order they first occur.
+    */
+   private static List<String> firstOccurrences(final List<String> names)
+   {
+      final Set<String>  seen;
+      final List<String> order;
+
+      seen  = new HashSet<>();
+      order = new ArrayList<>();
+
+      for(final String name : names)
+      {
+         if(seen.add(name))
+         {
+            order.add(name);
+         }
+      }
+
+      return order;
+   }
+
+   /*
+    * Returns the first row whose name has the given length. When the length is unchanged and the
+    * old row lies before the edit it is still the first one; otherwise the search only needs to
+    * start at the edit, unless the length itself changed.
+    */
+   private int firstRowWithLength(final int oldRow,
+                                  final int oldLength,
+                                  final int newLength,
+                                  final int from)
+   {
+      final int start;
+
+      if(newLength < 0)
+      {
+         return -1;
+      }
+
+      if(newLength == oldLength && oldRow >= 0 && oldRow < from)
+      {
+         return oldRow;
+      }
+
+      start = newLength == oldLength ? from : 0;
+
+      for(int row = start; row < names.size(); row++)
+      {
+         if(names.get(row).length() == newLength)
+         {
+            return row;
+         }
+      }
+
+      throw new IllegalStateException("No name of length " + newLength);
+   }
+
+   private int minLength()
+   {
+      return lengthCounts.isEmpty() ? -1 : lengthCounts.firstKey();
+   }
+
+   private int maxLength()
+   {
+      return lengthCounts.isEmpty() ? -1 : lengthCounts.lastKey();
+   }
+
+   private static void addIfChanged(final Set<ReportSection> affected,
+                                    final ReportSection section,
+                                    final Object before,
+                                    final Object after)
+   {
+      if(!Objects.equals(before, after))
+      {
+         affected.add(section);
+      }
+   }
+
+   private static List<String> expand(final Map<String, Integer> counts)
+   {
+      final List<String> result;
+
+      result = new ArrayList<>();
+
+      for(final Map.Entry<String, Integer> entry : counts.entrySet())
+      {
+         for(int i = 0; i < entry.getValue(); i++)
+         {
+            result.add(entry.getKey());
+         }
+      }
+
+      return Collections.unmodifiableList(result);
+   }
+
+   /*
+    * Folds the first character of a name the same way PrefixTrie does.
+    */
+   private static char foldFirst(final String name)
+   {
+      return Character.toUpperCase(name.charAt(0));
+   }
+
+   /*
+    * The names of one section that pass its filter, kept in encounter order.
+    */
+   private static final class FilteredList
+   {
+      private final ReportSection         section;
+      private final Predicate<String>     filter;
+      private final UnaryOperator<String> mapper;
+      private final List<String>          values;
+
+      private FilteredList(final ReportSection section,
+                           final Predicate<String> filter,
+                           final UnaryOperator<String> mapper)
+      {
+         this.section = section;
+         this.filter  = filter;
+         this.mapper  = mapper;
+         this.values  = new ArrayList<>();
+      }
+
+      /*
+       * Replaces the values of the removed names with those of the added names. The insert
+       * position is the number of matches before the edit, counted from whichever end of the old
+       * names is closer. Returns whether the values changed.
+       */
+      private boolean splice(final List<String> oldNames,
+                             final NameDelta delta)
+      {
+         final List<String> removedValues;
+         final List<String> addedValues;
+         final int          suffixStart;
+         final int          position;
+
+         removedValues = matching(delta.getRemoved());
+         addedValues   = matching(delta.getAdded());
+
+         if(removedValues.equals(addedValues))
+         {
+            return false;
+         }
+
+         suffixStart = delta.getFrom() + delta.getRemoved().size();
+
+         if(delta.getFrom() <= oldNames.size() - suffixStart)
+         {
+            position = countMatches(oldNames, 0, delta.getFrom());
+         } else
+         {
+            position = values.size() - removedValues.size() - countMatches(oldNames, suffixStart, oldNames.size());
+         }
+
+         values.subList(position, position + removedValues.size()).clear();
+         values.addAll(position, addedValues);
+
+         return true;
+      }
+
+      private List<String> view()
+      {
+         return Collections.unmodifiableList(values);
+      }
+
+      private List<String> matching(final List<String> names)
+      {
+         final List<String> result;
+
+         result = new ArrayList<>();
+
+         for(final String name : names)
+         {
+            if(filter.test(name))
+            {
+               result.add(mapper.apply(name));
+            }
+         }
+
+         return result;
+      }
+
+      private int countMatches(final List<String> names,
+                               final int from,
+                               final int to)
+      {
+         int count;
+
+         count = 0;
+
+         for(int row = from; row < to; row++)
+         {
+            if(filter.test(names.get(row)))
+            {
+               count++;
+            }
+         }
+
+         return count;
+      }
+   }
+
+   /*
+    * The names sharing one folded first letter, counted with duplicates.
+    */
+   private static final class LetterGroup
+   {
+      private final Map<String, Integer> names;
+      private int                        count;
+
+      private LetterGroup()
+      {
+         this.names = new HashMap<>();
+      }
+
+      private void add(final String name)
+      {
+         names.merge(name, 1, Integer::sum);
+         count++;
+      }
+
+      /*
+       * Removes one occurrence of the name. Returns whether the group is now empty.
+       */
+      private boolean remove(final String name)
+      {
+         names.computeIfPresent(name, (key, value) -> value == 1 ? null : value - 1);
+         count--;
+
+         return count == 0;
+      }
+   }
+}
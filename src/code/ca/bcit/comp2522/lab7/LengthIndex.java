@@ -0,0 +1,316 @@
+package ca.bcit.comp2522.lab7;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An index of country names bucketed by name length, with a primitive length histogram.
+ * <p>
+ * The rows are counting-sorted by length once, so each bucket is a contiguous run of rows in
+ * input order and the histogram's running totals give every count directly. Minimum and maximum
+ * length, "all longer than" and counts are answered from the histogram alone; listing the names in
+ * a length range touches only the buckets in the range and the matching rows. Listed names are
+ * returned in the order they were given to the index: the matching rows are marked in a bitset
+ * that is then read in row order, so a range of r names costs O(r + n / 64) with no sorting.
+ * </p>
+ * <p>
+ * Example usage:
+ * <pre>
+ *     LengthIndex index = new LengthIndex(names);
+ *     List&lt;String&gt; longNames = index.longerThan(10);
+ *     boolean allLong = index.allLongerThan(3);
+ *     String longest = index.longest();
+ * </pre>
+ * </p>
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+public final class LengthIndex
+{
+   private final String[] names;
+   private final int[]    bucketStarts;
+   private final int[]    rowsByLength;
+   private final int      minLength;
+   private final int      maxLength;
+
+   /**
+    * Constructs a LengthIndex over the given names.
+    *
+    * @param names the country names to index, in the order results should be returned
+    */
+   public LengthIndex(final List<String> names)
+   {
+      this(names, lengthsOf(names));
+   }
+
+   /*
+    * Constructs a LengthIndex over names whose lengths are already known, such as the length
+    * column of a CountryTable. lengths[row] must be the length of the name in that row.
+    */
+   LengthIndex(final List<String> names,
+               final int[] lengths)
+   {
+      final int[] histogram;
+      final int[] nextSlot;
+      int         min;
+      int         max;
+
+      this.names = names.toArray(new String[0]);
+
+      min = Integer.MAX_VALUE;
+      max = -1;
+
+      for(int row = 0; row < this.names.length; row++)
+      {
+         min = Math.min(min, lengths[row]);
+         max = Math.max(max, lengths[row]);
+      }
+
+      this.minLength = this.names.length == 0 ? -1 : min;
+      this.maxLength = max;
+
+      histogram = new int[max + 1];
+
+      for(int row = 0; row < this.names.length; row++)
+      {
+         histogram[lengths[row]]++;
+      }
+
+      this.bucketStarts = new int[max + 2];
+
+      for(int length = 0; length <= max; length++)
+      {
+         bucketStarts[length + 1] = bucketStarts[length] + histogram[length];
+      }
+
+      this.rowsByLength = new int[this.names.length];
+      nextSlot          = Arrays.copyOf(bucketStarts, max + 1);
+
+      for(int row = 0; row < this.names.length; row++)
+      {
+         rowsByLength[nextSlot[lengths[row]]++] = row;
+      }
+   }
+
+   /**
+    * Returns the number of indexed names.
+    *
+    * @return the name count
+    */
+   public int size()
+   {
+      return names.length;
+   }
+
+   /**
+    * Returns the length of the shortest name.
+    *
+    * @return the minimum length, or -1 if there are no names
+    */
+   public int minLength()
+   {
+      return minLength;
+   }
+
+   /**
+    * Returns the length of the longest name.
+    *
+    * @return the maximum length, or -1 if there are no names
+    */
+   public int maxLength()
+   {
+      return maxLength;
+   }
+
+   /**
+    * Returns the first of the longest names.
+    *
+    * @return the longest name, or null if there are no names
+    */
+   public String longest()
+   {
+      return maxLength < 0 ? null : names[rowsByLength[bucketStarts[maxLength]]];
+   }
+
+   /**
+    * Returns the first of the shortest names.
+    *
+    * @return the shortest name, or null if there are no names
+    */
+   public String shortest()
+   {
+      return minLength < 0 ? null : names[rowsByLength[bucketStarts[minLength]]];
+   }
+
+   /**
+    * Returns how many names have each length.
+    *
+    * @return an array whose element i is the number of names of length i
+    */
+   public int[] histogram()
+   {
+      final int[] histogram;
+
+      histogram = new int[maxLength + 1];
+
+      for(int length = 0; length <= maxLength; length++)
+      {
+         histogram[length] = bucketStarts[length + 1] - bucketStarts[length];
+      }
+
+      return histogram;
+   }
+
+   /**
+    * Returns whether every name is longer than n characters. This is true when there are no names.
+    *
+    * @param n the length every name must exceed
+    * @return true if all names are longer than n
+    */
+   public boolean allLongerThan(final int n)
+   {
+      return names.length == 0 || minLength > n;
+   }
+
+   /**
+    * Returns how many names have a length between min and max, both inclusive.
+    *
+    * @param min the smallest length counted
+    * @param max the largest length counted
+    * @return the number of names in the length range
+    */
+   public int countBetween(final int min,
+                           final int max)
+   {
+      return bucketStart(max + 1L) - bucketStart(min);
+   }
+
+   /**
+    * Returns the names with a length between min and max, both inclusive, in insertion order.
+    *
+    * @param min the smallest length included
+    * @param max the largest length included
+    * @return the names in the length range
+    */
+   public List<String> lengthBetween(final int min,
+                                     final int max)
+   {
+      final int          from;
+      final int          to;
+      final long[]       selected;
+      final List<String> result;
+
+      from = bucketStart(min);
+      to   = bucketStart(max + 1L);
+
+      if(from >= to)
+      {
+         return List.of();
+      }
+
+      result = new ArrayList<>(to - from);
+
+      // A single bucket is already in input order.
+      if(names[rowsByLength[from]].length() == names[rowsByLength[to - 1]].length())
+      {
+         for(int i = from; i < to; i++)
+         {
+            result.add(names[rowsByLength[i]]);
+         }
+
+         return result;
+      }
+
+      selected = new long[(names.length + 63) >>> 6];
+
+      for(int i = from; i < to; i++)
+      {
+         final int row;
+
+         row                  = rowsByLength[i];
+         selected[row >>> 6] |= 1L << row;
+      }
+
+      for(int word = 0; word < selected.length; word++)
+      {
+         long bits;
+
+         bits = selected[word];
+
+         while(bits != 0)
+         {
+            result.add(names[(word << 6) + Long.numberOfTrailingZeros(bits)]);
+            bits &= bits - 1;
+         }
+      }
+
+      return result;
+   }
+
+   /**
+    * Returns the names longer than n characters, in insertion order.
+    *
+    * @param n the length the names must exceed
+    * @return the names longer than n
+    */
+   public List<String> longerThan(final int n)
+   {
+      if(n >= maxLength)
+      {
+         return List.of();
+      }
+
+      return lengthBetween(n + 1, Integer.MAX_VALUE);
+   }
+
+   /**
+    * Returns the names shorter than n characters, in insertion order.
+    *
+    * @param n the length the names must be below
+    * @return the names shorter than n
+    */
+   public List<String> shorterThan(final int n)
+   {
+      if(n <= minLength)
+      {
+         return List.of();
+      }
+
+      return lengthBetween(0, n - 1);
+   }
+
+   /*
+    * Returns the position in rowsByLength of the first row with at least the given length.
+    */
+   private int bucketStart(final long length)
+   {
+      if(length <= 0)
+      {
+         return 0;
+      }
+
+      if(length > maxLength)
+      {
+         return names.length;
+      }
+
+      return bucketStarts[(int) length];
+   }
+
+   private static int[] lengthsOf(final List<String> names)
+   {
+      final int[] lengths;
+
+      lengths = new int[names.size()];
+
+      for(int row = 0; row < lengths.length; row++)
+      {
+         lengths[row] = names.get(row).length();
+      }
+
+      return lengths;
+   }
+}
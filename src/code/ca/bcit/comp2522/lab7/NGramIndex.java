@@ -0,0 +1,416 @@
+package ca.bcit.comp2522.lab7;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A case-insensitive trigram index for "contains" queries over country names.
+ * <p>
+ * Every run of three characters in a name is folded to lower case and packed into a long key, and
+ * each key maps to a sorted {@code int[]} of the rows whose names contain it. A query of three or
+ * more characters intersects the postings of its own trigrams and then checks only the surviving
+ * candidates, comparing characters in place. Shorter queries have no trigram to look up and fall
+ * back to checking every name the same way. No lower-case copies of the names or the query are
+ * made, and results are returned in the order the names were given to the index.
+ * </p>
+ * <p>
+ * Example usage:
+ * <pre>
+ *     NGramIndex index = new NGramIndex(names);
+ *     List&lt;String&gt; united = index.containing("united");
+ * </pre>
+ * </p>
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+public final class NGramIndex
+{
+   private static final int  GRAM_LENGTH       = 3;
+   private static final int  CHAR_BITS         = 16;
+   private static final long GRAM_MASK         = (1L << (CHAR_BITS * GRAM_LENGTH)) - 1;
+   private static final long HASH_MULTIPLIER   = 0x9E3779B97F4A7C15L;
+   private static final int  INITIAL_CAPACITY  = 1 << 10;
+   private static final int  INITIAL_POSTINGS  = 4;
+   private static final int  EMPTY_SLOT        = -1;
+
+   private final String[] names;
+   private long[]         slotKeys;
+   private int[]          slotGrams;
+   private int            slotShift;
+   private int[][]        postings;
+   private int[]          postingSizes;
+   private int            gramCount;
+
+   /**
+    * Constructs an NGramIndex over the given names.
+    *
+    * @param names the country names to index, in the order results should be returned
+    */
+   public NGramIndex(final List<String> names)
+   {
+      this.names        = names.toArray(new String[0]);
+      this.slotKeys     = new long[INITIAL_CAPACITY];
+      this.slotGrams    = new int[INITIAL_CAPACITY];
+      this.slotShift    = Long.SIZE - Integer.numberOfTrailingZeros(INITIAL_CAPACITY);
+      this.postings     = new int[INITIAL_CAPACITY / 2][];
+      this.postingSizes = new int[INITIAL_CAPACITY / 2];
+
+      Arrays.fill(slotGrams, EMPTY_SLOT);
+
+      for(int row = 0; row < this.names.length; row++)
+      {
+         indexRow(row);
+      }
+   }
+
+   /**
+    * Returns the number of indexed names.
+    *
+    * @return the name count
+    */
+   public int size()
+   {
+      return names.length;
+   }
+
+   /**
+    * Returns the number of distinct trigrams in the index.
+    *
+    * @return the trigram count
+    */
+   public int trigramCount()
+   {
+      return gramCount;
+   }
+
+   /**
+    * Returns whether any name contains the given text, ignoring case.
+    *
+    * @param text the text to look for
+    * @return true if at least one name contains the text
+    */
+   public boolean anyContaining(final String text)
+   {
+      final int[] candidates;
+
+      candidates = candidates(text);
+
+      for(final int row : candidates)
+      {
+         if(containsIgnoreCase(names[row], text))
+         {
+            return true;
+         }
+      }
+
+      return false;
+   }
+
+   /**
+    * Returns every name containing the given text, ignoring case, in insertion order.
+    *
+    * @param text the text to look for
+    * @return the names containing the text
+    */
+   public List<String> containing(final String text)
+   {
+      final int[]        candidates;
+      final List<String> result;
+
+      candidates = candidates(text);
+      result     = new ArrayList<>();
+
+      for(final int row : candidates)
+      {
+         if(containsIgnoreCase(names[row], text))
+         {
+            result.add(names[row]);
+         }
+      }
+
+      return result;
+   }
+
+   /*
+    * Returns the sorted rows that may contain the text: the intersection of its trigram postings,
+    * or every row when the text is too short to have a trigram.
+    */
+   private int[] candidates(final String text)
+   {
+      final int   gramTotal;
+      final int[] lists;
+      int[]       result;
+      int         resultSize;
+      long        key;
+
+      if(text.length() < GRAM_LENGTH)
+      {
+         result = new int[names.length];
+
+         for(int row = 0; row < result.length; row++)
+         {
+            result[row] = row;
+         }
+
+         return result;
+      }
+
+      gramTotal = text.length() - GRAM_LENGTH + 1;
+      lists     = new int[gramTotal];
+      key       = 0;
+
+      for(int i = 0; i < text.length(); i++)
+      {
+         key = ((key << CHAR_BITS) | fold(text.charAt(i))) & GRAM_MASK;
+
+         if(i >= GRAM_LENGTH - 1)
+         {
+            final int gram;
+
+            gram = findGram(key);
+
+            if(gram == EMPTY_SLOT)
+            {
+               return new int[0];
+            }
+
+            lists[i - GRAM_LENGTH + 1] = gram;
+         }
+      }
+
+      sortBySize(lists);
+
+      result     = Arrays.copyOf(postings[lists[0]], postingSizes[lists[0]]);
+      resultSize = result.length;
+
+      for(int i = 1; i < lists.length && resultSize > 0; i++)
+      {
+         if(lists[i] != lists[i - 1])
+         {
+            resultSize = intersect(result, resultSize, postings[lists[i]], postingSizes[lists[i]]);
+         }
+      }
+
+      return Arrays.copyOf(result, resultSize);
+   }
+
+   private void sortBySize(final int[] grams)
+   {
+      for(int i = 1; i < grams.length; i++)
+      {
+         final int gram;
+         int       j;
+
+         gram = grams[i];
+         j    = i - 1;
+
+         while(j >= 0 && postingSizes[grams[j]] > postingSizes[gram])
+         {
+            grams[j + 1] = grams[j];
+            j--;
+         }
+
+         grams[j + 1] = gram;
+      }
+   }
+
+   /*
+    * Keeps the rows of target[0, targetSize) that also appear in other[0, otherSize), both sorted.
+    * Returns the new size of target.
+    */
+   private static int intersect(final int[] target,
+                                final int targetSize,
+                                final int[] other,
+                                final int otherSize)
+   {
+      int kept;
+      int j;
+
+      kept = 0;
+      j    = 0;
+
+      for(int i = 0; i < targetSize && j < otherSize; i++)
+      {
+         while(j < otherSize && other[j] < target[i])
+         {
+            j++;
+         }
+
+         if(j < otherSize && other[j] == target[i])
+         {
+            target[kept++] = target[i];
+         }
+      }
+
+      return kept;
+   }
+
+   private void indexRow(final int row)
+   {
+      final String name;
+      long         key;
+
+      name = names[row];
+      key  = 0;
+
+      for(int i = 0; i < name.length(); i++)
+      {
+         key = ((key << CHAR_BITS) | fold(name.charAt(i))) & GRAM_MASK;
+
+         if(i >= GRAM_LENGTH - 1)
+         {
+            addPosting(findOrAddGram(key), row);
+         }
+      }
+   }
+
+   private void addPosting(final int gram,
+                           final int row)
+   {
+      final int size;
+
+      size = postingSizes[gram];
+
+      if(size > 0 && postings[gram][size - 1] == row)
+      {
+         return;
+      }
+
+      if(size == postings[gram].length)
+      {
+         postings[gram] = Arrays.copyOf(postings[gram], size * 2);
+      }
+
+      postings[gram][size] = row;
+      postingSizes[gram]   = size + 1;
+   }
+
+   private int findGram(final long key)
+   {
+      int slot;
+
+      slot = slotFor(key);
+
+      while(slotGrams[slot] != EMPTY_SLOT)
+      {
+         if(slotKeys[slot] == key)
+         {
+            return slotGrams[slot];
+         }
+
+         slot = (slot + 1) & (slotKeys.length - 1);
+      }
+
+      return EMPTY_SLOT;
+   }
+
+   private int findOrAddGram(final long key)
+   {
+      int slot;
+
+      slot = slotFor(key);
+
+      while(slotGrams[slot] != EMPTY_SLOT)
+      {
+         if(slotKeys[slot] == key)
+         {
+            return slotGrams[slot];
+         }
+
+         slot = (slot + 1) & (slotKeys.length - 1);
+      }
+
+      if(gramCount == postings.length)
+      {
+         postings     = Arrays.copyOf(postings, gramCount * 2);
+         postingSizes = Arrays.copyOf(postingSizes, gramCount * 2);
+      }
+
+      postings[gramCount] = new int[INITIAL_POSTINGS];
+      slotKeys[slot]      = key;
+      slotGrams[slot]     = gramCount;
+      gramCount++;
+
+      if(gramCount * 2 > slotKeys.length)
+      {
+         growSlots();
+      }
+
+      return gramCount - 1;
+   }
+
+   private void growSlots()
+   {
+      final long[] oldKeys;
+      final int[]  oldGrams;
+
+      oldKeys   = slotKeys;
+      oldGrams  = slotGrams;
+      slotKeys  = new long[oldKeys.length * 2];
+      slotGrams = new int[oldGrams.length * 2];
+      slotShift--;
+
+      Arrays.fill(slotGrams, EMPTY_SLOT);
+
+      for(int i = 0; i < oldKeys.length; i++)
+      {
+         if(oldGrams[i] != EMPTY_SLOT)
+         {
+            int slot;
+
+            slot = slotFor(oldKeys[i]);
+
+            while(slotGrams[slot] != EMPTY_SLOT)
+            {
+               slot = (slot + 1) & (slotKeys.length - 1);
+            }
+
+            slotKeys[slot]  = oldKeys[i];
+            slotGrams[slot] = oldGrams[i];
+         }
+      }
+   }
+
+   private int slotFor(final long key)
+   {
+      return (int) ((key * HASH_MULTIPLIER) >>> slotShift);
+   }
+
+   /*
+    * Returns whether the name contains the text, folding each character the same way the index does.
+    */
+   static boolean containsIgnoreCase(final String name,
+                                     final String text)
+   {
+      final int last;
+
+      last = name.length() - text.length();
+
+      for(int start = 0; start <= last; start++)
+      {
+         int i;
+
+         i = 0;
+
+         while(i < text.length() && fold(name.charAt(start + i)) == fold(text.charAt(i)))
+         {
+            i++;
+         }
+
+         if(i == text.length())
+         {
+            return true;
+         }
+      }
+
+      return false;
+   }
+
+   private static char fold(final char c)
+   {
+      return Character.toLowerCase(c);
+   }
+}
@@ -0,0 +1,122 @@
+package ca.bcit.comp2522.lab7;
+
+import java.util.List;
+
+/**
+ * The difference between two versions of the country name list, as one contiguous edit.
+ * <p>
+ * The names both versions share at the start and at the end are skipped, and whatever is left
+ * in between is the edit: the names removed from the old version starting at {@link #getFrom()},
+ * replaced by the names added in their place. Appending lines gives an edit at the end of the list
+ * with nothing removed, and deleting lines gives one with nothing added.
+ * </p>
+ * <p>
+ * Example usage:
+ * <pre>
+ *     NameDelta delta = NameDelta.between(List.of("Chad", "Peru"), List.of("Chad", "Cuba", "Peru"));
+ *     delta.getFrom();     // 1
+ *     delta.getAdded();    // [Cuba]
+ * </pre>
+ * </p>
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+public final class NameDelta
+{
+   private final int          from;
+   private final List<String> removed;
+   private final List<String> added;
+
+   private NameDelta(final int from,
+                     final List<String> removed,
+                     final List<String> added)
+   {
+      this.from    = from;
+      this.removed = removed;
+      this.added   = added;
+   }
+
+   /**
+    * Returns the edit that turns the old names into the new names.
+    *
+    * @param oldNames the names before the edit
+    * @param newNames the names after the edit
+    * @return the delta between the two lists
+    */
+   public static NameDelta between(final List<String> oldNames,
+                                   final List<String> newNames)
+   {
+      final int shared;
+      int       prefix;
+      int       suffix;
+
+      shared = Math.min(oldNames.size(), newNames.size());
+      prefix = 0;
+
+      while(prefix < shared && oldNames.get(prefix).equals(newNames.get(prefix)))
+      {
+         prefix++;
+      }
+
+      suffix = 0;
+
+      while(suffix < shared - prefix &&
+            oldNames.get(oldNames.size() - 1 - suffix).equals(newNames.get(newNames.size() - 1 - suffix)))
+      {
+         suffix++;
+      }
+
+      return new NameDelta(prefix,
+                           List.copyOf(oldNames.subList(prefix, oldNames.size() - suffix)),
+                           List.copyOf(newNames.subList(prefix, newNames.size() - suffix)));
+   }
+
+   /**
+    * Returns the position of the first removed name in the old list, which is also the position
+    * of the first added name in the new list.
+    *
+    * @return the start of the edit
+    */
+   public int getFrom()
+   {
+      return from;
+   }
+
+   /**
+    * Returns the names removed from the old list, in order.
+    *
+    * @return the removed names
+    */
+   public List<String> getRemoved()
+   {
+      return removed;
+   }
+
+   /**
+    * Returns the names added to the new list, in order.
+    *
+    * @return the added names
+    */
+   public List<String> getAdded()
+   {
+      return added;
+   }
+
+   /**
+    * Returns whether the two lists were equal.
+    *
+    * @return true if nothing was removed or added
+    */
+   public boolean isEmpty()
+   {
+      return removed.isEmpty() && added.isEmpty();
+   }
+
+   @Override
+   public String toString()
+   {
+      return "+" + added.size() + "/-" + removed.size() + " line(s) at " + from;
+   }
+}
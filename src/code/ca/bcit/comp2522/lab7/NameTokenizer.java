@@ -0,0 +1,227 @@
+package ca.bcit.comp2522.lab7;
+
+/**
+ * Splits country names into words without allocating anything.
+ * <p>
+ * A word is a run of characters that are not separators, and the separators are space, tab and
+ * hyphen. Any run of separators counts as a single word boundary and leading or trailing
+ * separators start no word, so "Guinea-Bissau", "Guinea Bissau" and " Guinea  Bissau " all have
+ * two words. Words are reported as [start, end) positions in the original text rather than as
+ * substrings, and counting stops as soon as the answer is known.
+ * </p>
+ * <p>
+ * Example usage:
+ * <pre>
+ *     int words = NameTokenizer.countWords("Saint Kitts and Nevis");          // 4
+ *     boolean many = NameTokenizer.hasMoreWordsThan("Saint Kitts and Nevis", 3);
+ *     NameTokenizer.forEachWord(name, (text, start, end) -&gt; ...);
+ * </pre>
+ * </p>
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+public final class NameTokenizer
+{
+   private NameTokenizer()
+   {
+   }
+
+   /**
+    * Returns whether the character separates words.
+    *
+    * @param c the character to check
+    * @return true for space, tab and hyphen
+    */
+   public static boolean isSeparator(final char c)
+   {
+      return c == ' ' || c == '\t' || c == '-';
+   }
+
+   /**
+    * Counts the words in the text.
+    *
+    * @param text the text to scan
+    * @return the number of words
+    */
+   public static int countWords(final CharSequence text)
+   {
+      return countWordsUpTo(text, Integer.MAX_VALUE);
+   }
+
+   /**
+    * Counts the words in the UTF-8 encoded bytes[start, end). The separators are all ASCII, and
+    * UTF-8 never uses an ASCII byte inside a multi-byte character, so the count is the same as for
+    * the decoded text.
+    *
+    * @param bytes the buffer holding the encoded text
+    * @param start the index of the first byte
+    * @param end   the index after the last byte
+    * @return the number of words
+    */
+   public static int countWords(final byte[] bytes,
+                                final int start,
+                                final int end)
+   {
+      boolean inWord;
+      int     words;
+
+      inWord = false;
+      words  = 0;
+
+      for(int i = start; i < end; i++)
+      {
+         final boolean separator;
+
+         separator = bytes[i] >= 0 && isSeparator((char) bytes[i]);
+
+         if(!separator && !inWord)
+         {
+            words++;
+         }
+
+         inWord = !separator;
+      }
+
+      return words;
+   }
+
+   /**
+    * Returns whether the text has more than n words, scanning no further than the (n + 1)th word.
+    *
+    * @param text the text to scan
+    * @param n    the word count to exceed
+    * @return true if the text has more than n words
+    */
+   public static boolean hasMoreWordsThan(final CharSequence text,
+                                          final int n)
+   {
+      if(n < 0)
+      {
+         return true;
+      }
+
+      if(n == Integer.MAX_VALUE)
+      {
+         return false;
+      }
+
+      return countWordsUpTo(text, n + 1) > n;
+   }
+
+   /**
+    * Returns the position of the first word character at or after {@code from}.
+    *
+    * @param text the text to scan
+    * @param from the position to start at
+    * @return the start of the next word, or the text length if there are no more words
+    */
+   public static int nextWordStart(final CharSequence text,
+                                   final int from)
+   {
+      int index;
+
+      index = from;
+
+      while(index < text.length() && isSeparator(text.charAt(index)))
+      {
+         index++;
+      }
+
+      return index;
+   }
+
+   /**
+    * Returns the position just after the word that starts at {@code start}.
+    *
+    * @param text  the text to scan
+    * @param start the start of a word
+    * @return the end of the word
+    */
+   public static int wordEnd(final CharSequence text,
+                             final int start)
+   {
+      int index;
+
+      index = start;
+
+      while(index < text.length() && !isSeparator(text.charAt(index)))
+      {
+         index++;
+      }
+
+      return index;
+   }
+
+   /**
+    * Passes the [start, end) position of every word in the text to the visitor, in order.
+    *
+    * @param text    the text to scan
+    * @param visitor the visitor receiving each word
+    */
+   public static void forEachWord(final CharSequence text,
+                                  final WordVisitor visitor)
+   {
+      int start;
+
+      start = nextWordStart(text, 0);
+
+      while(start < text.length())
+      {
+         final int end;
+
+         end = wordEnd(text, start);
+         visitor.visit(text, start, end);
+         start = nextWordStart(text, end);
+      }
+   }
+
+   private static int countWordsUpTo(final CharSequence text,
+                                     final int limit)
+   {
+      boolean inWord;
+      int     words;
+
+      inWord = false;
+      words  = 0;
+
+      for(int i = 0; i < text.length() && words < limit; i++)
+      {
+         final boolean separator;
+
+         separator = isSeparator(text.charAt(i));
+
+         if(!separator && !inWord)
+         {
+            words++;
+         }
+
+         inWord = !separator;
+      }
+
+      return words;
+   }
+
+   /**
+    * Receives the position of one word of a scanned text.
+    *
+    * @author Linh Hoang
+    * @author Pouyan Norouzi Iranzadeh
+    * @version 1.0
+    */
+   @FunctionalInterface
+   public interface WordVisitor
+   {
+      /**
+       * Visits the word text[start, end).
+       *
+       * @param text  the scanned text
+       * @param start the index of the first character of the word
+       * @param end   the index after the last character of the word
+       */
+      void visit(CharSequence text,
+                 int start,
+                 int end);
+   }
+}
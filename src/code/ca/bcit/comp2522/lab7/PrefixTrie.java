@@ -0,0 +1,405 @@
+package ca.bcit.comp2522.lab7;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A case-insensitive prefix trie over country names, built once and queried many times.
+ * <p>
+ * Every character is folded to upper case before it is compared, so "zambia", "Zambia" and
+ * "ZAMBIA" all match the prefix "z". The trie is stored flat: the rows are sorted once by their
+ * folded names, so the names under any trie node form one contiguous range of that order, found by
+ * two binary searches. Existence and count questions cost O(p log n) for a prefix of p characters
+ * and no more memory than one int per name. Listing the names under a prefix puts the range back
+ * in the order the names were given to the trie with a radix sort, so it costs time proportional
+ * to the number of results.
+ * </p>
+ * <p>
+ * Example usage:
+ * <pre>
+ *     PrefixTrie trie = new PrefixTrie(names);
+ *     List&lt;String&gt; names = trie.withPrefix("united");
+ *     boolean anyZ = trie.anyWithPrefix("z");
+ *     List&lt;String&gt; loners = trie.namesWithUniquePrefix(1);
+ * </pre>
+ * </p>
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+public final class PrefixTrie
+{
+   private static final int RADIX_BITS      = 8;
+   private static final int INSERTION_LIMIT = 32;
+
+   private final String[] names;
+   private final int[]    foldedRows;
+
+   /**
+    * Constructs a PrefixTrie holding the given names.
+    *
+    * @param names the country names to index, in the order results should be returned
+    */
+   public PrefixTrie(final List<String> names)
+   {
+      this.names      = names.toArray(new String[0]);
+      this.foldedRows = new int[this.names.length];
+
+      for(int row = 0; row < foldedRows.length; row++)
+      {
+         foldedRows[row] = row;
+      }
+
+      sortByFoldedName(foldedRows, new int[foldedRows.length], 0, foldedRows.length);
+   }
+
+   /**
+    * Returns the number of names in the trie.
+    *
+    * @return the name count
+    */
+   public int size()
+   {
+      return names.length;
+   }
+
+   /**
+    * Returns whether any name starts with the given prefix, ignoring case.
+    *
+    * @param prefix the prefix to look for
+    * @return true if at least one name has the prefix
+    */
+   public boolean anyWithPrefix(final String prefix)
+   {
+      return countWithPrefix(prefix) > 0;
+   }
+
+   /**
+    * Returns how many names start with the given prefix, ignoring case.
+    *
+    * @param prefix the prefix to look for
+    * @return the number of names with the prefix
+    */
+   public int countWithPrefix(final String prefix)
+   {
+      return firstAfter(prefix) - firstWith(prefix);
+   }
+
+   /**
+    * Returns every name starting with the given prefix, ignoring case, in insertion order.
+    *
+    * @param prefix the prefix to look for
+    * @return the names with the prefix
+    */
+   public List<String> withPrefix(final String prefix)
+   {
+      final int          from;
+      final int          to;
+      final int[]        rows;
+      final List<String> result;
+
+      from = firstWith(prefix);
+      to   = firstAfter(prefix);
+
+      if(from >= to)
+      {
+         return List.of();
+      }
+
+      rows   = new int[to - from];
+      result = new ArrayList<>(rows.length);
+      System.arraycopy(foldedRows, from, rows, 0, rows.length);
+      sortRows(rows);
+
+      for(final int row : rows)
+      {
+         result.add(names[row]);
+      }
+
+      return result;
+   }
+
+   /**
+    * Returns the names that are the only name starting with their first {@code length} characters,
+    * ignoring case. With a length of 1 these are the names whose first letter no other name shares.
+    * Names are returned in alphabetical order of their prefixes.
+    *
+    * @param length the prefix length, must be positive
+    * @return the names with a prefix of that length no other name shares
+    * @throws IllegalArgumentException if the length is not positive
+    */
+   public List<String> namesWithUniquePrefix(final int length)
+   {
+      final List<String> result;
+      int                i;
+
+      if(length <= 0)
+      {
+         throw new IllegalArgumentException("Prefix length must be positive: " + length);
+      }
+
+      result = new ArrayList<>();
+      i      = 0;
+
+      // Names sharing a prefix are next to each other in folded order, and a name too short to
+      // have the prefix never sorts between two that do.
+      while(i < foldedRows.length)
+      {
+         final String name;
+         int          end;
+
+         name = names[foldedRows[i]];
+         end  = i + 1;
+
+         if(name.length() < length)
+         {
+            i = end;
+            continue;
+         }
+
+         while(end < foldedRows.length && comparePrefix(names[foldedRows[end]], name, length) == 0)
+         {
+            end++;
+         }
+
+         if(end - i == 1)
+         {
+            result.add(name);
+         }
+
+         i = end;
+      }
+
+      return result;
+   }
+
+   /*
+    * Returns the position in foldedRows of the first name that starts with the prefix or sorts
+    * after it.
+    */
+   private int firstWith(final String prefix)
+   {
+      int low;
+      int high;
+
+      low  = 0;
+      high = foldedRows.length;
+
+      while(low < high)
+      {
+         final int mid;
+
+         mid = (low + high) >>> 1;
+
+         if(comparePrefix(names[foldedRows[mid]], prefix, prefix.length()) < 0)
+         {
+            low = mid + 1;
+         } else
+         {
+            high = mid;
+         }
+      }
+
+      return low;
+   }
+
+   /*
+    * Returns the position in foldedRows of the first name that sorts after every name starting
+    * with the prefix.
+    */
+   private int firstAfter(final String prefix)
+   {
+      int low;
+      int high;
+
+      low  = 0;
+      high = foldedRows.length;
+
+      while(low < high)
+      {
+         final int mid;
+
+         mid = (low + high) >>> 1;
+
+         if(comparePrefix(names[foldedRows[mid]], prefix, prefix.length()) <= 0)
+         {
+            low = mid + 1;
+         } else
+         {
+            high = mid;
+         }
+      }
+
+      return low;
+   }
+
+   /*
+    * Compares a name with the first length characters of a prefix, ignoring case. Returns zero if
+    * the name starts with them, and otherwise the sign of where the name sorts relative to them.
+    */
+   private static int comparePrefix(final String name,
+                                    final String prefix,
+                                    final int length)
+   {
+      final int shared;
+
+      shared = Math.min(name.length(), length);
+
+      for(int i = 0; i < shared; i++)
+      {
+         final char a;
+         final char b;
+
+         a = fold(name.charAt(i));
+         b = fold(prefix.charAt(i));
+
+         if(a != b)
+         {
+            return a < b ? -1 : 1;
+         }
+      }
+
+      return name.length() < length ? -1 : 0;
+   }
+
+   /*
+    * Stable merge sort of rows[from, to) by folded name, using scratch as the merge buffer, the
+    * same way CountrySnapshot sorts its rows by name.
+    */
+   private void sortByFoldedName(final int[] rows,
+                                 final int[] scratch,
+                                 final int from,
+                                 final int to)
+   {
+      final int mid;
+      int       left;
+      int       right;
+
+      if(to - from < 2)
+      {
+         return;
+      }
+
+      mid = (from + to) >>> 1;
+      sortByFoldedName(rows, scratch, from, mid);
+      sortByFoldedName(rows, scratch, mid, to);
+
+      if(compareFolded(names[rows[mid - 1]], names[rows[mid]]) <= 0)
+      {
+         return;
+      }
+
+      System.arraycopy(rows, from, scratch, from, to - from);
+      left  = from;
+      right = mid;
+
+      for(int i = from; i < to; i++)
+      {
+         if(right >= to ||
+            (left < mid && compareFolded(names[scratch[left]], names[scratch[right]]) <= 0))
+         {
+            rows[i] = scratch[left++];
+         } else
+         {
+            rows[i] = scratch[right++];
+         }
+      }
+   }
+
+   private static int compareFolded(final String first,
+                                    final String second)
+   {
+      final int compared;
+
+      compared = comparePrefix(first, second, second.length());
+
+      if(compared != 0)
+      {
+         return compared;
+      }
+
+      return first.length() == second.length() ? 0 : 1;
+   }
+
+   /*
+    * Sorts rows into ascending order in time linear in their number: insertion sort for a few rows,
+    * otherwise an LSD radix sort over as many 8-bit digits as the largest row needs.
+    */
+   private void sortRows(final int[] rows)
+   {
+      final int[] counts;
+      int[]       from;
+      int[]       to;
+
+      if(rows.length <= INSERTION_LIMIT)
+      {
+         for(int i = 1; i < rows.length; i++)
+         {
+            final int row;
+            int       j;
+
+            row = rows[i];
+            j   = i - 1;
+
+            while(j >= 0 && rows[j] > row)
+            {
+               rows[j + 1] = rows[j];
+               j--;
+            }
+
+            rows[j + 1] = row;
+         }
+
+         return;
+      }
+
+      counts = new int[1 << RADIX_BITS];
+      from   = rows;
+      to     = new int[rows.length];
+
+      for(int shift = 0; shift < Integer.SIZE && (names.length - 1) >>> shift != 0; shift += RADIX_BITS)
+      {
+         final int[] swap;
+         int         total;
+
+         Arrays.fill(counts, 0);
+
+         for(final int row : from)
+         {
+            counts[(row >>> shift) & (counts.length - 1)]++;
+         }
+
+         total = 0;
+
+         for(int digit = 0; digit < counts.length; digit++)
+         {
+            final int count;
+
+            count         = counts[digit];
+            counts[digit] = total;
+            total        += count;
+         }
+
+         for(final int row : from)
+         {
+            to[counts[(row >>> shift) & (counts.length - 1)]++] = row;
+         }
+
+         swap = from;
+         from = to;
+         to   = swap;
+      }
+
+      if(from != rows)
+      {
+         System.arraycopy(from, 0, rows, 0, rows.length);
+      }
+   }
+
+   private static char fold(final char c)
+   {
+      return Character.toUpperCase(c);
+   }
+}
@@ -0,0 +1,432 @@
+package ca.bcit.comp2522.lab7;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Runs a set of named {@link CountryQuery} queries over the country names in a single scan.
+ * <p>
+ * Before scanning, the batch compiles its queries into one plan. Every distinct predicate gets one
+ * slot, and its selectivity is estimated by testing it on an evenly spaced sample of up to 1024
+ * names. Each and is then ordered so that the parts most likely to fail cheaply run first, and
+ * each or so that the parts most likely to succeed cheaply run first, and both stop at the first
+ * part that decides the answer. During the scan each name is read once, and
+ * a predicate shared by several queries is evaluated at most once for it.
+ * </p>
+ * <p>
+ * Results list the matching names in encounter order and are keyed by query name in the order the
+ * queries were added.
+ * </p>
+ * <p>
+ * Example usage:
+ * <pre>
+ *     Map&lt;String, List&lt;String&gt;&gt; results = new QueryBatch()
+ *             .add("long", CountryQuery.longerThan(10))
+ *             .add("long islands", CountryQuery.longerThan(10).and(CountryQuery.endsWith("Islands")))
+ *             .run(names);
+ * </pre>
+ * </p>
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+public final class QueryBatch
+{
+   private static final int SAMPLE_SIZE = 1024;
+
+   private final Map<String, CountryQuery> queries;
+
+   /**
+    * Constructs an empty QueryBatch.
+    */
+   public QueryBatch()
+   {
+      this.queries = new LinkedHashMap<>();
+   }
+
+   /**
+    * Adds a query to the batch.
+    *
+    * @param name  the name the query's results are returned under
+    * @param query the query
+    * @return this batch
+    * @throws IllegalArgumentException if the name is null, blank or already used, or the query is null
+    */
+   public QueryBatch add(final String name,
+                         final CountryQuery query)
+   {
+      if(name == null || name.isBlank())
+      {
+         throw new IllegalArgumentException("Query name must not be empty!");
+      }
+
+      if(query == null)
+      {
+         throw new IllegalArgumentException("Query must not be null: " + name);
+      }
+
+      if(queries.putIfAbsent(name, query) != null)
+      {
+         throw new IllegalArgumentException("Duplicate query name: " + name);
+      }
+
+      return this;
+   }
+
+   /**
+    * Returns the number of queries in the batch.
+    *
+    * @return the query count
+    */
+   public int size()
+   {
+      return queries.size();
+   }
+
+   /**
+    * Runs every query over the names in one scan.
+    *
+    * @param names the country names, in encounter order
+    * @return the matching names of each query, keyed by query name
+    */
+   public Map<String, List<String>> run(final List<String> names)
+   {
+      return run(names.size(), names::get);
+   }
+
+   /**
+    * Runs every query over the rows of a table in one scan, decoding each name once.
+    *
+    * @param table the country table
+    * @return the matching names of each query, keyed by query name
+    */
+   public Map<String, List<String>> run(final CountryTable table)
+   {
+      return run(table.size(), table::name);
+   }
+
+   /**
+    * Describes the compiled plan of each query for the given names, with the parts of every and and
+    * or in the order they will be evaluated.
+    *
+    * @param names the country names the selectivity estimates are taken from
+    * @return one line per query
+    */
+   public String explain(final List<String> names)
+   {
+      final Plan          plan;
+      final StringBuilder out;
+      int                 query;
+
+      plan  = new Plan(queries.values(), names.size(), names::get);
+      out   = new StringBuilder();
+      query = 0;
+
+      for(final String name : queries.keySet())
+      {
+         out.append(name)
+            .append(": ")
+            .append(plan.roots[query++])
+            .append(System.lineSeparator());
+      }
+
+      return out.toString();
+   }
+
+   private Map<String, List<String>> run(final int size,
+                                         final IntFunction<String> names)
+   {
+      final Plan                      plan;
+      final List<List<String>>        matches;
+      final Map<String, List<String>> results;
+
+      plan    = new Plan(queries.values(), size, names);
+      matches = new ArrayList<>();
+      results = new LinkedHashMap<>();
+
+      for(final String name : queries.keySet())
+      {
+         final List<String> list;
+
+         list = new ArrayList<>();
+         matches.add(list);
+         results.put(name, list);
+      }
+
+      for(int row = 0; row < size; row++)
+      {
+         final String name;
+
+         name = names.apply(row);
+         plan.startRow(name);
+
+         for(int query = 0; query < plan.roots.length; query++)
+         {
+            if(plan.matches(plan.roots[query]))
+            {
+               matches.get(query).add(name);
+            }
+         }
+      }
+
+      return results;
+   }
+
+   /*
+    * The compiled form of a batch: the distinct predicates with their estimated selectivity, one
+    * ordered node tree per query and the per-name cache of predicate results.
+    */
+   private static final class Plan
+   {
+      private final List<CountryQuery>         leaves;
+      private final Map<CountryQuery, Integer> leafSlots;
+      private final double[]                   leafSelectivity;
+      private final Node[]                     roots;
+      private final int[]                      cachedRow;
+      private final boolean[]                  cachedValue;
+      private String                           name;
+      private int                              row;
+
+      private Plan(final Iterable<CountryQuery> queries,
+                   final int size,
+                   final IntFunction<String> names)
+      {
+         final List<Node> compiled;
+
+         this.leaves    = new ArrayList<>();
+         this.leafSlots = new LinkedHashMap<>();
+
+         for(final CountryQuery query : queries)
+         {
+            collectLeaves(query);
+         }
+
+         this.leafSelectivity = estimateSelectivity(size, names);
+         compiled             = new ArrayList<>();
+
+         for(final CountryQuery query : queries)
+         {
+            compiled.add(compile(query));
+         }
+
+         this.roots       = compiled.toArray(new Node[0]);
+         this.cachedRow   = new int[leaves.size()];
+         this.cachedValue = new boolean[leaves.size()];
+         this.row         = 0;
+      }
+
+      private void startRow(final String name)
+      {
+         this.name = name;
+         this.row++;
+      }
+
+      /*
+       * Evaluates a node for the current name, short-circuiting ands and ors.
+       */
+      private boolean matches(final Node node)
+      {
+         switch(node.kind)
+         {
+            case LEAF:
+               if(cachedRow[node.slot] != row)
+               {
+                  cachedRow[node.slot]   = row;
+                  cachedValue[node.slot] = leaves.get(node.slot).test(name);
+               }
+               return cachedValue[node.slot];
+            case NOT:
+               return !matches(node.children[0]);
+            case AND:
+               for(final Node child : node.children)
+               {
+                  if(!matches(child))
+                  {
+                     return false;
+                  }
+               }
+               return true;
+            default:
+               for(final Node child : node.children)
+               {
+                  if(matches(child))
+                  {
+                     return true;
+                  }
+               }
+               return false;
+         }
+      }
+
+      private void collectLeaves(final CountryQuery query)
+      {
+         if(query.kind() == CountryQuery.Kind.LEAF)
+         {
+            if(!leafSlots.containsKey(query))
+            {
+               leafSlots.put(query, leaves.size());
+               leaves.add(query);
+            }
+         } else
+         {
+            for(final CountryQuery child : query.children())
+            {
+               collectLeaves(child);
+            }
+         }
+      }
+
+      /*
+       * Tests every predicate on an evenly spaced sample of the names. The estimates are smoothed
+       * so that no predicate is ever considered certain to pass or fail.
+       */
+      private double[] estimateSelectivity(final int size,
+                                           final IntFunction<String> names)
+      {
+         final int[]    hits;
+         final double[] selectivity;
+         final int      step;
+         int            samples;
+
+         hits    = new int[leaves.size()];
+         step    = Math.max(1, size / SAMPLE_SIZE);
+         samples = 0;
+
+         for(int row = 0; row < size && samples < SAMPLE_SIZE; row += step)
+         {
+            final String name;
+
+            name = names.apply(row);
+            samples++;
+
+            for(int slot = 0; slot < hits.length; slot++)
+            {
+               if(leaves.get(slot).test(name))
+               {
+                  hits[slot]++;
+               }
+            }
+         }
+
+         selectivity = new double[hits.length];
+
+         for(int slot = 0; slot < hits.length; slot++)
+         {
+            selectivity[slot] = (hits[slot] + 0.5) / (samples + 1.0);
+         }
+
+         return selectivity;
+      }
+
+      private Node compile(final CountryQuery query)
+      {
+         final Node[] children;
+
+         if(query.kind() == CountryQuery.Kind.LEAF)
+         {
+            final int slot;
+
+            slot = leafSlots.get(query);
+
+            return new Node(query, slot, new Node[0], leafSelectivity[slot], query.cost());
+         }
+
+         children = new Node[query.children().size()];
+
+         for(int i = 0; i < children.length; i++)
+         {
+            children[i] = compile(query.children().get(i));
+         }
+
+         return Node.combine(query, children);
+      }
+   }
+
+   /*
+    * A node of a compiled query. Selectivity is the estimated fraction of names the node matches;
+    * cost is the expected cost of evaluating it once, given its short-circuiting.
+    */
+   private static final class Node
+   {
+      private final CountryQuery.Kind kind;
+      private final CountryQuery      query;
+      private final int               slot;
+      private final Node[]            children;
+      private final double            selectivity;
+      private final double            cost;
+
+      private Node(final CountryQuery query,
+                   final int slot,
+                   final Node[] children,
+                   final double selectivity,
+                   final double cost)
+      {
+         this.kind        = query.kind();
+         this.query       = query;
+         this.slot        = slot;
+         this.children    = children;
+         this.selectivity = selectivity;
+         this.cost        = cost;
+      }
+
+      /*
+       * Orders the children of an and or an or and works out the combined selectivity and cost.
+       * An and runs first the children with the lowest cost per chance of failing, an or the
+       * children with the lowest cost per chance of passing.
+       */
+      private static Node combine(final CountryQuery query,
+                                  final Node[] children)
+      {
+         double selectivity;
+         double cost;
+         double reach;
+
+         switch(query.kind())
+         {
+            case NOT:
+               return new Node(query, -1, children, 1 - children[0].selectivity, children[0].cost);
+            case AND:
+               Arrays.sort(children, Comparator.comparingDouble(child -> child.cost / (1 - child.selectivity)));
+               break;
+            default:
+               Arrays.sort(children, Comparator.comparingDouble(child -> child.cost / child.selectivity));
+               break;
+         }
+
+         cost  = 0;
+         reach = 1;
+
+         for(final Node child : children)
+         {
+            cost  += reach * child.cost;
+            reach *= query.kind() == CountryQuery.Kind.AND ? child.selectivity : 1 - child.selectivity;
+         }
+
+         selectivity = query.kind() == CountryQuery.Kind.AND ? reach : 1 - reach;
+
+         return new Node(query, -1, children, selectivity, cost);
+      }
+
+      @Override
+      public String toString()
+      {
+         if(kind == CountryQuery.Kind.LEAF)
+         {
+            return query.toString();
+         }
+
+         if(kind == CountryQuery.Kind.NOT)
+         {
+            return "not(" + children[0] + ")";
+         }
+
+         return kind.name().toLowerCase() + Arrays.toString(children);
+      }
+   }
+}
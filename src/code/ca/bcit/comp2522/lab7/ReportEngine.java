@@ -0,0 +1,256 @@
+package ca.bcit.comp2522.lab7;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Stream;
+
+/**
+ * Builds a {@link CountryReport} and renders its sections, either on the calling thread or on a
+ * fork-join pool of a fixed parallelism.
+ * <p>
+ * With a parallelism above 1 the report is collected from a parallel stream and every section is
+ * rendered as its own task. The rendered texts are always returned in the order the sections were
+ * requested, so the output file is byte-for-byte the same in both modes.
+ * </p>
+ * <p>
+ * Collecting the report and rendering each section are measured as phases of the engine's
+ * {@link ReportMetrics}.
+ * </p>
+ * <p>
+ * Example usage:
+ * <pre>
+ *     try(final ReportEngine engine = new ReportEngine(4))
+ *     {
+ *         CountryReport report = engine.collect(countries.stream(), 3, 4);
+ *         List&lt;String&gt; texts = engine.render(report, List.of(ReportSection.values()));
+ *     }
+ * </pre>
+ * </p>
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+public final class ReportEngine implements AutoCloseable
+{
+   private final int           parallelism;
+   private final ForkJoinPool  pool;
+   private final ReportMetrics metrics;
+
+   /**
+    * Constructs a ReportEngine with the given parallelism.
+    * A parallelism of 1 runs everything on the calling thread and creates no pool.
+    *
+    * @param parallelism the number of worker threads, must be at least 1
+    * @throws IllegalArgumentException if the parallelism is less than 1
+    */
+   public ReportEngine(final int parallelism)
+   {
+      this(parallelism, new ReportMetrics());
+   }
+
+   /**
+    * Constructs a ReportEngine with the given parallelism that records its phases in the given
+    * metrics.
+    *
+    * @param parallelism the number of worker threads, must be at least 1
+    * @param metrics     the metrics the collect and render phases are recorded in
+    * @throws IllegalArgumentException if the parallelism is less than 1
+    */
+   public ReportEngine(final int parallelism,
+                       final ReportMetrics metrics)
+   {
+      if(parallelism < 1)
+      {
+         throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+      }
+
+      this.parallelism = parallelism;
+      this.pool        = parallelism == 1 ? null : new ForkJoinPool(parallelism);
+      this.metrics     = metrics;
+   }
+
+   /**
+    * Returns the number of worker threads this engine uses.
+    *
+    * @return the parallelism level
+    */
+   public int getParallelism()
+   {
+      return parallelism;
+   }
+
+   /**
+    * Collects a CountryReport from a stream of valid countries.
+    *
+    * @param countries the countries to report on
+    * @param minChar   the character threshold of the report
+    * @param minWord   the word threshold of the report
+    * @return the collected report
+    */
+   public CountryReport collect(final Stream<Country> countries,
+                                final int minChar,
+                                final int minWord)
+   {
+      final ReportMetrics.Probe probe;
+      final CountryReport       report;
+
+      probe = metrics.start("collect", null);
+
+      if(pool == null)
+      {
+         report = countries.sequential()
+                           .collect(CountryReport.collector(minChar, minWord));
+      } else
+      {
+         report = pool.submit(() -> countries.parallel()
+                                             .collect(CountryReport.collector(minChar, minWord)))
+                      .join();
+      }
+
+      probe.stop(report.getTotalCount(), 0);
+
+      return report;
+   }
+
+   /**
+    * Parses the shard files into one snapshot, in shard order, parsing and merging the shards on
+    * the engine's pool.
+    *
+    * @param shards the shard files, see {@link ShardedInput}
+    * @return the merged snapshot
+    * @throws IOException if a shard cannot be read
+    */
+   public CountrySnapshot load(final List<Path> shards) throws IOException
+   {
+      return ShardedInput.load(shards, pool);
+   }
+
+   /**
+    * Builds a CountryReport from a table, on the calling thread.
+    *
+    * @param table   the table holding the countries
+    * @param minChar the character threshold of the report
+    * @param minWord the word threshold of the report
+    * @return the built report
+    */
+   public CountryReport collect(final CountryTable table,
+                                final int minChar,
+                                final int minWord)
+   {
+      final ReportMetrics.Probe probe;
+      final CountryReport       report;
+
+      probe  = metrics.start("collect", null);
+      report = CountryReport.of(table, minChar, minWord);
+      probe.stop(report.getTotalCount(), 0);
+
+      return report;
+   }
+
+   /**
+    * Builds a CountryReport from a snapshot, on the calling thread.
+    *
+    * @param snapshot the snapshot holding the countries
+    * @param minChar  the character threshold of the report
+    * @param minWord  the word threshold of the report
+    * @return the built report
+    */
+   public CountryReport collect(final CountrySnapshot snapshot,
+                                final int minChar,
+                                final int minWord)
+   {
+      final ReportMetrics.Probe probe;
+      final CountryReport       report;
+
+      probe  = metrics.start("collect", null);
+      report = CountryReport.of(snapshot, minChar, minWord);
+      probe.stop(report.getTotalCount(), 0);
+
+      return report;
+   }
+
+   /**
+    * Renders the given sections of the report and returns their texts in the same order.
+    *
+    * @param report   the report holding the section results
+    * @param sections the sections to render, in output order
+    * @return the rendered section texts, in output order
+    */
+   public List<String> render(final CountryReport report,
+                              final List<ReportSection> sections)
+   {
+      if(pool == null)
+      {
+         return renderSequentially(report, sections);
+      }
+
+      return renderInParallel(report, sections);
+   }
+
+   @Override
+   public void close()
+   {
+      if(pool != null)
+      {
+         pool.shutdown();
+      }
+   }
+
+   /*
+    * Renders one section, measured as a render phase on the calling thread.
+    */
+   private String renderSection(final CountryReport report,
+                                final ReportSection section)
+   {
+      final ReportMetrics.Probe probe;
+      final String              text;
+
+      probe = metrics.start("render", section);
+      text  = section.render(report);
+      probe.stop(section.countItems(report), 0);
+
+      return text;
+   }
+
+   private List<String> renderSequentially(final CountryReport report,
+                                           final List<ReportSection> sections)
+   {
+      final List<String> texts;
+
+      texts = new ArrayList<>(sections.size());
+
+      for(final ReportSection section : sections)
+      {
+         texts.add(renderSection(report, section));
+      }
+
+      return texts;
+   }
+
+   private List<String> renderInParallel(final CountryReport report,
+                                         final List<ReportSection> sections)
+   {
+      final List<ForkJoinTask<String>> tasks;
+      final List<String>               texts;
+
+      tasks = new ArrayList<>(sections.size());
+      texts = new ArrayList<>(sections.size());
+
+      for(final ReportSection section : sections)
+      {
+         tasks.add(pool.submit(() -> renderSection(report, section)));
+      }
+
+      for(final ForkJoinTask<String> task : tasks)
+      {
+         texts.add(task.join());
+      }
+
+      return texts;
+   }
+}
@@ -0,0 +1,311 @@
+package ca.bcit.comp2522.lab7;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the phases of a CountryLab run: reading the input, collecting the report, and rendering
+ * and writing each section.
+ * <p>
+ * A phase is measured between {@link #start(String, ReportSection)} and {@link Probe#stop(long, long)},
+ * on one thread. Each measurement records the wall time, the bytes allocated by that thread (from
+ * the JVM's per-thread allocation counter, or -1 where it is not supported), the number of items the
+ * phase read or listed and the bytes it wrote. Every measurement is committed as a
+ * {@link ReportPhaseEvent} for JFR and kept so that {@link #toJson()} can summarize the run.
+ * Measurements may be taken on several threads at once.
+ * </p>
+ * <p>
+ * Allocation is counted on the measuring thread only. When the report is collected from a parallel
+ * stream, the allocation of the worker threads is not included in the collect phase.
+ * </p>
+ * <p>
+ * Example usage:
+ * <pre>
+ *     ReportMetrics metrics = new ReportMetrics();
+ *     ReportMetrics.Probe probe = metrics.start("render", ReportSection.LONG_NAMES);
+ *     String text = ReportSection.LONG_NAMES.render(report);
+ *     probe.stop(ReportSection.LONG_NAMES.countItems(report), 0);
+ *     System.out.println(metrics.toJson());
+ * </pre>
+ * </p>
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+public final class ReportMetrics
+{
+   private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+   private final List<Measurement> measurements;
+
+   /**
+    * Constructs a ReportMetrics with no measurements.
+    */
+   public ReportMetrics()
+   {
+      this.measurements = new ArrayList<>();
+   }
+
+   /**
+    * Starts measuring a phase on the calling thread.
+    *
+    * @param phase   the name of the phase, such as "load" or "render"
+    * @param section the section the phase works on, or null for whole-report phases
+    * @return the probe to stop when the phase ends
+    */
+   public Probe start(final String phase,
+                      final ReportSection section)
+   {
+      return new Probe(phase, section);
+   }
+
+   /**
+    * Returns the measurements taken so far, in the order the phases ended.
+    *
+    * @return a copy of the measurements
+    */
+   public synchronized List<Measurement> getMeasurements()
+   {
+      return List.copyOf(measurements);
+   }
+
+   /**
+    * Returns the measurements as a JSON document with one object per phase, in the order the phases
+    * ended, plus the totals of the run.
+    *
+    * @return the JSON summary
+    */
+   public String toJson()
+   {
+      final List<Measurement> snapshot;
+      final StringBuilder     out;
+      long                    wallNanos;
+      long                    bytesWritten;
+
+      snapshot     = getMeasurements();
+      out          = new StringBuilder();
+      wallNanos    = 0;
+      bytesWritten = 0;
+
+      out.append("{\"phases\":[");
+
+      for(int i = 0; i < snapshot.size(); i++)
+      {
+         final Measurement measurement;
+
+         measurement   = snapshot.get(i);
+         wallNanos    += measurement.wallNanos;
+         bytesWritten += measurement.bytesWritten;
+
+         if(i > 0)
+         {
+            out.append(',');
+         }
+
+         out.append(System.lineSeparator())
+            .append("{\"phase\":\"").append(measurement.phase).append('"')
+            .append(",\"section\":");
+
+         if(measurement.section == null)
+         {
+            out.append("null");
+         } else
+         {
+            out.append('"').append(measurement.section.name()).append('"');
+         }
+
+         out.append(",\"wallNanos\":").append(measurement.wallNanos)
+            .append(",\"allocatedBytes\":").append(measurement.allocatedBytes)
+            .append(",\"items\":").append(measurement.items)
+            .append(",\"bytesWritten\":").append(measurement.bytesWritten)
+            .append('}');
+      }
+
+      out.append("],")
+         .append(System.lineSeparator())
+         .append("\"totalWallNanos\":").append(wallNanos)
+         .append(",\"totalBytesWritten\":").append(bytesWritten)
+         .append('}')
+         .append(System.lineSeparator());
+
+      return out.toString();
+   }
+
+   private synchronized void add(final Measurement measurement)
+   {
+      measurements.add(measurement);
+   }
+
+   /*
+    * Returns the bytes the calling thread has allocated so far, or -1 if the JVM does not count them.
+    */
+   private static long allocatedBytes()
+   {
+      if(THREADS instanceof com.sun.management.ThreadMXBean threads && threads.isThreadAllocatedMemoryEnabled())
+      {
+         return threads.getCurrentThreadAllocatedBytes();
+      }
+
+      return -1;
+   }
+
+   /**
+    * A phase being measured.
+    *
+    * @author Linh Hoang
+    * @author Pouyan Norouzi Iranzadeh
+    * @version 1.0
+    */
+   public final class Probe
+   {
+      private final String           phase;
+      private final ReportSection    section;
+      private final ReportPhaseEvent event;
+      private final long             startNanos;
+      private final long             startAllocated;
+
+      private Probe(final String phase,
+                    final ReportSection section)
+      {
+         this.phase          = phase;
+         this.section        = section;
+         this.event          = new ReportPhaseEvent();
+         this.startAllocated = allocatedBytes();
+         this.startNanos     = System.nanoTime();
+
+         event.begin();
+      }
+
+      /**
+       * Stops measuring the phase, records it and commits its JFR event. Must be called on the
+       * thread that started the probe.
+       *
+       * @param items        the number of items the phase read or listed
+       * @param bytesWritten the number of bytes the phase wrote
+       * @return the measurement
+       */
+      public Measurement stop(final long items,
+                              final long bytesWritten)
+      {
+         final long        wallNanos;
+         final long        endAllocated;
+         final Measurement measurement;
+
+         wallNanos    = System.nanoTime() - startNanos;
+         endAllocated = allocatedBytes();
+         event.end();
+
+         measurement = new Measurement(phase, section, wallNanos,
+                                       startAllocated < 0 ? -1 : endAllocated - startAllocated,
+                                       items, bytesWritten);
+         add(measurement);
+
+         if(event.shouldCommit())
+         {
+            event.phase          = phase;
+            event.section        = section == null ? null : section.name();
+            event.allocatedBytes = measurement.allocatedBytes;
+            event.items          = items;
+            event.bytesWritten   = bytesWritten;
+            event.commit();
+         }
+
+         return measurement;
+      }
+   }
+
+   /**
+    * What was measured for one phase.
+    *
+    * @author Linh Hoang
+    * @author Pouyan Norouzi Iranzadeh
+    * @version 1.0
+    */
+   public static final class Measurement
+   {
+      private final String        phase;
+      private final ReportSection section;
+      private final long          wallNanos;
+      private final long          allocatedBytes;
+      private final long          items;
+      private final long          bytesWritten;
+
+      private Measurement(final String phase,
+                          final ReportSection section,
+                          final long wallNanos,
+                          final long allocatedBytes,
+                          final long items,
+                          final long bytesWritten)
+      {
+         this.phase          = phase;
+         this.section        = section;
+         this.wallNanos      = wallNanos;
+         this.allocatedBytes = allocatedBytes;
+         this.items          = items;
+         this.bytesWritten   = bytesWritten;
+      }
+
+      /**
+       * Returns the name of the phase.
+       *
+       * @return the phase name
+       */
+      public String getPhase()
+      {
+         return phase;
+      }
+
+      /**
+       * Returns the section the phase worked on.
+       *
+       * @return the section, or null for whole-report phases
+       */
+      public ReportSection getSection()
+      {
+         return section;
+      }
+
+      /**
+       * Returns the wall time of the phase.
+       *
+       * @return the elapsed nanoseconds
+       */
+      public long getWallNanos()
+      {
+         return wallNanos;
+      }
+
+      /**
+       * Returns the bytes allocated by the measuring thread during the phase.
+       *
+       * @return the allocated bytes, or -1 if the JVM does not count them
+       */
+      public long getAllocatedBytes()
+      {
+         return allocatedBytes;
+      }
+
+      /**
+       * Returns the number of items the phase read or listed.
+       *
+       * @return the item count
+       */
+      public long getItems()
+      {
+         return items;
+      }
+
+      /**
+       * Returns the number of bytes the phase wrote.
+       *
+       * @return the written bytes
+       */
+      public long getBytesWritten()
+      {
+         return bytesWritten;
+      }
+   }
+}
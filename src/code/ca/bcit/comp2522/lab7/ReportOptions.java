@@ -0,0 +1,454 @@
+package ca.bcit.comp2522.lab7;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Holds the command-line options of CountryLab.
+ * <p>
+ * Supported options:
+ * <ul>
+ *     <li>{@code --input=PATH} reads the names from PATH instead of the default input file. PATH may
+ *     be a file, a directory of shard files or a glob such as {@code data/shard-*.txt}, see
+ *     {@link ShardedInput}</li>
+ *     <li>{@code --parallel} renders the report on one worker thread per available processor</li>
+ *     <li>{@code --parallelism=N} renders the report on N worker threads</li>
+ *     <li>{@code --watch} keeps running after the report is written and updates it whenever the
+ *     input file changes, see {@link ReportWatcher}</li>
+ *     <li>{@code --stream} reads the input file one name at a time and builds the report in bounded
+ *     memory, see {@link StreamingReport}</li>
+ *     <li>{@code --stdin} streams the names from standard input instead of the input file</li>
+ *     <li>{@code --snapshot} loads the input from a cached binary snapshot when it is still
+ *     current, and writes one when it is not, see {@link CountrySnapshot}</li>
+ *     <li>{@code --metrics=PATH} writes the timing, allocation and output size of every phase of the
+ *     run to PATH as JSON, see {@link ReportMetrics}</li>
+ *     <li>{@code --serve=PORT} loads the names once and answers report and query requests over HTTP
+ *     on loopback port PORT instead of writing the report file, see {@link CountryServer}</li>
+ *     <li>{@code --sections=NAME,NAME} writes only the named sections, in report order, see
+ *     {@link ReportSection#parseList(String)}; only the indexes those sections read are built</li>
+ *     <li>{@code --min-char=N} sets the length every name is compared against, 3 by default</li>
+ *     <li>{@code --min-word=N} sets the word count a multi-word name must exceed, 4 by default</li>
+ *     <li>{@code --output=PATH} writes the report to PATH instead of {@code src/matches/data.txt}</li>
+ *     <li>{@code --batch=PATH} writes the report of every input and output pair listed in the
+ *     manifest at PATH in this one process, and with {@code --metrics=PATH} writes the timing of
+ *     each of them as JSON, see {@link BatchRunner}</li>
+ *     <li>{@code --jobs=N} runs up to N datasets of a batch at the same time, one per available
+ *     processor by default</li>
+ * </ul>
+ * Without options every section is built and rendered on the main thread.
+ * </p>
+ * <p>
+ * Example usage:
+ * <pre>
+ *     ReportOptions options = ReportOptions.parse(new String[]{"--sections=total_count,longest",
+ *                                                              "--output=out/summary.txt"});
+ * </pre>
+ * </p>
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+public final class ReportOptions
+{
+   private static final String PARALLEL_FLAG      = "--parallel";
+   private static final String PARALLELISM_PREFIX = "--parallelism=";
+   private static final String WATCH_FLAG         = "--watch";
+   private static final String STREAM_FLAG        = "--stream";
+   private static final String STDIN_FLAG         = "--stdin";
+   private static final String SNAPSHOT_FLAG      = "--snapshot";
+   private static final String METRICS_PREFIX     = "--metrics=";
+   private static final String INPUT_PREFIX       = "--input=";
+   private static final String SERVE_PREFIX       = "--serve=";
+   private static final String SECTIONS_PREFIX    = "--sections=";
+   private static final String MIN_CHAR_PREFIX    = "--min-char=";
+   private static final String MIN_WORD_PREFIX    = "--min-word=";
+   private static final String OUTPUT_PREFIX      = "--output=";
+   private static final String BATCH_PREFIX       = "--batch=";
+   private static final String JOBS_PREFIX        = "--jobs=";
+   private static final int    MAX_PORT           = 65535;
+
+   private static final List<ReportSection> ALL_SECTIONS = List.of(ReportSection.values());
+
+   private final int                 parallelism;
+   private final boolean             watch;
+   private final boolean             stream;
+   private final boolean             stdin;
+   private final boolean             snapshot;
+   private final Path                metricsPath;
+   private final String              input;
+   private final int                 servePort;
+   private final List<ReportSection> sections;
+   private final int                 minChar;
+   private final int                 minWord;
+   private final Path                outputPath;
+   private final Path                batchPath;
+   private final int                 jobs;
+
+   private ReportOptions(final int parallelism,
+                         final boolean watch,
+                         final boolean stream,
+                         final boolean stdin,
+                         final boolean snapshot,
+                         final Path metricsPath,
+                         final String input,
+                         final int servePort,
+                         final List<ReportSection> sections,
+                         final int minChar,
+                         final int minWord,
+                         final Path outputPath,
+                         final Path batchPath,
+                         final int jobs)
+   {
+      this.parallelism = parallelism;
+      this.watch       = watch;
+      this.stream      = stream;
+      this.stdin       = stdin;
+      this.snapshot    = snapshot;
+      this.metricsPath = metricsPath;
+      this.input       = input;
+      this.servePort   = servePort;
+      this.sections    = sections;
+      this.minChar     = minChar;
+      this.minWord     = minWord;
+      this.outputPath  = outputPath;
+      this.batchPath   = batchPath;
+      this.jobs        = jobs;
+   }
+
+   /**
+    * Parses the command-line arguments. A null array is treated as no arguments.
+    *
+    * @param args the command-line arguments
+    * @return the parsed options
+    * @throws IllegalArgumentException if an argument is unknown or has an invalid value
+    */
+   public static ReportOptions parse(final String[] args)
+   {
+      int                 parallelism;
+      boolean             watch;
+      boolean             stream;
+      boolean             stdin;
+      boolean             snapshot;
+      Path                metricsPath;
+      String              input;
+      int                 servePort;
+      List<ReportSection> sections;
+      int                 minChar;
+      int                 minWord;
+      Path                outputPath;
+      Path                batchPath;
+      int                 jobs;
+
+      parallelism = 1;
+      watch       = false;
+      stream      = false;
+      stdin       = false;
+      snapshot    = false;
+      metricsPath = null;
+      input       = null;
+      servePort   = 0;
+      sections    = null;
+      minChar     = CountryLab.MIN_CHAR;
+      minWord     = CountryLab.MIN_WORD;
+      outputPath  = null;
+      batchPath   = null;
+      jobs        = 0;
+
+      if(args == null)
+      {
+         return new ReportOptions(parallelism, watch, stream, stdin, snapshot, metricsPath, input, servePort,
+                                  ALL_SECTIONS, minChar, minWord, outputPath, batchPath,
+                                  Runtime.getRuntime().availableProcessors());
+      }
+
+      for(final String arg : args)
+      {
+         if(arg.equals(PARALLEL_FLAG))
+         {
+            parallelism = Runtime.getRuntime().availableProcessors();
+         } else if(arg.startsWith(PARALLELISM_PREFIX))
+         {
+            parallelism = parsePositiveInt(arg, arg.substring(PARALLELISM_PREFIX.length()));
+         } else if(arg.equals(WATCH_FLAG))
+         {
+            watch = true;
+         } else if(arg.equals(STREAM_FLAG))
+         {
+            stream = true;
+         } else if(arg.equals(STDIN_FLAG))
+         {
+            stream = true;
+            stdin  = true;
+         } else if(arg.equals(SNAPSHOT_FLAG))
+         {
+            snapshot = true;
+         } else if(arg.startsWith(METRICS_PREFIX) && arg.length() > METRICS_PREFIX.length())
+         {
+            metricsPath = Paths.get(arg.substring(METRICS_PREFIX.length()));
+         } else if(arg.startsWith(INPUT_PREFIX) && arg.length() > INPUT_PREFIX.length())
+         {
+            input = arg.substring(INPUT_PREFIX.length());
+         } else if(arg.startsWith(SERVE_PREFIX))
+         {
+            servePort = parsePort(arg, arg.substring(SERVE_PREFIX.length()));
+         } else if(arg.startsWith(SECTIONS_PREFIX))
+         {
+            sections = ReportSection.parseList(arg.substring(SECTIONS_PREFIX.length()));
+         } else if(arg.startsWith(MIN_CHAR_PREFIX))
+         {
+            minChar = parseInt(arg, arg.substring(MIN_CHAR_PREFIX.length()), 0);
+         } else if(arg.startsWith(MIN_WORD_PREFIX))
+         {
+            minWord = parseInt(arg, arg.substring(MIN_WORD_PREFIX.length()), 0);
+         } else if(arg.startsWith(OUTPUT_PREFIX) && arg.length() > OUTPUT_PREFIX.length())
+         {
+            outputPath = Paths.get(arg.substring(OUTPUT_PREFIX.length()));
+         } else if(arg.startsWith(BATCH_PREFIX) && arg.length() > BATCH_PREFIX.length())
+         {
+            batchPath = Paths.get(arg.substring(BATCH_PREFIX.length()));
+         } else if(arg.startsWith(JOBS_PREFIX))
+         {
+            jobs = parsePositiveInt(arg, arg.substring(JOBS_PREFIX.length()));
+         } else
+         {
+            throw new IllegalArgumentException("Unknown argument: " + arg);
+         }
+      }
+
+      if(watch && stream)
+      {
+         throw new IllegalArgumentException(WATCH_FLAG + " cannot be combined with " + STREAM_FLAG + " or " + STDIN_FLAG);
+      }
+
+      if(snapshot && (watch || stream))
+      {
+         throw new IllegalArgumentException(SNAPSHOT_FLAG + " cannot be combined with " + WATCH_FLAG + " or " +
+                                            STREAM_FLAG);
+      }
+
+      if(metricsPath != null && (watch || stream))
+      {
+         throw new IllegalArgumentException(METRICS_PREFIX + " cannot be combined with " + WATCH_FLAG + " or " +
+                                            STREAM_FLAG);
+      }
+
+      if(servePort > 0 && (watch || stream || snapshot || metricsPath != null))
+      {
+         throw new IllegalArgumentException(SERVE_PREFIX + " cannot be combined with " + WATCH_FLAG + ", " +
+                                            STREAM_FLAG + ", " + SNAPSHOT_FLAG + " or " + METRICS_PREFIX);
+      }
+
+      if(sections != null && (watch || stream || servePort > 0))
+      {
+         throw new IllegalArgumentException(SECTIONS_PREFIX + " cannot be combined with " + WATCH_FLAG + ", " +
+                                            STREAM_FLAG + " or " + SERVE_PREFIX);
+      }
+
+      if(outputPath != null && servePort > 0)
+      {
+         throw new IllegalArgumentException(OUTPUT_PREFIX + " cannot be combined with " + SERVE_PREFIX);
+      }
+
+      if(batchPath != null && (parallelism > 1 || watch || stream || snapshot || servePort > 0 || input != null ||
+                               outputPath != null))
+      {
+         throw new IllegalArgumentException(BATCH_PREFIX + " cannot be combined with " + PARALLELISM_PREFIX + ", " +
+                                            WATCH_FLAG + ", " + STREAM_FLAG + ", " + SNAPSHOT_FLAG + ", " +
+                                            SERVE_PREFIX + ", " + INPUT_PREFIX + " or " + OUTPUT_PREFIX);
+      }
+
+      if(jobs > 0 && batchPath == null)
+      {
+         throw new IllegalArgumentException(JOBS_PREFIX + " needs " + BATCH_PREFIX);
+      }
+
+      return new ReportOptions(parallelism, watch, stream, stdin, snapshot, metricsPath, input, servePort,
+                               sections == null ? ALL_SECTIONS : sections, minChar, minWord, outputPath, batchPath,
+                               jobs > 0 ? jobs : Runtime.getRuntime().availableProcessors());
+   }
+
+   /**
+    * Returns the number of worker threads used to build and render the report.
+    *
+    * @return the parallelism level, at least 1
+    */
+   public int getParallelism()
+   {
+      return parallelism;
+   }
+
+   /**
+    * Returns whether the report should be kept up to date as the input file changes.
+    *
+    * @return true if watch mode was requested
+    */
+   public boolean isWatch()
+   {
+      return watch;
+   }
+
+   /**
+    * Returns whether the report should be built in bounded memory while the names are read.
+    *
+    * @return true if stream mode was requested, explicitly or by {@code --stdin}
+    */
+   public boolean isStream()
+   {
+      return stream;
+   }
+
+   /**
+    * Returns whether the names should be read from standard input.
+    *
+    * @return true if the names come from standard input
+    */
+   public boolean isStdin()
+   {
+      return stdin;
+   }
+
+   /**
+    * Returns whether the input should be loaded through a cached binary snapshot.
+    *
+    * @return true if snapshot mode was requested
+    */
+   public boolean isSnapshot()
+   {
+      return snapshot;
+   }
+
+   /**
+    * Returns the file the metrics summary should be written to.
+    *
+    * @return the metrics path, or null if no summary was requested
+    */
+   public Path getMetricsPath()
+   {
+      return metricsPath;
+   }
+
+   /**
+    * Returns the input file, shard directory or shard glob the names should be read from.
+    *
+    * @return the input, or null to read the default input file
+    */
+   public String getInput()
+   {
+      return input;
+   }
+
+   /**
+    * Returns the loopback port report and query requests should be served on.
+    *
+    * @return the port, or 0 if the report file should be written instead
+    */
+   public int getServePort()
+   {
+      return servePort;
+   }
+
+   /**
+    * Returns the sections to write, in report order.
+    *
+    * @return the requested sections, or every section if none were named
+    */
+   public List<ReportSection> getSections()
+   {
+      return sections;
+   }
+
+   /**
+    * Returns the length every name is compared against for the "all longer than" section.
+    *
+    * @return the character threshold
+    */
+   public int getMinChar()
+   {
+      return minChar;
+   }
+
+   /**
+    * Returns the word count a name must exceed to be listed as a multi-word name.
+    *
+    * @return the word threshold
+    */
+   public int getMinWord()
+   {
+      return minWord;
+   }
+
+   /**
+    * Returns the file the report should be written to.
+    *
+    * @return the output path, or null to write the default output file
+    */
+   public Path getOutputPath()
+   {
+      return outputPath;
+   }
+
+   /**
+    * Returns the manifest of the datasets to write in one batch.
+    *
+    * @return the manifest path, or null to write a single report
+    */
+   public Path getBatchPath()
+   {
+      return batchPath;
+   }
+
+   /**
+    * Returns how many datasets of a batch may run at the same time.
+    *
+    * @return the job count, at least 1
+    */
+   public int getJobs()
+   {
+      return jobs;
+   }
+
+   private static int parsePositiveInt(final String arg,
+                                       final String value)
+   {
+      return parseInt(arg, value, 1);
+   }
+
+   private static int parsePort(final String arg,
+                                final String value)
+   {
+      final int port;
+
+      port = parsePositiveInt(arg, value);
+
+      if(port > MAX_PORT)
+      {
+         throw new IllegalArgumentException("Port must be at most " + MAX_PORT + " in " + arg);
+      }
+
+      return port;
+   }
+
+   private static int parseInt(final String arg,
+                               final String value,
+                               final int minimum)
+   {
+      final int number;
+
+      try
+      {
+         number = Integer.parseInt(value);
+      } catch(final NumberFormatException e)
+      {
+         throw new IllegalArgumentException("Not a number in " + arg);
+      }
+
+      if(number < minimum)
+      {
+         throw new IllegalArgumentException("Value must be at least " + minimum + " in " + arg);
+      }
+
+      return number;
+   }
+}
@@ -0,0 +1,47 @@
+package ca.bcit.comp2522.lab7;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The JFR event committed for each phase measured by {@link ReportMetrics}. Its duration is the
+ * phase's wall time. The event is enabled by default, so any JFR recording of a run includes it,
+ * for example one started with {@code -XX:StartFlightRecording}.
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+@Name(ReportPhaseEvent.NAME)
+@Label("Report Phase")
+@Category("CountryLab")
+@Description("One phase of building or writing the CountryLab report")
+@StackTrace(false)
+final class ReportPhaseEvent extends Event
+{
+   static final String NAME = "ca.bcit.comp2522.lab7.ReportPhase";
+
+   @Label("Phase")
+   String phase;
+
+   @Label("Section")
+   String section;
+
+   @Label("Allocated")
+   @DataAmount
+   @Description("Bytes allocated by the measuring thread during the phase")
+   long allocatedBytes;
+
+   @Label("Items")
+   @Description("Names read, collected or listed during the phase")
+   long items;
+
+   @Label("Written")
+   @DataAmount
+   long bytesWritten;
+}
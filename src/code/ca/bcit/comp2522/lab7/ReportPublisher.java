@@ -0,0 +1,356 @@
+package ca.bcit.comp2522.lab7;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Replaces a report file in one step, and only when its content changed.
+ * <p>
+ * A report is written to a temporary file in the target's directory, forced to disk and then
+ * moved over the target with an atomic rename, so a reader of the target sees either the whole old
+ * report or the whole new one, never a partial file. Because the temporary file lives next to the
+ * target, the rename never crosses file systems.
+ * </p>
+ * <p>
+ * After each publish a SHA-256 hash of every section, together with the target's size and
+ * modification time, is stored in a hash directory outside the target's own, by default under the
+ * system's temporary directory, so the report directory holds nothing but reports. When the report
+ * is published again with the same section hashes and the target has not been touched since,
+ * nothing is written at all. A report that is written without known sections, such as a streamed
+ * one, is hashed as a whole once it has been written to the temporary file, and the temporary file
+ * is discarded if the hash matches.
+ * </p>
+ * <p>
+ * Example usage:
+ * <pre>
+ *     ReportPublisher publisher = new ReportPublisher(outputPath);
+ *     boolean written = publisher.publish(ReportPublisher.hashSections(sections, texts), writer ->
+ *     {
+ *         for(String text : texts)
+ *         {
+ *             writer.writeString(text);
+ *         }
+ *     });
+ * </pre>
+ * </p>
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+public final class ReportPublisher
+{
+   public static final Path DEFAULT_HASH_DIRECTORY = Paths.get(System.getProperty("java.io.tmpdir"),
+                                                               "countrylab-hashes");
+
+   private static final String HASH_ALGORITHM   = "SHA-256";
+   private static final String WHOLE_REPORT     = "REPORT";
+   private static final String HASHES_SUFFIX    = ".sections";
+   private static final String TEMPORARY_SUFFIX = ".tmp";
+   private static final int    READ_BUFFER      = 1 << 16;
+
+   private final Path target;
+   private final Path hashesPath;
+
+   /**
+    * Constructs a ReportPublisher for the given report file that keeps its section hashes in the
+    * {@link #DEFAULT_HASH_DIRECTORY}.
+    *
+    * @param target the report file to publish
+    */
+   public ReportPublisher(final Path target)
+   {
+      this(target, DEFAULT_HASH_DIRECTORY);
+   }
+
+   /**
+    * Constructs a ReportPublisher for the given report file that keeps its section hashes in the
+    * given directory. Reports with the same file name in different directories get different
+    * hash files.
+    *
+    * @param target        the report file to publish
+    * @param hashDirectory the directory of the stored section hashes
+    */
+   public ReportPublisher(final Path target,
+                          final Path hashDirectory)
+   {
+      final Path absolute;
+
+      absolute = target.toAbsolutePath().normalize();
+
+      this.target     = absolute;
+      this.hashesPath = hashDirectory.resolve(absolute.getFileName() + "-" + Integer.toHexString(absolute.hashCode()) +
+                                              HASHES_SUFFIX);
+   }
+
+   /**
+    * Returns the hash of each section's text, labelled with the section's name.
+    *
+    * @param sections the sections, in report order
+    * @param texts    the rendered text of each section
+    * @return one "NAME hash" entry per section
+    */
+   public static List<String> hashSections(final List<ReportSection> sections,
+                                           final List<String> texts)
+   {
+      final MessageDigest digest;
+      final List<String>  hashes;
+
+      if(sections.size() != texts.size())
+      {
+         throw new IllegalArgumentException("Expected " + sections.size() + " section texts, got " + texts.size());
+      }
+
+      digest = newDigest();
+      hashes = new ArrayList<>(sections.size());
+
+      for(int i = 0; i < sections.size(); i++)
+      {
+         hashes.add(sections.get(i).name() + " " +
+                    HexFormat.of().formatHex(digest.digest(texts.get(i).getBytes(StandardCharsets.UTF_8))));
+      }
+
+      return hashes;
+   }
+
+   /**
+    * Returns the report file this publisher replaces.
+    *
+    * @return the absolute target path
+    */
+   public Path getTarget()
+   {
+      return target;
+   }
+
+   /**
+    * Returns whether the target still holds a report with the given section hashes, as stored by
+    * the last publish, and has not been modified since.
+    *
+    * @param sectionHashes the section hashes of the report about to be published
+    * @return true if publishing the report would not change the target
+    * @throws IOException if the stored hashes cannot be read
+    */
+   public boolean isCurrent(final List<String> sectionHashes) throws IOException
+   {
+      final List<String> stored;
+
+      if(!Files.isRegularFile(target) || !Files.isRegularFile(hashesPath))
+      {
+         return false;
+      }
+
+      stored = Files.readAllLines(hashesPath, StandardCharsets.UTF_8);
+
+      return !stored.isEmpty() &&
+             stored.get(0).equals(stamp()) &&
+             stored.subList(1, stored.size()).equals(sectionHashes);
+   }
+
+   /**
+    * Publishes a report unless the target already holds it. The body writes the report to a
+    * temporary file, which then atomically replaces the target.
+    *
+    * @param sectionHashes the hashes from {@link #hashSections(List, List)}, or null to hash the
+    *                      written report as a whole
+    * @param body          writes the report
+    * @return true if the target was replaced, false if it was already current
+    * @throws IOException if the report cannot be written or moved into place
+    */
+   public boolean publish(final List<String> sectionHashes,
+                          final Body body) throws IOException
+   {
+      return publish(sectionHashes, null, body);
+   }
+
+   /**
+    * Publishes a report unless the target already holds it, encoding it through the given buffer,
+    * see {@link ReportWriter#ReportWriter(Path, ByteBuffer)}.
+    *
+    * @param sectionHashes the hashes from {@link #hashSections(List, List)}, or null to hash the
+    *                      written report as a whole
+    * @param buffer        the buffer the report is encoded into, or null to allocate one
+    * @param body          writes the report
+    * @return true if the target was replaced, false if it was already current
+    * @throws IOException if the report cannot be written or moved into place
+    */
+   public boolean publish(final List<String> sectionHashes,
+                          final ByteBuffer buffer,
+                          final Body body) throws IOException
+   {
+      final Path temporary;
+
+      if(sectionHashes != null && isCurrent(sectionHashes))
+      {
+         return false;
+      }
+
+      Files.createDirectories(target.getParent());
+      temporary = createTemporary(target);
+
+      try
+      {
+         final List<String> hashes;
+
+         try(final ReportWriter writer = buffer == null ? new ReportWriter(temporary)
+                                                        : new ReportWriter(temporary, buffer))
+         {
+            body.writeTo(writer);
+            writer.force();
+         }
+
+         hashes = sectionHashes == null ? List.of(WHOLE_REPORT + " " + hashFile(temporary)) : sectionHashes;
+
+         if(sectionHashes == null && isCurrent(hashes))
+         {
+            return false;
+         }
+
+         Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+         forceDirectory();
+         storeHashes(hashes);
+
+         return true;
+      } finally
+      {
+         Files.deleteIfExists(temporary);
+      }
+   }
+
+   /*
+    * Identifies the target's current content by its size and modification time.
+    */
+   private String stamp() throws IOException
+   {
+      final BasicFileAttributes attributes;
+
+      attributes = Files.readAttributes(target, BasicFileAttributes.class);
+
+      return attributes.size() + " " + attributes.lastModifiedTime().toMillis();
+   }
+
+   private void storeHashes(final List<String> hashes) throws IOException
+   {
+      final List<String> lines;
+      final Path         temporary;
+
+      lines = new ArrayList<>(hashes.size() + 1);
+      lines.add(stamp());
+      lines.addAll(hashes);
+
+      Files.createDirectories(hashesPath.getParent());
+      temporary = createTemporary(hashesPath);
+
+      try
+      {
+         Files.write(temporary, lines, StandardCharsets.UTF_8);
+         Files.move(temporary, hashesPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } finally
+      {
+         Files.deleteIfExists(temporary);
+      }
+   }
+
+   /*
+    * Creates an empty hidden file next to the given one, with the permissions a new file gets in
+    * that directory, or the given file's own where the platform has POSIX permissions and the file
+    * exists, so the rename does not change who can read it.
+    */
+   private static Path createTemporary(final Path path) throws IOException
+   {
+      final Path temporary;
+
+      temporary = path.resolveSibling("." + path.getFileName() + "." +
+                                      Long.toHexString(ThreadLocalRandom.current().nextLong()) + TEMPORARY_SUFFIX);
+      Files.createFile(temporary);
+
+      if(Files.exists(path) && Files.getFileStore(path).supportsFileAttributeView(PosixFileAttributeView.class))
+      {
+         Files.setPosixFilePermissions(temporary, Files.getPosixFilePermissions(path));
+      }
+
+      return temporary;
+   }
+
+   /*
+    * Forces the directory entry of the rename to disk where the platform allows a directory to be
+    * opened; elsewhere the rename is durable once the file system commits it.
+    */
+   private void forceDirectory()
+   {
+      try(final FileChannel directory = FileChannel.open(target.getParent(), StandardOpenOption.READ))
+      {
+         directory.force(true);
+      } catch(final IOException e)
+      {
+         // Not supported on this platform.
+      }
+   }
+
+   private static String hashFile(final Path path) throws IOException
+   {
+      final MessageDigest digest;
+      final byte[]        buffer;
+
+      digest = newDigest();
+      buffer = new byte[READ_BUFFER];
+
+      try(final InputStream in = Files.newInputStream(path))
+      {
+         int read;
+
+         while((read = in.read(buffer)) > 0)
+         {
+            digest.update(buffer, 0, read);
+         }
+      }
+
+      return HexFormat.of().formatHex(digest.digest());
+   }
+
+   private static MessageDigest newDigest()
+   {
+      try
+      {
+         return MessageDigest.getInstance(HASH_ALGORITHM);
+      } catch(final NoSuchAlgorithmException e)
+      {
+         throw new IllegalStateException(HASH_ALGORITHM + " is not available", e);
+      }
+   }
+
+   /**
+    * Writes a report to the writer of a temporary file.
+    *
+    * @author Linh Hoang
+    * @author Pouyan Norouzi Iranzadeh
+    * @version 1.0
+    */
+   @FunctionalInterface
+   public interface Body
+   {
+      /**
+       * Writes the whole report.
+       *
+       * @param writer the writer of the temporary file
+       * @throws IOException if the report cannot be written
+       */
+      void writeTo(ReportWriter writer) throws IOException;
+   }
+}
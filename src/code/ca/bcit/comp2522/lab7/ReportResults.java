@@ -0,0 +1,143 @@
+package ca.bcit.comp2522.lab7;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The results a {@link ReportSection} renders. {@link CountryReport} computes them once from a
+ * full pass over the countries, and {@link IncrementalReport} keeps them up to date as names are
+ * added and removed.
+ * <p>
+ * Example usage:
+ * <pre>
+ *     ReportResults results = countries.stream().collect(CountryReport.collector(3, 4));
+ *     String text = ReportSection.LONGEST.render(results);
+ * </pre>
+ * </p>
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+public interface ReportResults
+{
+   /**
+    * Returns the character length used by the "all names longer than" section.
+    *
+    * @return the minimum character threshold
+    */
+   int getMinChar();
+
+   /**
+    * Returns the country names longer than 10 characters.
+    *
+    * @return the long country names in encounter order
+    */
+   List<String> getLongNames();
+
+   /**
+    * Returns the country names shorter than 5 characters.
+    *
+    * @return the short country names in encounter order
+    */
+   List<String> getShortNames();
+
+   /**
+    * Returns the country names starting with 'A'.
+    *
+    * @return the matching country names in encounter order
+    */
+   List<String> getNamesStartingWithA();
+
+   /**
+    * Returns the country names ending with "land".
+    *
+    * @return the matching country names in encounter order
+    */
+   List<String> getNamesEndingWithLand();
+
+   /**
+    * Returns the country names containing "united", ignoring case.
+    *
+    * @return the matching country names in encounter order
+    */
+   List<String> getNamesContainingUnited();
+
+   /**
+    * Returns the country names in ascending order.
+    *
+    * @return the sorted country names
+    */
+   List<String> getAscendingNames();
+
+   /**
+    * Returns the country names in descending order.
+    *
+    * @return the reverse sorted country names
+    */
+   List<String> getDescendingNames();
+
+   /**
+    * Returns the names that are the only name starting with their first letter, ignoring case,
+    * in letter order.
+    *
+    * @return the names with a unique first letter
+    */
+   List<String> getUniqueFirstLetterNames();
+
+   /**
+    * Returns the number of country names.
+    *
+    * @return the country count
+    */
+   long getTotalCount();
+
+   /**
+    * Returns the first of the longest country names.
+    *
+    * @return the first of the longest names, or null if there are no names
+    */
+   String getLongestName();
+
+   /**
+    * Returns the first of the shortest country names.
+    *
+    * @return the first of the shortest names, or null if there are no names
+    */
+   String getShortestName();
+
+   /**
+    * Returns the country names converted to uppercase.
+    *
+    * @return the uppercase names in encounter order
+    */
+   List<String> getUpperCaseNames();
+
+   /**
+    * Returns the country names with more than the word threshold.
+    *
+    * @return the multi-word names in encounter order
+    */
+   List<String> getNamesWithMoreThanNWords();
+
+   /**
+    * Returns each country name mapped to its character count.
+    *
+    * @return the character count map
+    */
+   Map<String, Integer> getCharacterCounts();
+
+   /**
+    * Returns whether any country name starts with 'z', ignoring case.
+    *
+    * @return true if a name starts with 'z'
+    */
+   boolean isAnyStartsWithZ();
+
+   /**
+    * Returns whether every country name is longer than the character threshold.
+    *
+    * @return true if every name is longer than the threshold
+    */
+   boolean isAllLongerThanN();
+}
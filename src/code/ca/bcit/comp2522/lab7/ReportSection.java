@@ -0,0 +1,428 @@
+package ca.bcit.comp2522.lab7;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The sections of the CountryLab report, in the order they appear in the output file.
+ * Each section renders its own text from a {@link ReportResults} and touches nothing else,
+ * so sections can be rendered independently, in any order or at the same time.
+ * <p>
+ * Example usage:
+ * <pre>
+ *     String text = ReportSection.TOTAL_COUNT.render(report);
+ * </pre>
+ * </p>
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+public enum ReportSection
+{
+   /**
+    * Country names longer than 10 characters.
+    */
+   LONG_NAMES
+   {
+      @Override
+      void render(final ReportResults report,
+                  final StringBuilder out)
+      {
+         appendList(out, "Country names longer than 10 characters:" +
+                    System.lineSeparator(),
+                    report.getLongNames());
+      }
+   },
+
+   /**
+    * Country names shorter than 5 characters.
+    */
+   SHORT_NAMES
+   {
+      @Override
+      void render(final ReportResults report,
+                  final StringBuilder out)
+      {
+         appendList(out, System.lineSeparator() +
+                    "*******Short Country Names*******" + System.lineSeparator(),
+                    report.getShortNames());
+      }
+   },
+
+   /**
+    * Country names starting with 'A'.
+    */
+   STARTS_WITH_A
+   {
+      @Override
+      void render(final ReportResults report,
+                  final StringBuilder out)
+      {
+         appendList(out, System.lineSeparator() +
+                    "Country names starting with 'A':" +
+                    System.lineSeparator(),
+                    report.getNamesStartingWithA());
+      }
+   },
+
+   /**
+    * Country names ending with "land".
+    */
+   ENDS_WITH_LAND
+   {
+      @Override
+      void render(final ReportResults report,
+                  final StringBuilder out)
+      {
+         appendList(out, System.lineSeparator() +
+                    "********* Country name ends with 'land' ***********" +
+                    System.lineSeparator(),
+                    report.getNamesEndingWithLand());
+      }
+   },
+
+   /**
+    * Country names containing "united", ignoring case.
+    */
+   CONTAINS_UNITED
+   {
+      @Override
+      void render(final ReportResults report,
+                  final StringBuilder out)
+      {
+         appendList(out, System.lineSeparator() +
+                    "*******Countries Containing United*******" +
+                    System.lineSeparator(),
+                    report.getNamesContainingUnited());
+      }
+   },
+
+   /**
+    * Country names sorted in ascending order.
+    */
+   ASCENDING
+   {
+      @Override
+      void render(final ReportResults report,
+                  final StringBuilder out)
+      {
+         appendList(out, System.lineSeparator() +
+                    "********* Sorted Country Name (DSC) *********" +
+                    System.lineSeparator(),
+                    report.getAscendingNames());
+      }
+   },
+
+   /**
+    * Country names sorted in descending order.
+    */
+   DESCENDING
+   {
+      @Override
+      void render(final ReportResults report,
+                  final StringBuilder out)
+      {
+         appendList(out, System.lineSeparator() +
+                    "********* Sorted Country Name (DSC) *********" +
+                    System.lineSeparator(),
+                    report.getDescendingNames());
+      }
+   },
+
+   /**
+    * Country names that are the only name starting with their first letter.
+    */
+   UNIQUE_FIRST_LETTERS
+   {
+      @Override
+      void render(final ReportResults report,
+                  final StringBuilder out)
+      {
+         appendList(out, System.lineSeparator() +
+                    "********* Unique First Letters *********" +
+                    System.lineSeparator(),
+                    report.getUniqueFirstLetterNames());
+      }
+   },
+
+   /**
+    * The total number of country names.
+    */
+   TOTAL_COUNT
+   {
+      @Override
+      void render(final ReportResults report,
+                  final StringBuilder out)
+      {
+         out.append(System.lineSeparator())
+            .append("********* Total country names: ")
+            .append(report.getTotalCount())
+            .append(System.lineSeparator());
+      }
+   },
+
+   /**
+    * The longest country name.
+    */
+   LONGEST
+   {
+      @Override
+      void render(final ReportResults report,
+                  final StringBuilder out)
+      {
+         if(report.getLongestName() != null)
+         {
+            out.append(System.lineSeparator())
+               .append("Longest country name: ")
+               .append(report.getLongestName())
+               .append(System.lineSeparator());
+         }
+      }
+   },
+
+   /**
+    * The shortest country name.
+    */
+   SHORTEST
+   {
+      @Override
+      void render(final ReportResults report,
+                  final StringBuilder out)
+      {
+         if(report.getShortestName() != null)
+         {
+            out.append(System.lineSeparator())
+               .append("Shortest Country Name: ")
+               .append(report.getShortestName())
+               .append(System.lineSeparator());
+         }
+      }
+   },
+
+   /**
+    * Country names converted to uppercase.
+    */
+   UPPER_CASE
+   {
+      @Override
+      void render(final ReportResults report,
+                  final StringBuilder out)
+      {
+         appendList(out, System.lineSeparator() +
+                    "******** Country Name in UPPERCASE ********" +
+                    System.lineSeparator(),
+                    report.getUpperCaseNames());
+      }
+   },
+
+   /**
+    * Country names with more than the report's word threshold.
+    */
+   MORE_THAN_N_WORDS
+   {
+      @Override
+      void render(final ReportResults report,
+                  final StringBuilder out)
+      {
+         appendList(out, System.lineSeparator() +
+                    "*******Countries With Multiple Words*******" + System.lineSeparator(),
+                    report.getNamesWithMoreThanNWords());
+      }
+   },
+
+   /**
+    * Each country name with its character count.
+    */
+   CHARACTER_COUNT
+   {
+      @Override
+      void render(final ReportResults report,
+                  final StringBuilder out)
+      {
+         out.append(System.lineSeparator())
+            .append("******* Countries and Character Counts *******")
+            .append(System.lineSeparator());
+
+         for(final Map.Entry<String, Integer> entry : report.getCharacterCounts().entrySet())
+         {
+            out.append(String.format("%s: %d characters", entry.getKey(), entry.getValue()))
+               .append(System.lineSeparator());
+         }
+      }
+   },
+
+   /**
+    * Whether any country name starts with 'z', ignoring case.
+    */
+   ANY_STARTS_WITH_Z
+   {
+      @Override
+      void render(final ReportResults report,
+                  final StringBuilder out)
+      {
+         appendResult(out, "Any country name starts with 'z': ", report.isAnyStartsWithZ());
+      }
+   },
+
+   /**
+    * Whether all country names are longer than the report's character threshold.
+    */
+   ALL_LONGER_THAN_N
+   {
+      @Override
+      void render(final ReportResults report,
+                  final StringBuilder out)
+      {
+         appendResult(out, "Are all country names longer than " + report.getMinChar() +
+                      " characters: ", report.isAllLongerThanN());
+      }
+   };
+
+   /**
+    * Parses a comma-separated list of section names, such as {@code total_count,longest}, ignoring
+    * case and the spaces around each name. Each section is returned once, in report order, whatever
+    * order the names were listed in.
+    *
+    * @param names the section names
+    * @return the named sections in report order
+    * @throws IllegalArgumentException if a name is not a section or no name is given
+    */
+   public static List<ReportSection> parseList(final String names)
+   {
+      final Set<ReportSection> sections;
+
+      sections = EnumSet.noneOf(ReportSection.class);
+
+      for(final String name : names.split(","))
+      {
+         final String trimmed;
+
+         trimmed = name.strip();
+
+         if(!trimmed.isEmpty())
+         {
+            sections.add(forName(trimmed));
+         }
+      }
+
+      if(sections.isEmpty())
+      {
+         throw new IllegalArgumentException("No report section given");
+      }
+
+      return List.copyOf(sections);
+   }
+
+   /**
+    * Returns the section with the given name, ignoring case.
+    *
+    * @param name the section name, such as {@code TOTAL_COUNT}
+    * @return the section
+    * @throws IllegalArgumentException if no section has that name
+    */
+   public static ReportSection forName(final String name)
+   {
+      for(final ReportSection section : values())
+      {
+         if(section.name().equalsIgnoreCase(name))
+         {
+            return section;
+         }
+      }
+
+      throw new IllegalArgumentException("Unknown report section: " + name);
+   }
+
+   /**
+    * Renders this section's text for the given report.
+    *
+    * @param report the results to render
+    * @return the section text, ready to be written to the output file
+    */
+   public String render(final ReportResults report)
+   {
+      final StringBuilder out;
+
+      out = new StringBuilder();
+      render(report, out);
+
+      return out.toString();
+   }
+
+   /**
+    * Returns how many items this section lists for the given report: the names in a list section,
+    * the names counted for the total, and 1 or 0 for a single name or a yes/no answer that is
+    * present or true.
+    *
+    * @param report the results the section is rendered from
+    * @return the item count
+    */
+   public long countItems(final ReportResults report)
+   {
+      switch(this)
+      {
+         case LONG_NAMES:
+            return report.getLongNames().size();
+         case SHORT_NAMES:
+            return report.getShortNames().size();
+         case STARTS_WITH_A:
+            return report.getNamesStartingWithA().size();
+         case ENDS_WITH_LAND:
+            return report.getNamesEndingWithLand().size();
+         case CONTAINS_UNITED:
+            return report.getNamesContainingUnited().size();
+         case ASCENDING:
+            return report.getAscendingNames().size();
+         case DESCENDING:
+            return report.getDescendingNames().size();
+         case UNIQUE_FIRST_LETTERS:
+            return report.getUniqueFirstLetterNames().size();
+         case TOTAL_COUNT:
+            return report.getTotalCount();
+         case LONGEST:
+            return report.getLongestName() == null ? 0 : 1;
+         case SHORTEST:
+            return report.getShortestName() == null ? 0 : 1;
+         case UPPER_CASE:
+            return report.getUpperCaseNames().size();
+         case MORE_THAN_N_WORDS:
+            return report.getNamesWithMoreThanNWords().size();
+         case CHARACTER_COUNT:
+            return report.getCharacterCounts().size();
+         case ANY_STARTS_WITH_Z:
+            return report.isAnyStartsWithZ() ? 1 : 0;
+         default:
+            return report.isAllLongerThanN() ? 1 : 0;
+      }
+   }
+
+   abstract void render(ReportResults report,
+                        StringBuilder out);
+
+   private static void appendList(final StringBuilder out,
+                                  final String criterion,
+                                  final List<String> result)
+   {
+      out.append(criterion);
+
+      for(final String line : result)
+      {
+         out.append(line)
+            .append(System.lineSeparator());
+      }
+   }
+
+   private static <T> void appendResult(final StringBuilder out,
+                                        final String criterion,
+                                        final T result)
+   {
+      out.append(System.lineSeparator())
+         .append(criterion)
+         .append(System.lineSeparator())
+         .append(result)
+         .append(System.lineSeparator());
+   }
+}
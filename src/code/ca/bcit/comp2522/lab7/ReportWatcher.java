@@ -0,0 +1,242 @@
+package ca.bcit.comp2522.lab7;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the report file up to date while the input file is being edited.
+ * <p>
+ * The watcher loads the input once into an {@link IncrementalReport} and writes the full report.
+ * After that it waits on a {@link WatchService} for changes to the input file. Each change is
+ * reloaded and compared with the names already in memory, only the resulting {@link NameDelta} is
+ * applied, and only the sections it affected are rendered again. The other sections reuse their
+ * last text when the report file is rewritten. Bursts of events, such as an editor saving in
+ * several steps, are folded into one update. The file is replaced atomically through a
+ * {@link ReportPublisher}, so a reader never sees a half-written report.
+ * </p>
+ * <p>
+ * Example usage:
+ * <pre>
+ *     try(ReportWatcher watcher = new ReportWatcher(inputPath, outputPath, 3, 4))
+ *     {
+ *         watcher.run();
+ *     }
+ * </pre>
+ * </p>
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+public final class ReportWatcher implements AutoCloseable
+{
+   private static final long SETTLE_MILLIS = 50;
+
+   private final Path                       inputPath;
+   private final ReportPublisher            publisher;
+   private final CountryLoader              loader;
+   private final IncrementalReport          report;
+   private final Map<ReportSection, String> sectionTexts;
+   private final WatchService               watchService;
+
+   /**
+    * Starts watching the input file's directory, then loads the input file and writes the full
+    * report.
+    *
+    * @param inputPath  the file holding the country names
+    * @param outputPath the report file to keep up to date
+    * @param minChar    the length every name is compared against for the "all longer than" section
+    * @param minWord    the word count a name must exceed to be listed as a multi-word name
+    * @throws IOException if the input cannot be read, the report cannot be written or the
+    *                     directory cannot be watched
+    */
+   public ReportWatcher(final Path inputPath,
+                        final Path outputPath,
+                        final int minChar,
+                        final int minWord) throws IOException
+   {
+      this.inputPath    = inputPath.toAbsolutePath();
+      this.publisher    = new ReportPublisher(outputPath);
+      this.loader       = new CountryLoader();
+      this.watchService = FileSystems.getDefault().newWatchService();
+
+      try
+      {
+         // Watch before the first read, so an edit made while the report is written is not missed.
+         this.inputPath.getParent().register(watchService,
+                                             StandardWatchEventKinds.ENTRY_CREATE,
+                                             StandardWatchEventKinds.ENTRY_MODIFY);
+
+         this.report       = new IncrementalReport(readNames(), minChar, minWord);
+         this.sectionTexts = new EnumMap<>(ReportSection.class);
+
+         for(final ReportSection section : ReportSection.values())
+         {
+            sectionTexts.put(section, section.render(report));
+         }
+
+         writeReport();
+      } catch(final IOException | RuntimeException e)
+      {
+         watchService.close();
+         throw e;
+      }
+   }
+
+   /**
+    * Waits for changes to the input file and updates the report after each one, until the watcher
+    * is closed or the thread is interrupted. A change that cannot be read, for example because the
+    * file is briefly missing while an editor replaces it, is reported and skipped.
+    *
+    * @throws IOException if the report cannot be written
+    */
+   public void run() throws IOException
+   {
+      try
+      {
+         while(awaitChange())
+         {
+            try
+            {
+               update();
+            } catch(final IOException e)
+            {
+               System.out.println("Error reading file! " + e.getMessage());
+            }
+         }
+      } catch(final InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+      } catch(final ClosedWatchServiceException e)
+      {
+         // closed from another thread, stop watching
+      }
+   }
+
+   /**
+    * Reloads the input file and applies the difference to the report. Rewrites the report file
+    * when anything changed.
+    *
+    * @return the sections that were rendered again
+    * @throws IOException if the input cannot be read or the report cannot be written
+    */
+   public Set<ReportSection> update() throws IOException
+   {
+      final NameDelta          delta;
+      final Set<ReportSection> affected;
+
+      delta = NameDelta.between(report.getNames(), readNames());
+
+      if(delta.isEmpty())
+      {
+         return Set.of();
+      }
+
+      affected = report.apply(delta);
+
+      for(final ReportSection section : affected)
+      {
+         sectionTexts.put(section, section.render(report));
+      }
+
+      writeReport();
+      System.out.println("Applied " + delta + ", rendered " + affected.size() + " section(s).");
+
+      return affected;
+   }
+
+   /**
+    * Returns the report kept in memory.
+    *
+    * @return the incremental report
+    */
+   public IncrementalReport getReport()
+   {
+      return report;
+   }
+
+   /**
+    * Stops watching the input file.
+    *
+    * @throws IOException if the watch service cannot be closed
+    */
+   @Override
+   public void close() throws IOException
+   {
+      watchService.close();
+   }
+
+   /*
+    * Blocks until the input file changes, then waits for the burst of events to settle.
+    * Returns false when the directory can no longer be watched.
+    */
+   private boolean awaitChange() throws InterruptedException
+   {
+      boolean  changed;
+      WatchKey key;
+
+      changed = false;
+      key     = watchService.take();
+
+      while(key != null)
+      {
+         for(final WatchEvent<?> event : key.pollEvents())
+         {
+            changed |= event.kind() == StandardWatchEventKinds.OVERFLOW ||
+                       inputPath.getFileName().equals(event.context());
+         }
+
+         if(!key.reset())
+         {
+            return false;
+         }
+
+         key = changed ? watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS) : watchService.take();
+      }
+
+      return true;
+   }
+
+   private List<String> readNames() throws IOException
+   {
+      final CountryTable table;
+      final List<String> names;
+
+      table = loader.loadTable(inputPath);
+      names = new ArrayList<>(table.size());
+
+      for(int row = 0; row < table.size(); row++)
+      {
+         names.add(table.name(row));
+      }
+
+      return names;
+   }
+
+   private void writeReport() throws IOException
+   {
+      final List<String> texts;
+
+      texts = List.copyOf(sectionTexts.values());
+
+      publisher.publish(ReportPublisher.hashSections(List.copyOf(sectionTexts.keySet()), texts), writer ->
+      {
+         for(final String text : texts)
+         {
+            writer.writeString(text);
+         }
+      });
+   }
+}
@@ -0,0 +1,255 @@
+package ca.bcit.comp2522.lab7;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes report text to a single output file through one open FileChannel.
+ * Text is encoded as UTF-8 into a large direct buffer and only handed to the channel when the
+ * buffer fills up or the writer is flushed, so a whole report usually costs a single write.
+ * <p>
+ * Example usage:
+ * <pre>
+ *     try(final ReportWriter writer = new ReportWriter(outputPath))
+ *     {
+ *         writer.writeString(ReportSection.TOTAL_COUNT.render(report));
+ *     }
+ * </pre>
+ * </p>
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+public final class ReportWriter implements AutoCloseable
+{
+   public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+   public static final int MIN_BUFFER_SIZE     = 16;
+
+   private final FileChannel    channel;
+   private final ByteBuffer     buffer;
+   private final CharsetEncoder encoder;
+   private long                 bytesWritten;
+   private int                  flushCount;
+
+   /**
+    * Opens a ReportWriter on the given file with the default buffer size.
+    * The file is created if needed and truncated if it already exists.
+    *
+    * @param outputPath the path of the output file
+    * @throws IOException if the file cannot be opened
+    */
+   public ReportWriter(final Path outputPath) throws IOException
+   {
+      this(outputPath, DEFAULT_BUFFER_SIZE);
+   }
+
+   /**
+    * Opens a ReportWriter on the given file with the given buffer size.
+    * The file is created if needed and truncated if it already exists.
+    *
+    * @param outputPath the path of the output file
+    * @param bufferSize the size of the direct buffer in bytes, at least {@link #MIN_BUFFER_SIZE}
+    * @throws IOException if the file cannot be opened
+    * @throws IllegalArgumentException if the buffer size is too small
+    */
+   public ReportWriter(final Path outputPath,
+                       final int bufferSize) throws IOException
+   {
+      if(bufferSize < MIN_BUFFER_SIZE)
+      {
+         throw new IllegalArgumentException("Buffer size must be at least " + MIN_BUFFER_SIZE +
+                                            " bytes: " + bufferSize);
+      }
+
+      this.channel = open(outputPath);
+      this.buffer  = ByteBuffer.allocateDirect(bufferSize);
+      this.encoder = StandardCharsets.UTF_8.newEncoder();
+   }
+
+   /**
+    * Opens a ReportWriter on the given file that writes through the caller's buffer instead of
+    * allocating its own, so a thread writing many reports can reuse one buffer for all of them.
+    * The buffer is cleared first and must not be used elsewhere until the writer is closed.
+    * The file is created if needed and truncated if it already exists.
+    *
+    * @param outputPath the path of the output file
+    * @param buffer     the buffer to encode into, with room for at least {@link #MIN_BUFFER_SIZE} bytes
+    * @throws IOException if the file cannot be opened
+    * @throws IllegalArgumentException if the buffer is too small
+    */
+   public ReportWriter(final Path outputPath,
+                       final ByteBuffer buffer) throws IOException
+   {
+      if(buffer.capacity() < MIN_BUFFER_SIZE)
+      {
+         throw new IllegalArgumentException("Buffer size must be at least " + MIN_BUFFER_SIZE +
+                                            " bytes: " + buffer.capacity());
+      }
+
+      buffer.clear();
+
+      this.channel = open(outputPath);
+      this.buffer  = buffer;
+      this.encoder = StandardCharsets.UTF_8.newEncoder();
+   }
+
+   /**
+    * Writes the given value's string form as-is.
+    *
+    * @param <T>    the type of the value
+    * @param result the value to write
+    * @throws IOException if the buffer cannot be drained to the file
+    */
+   public <T> void writeString(final T result) throws IOException
+   {
+      encode(result.toString());
+   }
+
+   /**
+    * Appends the whole content of another file, copying it from channel to channel after the
+    * buffered text so it never passes through the heap.
+    *
+    * @param path the file to copy
+    * @throws IOException if the file cannot be read or the copy fails
+    */
+   public void writeFile(final Path path) throws IOException
+   {
+      flush();
+
+      try(final FileChannel source = FileChannel.open(path, StandardOpenOption.READ))
+      {
+         final long size;
+         long       position;
+
+         size     = source.size();
+         position = 0;
+
+         while(position < size)
+         {
+            position += source.transferTo(position, size - position, channel);
+         }
+
+         bytesWritten += size;
+      }
+   }
+
+   /**
+    * Writes any buffered bytes to the file.
+    *
+    * @throws IOException if the channel write fails
+    */
+   public void flush() throws IOException
+   {
+      if(buffer.position() == 0)
+      {
+         return;
+      }
+
+      buffer.flip();
+
+      while(buffer.hasRemaining())
+      {
+         bytesWritten += channel.write(buffer);
+      }
+
+      buffer.clear();
+      flushCount++;
+   }
+
+   /**
+    * Writes any buffered bytes and forces the file's content to the storage device.
+    *
+    * @throws IOException if the write or the force fails
+    */
+   public void force() throws IOException
+   {
+      flush();
+      channel.force(true);
+   }
+
+   /**
+    * Returns the number of bytes written to the file so far.
+    *
+    * @return the bytes written
+    */
+   public long getBytesWritten()
+   {
+      return bytesWritten;
+   }
+
+   /**
+    * Returns the number of bytes written so far, counting those still in the buffer, which is where
+    * the next write will start in the file.
+    *
+    * @return the bytes written or buffered
+    */
+   public long getPosition()
+   {
+      return bytesWritten + buffer.position();
+   }
+
+   /**
+    * Returns how many times the buffer has been drained to the file.
+    *
+    * @return the flush count
+    */
+   public int getFlushCount()
+   {
+      return flushCount;
+   }
+
+   @Override
+   public void close() throws IOException
+   {
+      try
+      {
+         flush();
+      } finally
+      {
+         channel.close();
+      }
+   }
+
+   private static FileChannel open(final Path outputPath) throws IOException
+   {
+      return FileChannel.open(outputPath,
+                              StandardOpenOption.CREATE,
+                              StandardOpenOption.WRITE,
+                              StandardOpenOption.TRUNCATE_EXISTING);
+   }
+
+   private void encode(final String text) throws IOException
+   {
+      final CharBuffer chars;
+      CoderResult      result;
+
+      chars = CharBuffer.wrap(text);
+      encoder.reset();
+
+      do
+      {
+         result = encoder.encode(chars, buffer, true);
+
+         if(result.isOverflow())
+         {
+            flush();
+         } else if(result.isError())
+         {
+            result.throwException();
+         }
+      } while(result.isOverflow());
+
+      while(encoder.flush(buffer).isOverflow())
+      {
+         flush();
+      }
+   }
+}
@@ -0,0 +1,444 @@
+package ca.bcit.comp2522.lab7;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+
+/**
+ * Loads the country names of many input shard files as one dataset, parsing the shards in parallel.
+ * <p>
+ * An input is a single file, a directory whose regular files are all shards, or a glob such as
+ * {@code data/shard-*.txt}. Shards are read in path order, so the combined rows, and therefore every
+ * report list, come out in the same order whatever the parallelism.
+ * </p>
+ * <p>
+ * On a fork-join pool each shard is parsed into a partial result: its {@link CountryTable} and its
+ * rows sorted in ascending order and in suffix order. Partials merge pairwise up a tree, the tables
+ * by concatenation and the orderings by merging two sorted runs, itself split into independent
+ * pieces at a midpoint found by binary search, so every level of the tree keeps all the workers
+ * busy. The merged orderings are exactly the ones a single sort of all the names gives, and the
+ * result is a {@link CountrySnapshot} that a {@link CountryReport} is built from without sorting
+ * again.
+ * </p>
+ * <p>
+ * Without a pool the shards' tables are only concatenated and the report sorts all the names once,
+ * which on one thread is cheaper than sorting every shard and merging the runs.
+ * </p>
+ * <p>
+ * Example usage:
+ * <pre>
+ *     List&lt;Path&gt; shards = ShardedInput.resolve("data/shard-*.txt");
+ *     CountrySnapshot snapshot = ShardedInput.load(shards, new ForkJoinPool(8));
+ * </pre>
+ * </p>
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+public final class ShardedInput
+{
+   private static final String GLOB_CHARACTERS = "*?[{";
+   private static final int    MERGE_THRESHOLD = 1 << 13;
+
+   private ShardedInput()
+   {
+   }
+
+   /**
+    * Returns the shard files an input names, in path order.
+    *
+    * @param input a file, a directory or a glob pattern
+    * @return the shard files
+    * @throws IOException if a directory cannot be listed, or nothing matches the input
+    */
+   public static List<Path> resolve(final String input) throws IOException
+   {
+      final List<Path> shards;
+
+      if(input.chars().anyMatch(c -> GLOB_CHARACTERS.indexOf(c) >= 0))
+      {
+         shards = glob(input);
+      } else if(Files.isDirectory(Paths.get(input)))
+      {
+         try(final Stream<Path> files = Files.list(Paths.get(input)))
+         {
+            shards = files.filter(Files::isRegularFile)
+                          .sorted(Comparator.comparing(Path::toString))
+                          .toList();
+         }
+      } else
+      {
+         shards = List.of(Paths.get(input));
+      }
+
+      if(shards.isEmpty())
+      {
+         throw new IOException("No input files match " + input);
+      }
+
+      return shards;
+   }
+
+   /**
+    * Parses every shard and merges them into one snapshot, in shard order.
+    *
+    * @param shards the shard files
+    * @param pool   the pool to parse and merge on, or null to work on the calling thread
+    * @return the merged snapshot
+    * @throws IOException if a shard cannot be read
+    */
+   public static CountrySnapshot load(final List<Path> shards,
+                                      final ForkJoinPool pool) throws IOException
+   {
+      final Partial merged;
+
+      if(shards.isEmpty())
+      {
+         throw new IllegalArgumentException("No shards to load!");
+      }
+
+      try
+      {
+         if(pool == null)
+         {
+            return CountrySnapshot.of(loadRange(shards, 0, shards.size()), null, null);
+         }
+
+         merged = pool.invoke(new ShardTask(shards, 0, shards.size()));
+      } catch(final UncheckedIOException e)
+      {
+         throw e.getCause();
+      }
+
+      return CountrySnapshot.of(merged.table, merged.sortedRows, merged.suffixRows);
+   }
+
+   /*
+    * Parses the shards [from, to) on the calling thread and concatenates their tables, in halves so
+    * that every row is copied once per level rather than once per shard.
+    */
+   private static CountryTable loadRange(final List<Path> shards,
+                                         final int from,
+                                         final int to)
+   {
+      final int mid;
+
+      if(to - from == 1)
+      {
+         return Partial.loadTable(shards.get(from));
+      }
+
+      mid = (from + to) >>> 1;
+
+      return CountryTable.concat(loadRange(shards, from, mid), loadRange(shards, mid, to));
+   }
+
+   /*
+    * Lists the regular files under the directory part of the pattern that match the whole pattern.
+    */
+   private static List<Path> glob(final String pattern) throws IOException
+   {
+      final int         firstGlob;
+      final int         lastSeparator;
+      final Path        base;
+      final PathMatcher matcher;
+
+      firstGlob     = indexOfAny(pattern, GLOB_CHARACTERS);
+      lastSeparator = Math.max(pattern.lastIndexOf('/', firstGlob),
+                               pattern.lastIndexOf(File.separatorChar, firstGlob));
+      base          = Paths.get(lastSeparator < 0 ? "" : pattern.substring(0, lastSeparator + 1));
+      matcher       = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+
+      if(!Files.isDirectory(base.toAbsolutePath()))
+      {
+         return List.of();
+      }
+
+      try(final Stream<Path> files = Files.walk(base))
+      {
+         return files.filter(Files::isRegularFile)
+                     .filter(matcher::matches)
+                     .sorted(Comparator.comparing(Path::toString))
+                     .toList();
+      }
+   }
+
+   private static int indexOfAny(final String text,
+                                 final String characters)
+   {
+      for(int i = 0; i < text.length(); i++)
+      {
+         if(characters.indexOf(text.charAt(i)) >= 0)
+         {
+            return i;
+         }
+      }
+
+      return -1;
+   }
+
+   /*
+    * The parsed rows of one or more consecutive shards, with their names decoded once for the merges.
+    */
+   private static final class Partial
+   {
+      private final CountryTable table;
+      private final String[]     names;
+      private final int[]        sortedRows;
+      private final int[]        suffixRows;
+
+      private Partial(final CountryTable table,
+                      final String[] names,
+                      final int[] sortedRows,
+                      final int[] suffixRows)
+      {
+         this.table      = table;
+         this.names      = names;
+         this.sortedRows = sortedRows;
+         this.suffixRows = suffixRows;
+      }
+
+      private static CountryTable loadTable(final Path shard)
+      {
+         try
+         {
+            return new CountryLoader().loadTable(shard);
+         } catch(final IOException e)
+         {
+            throw new UncheckedIOException(e);
+         }
+      }
+
+      private static Partial parse(final Path shard)
+      {
+         final CountryTable table;
+         final String[]     names;
+
+         table = loadTable(shard);
+         names = CountrySnapshot.names(table);
+
+         return new Partial(table, names, CountrySnapshot.sortedRows(names), CountrySnapshot.suffixRows(names));
+      }
+
+      private static Partial merge(final Partial first,
+                                   final Partial second)
+      {
+         final String[]  names;
+         final MergeTask sorted;
+         final MergeTask suffix;
+
+         names = new String[first.names.length + second.names.length];
+         System.arraycopy(first.names, 0, names, 0, first.names.length);
+         System.arraycopy(second.names, 0, names, first.names.length, second.names.length);
+
+         sorted = MergeTask.of(first.sortedRows, second.sortedRows, names, Comparator.naturalOrder());
+         suffix = MergeTask.of(first.suffixRows, second.suffixRows, names, SuffixIndex::compareReversed);
+         ForkJoinTask.invokeAll(sorted, suffix);
+
+         return new Partial(CountryTable.concat(first.table, second.table), names, sorted.out, suffix.out);
+      }
+   }
+
+   /*
+    * Parses the shards [from, to), splitting the range in half until one shard is left and merging
+    * the halves on the way back up. Tasks are never serialized.
+    */
+   @SuppressWarnings("serial")
+   private static final class ShardTask extends RecursiveTask<Partial>
+   {
+      private final List<Path> shards;
+      private final int        from;
+      private final int        to;
+
+      private ShardTask(final List<Path> shards,
+                        final int from,
+                        final int to)
+      {
+         this.shards = shards;
+         this.from   = from;
+         this.to     = to;
+      }
+
+      @Override
+      protected Partial compute()
+      {
+         final int       mid;
+         final ShardTask left;
+         final Partial   right;
+
+         if(to - from == 1)
+         {
+            return Partial.parse(shards.get(from));
+         }
+
+         mid   = (from + to) >>> 1;
+         left  = new ShardTask(shards, from, mid);
+         left.fork();
+         right = new ShardTask(shards, mid, to).compute();
+
+         return Partial.merge(left.join(), right);
+      }
+   }
+
+   /*
+    * Merges two runs of rows that are each sorted by the order into out, where every row of the
+    * second run comes after every row of the first in the combined table and is stored relative to
+    * the start of the second run. Ties keep the first run's row first, which is what a stable sort of
+    * the combined rows gives. A large merge is split at the middle of the longer run, with the
+    * matching split point in the other run found by binary search, and the two halves are merged
+    * as independent tasks.
+    */
+   @SuppressWarnings("serial")
+   private static final class MergeTask extends RecursiveAction
+   {
+      private final int[]              first;
+      private final int[]              second;
+      private final String[]           names;
+      private final Comparator<String> order;
+      private final int[]              out;
+      private final int                firstFrom;
+      private final int                firstTo;
+      private final int                secondFrom;
+      private final int                secondTo;
+
+      private MergeTask(final int[] first,
+                        final int[] second,
+                        final String[] names,
+                        final Comparator<String> order,
+                        final int[] out,
+                        final int firstFrom,
+                        final int firstTo,
+                        final int secondFrom,
+                        final int secondTo)
+      {
+         this.first      = first;
+         this.second     = second;
+         this.names      = names;
+         this.order      = order;
+         this.out        = out;
+         this.firstFrom  = firstFrom;
+         this.firstTo    = firstTo;
+         this.secondFrom = secondFrom;
+         this.secondTo   = secondTo;
+      }
+
+      private static MergeTask of(final int[] first,
+                                  final int[] second,
+                                  final String[] names,
+                                  final Comparator<String> order)
+      {
+         return new MergeTask(first, second, names, order, new int[first.length + second.length],
+                              0, first.length, 0, second.length);
+      }
+
+      @Override
+      protected void compute()
+      {
+         final int firstSplit;
+         final int secondSplit;
+
+         if(firstTo - firstFrom + secondTo - secondFrom <= MERGE_THRESHOLD)
+         {
+            mergeSequentially();
+            return;
+         }
+
+         if(firstTo - firstFrom >= secondTo - secondFrom)
+         {
+            // Rows of the second run equal to the split name go right, after it.
+            firstSplit  = (firstFrom + firstTo) >>> 1;
+            secondSplit = search(second, secondFrom, secondTo, firstName(firstSplit), false);
+         } else
+         {
+            // Rows of the first run equal to the split name go left, before it.
+            secondSplit = (secondFrom + secondTo) >>> 1;
+            firstSplit  = search(first, firstFrom, firstTo, secondName(secondSplit), true);
+         }
+
+         invokeAll(new MergeTask(first, second, names, order, out, firstFrom, firstSplit, secondFrom, secondSplit),
+                   new MergeTask(first, second, names, order, out, firstSplit, firstTo, secondSplit, secondTo));
+      }
+
+      private void mergeSequentially()
+      {
+         int left;
+         int right;
+
+         left  = firstFrom;
+         right = secondFrom;
+
+         for(int i = firstFrom + secondFrom; i < firstTo + secondTo; i++)
+         {
+            if(right == secondTo ||
+               (left < firstTo && order.compare(firstName(left), secondName(right)) <= 0))
+            {
+               out[i] = first[left++];
+            } else
+            {
+               out[i] = second[right++] + first.length;
+            }
+         }
+      }
+
+      /*
+       * Returns the first position in rows[from, to) whose name sorts after the key, or, if
+       * inclusive is false, the first whose name does not sort before it.
+       */
+      private int search(final int[] rows,
+                         final int from,
+                         final int to,
+                         final String key,
+                         final boolean inclusive)
+      {
+         final int offset;
+         int       low;
+         int       high;
+
+         offset = rows == second ? first.length : 0;
+         low    = from;
+         high   = to;
+
+         while(low < high)
+         {
+            final int mid;
+            final int comparison;
+
+            mid        = (low + high) >>> 1;
+            comparison = order.compare(names[rows[mid] + offset], key);
+
+            if(comparison < 0 || (inclusive && comparison == 0))
+            {
+               low = mid + 1;
+            } else
+            {
+               high = mid;
+            }
+         }
+
+         return low;
+      }
+
+      private String firstName(final int index)
+      {
+         return names[first[index]];
+      }
+
+      private String secondName(final int index)
+      {
+         return names[second[index] + first.length];
+      }
+   }
+}
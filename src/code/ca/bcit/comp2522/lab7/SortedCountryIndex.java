@@ -0,0 +1,201 @@
+package ca.bcit.comp2522.lab7;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An index of country names sorted once into an array and shared by every ordered query.
+ * Ascending order, descending order and alphabetical ranges are all read-only views over the
+ * same array, so none of them copies or sorts the names again.
+ * <p>
+ * Example usage:
+ * <pre>
+ *     SortedCountryIndex index = new SortedCountryIndex(names);
+ *     List&lt;String&gt; zToA = index.descending();
+ *     List&lt;String&gt; bAndC = index.range("B", "D");
+ * </pre>
+ * </p>
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+public final class SortedCountryIndex
+{
+   private final String[] sortedNames;
+
+   /**
+    * Constructs a SortedCountryIndex by sorting a copy of the given names in natural String order.
+    *
+    * @param names the country names to index
+    */
+   public SortedCountryIndex(final Collection<String> names)
+   {
+      this.sortedNames = names.toArray(new String[0]);
+      Arrays.sort(sortedNames);
+   }
+
+   /*
+    * Constructs a SortedCountryIndex from the rows of the names in ascending order, such as the ones
+    * stored in a CountrySnapshot, without sorting again.
+    */
+   SortedCountryIndex(final List<String> names,
+                      final int[] sortedRows)
+   {
+      this.sortedNames = new String[sortedRows.length];
+
+      for(int i = 0; i < sortedRows.length; i++)
+      {
+         sortedNames[i] = names.get(sortedRows[i]);
+      }
+   }
+
+   /**
+    * Returns the number of indexed names.
+    *
+    * @return the name count
+    */
+   public int size()
+   {
+      return sortedNames.length;
+   }
+
+   /**
+    * Returns all names in ascending order.
+    *
+    * @return an unmodifiable view of the sorted names
+    */
+   public List<String> ascending()
+   {
+      return new SortedView(sortedNames, 0, sortedNames.length, false);
+   }
+
+   /**
+    * Returns all names in descending order.
+    *
+    * @return an unmodifiable view of the names in reverse order
+    */
+   public List<String> descending()
+   {
+      return new SortedView(sortedNames, 0, sortedNames.length, true);
+   }
+
+   /**
+    * Returns the names from {@code fromInclusive} up to but not including {@code toExclusive},
+    * in ascending order. For example, {@code range("B", "D")} returns every name starting with
+    * 'B' or 'C'.
+    *
+    * @param fromInclusive the lowest name of the range
+    * @param toExclusive   the name the range stops before
+    * @return an unmodifiable view of the names in the range
+    * @throws IllegalArgumentException if {@code fromInclusive} sorts after {@code toExclusive}
+    */
+   public List<String> range(final String fromInclusive,
+                             final String toExclusive)
+   {
+      return new SortedView(sortedNames,
+                            rangeStart(fromInclusive, toExclusive),
+                            lowerBound(toExclusive),
+                            false);
+   }
+
+   /**
+    * Returns the names in the same range as {@link #range(String, String)}, in descending order.
+    *
+    * @param fromInclusive the lowest name of the range
+    * @param toExclusive   the name the range stops before
+    * @return an unmodifiable view of the names in the range, in reverse order
+    * @throws IllegalArgumentException if {@code fromInclusive} sorts after {@code toExclusive}
+    */
+   public List<String> descendingRange(final String fromInclusive,
+                                       final String toExclusive)
+   {
+      return new SortedView(sortedNames,
+                            rangeStart(fromInclusive, toExclusive),
+                            lowerBound(toExclusive),
+                            true);
+   }
+
+   private int rangeStart(final String fromInclusive,
+                          final String toExclusive)
+   {
+      if(fromInclusive.compareTo(toExclusive) > 0)
+      {
+         throw new IllegalArgumentException("Range start " + fromInclusive +
+                                            " is after range end " + toExclusive);
+      }
+
+      return lowerBound(fromInclusive);
+   }
+
+   /*
+    * Returns the position of the first name that is not less than the key.
+    */
+   private int lowerBound(final String key)
+   {
+      int low;
+      int high;
+
+      low  = 0;
+      high = sortedNames.length;
+
+      while(low < high)
+      {
+         final int mid;
+
+         mid = (low + high) >>> 1;
+
+         if(sortedNames[mid].compareTo(key) < 0)
+         {
+            low = mid + 1;
+         } else
+         {
+            high = mid;
+         }
+      }
+
+      return low;
+   }
+
+   /*
+    * A read-only window [from, to) over the sorted array, read forwards or backwards.
+    */
+   private static final class SortedView extends AbstractList<String> implements RandomAccess
+   {
+      private final String[] names;
+      private final int      from;
+      private final int      to;
+      private final boolean  reversed;
+
+      private SortedView(final String[] names,
+                         final int from,
+                         final int to,
+                         final boolean reversed)
+      {
+         this.names    = names;
+         this.from     = from;
+         this.to       = to;
+         this.reversed = reversed;
+      }
+
+      @Override
+      public String get(final int index)
+      {
+         if(index < 0 || index >= size())
+         {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size());
+         }
+
+         return reversed ? names[to - 1 - index] : names[from + index];
+      }
+
+      @Override
+      public int size()
+      {
+         return to - from;
+      }
+   }
+}
@@ -0,0 +1,572 @@
+package ca.bcit.comp2522.lab7;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Builds the CountryLab report from names as they are read, in bounded memory, for inputs that do
+ * not fit in the heap.
+ * <p>
+ * Nothing is kept per name in memory:
+ * <ul>
+ *     <li>the total count, the shortest and longest names and the "any starts with z" and
+ *     "all longer than" sections are exact running aggregates</li>
+ *     <li>the unique-first-letter section keeps one name per distinct first letter</li>
+ *     <li>the sections that list the names passing a test are written through to one temporary
+ *     file each as the names arrive</li>
+ *     <li>the sorted sections come from an {@link ExternalSorter} that spills sorted runs to
+ *     temporary files and merges them</li>
+ *     <li>the character count section, which lists each distinct name in the iteration order of
+ *     the {@link java.util.HashMap} the in-memory report uses, is produced by a second external
+ *     sort by hash bucket and first position once the number of distinct names is known</li>
+ * </ul>
+ * The written report is the same as the in-memory one. Two sketches summarize the stream on top of
+ * it: a {@link HyperLogLog} estimate of the distinct names and the {@link TopLongest} names.
+ * </p>
+ * <p>
+ * Example usage:
+ * <pre>
+ *     try(StreamingReport report = new StreamingReport(3, 4, StreamingReport.DEFAULT_RUN_SIZE);
+ *         ReportWriter writer = new ReportWriter(outputPath))
+ *     {
+ *         report.addAll(System.in);
+ *         report.writeTo(writer);
+ *     }
+ * </pre>
+ * </p>
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+public final class StreamingReport implements AutoCloseable
+{
+   public static final int DEFAULT_RUN_SIZE = 1 << 18;
+   public static final int DEFAULT_TOP_K    = 10;
+
+   private static final String LINE                   = System.lineSeparator();
+   private static final char   KEY_SEPARATOR          = '\0';
+   private static final int    HEX_DIGITS_INT         = 8;
+   private static final int    HEX_DIGITS_LONG        = 16;
+   private static final int    HASH_MAP_MIN_CAPACITY  = 16;
+   private static final double HASH_MAP_LOAD_FACTOR   = 0.75;
+
+   private final int                               minChar;
+   private final int                               minWord;
+   private final int                               runSize;
+   private final Path                              directory;
+   private final Map<ReportSection, SectionSpill>  spills;
+   private final ExternalSorter                    sorter;
+   private final HyperLogLog                       distinct;
+   private final TopLongest                        top;
+   private final TreeMap<Character, String>        firstNameByLetter;
+   private final Set<Character>                    repeatedLetters;
+   private long                                    count;
+   private String                                  longestName;
+   private String                                  shortestName;
+   private boolean                                 allLongerThanN;
+
+   /**
+    * Constructs an empty StreamingReport with its temporary files in a new directory under the
+    * default temporary directory.
+    *
+    * @param minChar the length every name is compared against for the "all longer than" section
+    * @param minWord the word count a name must exceed to be listed as a multi-word name
+    * @param runSize the number of names sorted in memory before a run is spilled to disk
+    * @throws IOException if the temporary files cannot be created
+    */
+   public StreamingReport(final int minChar,
+                          final int minWord,
+                          final int runSize) throws IOException
+   {
+      this.minChar           = minChar;
+      this.minWord           = minWord;
+      this.runSize           = runSize;
+      this.directory         = Files.createTempDirectory("countrylab-stream");
+      this.spills            = new EnumMap<>(ReportSection.class);
+      this.sorter            = new ExternalSorter(directory, runSize);
+      this.distinct          = new HyperLogLog();
+      this.top               = new TopLongest(DEFAULT_TOP_K);
+      this.firstNameByLetter = new TreeMap<>();
+      this.repeatedLetters   = new HashSet<>();
+      this.allLongerThanN    = true;
+
+      for(final ReportSection section : ReportSection.values())
+      {
+         final Predicate<String> filter;
+
+         filter = CountryReport.nameFilter(section, minWord);
+
+         if(filter != null)
+         {
+            spills.put(section, new SectionSpill(directory, filter, CountryReport.nameMapper(section)));
+         }
+      }
+   }
+
+   /**
+    * Adds the next name of the stream.
+    *
+    * @param name the country name, not blank
+    * @throws IOException if a temporary file cannot be written
+    */
+   public void add(final String name) throws IOException
+   {
+      final char letter;
+
+      for(final SectionSpill spill : spills.values())
+      {
+         spill.offer(name);
+      }
+
+      sorter.add(name + KEY_SEPARATOR + toHex(count, HEX_DIGITS_LONG));
+      distinct.add(name);
+      top.add(name);
+
+      letter = Character.toUpperCase(name.charAt(0));
+
+      if(firstNameByLetter.putIfAbsent(letter, name) != null)
+      {
+         repeatedLetters.add(letter);
+      }
+
+      if(longestName == null || name.length() > longestName.length())
+      {
+         longestName = name;
+      }
+
+      if(shortestName == null || name.length() < shortestName.length())
+      {
+         shortestName = name;
+      }
+
+      allLongerThanN &= name.length() > minChar;
+      count++;
+   }
+
+   /**
+    * Adds every valid name in the file.
+    *
+    * @param inputPath the file to read
+    * @throws IOException if the file cannot be read or a temporary file cannot be written
+    */
+   public void addAll(final Path inputPath) throws IOException
+   {
+      try
+      {
+         new CountryLoader().forEach(inputPath, country -> addUnchecked(country.getName()));
+      } catch(final UncheckedIOException e)
+      {
+         throw e.getCause();
+      }
+   }
+
+   /**
+    * Adds every valid name read from the stream, one name per line. The stream is not closed.
+    *
+    * @param input the stream to read, such as standard input
+    * @throws IOException if the stream cannot be read or a temporary file cannot be written
+    */
+   public void addAll(final InputStream input) throws IOException
+   {
+      try
+      {
+         new CountryLoader().forEach(input, country -> addUnchecked(country.getName()));
+      } catch(final UncheckedIOException e)
+      {
+         throw e.getCause();
+      }
+   }
+
+   /**
+    * Writes every section of the report, in order, once all the names have been added.
+    *
+    * @param writer the writer of the report file
+    * @throws IOException if a temporary file cannot be read or the report cannot be written
+    */
+   public void writeTo(final ReportWriter writer) throws IOException
+   {
+      final Totals totals;
+
+      totals = new Totals();
+
+      for(final SectionSpill spill : spills.values())
+      {
+         spill.finish();
+      }
+
+      for(final ReportSection section : ReportSection.values())
+      {
+         writer.writeString(section.render(totals));
+
+         if(spills.containsKey(section))
+         {
+            writer.writeFile(spills.get(section).path);
+         } else if(section == ReportSection.ASCENDING || section == ReportSection.DESCENDING)
+         {
+            sorter.forEachSorted(section == ReportSection.DESCENDING, key ->
+            {
+               writer.writeString(key.substring(0, key.lastIndexOf(KEY_SEPARATOR)));
+               writer.writeString(LINE);
+            });
+         } else if(section == ReportSection.CHARACTER_COUNT)
+         {
+            writeCharacterCounts(writer);
+         }
+      }
+   }
+
+   /**
+    * Returns the number of names added.
+    *
+    * @return the name count
+    */
+   public long getCount()
+   {
+      return count;
+   }
+
+   /**
+    * Returns the estimated number of distinct names added.
+    *
+    * @return the distinct name estimate
+    */
+   public long getDistinctEstimate()
+   {
+      return distinct.estimate();
+   }
+
+   /**
+    * Returns the longest names added, longest first.
+    *
+    * @return up to {@link #DEFAULT_TOP_K} names
+    */
+   public List<String> getLongestNames()
+   {
+      return top.longest();
+   }
+
+   /**
+    * Returns the number of sorted runs spilled to disk so far.
+    *
+    * @return the run count
+    */
+   public int getRunCount()
+   {
+      return sorter.runCount();
+   }
+
+   /**
+    * Deletes every temporary file and the temporary directory.
+    *
+    * @throws IOException if a temporary file cannot be deleted
+    */
+   @Override
+   public void close() throws IOException
+   {
+      try
+      {
+         sorter.close();
+
+         for(final SectionSpill spill : spills.values())
+         {
+            spill.finish();
+            Files.deleteIfExists(spill.path);
+         }
+      } finally
+      {
+         Files.deleteIfExists(directory);
+      }
+   }
+
+   private void addUnchecked(final String name)
+   {
+      try
+      {
+         add(name);
+      } catch(final IOException e)
+      {
+         throw new UncheckedIOException(e);
+      }
+   }
+
+   /*
+    * Lists each distinct name with its length in the order a HashMap filled in encounter order
+    * iterates them: by bucket, and by first insertion within a bucket. The sorted keys give the
+    * distinct names with their first position; a second external sort orders them by bucket.
+    */
+   private void writeCharacterCounts(final ReportWriter writer) throws IOException
+   {
+      final int    capacity;
+      final String[] previous;
+
+      capacity = hashMapCapacity(countDistinct());
+      previous = new String[1];
+
+      try(final ExternalSorter buckets = new ExternalSorter(directory, runSize))
+      {
+         sorter.forEachSorted(false, key ->
+         {
+            final int    separator;
+            final String name;
+
+            separator = key.lastIndexOf(KEY_SEPARATOR);
+            name      = key.substring(0, separator);
+
+            if(!name.equals(previous[0]))
+            {
+               buckets.add(toHex(bucket(name, capacity), HEX_DIGITS_INT) + key.substring(separator + 1) + name);
+               previous[0] = name;
+            }
+         });
+
+         buckets.forEachSorted(false, key ->
+         {
+            final String name;
+
+            name = key.substring(HEX_DIGITS_INT + HEX_DIGITS_LONG);
+            writer.writeString(String.format("%s: %d characters", name, name.length()));
+            writer.writeString(LINE);
+         });
+      }
+   }
+
+   private long countDistinct() throws IOException
+   {
+      final long[]   distinctCount;
+      final String[] previous;
+
+      distinctCount = new long[1];
+      previous      = new String[1];
+
+      sorter.forEachSorted(false, key ->
+      {
+         final String name;
+
+         name = key.substring(0, key.lastIndexOf(KEY_SEPARATOR));
+
+         if(!name.equals(previous[0]))
+         {
+            distinctCount[0]++;
+            previous[0] = name;
+         }
+      });
+
+      return distinctCount[0];
+   }
+
+   /*
+    * Returns the table size a default HashMap reaches after the given number of distinct keys.
+    */
+   private static int hashMapCapacity(final long keys)
+   {
+      int capacity;
+
+      capacity = HASH_MAP_MIN_CAPACITY;
+
+      while(keys > capacity * HASH_MAP_LOAD_FACTOR)
+      {
+         capacity *= 2;
+      }
+
+      return capacity;
+   }
+
+   /*
+    * Returns the bucket a HashMap of the given capacity puts the key in.
+    */
+   private static int bucket(final String key,
+                             final int capacity)
+   {
+      final int hash;
+
+      hash = key.hashCode();
+
+      return (hash ^ (hash >>> 16)) & (capacity - 1);
+   }
+
+   /*
+    * Formats the value as fixed-width lower-case hex, so keys sort by value.
+    */
+   private static String toHex(final long value,
+                               final int digits)
+   {
+      final String        hex;
+      final StringBuilder out;
+
+      hex = Long.toHexString(value);
+      out = new StringBuilder(digits);
+
+      for(int i = hex.length(); i < digits; i++)
+      {
+         out.append('0');
+      }
+
+      return out.append(hex).toString();
+   }
+
+   /*
+    * The report results that are known without keeping the names. The sections listed from
+    * temporary files see empty lists here, which renders just their headers.
+    */
+   private final class Totals implements ReportResults
+   {
+      @Override
+      public int getMinChar()
+      {
+         return minChar;
+      }
+
+      @Override
+      public List<String> getLongNames()
+      {
+         return List.of();
+      }
+
+      @Override
+      public List<String> getShortNames()
+      {
+         return List.of();
+      }
+
+      @Override
+      public List<String> getNamesStartingWithA()
+      {
+         return List.of();
+      }
+
+      @Override
+      public List<String> getNamesEndingWithLand()
+      {
+         return List.of();
+      }
+
+      @Override
+      public List<String> getNamesContainingUnited()
+      {
+         return List.of();
+      }
+
+      @Override
+      public List<String> getAscendingNames()
+      {
+         return List.of();
+      }
+
+      @Override
+      public List<String> getDescendingNames()
+      {
+         return List.of();
+      }
+
+      @Override
+      public List<String> getUniqueFirstLetterNames()
+      {
+         return firstNameByLetter.entrySet()
+                                 .stream()
+                                 .filter(entry -> !repeatedLetters.contains(entry.getKey()))
+                                 .map(Map.Entry::getValue)
+                                 .toList();
+      }
+
+      @Override
+      public long getTotalCount()
+      {
+         return count;
+      }
+
+      @Override
+      public String getLongestName()
+      {
+         return longestName;
+      }
+
+      @Override
+      public String getShortestName()
+      {
+         return shortestName;
+      }
+
+      @Override
+      public List<String> getUpperCaseNames()
+      {
+         return List.of();
+      }
+
+      @Override
+      public List<String> getNamesWithMoreThanNWords()
+      {
+         return List.of();
+      }
+
+      @Override
+      public Map<String, Integer> getCharacterCounts()
+      {
+         return Map.of();
+      }
+
+      @Override
+      public boolean isAnyStartsWithZ()
+      {
+         return firstNameByLetter.containsKey(Character.toUpperCase(CountryReport.Z_PREFIX.charAt(0)));
+      }
+
+      @Override
+      public boolean isAllLongerThanN()
+      {
+         return allLongerThanN;
+      }
+   }
+
+   /*
+    * The temporary file a filtered section's lines are written through to.
+    */
+   private static final class SectionSpill
+   {
+      private final Path                  path;
+      private final Predicate<String>     filter;
+      private final UnaryOperator<String> mapper;
+      private BufferedWriter              writer;
+
+      private SectionSpill(final Path directory,
+                           final Predicate<String> filter,
+                           final UnaryOperator<String> mapper) throws IOException
+      {
+         this.path   = Files.createTempFile(directory, "section", ".txt");
+         this.filter = filter;
+         this.mapper = mapper;
+         this.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+      }
+
+      private void offer(final String name) throws IOException
+      {
+         if(filter.test(name))
+         {
+            writer.write(mapper.apply(name));
+            writer.write(LINE);
+         }
+      }
+
+      private void finish() throws IOException
+      {
+         if(writer != null)
+         {
+            writer.close();
+            writer = null;
+         }
+      }
+   }
+}
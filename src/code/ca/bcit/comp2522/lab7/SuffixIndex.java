@@ -0,0 +1,289 @@
+package ca.bcit.comp2522.lab7;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An index for "ends with" queries over country names, built once alongside the country list.
+ * <p>
+ * The rows of the names are sorted by their names read backwards, which puts every name ending with
+ * the same suffix into one contiguous run. A query finds that run with two binary searches instead
+ * of scanning every name, and no reversed copies of the names are ever made. Matching is
+ * case-sensitive, exactly like {@link String#endsWith(String)}, and results are returned in the
+ * order the names were given to the index.
+ * </p>
+ * <p>
+ * Example usage:
+ * <pre>
+ *     SuffixIndex index = new SuffixIndex(names);
+ *     List&lt;String&gt; lands = index.endingWith("land");
+ *     int stans = index.countEndingWith("stan");
+ * </pre>
+ * </p>
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+public final class SuffixIndex
+{
+   private final String[] names;
+   private final int[]    rowsBySuffix;
+
+   /**
+    * Constructs a SuffixIndex over the given names.
+    *
+    * @param names the country names to index, in the order results should be returned
+    */
+   public SuffixIndex(final List<String> names)
+   {
+      this.names        = names.toArray(new String[0]);
+      this.rowsBySuffix = new int[this.names.length];
+
+      for(int row = 0; row < rowsBySuffix.length; row++)
+      {
+         rowsBySuffix[row] = row;
+      }
+
+      sortBySuffix(rowsBySuffix, new int[rowsBySuffix.length], 0, rowsBySuffix.length);
+   }
+
+   /*
+    * Constructs a SuffixIndex from rows already sorted by suffix, such as the ones stored in a
+    * CountrySnapshot, without sorting again.
+    */
+   SuffixIndex(final List<String> names,
+               final int[] rowsBySuffix)
+   {
+      this.names        = names.toArray(new String[0]);
+      this.rowsBySuffix = rowsBySuffix;
+   }
+
+   /**
+    * Returns the number of indexed names.
+    *
+    * @return the name count
+    */
+   public int size()
+   {
+      return names.length;
+   }
+
+   /**
+    * Returns whether any name ends with the given suffix.
+    *
+    * @param suffix the suffix to look for
+    * @return true if at least one name ends with the suffix
+    */
+   public boolean anyEndingWith(final String suffix)
+   {
+      return countEndingWith(suffix) > 0;
+   }
+
+   /**
+    * Returns how many names end with the given suffix.
+    *
+    * @param suffix the suffix to look for
+    * @return the number of names ending with the suffix
+    */
+   public int countEndingWith(final String suffix)
+   {
+      return upperBound(suffix) - lowerBound(suffix);
+   }
+
+   /**
+    * Returns every name ending with the given suffix, in insertion order.
+    *
+    * @param suffix the suffix to look for
+    * @return the names ending with the suffix
+    */
+   public List<String> endingWith(final String suffix)
+   {
+      final int          from;
+      final int[]        rows;
+      final List<String> result;
+
+      from = lowerBound(suffix);
+      rows = Arrays.copyOfRange(rowsBySuffix, from, upperBound(suffix));
+      Arrays.sort(rows);
+
+      result = new ArrayList<>(rows.length);
+
+      for(final int row : rows)
+      {
+         result.add(names[row]);
+      }
+
+      return result;
+   }
+
+   /*
+    * Returns the rows in suffix order, for CountrySnapshot to store. Callers must not modify them.
+    */
+   int[] rowsBySuffix()
+   {
+      return rowsBySuffix;
+   }
+
+   /*
+    * Returns the position of the first row whose name does not sort before the suffix.
+    */
+   private int lowerBound(final String suffix)
+   {
+      int low;
+      int high;
+
+      low  = 0;
+      high = rowsBySuffix.length;
+
+      while(low < high)
+      {
+         final int mid;
+
+         mid = (low + high) >>> 1;
+
+         if(compareToSuffix(names[rowsBySuffix[mid]], suffix) < 0)
+         {
+            low = mid + 1;
+         } else
+         {
+            high = mid;
+         }
+      }
+
+      return low;
+   }
+
+   /*
+    * Returns the position of the first row whose name sorts after every name ending with the suffix.
+    */
+   private int upperBound(final String suffix)
+   {
+      int low;
+      int high;
+
+      low  = 0;
+      high = rowsBySuffix.length;
+
+      while(low < high)
+      {
+         final int mid;
+
+         mid = (low + high) >>> 1;
+
+         if(compareToSuffix(names[rowsBySuffix[mid]], suffix) <= 0)
+         {
+            low = mid + 1;
+         } else
+         {
+            high = mid;
+         }
+      }
+
+      return low;
+   }
+
+   /*
+    * Compares a name read backwards with a suffix read backwards, looking only at the last
+    * suffix.length() characters of the name. Returns 0 when the name ends with the suffix.
+    */
+   private static int compareToSuffix(final String name,
+                                      final String suffix)
+   {
+      final int nameLength;
+      final int suffixLength;
+      final int shared;
+
+      nameLength   = name.length();
+      suffixLength = suffix.length();
+      shared       = Math.min(nameLength, suffixLength);
+
+      for(int i = 1; i <= shared; i++)
+      {
+         final int difference;
+
+         difference = name.charAt(nameLength - i) - suffix.charAt(suffixLength - i);
+
+         if(difference != 0)
+         {
+            return difference;
+         }
+      }
+
+      return nameLength >= suffixLength ? 0 : -1;
+   }
+
+   /*
+    * Compares two names read backwards, the order the rows are sorted in.
+    */
+   static int compareReversed(final String first,
+                              final String second)
+   {
+      final int firstLength;
+      final int secondLength;
+      final int shared;
+
+      firstLength  = first.length();
+      secondLength = second.length();
+      shared       = Math.min(firstLength, secondLength);
+
+      for(int i = 1; i <= shared; i++)
+      {
+         final int difference;
+
+         difference = first.charAt(firstLength - i) - second.charAt(secondLength - i);
+
+         if(difference != 0)
+         {
+            return difference;
+         }
+      }
+
+      return firstLength - secondLength;
+   }
+
+   /*
+    * Stable merge sort of rows[from, to) by reversed name, using scratch as the merge buffer.
+    * A primitive sort avoids boxing every row into an Integer to use a Comparator.
+    */
+   private void sortBySuffix(final int[] rows,
+                             final int[] scratch,
+                             final int from,
+                             final int to)
+   {
+      final int mid;
+      int       left;
+      int       right;
+
+      if(to - from < 2)
+      {
+         return;
+      }
+
+      mid = (from + to) >>> 1;
+      sortBySuffix(rows, scratch, from, mid);
+      sortBySuffix(rows, scratch, mid, to);
+
+      if(compareReversed(names[rows[mid - 1]], names[rows[mid]]) <= 0)
+      {
+         return;
+      }
+
+      System.arraycopy(rows, from, scratch, from, to - from);
+      left  = from;
+      right = mid;
+
+      for(int i = from; i < to; i++)
+      {
+         if(right >= to ||
+            (left < mid && compareReversed(names[scratch[left]], names[scratch[right]]) <= 0))
+         {
+            rows[i] = scratch[left++];
+         } else
+         {
+            rows[i] = scratch[right++];
+         }
+      }
+   }
+}
@@ -0,0 +1,113 @@
+package ca.bcit.comp2522.lab7;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Keeps the k longest names of a stream in memory proportional to k.
+ * <p>
+ * The names are held in a min-heap ordered by length, so each new name is compared with the
+ * shortest name kept and the heap never grows past k entries. Names of equal length keep the one
+ * seen first, the same tie-break the longest-name section uses.
+ * </p>
+ * <p>
+ * Example usage:
+ * <pre>
+ *     TopLongest top = new TopLongest(10);
+ *     names.forEach(top::add);
+ *     List&lt;String&gt; tenLongest = top.longest();
+ * </pre>
+ * </p>
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+public final class TopLongest
+{
+   private static final Comparator<Entry> SHORTEST_LATEST_FIRST =
+         Comparator.<Entry>comparingInt(entry -> entry.name.length())
+                   .thenComparing(Comparator.<Entry>comparingLong(entry -> entry.sequence).reversed());
+
+   private final int                  k;
+   private final PriorityQueue<Entry> heap;
+   private long                       sequence;
+
+   /**
+    * Constructs an empty TopLongest.
+    *
+    * @param k the number of names to keep
+    * @throws IllegalArgumentException if k is not positive
+    */
+   public TopLongest(final int k)
+   {
+      if(k <= 0)
+      {
+         throw new IllegalArgumentException("k must be positive: " + k);
+      }
+
+      this.k    = k;
+      this.heap = new PriorityQueue<>(SHORTEST_LATEST_FIRST);
+   }
+
+   /**
+    * Offers a name, keeping it if it is among the k longest so far.
+    *
+    * @param name the name
+    */
+   public void add(final String name)
+   {
+      final Entry entry;
+
+      entry = new Entry(name, sequence++);
+
+      if(heap.size() < k)
+      {
+         heap.add(entry);
+      } else if(SHORTEST_LATEST_FIRST.compare(entry, heap.peek()) > 0)
+      {
+         heap.poll();
+         heap.add(entry);
+      }
+   }
+
+   /**
+    * Returns the longest names kept, longest first and in the order they were seen within a length.
+    *
+    * @return up to k names
+    */
+   public List<String> longest()
+   {
+      final List<Entry>  entries;
+      final List<String> result;
+
+      entries = new ArrayList<>(heap);
+      entries.sort(SHORTEST_LATEST_FIRST.reversed());
+      result  = new ArrayList<>(entries.size());
+
+      for(final Entry entry : entries)
+      {
+         result.add(entry.name);
+      }
+
+      return result;
+   }
+
+   /*
+    * A kept name with the position it was seen at.
+    */
+   private static final class Entry
+   {
+      private final String name;
+      private final long   sequence;
+
+      private Entry(final String name,
+                    final long sequence)
+      {
+         this.name     = name;
+         this.sequence = sequence;
+      }
+   }
+}
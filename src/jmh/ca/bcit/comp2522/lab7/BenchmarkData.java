@@ -0,0 +1,64 @@
+package ca.bcit.comp2522.lab7;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Builds the input files used by the CountryLab benchmarks.
+ * A file of N names repeats the names in week8countries.txt in order; from the second round on,
+ * each name gets a base-36 round number appended so the names stay distinct at every size.
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+final class BenchmarkData
+{
+   static final Path SAMPLE_PATH = Paths.get("src", "resources", "week8countries.txt");
+
+   private BenchmarkData()
+   {
+   }
+
+   /**
+    * Writes a temporary input file holding the given number of country names.
+    * The file is deleted when the JVM exits.
+    *
+    * @param size the number of names to write
+    * @return the path of the written file
+    * @throws IOException if the sample file cannot be read or the input file cannot be written
+    */
+   static Path writeInputFile(final int size) throws IOException
+   {
+      final List<String> sampleNames;
+      final Path         inputPath;
+
+      sampleNames = Files.readAllLines(SAMPLE_PATH)
+                         .stream()
+                         .filter(line -> !line.isBlank())
+                         .toList();
+      inputPath   = Files.createTempFile("countries-" + size + "-", ".txt");
+      inputPath.toFile().deleteOnExit();
+
+      try(final BufferedWriter writer = Files.newBufferedWriter(inputPath))
+      {
+         for(int i = 0; i < size; i++)
+         {
+            final String name;
+            final int    round;
+
+            name  = sampleNames.get(i % sampleNames.size());
+            round = i / sampleNames.size();
+
+            writer.write(round == 0 ? name : name + " " + Integer.toString(round, Character.MAX_RADIX));
+            writer.newLine();
+         }
+      }
+
+      return inputPath;
+   }
+}
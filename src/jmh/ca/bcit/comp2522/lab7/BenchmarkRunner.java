@@ -0,0 +1,59 @@
+package ca.bcit.comp2522.lab7;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the CountryLab JMH benchmarks with the GC profiler, so every result reports the allocation
+ * rate next to the throughput. Run it from the project root, since the benchmark inputs are built
+ * from src/resources/week8countries.txt.
+ * <p>
+ * Example usage:
+ * <pre>
+ *     java -cp &lt;classpath&gt; ca.bcit.comp2522.lab7.BenchmarkRunner            # everything
+ *     java -cp &lt;classpath&gt; ca.bcit.comp2522.lab7.BenchmarkRunner Ingest     # one class
+ * </pre>
+ * The optional argument is a regular expression selecting the benchmarks to run. The 10M-name
+ * inputs need a heap of a few gigabytes.
+ * </p>
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+public final class BenchmarkRunner
+{
+   private static final int FORKS                 = 1;
+   private static final int WARMUP_ITERATIONS     = 3;
+   private static final int MEASURED_ITERATIONS   = 5;
+   private static final String HEAP_SIZE_ARGUMENT = "-Xmx6g";
+
+   private BenchmarkRunner()
+   {
+   }
+
+   /**
+    * Runs the selected benchmarks.
+    *
+    * @param args an optional regular expression selecting the benchmarks to run
+    * @throws RunnerException if JMH fails to run the benchmarks
+    */
+   public static void main(final String[] args) throws RunnerException
+   {
+      final Options options;
+
+      options = new OptionsBuilder()
+              .include(args.length > 0 ? args[0] : BenchmarkRunner.class.getPackageName() + ".*Benchmark")
+              .addProfiler(GCProfiler.class)
+              .forks(FORKS)
+              .warmupIterations(WARMUP_ITERATIONS)
+              .measurementIterations(MEASURED_ITERATIONS)
+              .jvmArgsAppend(HEAP_SIZE_ARGUMENT)
+              .build();
+
+      new Runner(options).run();
+   }
+}
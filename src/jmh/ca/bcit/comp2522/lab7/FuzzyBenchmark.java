@@ -0,0 +1,161 @@
+package ca.bcit.comp2522.lab7;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares reconciling a batch of misspelled names through a {@link FuzzyIndex} with computing the
+ * edit distance from each of them to every name.
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FuzzyBenchmark
+{
+   private static final int QUERIES      = 100;
+   private static final int MAX_DISTANCE = 2;
+
+   @Param({"10000", "1000000"})
+   public int size;
+
+   private List<String> names;
+   private List<String> queries;
+   private FuzzyIndex   index;
+
+   /**
+    * Loads the names, builds the index and misspells a sample of the names by swapping two letters.
+    *
+    * @throws IOException if the input file cannot be created
+    */
+   @Setup(Level.Trial)
+   public void setUp() throws IOException
+   {
+      names   = new CountryLoader().load(BenchmarkData.writeInputFile(size))
+                                   .stream()
+                                   .map(Country::getName)
+                                   .toList();
+      index   = new FuzzyIndex(names);
+      queries = new ArrayList<>();
+
+      for(int i = 0; i < QUERIES; i++)
+      {
+         final char[] chars;
+
+         chars = names.get((int) ((long) i * names.size() / QUERIES)).toCharArray();
+
+         if(chars.length > 2)
+         {
+            final char swap;
+
+            swap     = chars[1];
+            chars[1] = chars[2];
+            chars[2] = swap;
+         }
+
+         queries.add(new String(chars));
+      }
+   }
+
+   /**
+    * Finds the closest name to every query through the BK-tree.
+    *
+    * @return the closest matches
+    */
+   @Benchmark
+   public List<FuzzyIndex.Match> bkTree()
+   {
+      return index.closestAll(queries, MAX_DISTANCE, null);
+   }
+
+   /**
+    * Finds the closest name to every query by comparing it with every name.
+    *
+    * @return the closest names
+    */
+   @Benchmark
+   public List<String> linearScan()
+   {
+      final List<String> closest;
+
+      closest = new ArrayList<>();
+
+      for(final String query : queries)
+      {
+         final String key;
+         String       best;
+         int          bestDistance;
+
+         key          = query.toLowerCase(Locale.ROOT);
+         best         = null;
+         bestDistance = MAX_DISTANCE + 1;
+
+         for(final String name : names)
+         {
+            final int distance;
+
+            distance = levenshtein(name.toLowerCase(Locale.ROOT), key);
+
+            if(distance < bestDistance)
+            {
+               best         = name;
+               bestDistance = distance;
+            }
+         }
+
+         closest.add(best);
+      }
+
+      return closest;
+   }
+
+   private static int levenshtein(final String first,
+                                  final String second)
+   {
+      int[] previous;
+      int[] current;
+
+      previous = new int[second.length() + 1];
+      current  = new int[second.length() + 1];
+
+      for(int j = 0; j <= second.length(); j++)
+      {
+         previous[j] = j;
+      }
+
+      for(int i = 1; i <= first.length(); i++)
+      {
+         final int[] swap;
+
+         current[0] = i;
+
+         for(int j = 1; j <= second.length(); j++)
+         {
+            current[j] = Math.min(previous[j - 1] + (first.charAt(i - 1) == second.charAt(j - 1) ? 0 : 1),
+                                  Math.min(previous[j], current[j - 1]) + 1);
+         }
+
+         swap     = previous;
+         previous = current;
+         current  = swap;
+      }
+
+      return previous[second.length()];
+   }
+}
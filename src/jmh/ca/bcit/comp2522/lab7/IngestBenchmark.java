@@ -0,0 +1,87 @@
+package ca.bcit.comp2522.lab7;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures reading the input file into a list of countries, comparing the original
+ * BufferedReader/readLine loop with the memory-mapped {@link CountryLoader}.
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class IngestBenchmark
+{
+   @Param({"200", "100000", "10000000"})
+   public int size;
+
+   private Path inputPath;
+
+   /**
+    * Writes the input file for the current size.
+    *
+    * @throws IOException if the input file cannot be written
+    */
+   @Setup(Level.Trial)
+   public void setUp() throws IOException
+   {
+      inputPath = BenchmarkData.writeInputFile(size);
+   }
+
+   /**
+    * Reads the countries with a BufferedReader, one String per line.
+    *
+    * @return the countries read
+    * @throws IOException if the file cannot be read
+    */
+   @Benchmark
+   public List<Country> bufferedReader() throws IOException
+   {
+      final List<Country> countries;
+
+      countries = new ArrayList<>();
+
+      try(final BufferedReader reader = Files.newBufferedReader(inputPath))
+      {
+         String line;
+
+         while((line = reader.readLine()) != null)
+         {
+            countries.add(new Country(line));
+         }
+      }
+
+      return countries;
+   }
+
+   /**
+    * Reads the countries with the memory-mapped CountryLoader.
+    *
+    * @return the countries read
+    * @throws IOException if the file cannot be read
+    */
+   @Benchmark
+   public List<Country> countryLoader() throws IOException
+   {
+      return new CountryLoader().load(inputPath);
+   }
+}
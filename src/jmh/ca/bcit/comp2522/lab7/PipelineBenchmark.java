@@ -0,0 +1,96 @@
+package ca.bcit.comp2522.lab7;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the CountryLab helpers that every report run goes through: counting words, collecting
+ * and rendering the report and creating the output file.
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PipelineBenchmark
+{
+   @Param({"200", "100000", "10000000"})
+   public int size;
+
+   private List<Country> countries;
+   private Path          outputRoot;
+
+   /**
+    * Loads the countries and creates a scratch directory for the output file.
+    *
+    * @throws IOException if the input file or scratch directory cannot be created
+    */
+   @Setup(Level.Trial)
+   public void setUp() throws IOException
+   {
+      countries  = new CountryLoader().load(BenchmarkData.writeInputFile(size));
+      outputRoot = Files.createTempDirectory("countrylab-bench");
+   }
+
+   /**
+    * Checks every name against the multi-word threshold.
+    *
+    * @param blackhole consumes each result so the calls are not eliminated
+    */
+   @Benchmark
+   public void hasMoreWordsThan(final Blackhole blackhole)
+   {
+      for(final Country country : countries)
+      {
+         blackhole.consume(NameTokenizer.hasMoreWordsThan(country.getName(), CountryLab.MIN_WORD));
+      }
+   }
+
+   /**
+    * Collects a fresh report in one pass and renders every section, so the indexes the report
+    * builds on first use are measured too.
+    *
+    * @param blackhole consumes each section text so the rendering is not eliminated
+    */
+   @Benchmark
+   public void collectReport(final Blackhole blackhole)
+   {
+      final CountryReport report;
+
+      report = countries.stream()
+                        .collect(CountryReport.collector(CountryLab.MIN_CHAR, CountryLab.MIN_WORD));
+
+      for(final ReportSection section : ReportSection.values())
+      {
+         blackhole.consume(section.render(report));
+      }
+   }
+
+   /**
+    * Ensures the output folders exist and resolves the output file path. The file itself is left
+    * alone, since the report is published over it atomically.
+    *
+    * @return the path of the output file
+    */
+   @Benchmark
+   public Path createOutputFile()
+   {
+      return CountryLab.createOutputFile(outputRoot, outputRoot.resolve("matches"), "data.txt");
+   }
+}
@@ -0,0 +1,98 @@
+package ca.bcit.comp2522.lab7;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares answering a set of saved queries in one {@link QueryBatch} scan with running each query
+ * as its own pass over the names.
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class QueryBenchmark
+{
+   @Param({"100000", "10000000"})
+   public int size;
+
+   private List<String>       names;
+   private List<CountryQuery> queries;
+   private QueryBatch         batch;
+
+   /**
+    * Loads the names and registers the queries.
+    *
+    * @throws IOException if the input file cannot be created
+    */
+   @Setup(Level.Trial)
+   public void setUp() throws IOException
+   {
+      names   = new CountryLoader().load(BenchmarkData.writeInputFile(size))
+                                   .stream()
+                                   .map(Country::getName)
+                                   .toList();
+      queries = List.of(CountryQuery.longerThan(10),
+                        CountryQuery.shorterThan(5),
+                        CountryQuery.startsWith("A"),
+                        CountryQuery.endsWith("land"),
+                        CountryQuery.containsIgnoreCase("united"),
+                        CountryQuery.moreWordsThan(3),
+                        CountryQuery.longerThan(10).and(CountryQuery.endsWith("land")),
+                        CountryQuery.startsWith("S").and(CountryQuery.moreWordsThan(2)).not(),
+                        CountryQuery.containsIgnoreCase("united").or(CountryQuery.startsWith("A")));
+      batch   = new QueryBatch();
+
+      for(int i = 0; i < queries.size(); i++)
+      {
+         batch.add("q" + i, queries.get(i));
+      }
+   }
+
+   /**
+    * Answers every query in one scan.
+    *
+    * @return the results of every query
+    */
+   @Benchmark
+   public Map<String, List<String>> singleScan()
+   {
+      return batch.run(names);
+   }
+
+   /**
+    * Answers every query with its own pass over the names.
+    *
+    * @return the results of every query
+    */
+   @Benchmark
+   public List<List<String>> passPerQuery()
+   {
+      final List<List<String>> results;
+
+      results = new ArrayList<>();
+
+      for(final CountryQuery query : queries)
+      {
+         results.add(names.stream().filter(query::test).toList());
+      }
+
+      return results;
+   }
+}
@@ -0,0 +1,74 @@
+package ca.bcit.comp2522.lab7;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures rendering each report section in isolation. The {@code section} parameter has no
+ * listed values, so JMH runs every {@link ReportSection} constant.
+ * <p>
+ * A report builds each index the first time a section asks for it, so every invocation renders
+ * from a freshly collected report and the measured cost includes the indexes the section needs.
+ * </p>
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SectionBenchmark
+{
+   @Param({"200", "100000", "10000000"})
+   public int size;
+
+   @Param
+   public ReportSection section;
+
+   private List<Country> countries;
+   private CountryReport report;
+
+   /**
+    * Loads the countries the reports are collected from.
+    *
+    * @throws IOException if the input file cannot be written or read
+    */
+   @Setup(Level.Trial)
+   public void setUp() throws IOException
+   {
+      countries = new CountryLoader().load(BenchmarkData.writeInputFile(size));
+   }
+
+   /**
+    * Collects a fresh report before each invocation, so no index survives from the last one.
+    */
+   @Setup(Level.Invocation)
+   public void collectReport()
+   {
+      report = countries.stream()
+                        .collect(CountryReport.collector(CountryLab.MIN_CHAR, CountryLab.MIN_WORD));
+   }
+
+   /**
+    * Renders the current section, building the indexes it reads.
+    *
+    * @return the section text
+    */
+   @Benchmark
+   public String render()
+   {
+      return section.render(report);
+   }
+}
@@ -0,0 +1,325 @@
+package ca.bcit.comp2522.lab7;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+/**
+ * Runs the full report on generated corpora and fails when it takes longer, or needs a higher peak
+ * heap, than the baseline recorded in src/perf/performance-baseline.properties allows.
+ * <p>
+ * This tier is kept out of src/test because its corpora take minutes to report on. Run it from
+ * the project root, offline, with the main classes compiled to out:
+ * <pre>
+ *     javac -d perfout -cp out:junit-platform-console-standalone.jar $(find src/perf -name '*.java')
+ *     java -Xmx4g -XX:+UseSerialGC -Dperf.sizes=1000000,10000000 \
+ *          -jar junit-platform-console-standalone.jar -cp out:perfout \
+ *          --select-class ca.bcit.comp2522.lab7.ReportPerformanceTest
+ * </pre>
+ * {@code perf.sizes} lists the corpus sizes, 1,000,000 lines by default; 100,000,000 lines need a
+ * heap of tens of gigabytes. A run fails when a size exceeds its baseline by more than the factor
+ * {@code perf.tolerance}, 1.5 by default, and skips the sizes without a baseline.
+ * {@code -Dperf.record=true} measures the sizes and writes their baselines instead, which is
+ * how a new machine or an accepted slowdown is recorded.
+ * </p>
+ * <p>
+ * The heap figure is the peak heap of the run above the live heap before it: every heap pool's peak
+ * is reset after a full collection and the pools' peaks are added up once the report is written.
+ * Both that peak and the wall time depend on the heap size and the collector, so the JVM version
+ * and flags the baselines were recorded with are stored next to them, and a run with different
+ * ones fails instead of comparing numbers that do not match.
+ * </p>
+ * <p>
+ * Corpora come from {@link CorpusGenerator} with its default seed and mix, and are cached under
+ * the system's temporary directory, so each size is generated once per machine.
+ * </p>
+ *
+ * @author Linh Hoang
+ * @author Pouyan Norouzi Iranzadeh
+ * @version 1.0
+ */
+public class ReportPerformanceTest
+{
+
+    static final Path   BASELINE_PATH  = Paths.get("src", "perf", "performance-baseline.properties");
+    static final Path   CORPUS_DIR     = Paths.get(System.getProperty("java.io.tmpdir"), "countrylab-corpora");
+    static final int    WARM_UP_LINES  = 100_000;
+    static final long   BYTES_PER_MB   = 1024 * 1024;
+    static final long   NANOS_PER_MS   = 1_000_000;
+    static final String JVM_KEY        = "jvm";
+
+    final List<Integer> sizes;
+    final double        tolerance;
+    final boolean       record;
+
+    public ReportPerformanceTest() {
+        sizes     = new ArrayList<>();
+        tolerance = Double.parseDouble(System.getProperty("perf.tolerance", "1.5"));
+        record    = Boolean.getBoolean("perf.record");
+
+        for(final String size : System.getProperty("perf.sizes", "1000000").split(","))
+        {
+            sizes.add(Integer.parseInt(size.strip()));
+        }
+    }
+
+    @Test
+    public void testFullReportStaysWithinBaseline() throws IOException
+    {
+        final Properties   baselines;
+        final List<String> regressions;
+
+        baselines   = loadBaselines();
+        regressions = new ArrayList<>();
+
+        if(record)
+        {
+            baselines.setProperty(JVM_KEY, jvm());
+        } else if(!baselines.isEmpty())
+        {
+            assertEquals(baselines.getProperty(JVM_KEY), jvm(),
+                         "Baselines were recorded with other JVM flags; rerun with the recorded flags, or " +
+                         "re-record with -Dperf.record=true");
+        }
+
+        measure(corpus(WARM_UP_LINES));
+
+        for(final int size : sizes)
+        {
+            final long[] measured;
+            final String millisKey;
+            final String heapKey;
+
+            measured  = measure(corpus(size));
+            millisKey = "report." + size + ".millis";
+            heapKey   = "report." + size + ".peakHeapMegabytes";
+
+            System.out.println(size + " lines: " + measured[0] + " ms, peak heap " + measured[1] + " MB");
+
+            if(record)
+            {
+                baselines.setProperty(millisKey, Long.toString(measured[0]));
+                baselines.setProperty(heapKey, Long.toString(measured[1]));
+            } else if(baselines.containsKey(millisKey) && baselines.containsKey(heapKey))
+            {
+                check(regressions, size + " lines took " + measured[0] + " ms", measured[0],
+                      Long.parseLong(baselines.getProperty(millisKey)));
+                check(regressions, size + " lines peaked at " + measured[1] + " MB of heap", measured[1],
+                      Long.parseLong(baselines.getProperty(heapKey)));
+            } else
+            {
+                System.out.println("No baseline for " + size + " lines, record one with -Dperf.record=true");
+            }
+        }
+
+        if(record)
+        {
+            storeBaselines(baselines);
+        }
+
+        assertTrue(regressions.isEmpty(), String.join(System.lineSeparator(), regressions));
+    }
+
+    /*
+     * Writes the report of the corpus once and returns the elapsed milliseconds and the megabytes
+     * the heap peaked at above the live heap before the run.
+     */
+    private static long[] measure(final Path corpus) throws IOException
+    {
+        final Path output;
+        final Path hashes;
+        final long before;
+        final long start;
+        final long elapsed;
+        final long peak;
+
+        output = Files.createTempFile("report", ".txt");
+        hashes = Files.createTempDirectory("hashes");
+        before = resetPeakHeap();
+        start  = System.nanoTime();
+
+        try(final ReportEngine engine = new ReportEngine(1))
+        {
+            final CountryReport       report;
+            final List<ReportSection> sections;
+            final List<String>        texts;
+
+            sections = List.of(ReportSection.values());
+            report   = engine.collect(new CountryLoader().loadTable(corpus), CountryLab.MIN_CHAR, CountryLab.MIN_WORD);
+            texts    = engine.render(report, sections);
+
+            new ReportPublisher(output, hashes).publish(ReportPublisher.hashSections(sections, texts), writer ->
+            {
+                for(final String text : texts)
+                {
+                    writer.writeString(text);
+                }
+            });
+
+            elapsed = System.nanoTime() - start;
+            peak    = peakHeap() - before;
+        } finally
+        {
+            Files.deleteIfExists(output);
+
+            try(final Stream<Path> files = Files.list(hashes))
+            {
+                for(final Path file : files.toList())
+                {
+                    Files.delete(file);
+                }
+            }
+
+            Files.delete(hashes);
+        }
+
+        return new long[]{elapsed / NANOS_PER_MS, peak / BYTES_PER_MB};
+    }
+
+    /*
+     * Runs a full collection, resets the peak of every heap pool and returns the heap in use.
+     */
+    private static long resetPeakHeap()
+    {
+        System.gc();
+
+        for(final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+        {
+            if(pool.getType() == MemoryType.HEAP)
+            {
+                pool.resetPeakUsage();
+            }
+        }
+
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /*
+     * Returns the sum of the heap pools' peaks since they were last reset. The pools may peak at
+     * different moments, so this bounds the true peak from above.
+     */
+    private static long peakHeap()
+    {
+        long peak;
+
+        peak = 0;
+
+        for(final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+        {
+            if(pool.getType() == MemoryType.HEAP)
+            {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+
+        return peak;
+    }
+
+    /*
+     * Describes the JVM the timings depend on: the Java feature version, the heap size options and
+     * the chosen collector.
+     */
+    private static String jvm()
+    {
+        final List<String> flags;
+
+        flags = new ArrayList<>();
+        flags.add("java " + Runtime.version().feature());
+
+        for(final String argument : ManagementFactory.getRuntimeMXBean().getInputArguments())
+        {
+            if(argument.startsWith("-Xmx") || argument.startsWith("-Xms") ||
+               (argument.startsWith("-XX:+Use") && argument.endsWith("GC")))
+            {
+                flags.add(argument);
+            }
+        }
+
+        return String.join(" ", flags);
+    }
+
+    /*
+     * Returns the cached corpus of the given size, generating it the first time.
+     */
+    private static Path corpus(final int lines) throws IOException
+    {
+        final Path corpus;
+
+        corpus = CORPUS_DIR.resolve("corpus-" + CorpusGenerator.DEFAULT_SEED + "-" + lines + ".txt");
+
+        if(!Files.isRegularFile(corpus))
+        {
+            final Path partial;
+
+            Files.createDirectories(CORPUS_DIR);
+            partial = Files.createTempFile(CORPUS_DIR, "corpus", ".tmp");
+            new CorpusGenerator(CorpusGenerator.DEFAULT_SEED).write(partial, lines);
+            Files.move(partial, corpus);
+        }
+
+        return corpus;
+    }
+
+    private void check(final List<String> regressions,
+                       final String measurement,
+                       final long measured,
+                       final long baseline)
+    {
+        if(measured > baseline * tolerance)
+        {
+            regressions.add(measurement + ", baseline " + baseline + " allows at most " +
+                            (long) (baseline * tolerance));
+        }
+    }
+
+    private static Properties loadBaselines() throws IOException
+    {
+        final Properties baselines;
+
+        baselines = new Properties();
+
+        if(Files.exists(BASELINE_PATH))
+        {
+            try(final BufferedReader reader = Files.newBufferedReader(BASELINE_PATH, StandardCharsets.UTF_8))
+            {
+                baselines.load(reader);
+            }
+        }
+
+        return baselines;
+    }
+
+    /*
+     * Writes the baselines sorted by key, without the timestamp Properties.store would add, so a
+     * re-recorded file only differs where a number changed.
+     */
+    private static void storeBaselines(final Properties baselines) throws IOException
+    {
+        final List<String> lines;
+
+        lines = new ArrayList<>();
+        lines.add("# Full report baselines per corpus size: wall time in ms and peak heap in MB above the heap before.");
+        lines.add("# jvm is the Java version and flags they were recorded with; a run with other ones fails.");
+        lines.add("# Re-record with -Dperf.record=true, see ReportPerformanceTest.");
+
+        for(final String key : new TreeSet<>(baselines.stringPropertyNames()))
+        {
+            lines.add(key + "=" + baselines.getProperty(key));
+        }
+
+        Files.write(BASELINE_PATH, lines, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,182 @@
+package ca.bcit.comp2522.lab7;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class BatchRunnerTest
+{
+
+    final List<ReportSection> sections;
+    final int                 datasets;
+    final int                 corpusLines;
+
+    public BatchRunnerTest() {
+        sections    = List.of(ReportSection.TOTAL_COUNT, ReportSection.LONGEST, ReportSection.ENDS_WITH_LAND);
+        datasets    = 4;
+        corpusLines = 30_000;
+    }
+
+    @Test
+    public void testWritesEveryDatasetInManifestOrder() throws IOException
+    {
+        final Path directory;
+
+        directory = Files.createTempDirectory("batch");
+
+        try
+        {
+            final List<BatchRunner.Dataset> datasets;
+            final List<BatchRunner.Result>  results;
+            final List<BatchRunner.Result>  again;
+
+            Files.writeString(directory.resolve("a.txt"), "Finland\nChad\n\nIceland\n");
+            Files.writeString(directory.resolve("b.txt"), "United States\nPeru\n");
+            Files.writeString(directory.resolve("manifest.txt"), "# nightly\n" +
+                                                                 "a.txt\tout/a report.txt\n" +
+                                                                 "\n" +
+                                                                 "missing.txt out/missing.txt\n" +
+                                                                 "b.txt   out/b.txt\n");
+
+            datasets = BatchRunner.readManifest(directory.resolve("manifest.txt"));
+
+            try(final BatchRunner runner = new BatchRunner(2, sections, 3, 4))
+            {
+                results = runner.run(datasets);
+                again   = runner.run(datasets);
+            }
+
+            assertEquals(3, results.size());
+            assertEquals(directory.resolve("out").resolve("a report.txt"), results.get(0).getDataset().getOutput());
+            assertEquals(expected("Finland", "Chad", "Iceland"), Files.readString(directory.resolve("out/a report.txt")));
+            assertEquals(expected("United States", "Peru"), Files.readString(directory.resolve("out/b.txt")));
+            assertEquals(3, results.get(0).getNames());
+            assertTrue(results.get(0).isWritten());
+            assertNull(results.get(0).getError());
+            assertNotNull(results.get(1).getError());
+            assertFalse(Files.exists(directory.resolve("out/missing.txt")));
+            assertFalse(again.get(2).isWritten());
+            assertNull(again.get(2).getError());
+            assertTrue(BatchRunner.toJson(results).contains("\"failed\":1"));
+        } finally
+        {
+            deleteAll(directory);
+        }
+    }
+
+    @Test
+    public void testParallelJobsMatchSerialRun() throws IOException
+    {
+        final Path directory;
+
+        directory = Files.createTempDirectory("batch");
+
+        try
+        {
+            final StringBuilder parallelManifest;
+            final StringBuilder serialManifest;
+
+            parallelManifest = new StringBuilder();
+            serialManifest   = new StringBuilder();
+
+            for(int i = 0; i < datasets; i++)
+            {
+                final Path input;
+
+                input = directory.resolve("corpus" + i + ".txt");
+                new CorpusGenerator(i).write(input, corpusLines);
+                assertTrue(Files.size(input) > 4 * 65536);
+
+                parallelManifest.append(input.getFileName()).append(" parallel/").append(i).append(".txt\n");
+                serialManifest.append(input.getFileName()).append(" serial/").append(i).append(".txt\n");
+            }
+
+            Files.writeString(directory.resolve("parallel.txt"), parallelManifest);
+            Files.writeString(directory.resolve("serial.txt"), serialManifest);
+
+            try(final BatchRunner runner = new BatchRunner(1, sections, 3, 4))
+            {
+                runner.run(BatchRunner.readManifest(directory.resolve("serial.txt")));
+            }
+
+            try(final BatchRunner runner = new BatchRunner(datasets, sections, 3, 4))
+            {
+                for(final BatchRunner.Result result : runner.run(BatchRunner.readManifest(directory.resolve("parallel.txt"))))
+                {
+                    assertNull(result.getError());
+                }
+            }
+
+            for(int i = 0; i < datasets; i++)
+            {
+                assertArrayEquals(Files.readAllBytes(directory.resolve("serial/" + i + ".txt")),
+                                  Files.readAllBytes(directory.resolve("parallel/" + i + ".txt")));
+            }
+        } finally
+        {
+            deleteAll(directory);
+        }
+    }
+
+    @Test
+    public void testRejectsInvalidManifest() throws IOException
+    {
+        final Path directory;
+
+        directory = Files.createTempDirectory("batch");
+
+        try
+        {
+            final Path manifest;
+
+            manifest = directory.resolve("manifest.txt");
+
+            Files.writeString(manifest, "a.txt out.txt\nb.txt ./out.txt\n");
+            assertThrows(IllegalArgumentException.class, () -> BatchRunner.readManifest(manifest));
+
+            Files.writeString(manifest, "a.txt\n");
+            assertThrows(IllegalArgumentException.class, () -> BatchRunner.readManifest(manifest));
+            assertThrows(IllegalArgumentException.class, () -> new BatchRunner(0, sections, 3, 4));
+            assertThrows(IllegalArgumentException.class,
+                         () -> ReportOptions.parse(new String[]{"--batch=manifest.txt", "--input=a.txt"}));
+            assertThrows(IllegalArgumentException.class, () -> ReportOptions.parse(new String[]{"--jobs=2"}));
+        } finally
+        {
+            deleteAll(directory);
+        }
+    }
+
+    private String expected(final String... names)
+    {
+        final CountryReport report;
+        final StringBuilder out;
+
+        report = Stream.of(names)
+                       .map(Country::new)
+                       .collect(CountryReport.collector(3, 4));
+        out    = new StringBuilder();
+
+        for(final ReportSection section : sections)
+        {
+            out.append(section.render(report));
+        }
+
+        return out.toString();
+    }
+
+    private static void deleteAll(final Path directory) throws IOException
+    {
+        try(final Stream<Path> paths = Files.walk(directory))
+        {
+            for(final Path path : paths.sorted(Comparator.reverseOrder()).toList())
+            {
+                Files.delete(path);
+            }
+        }
+    }
+}
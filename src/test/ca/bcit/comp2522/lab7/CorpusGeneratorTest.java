@@ -0,0 +1,88 @@
+package ca.bcit.comp2522.lab7;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CorpusGeneratorTest
+{
+
+    final int lines;
+
+    public CorpusGeneratorTest() {
+        lines = 50_000;
+    }
+
+    @Test
+    public void testSameSeedSameCorpus()
+    {
+        assertEquals(generate(7, CorpusGenerator.Mix.DEFAULT, 2000), generate(7, CorpusGenerator.Mix.DEFAULT, 2000));
+        assertNotEquals(generate(7, CorpusGenerator.Mix.DEFAULT, 2000), generate(8, CorpusGenerator.Mix.DEFAULT, 2000));
+    }
+
+    @Test
+    public void testReportSeesMixShares() throws IOException
+    {
+        final CorpusGenerator.Mix mix;
+        final Path                corpus;
+
+        mix    = CorpusGenerator.Mix.parse(new String[]{"--blank=2", "--invalid=3", "--a-prefix=10", "--z-prefix=4",
+                                                        "--land=8", "--united=5", "--multi-word=40"});
+        corpus = Files.createTempFile("corpus", ".txt");
+
+        try
+        {
+            final CountryReport report;
+            final double        names;
+
+            new CorpusGenerator(2522, mix).write(corpus, lines);
+            report = CountryReport.of(new CountryLoader().loadTable(corpus), 2, 1);
+            names  = report.getTotalCount();
+
+            assertEquals(lines, Files.readAllLines(corpus).size());
+            assertEquals(0.95, names / lines, 0.01);
+            assertEquals(0.10, report.getNamesStartingWithA().size() / names, 0.01);
+            assertEquals(0.08, report.getNamesEndingWithLand().size() / names, 0.01);
+            assertEquals(0.05, report.getNamesContainingUnited().size() / names, 0.01);
+            assertEquals(0.43, report.getNamesWithMoreThanNWords().size() / names, 0.02);
+            assertTrue(report.isAnyStartsWithZ());
+            assertTrue(report.isAllLongerThanN());
+        } finally
+        {
+            Files.delete(corpus);
+        }
+    }
+
+    @Test
+    public void testRejectsInvalidMix()
+    {
+        assertThrows(IllegalArgumentException.class, () -> CorpusGenerator.Mix.parse(new String[]{"--land=101"}));
+        assertThrows(IllegalArgumentException.class,
+                     () -> CorpusGenerator.Mix.parse(new String[]{"--blank=60", "--invalid=50"}));
+        assertThrows(IllegalArgumentException.class,
+                     () -> CorpusGenerator.Mix.parse(new String[]{"--min-word-length=9", "--max-word-length=4"}));
+        assertThrows(IllegalArgumentException.class, () -> CorpusGenerator.Mix.parse(new String[]{"--size=3"}));
+    }
+
+    private static List<String> generate(final long seed,
+                                         final CorpusGenerator.Mix mix,
+                                         final int count)
+    {
+        final CorpusGenerator generator;
+        final List<String>    generated;
+
+        generator = new CorpusGenerator(seed, mix);
+        generated = new ArrayList<>();
+
+        for(int i = 0; i < count; i++)
+        {
+            generated.add(generator.nextLine());
+        }
+
+        return generated;
+    }
+}
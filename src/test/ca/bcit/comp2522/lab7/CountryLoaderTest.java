@@ -0,0 +1,133 @@
+package ca.bcit.comp2522.lab7;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CountryLoaderTest
+{
+
+    final String longLine;
+    final String windowFiller;
+
+    public CountryLoaderTest() {
+        longLine     = "B".repeat(70_000);
+        windowFiller = "A".repeat(65_530);
+    }
+
+    @Test
+    public void testReadsEveryLineEnding() throws IOException
+    {
+        final String content;
+
+        content = "Chad\r\nPeru\rCuba\n\r\nOman\n\nFiji";
+
+        for(final int chunkSize : new int[]{CountryLoader.DEFAULT_CHUNK_SIZE, 5, 7})
+        {
+            assertEquals(List.of("Chad", "Peru", "Cuba", "Oman", "Fiji"), load(content, chunkSize));
+        }
+    }
+
+    @Test
+    public void testSkipsBlankAndWhitespaceLines() throws IOException
+    {
+        final String content;
+
+        content = "  \n\t\nChad\n\u2003\u3000\n \u2003 \r\nPeru\n\u2003Fiji\n\u2003\n";
+
+        for(final int chunkSize : new int[]{CountryLoader.DEFAULT_CHUNK_SIZE, 8, 9})
+        {
+            assertEquals(List.of("Chad", "Peru", "\u2003Fiji"), load(content, chunkSize));
+        }
+    }
+
+    @Test
+    public void testLinesCrossingWindowsAndChunks() throws IOException
+    {
+        final String       content;
+        final List<String> expected;
+
+        content  = windowFiller + "\nChad\r\n" + longLine + "\nCôte d'Ivoire\n" + windowFiller + "\nPeru";
+        expected = List.of(windowFiller, "Chad", longLine, "Côte d'Ivoire", windowFiller, "Peru");
+
+        for(final int chunkSize : new int[]{CountryLoader.DEFAULT_CHUNK_SIZE, 100_000, 70_001})
+        {
+            assertEquals(expected, load(content, chunkSize));
+        }
+    }
+
+    @Test
+    public void testRejectsLineLongerThanChunkSize() throws IOException
+    {
+        final Path          input;
+        final CountryLoader loader;
+
+        input  = Files.createTempFile("countries", ".txt");
+        loader = new CountryLoader(8);
+
+        try
+        {
+            final IOException error;
+
+            Files.writeString(input, "Chad\nSaint Kitts and Nevis\nPeru\n");
+            error = assertThrows(IOException.class, () -> loader.load(input));
+
+            assertTrue(error.getMessage().contains("longer than the chunk size 8"));
+            assertThrows(IOException.class, () -> loader.loadTable(input));
+            assertThrows(IllegalArgumentException.class, () -> new CountryLoader(0));
+        } finally
+        {
+            Files.delete(input);
+        }
+    }
+
+    /*
+     * Loads the content through every CountryLoader entry point, checks they agree and returns the
+     * names read.
+     */
+    private static List<String> load(final String content,
+                                     final int chunkSize) throws IOException
+    {
+        final Path          input;
+        final CountryLoader loader;
+        final List<String>  names;
+        final List<String>  streamed;
+
+        input    = Files.createTempFile("countries", ".txt");
+        loader   = new CountryLoader(chunkSize);
+        names    = new ArrayList<>();
+        streamed = new ArrayList<>();
+
+        try
+        {
+            final CountryTable table;
+
+            Files.writeString(input, content, StandardCharsets.UTF_8);
+            loader.forEach(input, country -> names.add(country.getName()));
+            table = loader.loadTable(input);
+            loader.forEach(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)),
+                           country -> streamed.add(country.getName()));
+
+            assertEquals(names.size(), table.size());
+
+            for(int row = 0; row < table.size(); row++)
+            {
+                assertEquals(names.get(row), table.name(row));
+                assertEquals(names.get(row).length(), table.length(row));
+            }
+
+            assertEquals(names, streamed);
+        } finally
+        {
+            Files.delete(input);
+        }
+
+        return names;
+    }
+}
@@ -0,0 +1,252 @@
+package ca.bcit.comp2522.lab7;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CountryRegistryTest
+{
+
+    final AtomicInteger loads;
+
+    public CountryRegistryTest() {
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    public void testReloadPublishesNextVersion() throws IOException
+    {
+        try(final CountryRegistry registry = new CountryRegistry(this::nextReport))
+        {
+            assertEquals(1, registry.current().getVersion());
+            assertEquals(List.of("Chad 1"), registry.current().getReport().getAscendingNames());
+
+            assertEquals(2, registry.reload().getVersion());
+            assertEquals(List.of("Chad 1", "Chad 2"), registry.current().getReport().getAscendingNames());
+        }
+    }
+
+    @Test
+    public void testPublishedSnapshotsHaveEveryIndexBuilt() throws IOException
+    {
+        try(final CountryRegistry registry = new CountryRegistry(this::nextReport))
+        {
+            final CountryReport fresh;
+            final List<String>  all;
+
+            fresh = nextReport();
+            assertEquals(List.of(), fresh.builtParts());
+            fresh.buildAll();
+            all = fresh.builtParts();
+
+            assertEquals(all, registry.current().getReport().builtParts());
+            assertEquals(all, registry.reload().getReport().builtParts());
+            assertEquals(all, registry.current().getReport().builtParts());
+        }
+    }
+
+    @Test
+    public void testReadsDoNotBlockOnReload() throws Exception
+    {
+        final CountDownLatch building;
+        final CountDownLatch release;
+
+        building = new CountDownLatch(1);
+        release  = new CountDownLatch(1);
+
+        try(final CountryRegistry registry = new CountryRegistry(() ->
+            {
+                if(loads.get() > 0)
+                {
+                    building.countDown();
+                    await(release);
+                }
+
+                return nextReport();
+            }))
+        {
+            final CompletableFuture<CountryRegistry.Snapshot> reload;
+
+            reload = registry.reloadAsync();
+            assertTrue(building.await(5, TimeUnit.SECONDS));
+
+            // The reload is stuck building, yet readers still get the old snapshot at once.
+            assertEquals(1, registry.current().getVersion());
+
+            release.countDown();
+            assertEquals(2, reload.get(5, TimeUnit.SECONDS).getVersion());
+            assertEquals(2, registry.current().getReport().getTotalCount());
+        }
+    }
+
+    @Test
+    public void testQueuedRequestsShareOneReload() throws Exception
+    {
+        final CountDownLatch release;
+
+        release = new CountDownLatch(1);
+
+        try(final CountryRegistry registry = new CountryRegistry(() ->
+            {
+                if(loads.get() > 0)
+                {
+                    await(release);
+                }
+
+                return nextReport();
+            }))
+        {
+            final CompletableFuture<CountryRegistry.Snapshot> first;
+            final CompletableFuture<CountryRegistry.Snapshot> second;
+            final CompletableFuture<CountryRegistry.Snapshot> third;
+
+            first = registry.reloadAsync();
+
+            // The first reload may or may not have started, but the next two are queued together.
+            second = registry.reloadAsync();
+            third  = registry.reloadAsync();
+            assertSame(second, third);
+
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            assertEquals(registry.current().getVersion(), third.get(5, TimeUnit.SECONDS).getVersion());
+            assertTrue(loads.get() <= 3);
+        }
+    }
+
+    @Test
+    public void testFailedReloadKeepsSnapshot() throws IOException
+    {
+        final AtomicBoolean fail;
+
+        fail = new AtomicBoolean();
+
+        try(final CountryRegistry registry = new CountryRegistry(() ->
+            {
+                if(fail.get())
+                {
+                    throw new IOException("gone");
+                }
+
+                return nextReport();
+            }))
+        {
+            final CountryRegistry.Snapshot before;
+            final ExecutionException       e;
+
+            before = registry.current();
+            fail.set(true);
+
+            assertThrows(IOException.class, registry::reload);
+            e = assertThrows(ExecutionException.class, () -> registry.reloadAsync().get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause().getMessage().contains("gone"));
+            assertSame(before, registry.current());
+        }
+    }
+
+    @Test
+    public void testConcurrentReadersSeeWholeSnapshots() throws Exception
+    {
+        try(final CountryRegistry registry = new CountryRegistry(this::nextReport))
+        {
+            final List<Thread>  readers;
+            final AtomicBoolean done;
+            final AtomicInteger torn;
+
+            readers = new ArrayList<>();
+            done    = new AtomicBoolean();
+            torn    = new AtomicInteger();
+
+            for(int i = 0; i < 4; i++)
+            {
+                final Thread reader;
+
+                reader = new Thread(() ->
+                {
+                    while(!done.get())
+                    {
+                        final CountryRegistry.Snapshot snapshot;
+
+                        snapshot = registry.current();
+
+                        if(snapshot.getReport().getTotalCount() != snapshot.getVersion())
+                        {
+                            torn.incrementAndGet();
+                        }
+                    }
+                });
+                reader.start();
+                readers.add(reader);
+            }
+
+            for(int i = 0; i < 50; i++)
+            {
+                registry.reloadAsync().get(5, TimeUnit.SECONDS);
+            }
+
+            done.set(true);
+
+            for(final Thread reader : readers)
+            {
+                reader.join();
+            }
+
+            assertEquals(0, torn.get());
+            assertEquals(registry.current().getVersion(), registry.current().getReport().getTotalCount());
+        }
+    }
+
+    @Test
+    public void testClosedRegistryRefusesReload() throws IOException
+    {
+        final CountryRegistry registry;
+
+        registry = new CountryRegistry(this::nextReport);
+        registry.close();
+
+        assertThrows(IllegalStateException.class, registry::reloadAsync);
+        assertEquals(1, registry.current().getVersion());
+    }
+
+    /*
+     * Each call returns one more name than the last, so a snapshot's count is its version.
+     */
+    private CountryReport nextReport()
+    {
+        final int          count;
+        final List<String> names;
+
+        count = loads.incrementAndGet();
+        names = new ArrayList<>();
+
+        for(int i = 1; i <= count; i++)
+        {
+            names.add("Chad " + i);
+        }
+
+        return names.stream().map(Country::new).collect(CountryReport.collector(3, 4));
+    }
+
+    private static void await(final CountDownLatch latch) throws IOException
+    {
+        try
+        {
+            if(!latch.await(5, TimeUnit.SECONDS))
+            {
+                throw new IOException("Timed out waiting to build");
+            }
+        } catch(final InterruptedException e)
+        {
+            throw new InterruptedIOException();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package ca.bcit.comp2522.lab7;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.util.List;
+
+public class CountryReportTest
+{
+
+    final List<String> names;
+
+    public CountryReportTest() {
+        names = List.of("Afghanistan", "Chad", "United States", "Finland", "Zambia",
+                        "Peru", "Saint Kitts and Nevis", "Cuba", "Chad");
+    }
+
+    @Test
+    public void testTotalCountBuildsNothing()
+    {
+        final CountryReport report;
+
+        report = collect(names);
+
+        assertEquals("\n********* Total country names: 9\n".replace("\n", System.lineSeparator()),
+                     ReportSection.TOTAL_COUNT.render(report));
+        assertEquals(List.of(), report.builtParts());
+    }
+
+    @Test
+    public void testSectionBuildsOnlyWhatItReads()
+    {
+        final CountryReport report;
+
+        report = collect(names);
+        ReportSection.ASCENDING.render(report);
+        ReportSection.LONGEST.render(report);
+
+        assertEquals(List.of("length index", "sorted index"), report.builtParts());
+        assertEquals("Afghanistan", report.getAscendingNames().get(0));
+        assertSame(report.getSortedIndex(), report.getSortedIndex());
+    }
+
+    @Test
+    public void testLazyResultsMatchFullReport()
+    {
+        final CountryReport report;
+
+        report = collect(names);
+
+        assertEquals(List.of("Afghanistan", "United States", "Saint Kitts and Nevis"), report.getLongNames());
+        assertEquals(List.of("Chad", "Peru", "Cuba", "Chad"), report.getShortNames());
+        assertEquals(List.of("UNITED STATES"), report.getUpperCaseNames().subList(2, 3));
+        assertEquals(List.of(), report.getNamesWithMoreThanNWords());
+        assertEquals(List.of("Saint Kitts and Nevis"), report.namesWithMoreThanNWords(3));
+        assertEquals(8, report.getCharacterCounts().size());
+        assertTrue(report.isAnyStartsWithZ());
+        assertTrue(report.isAllLongerThanN());
+        assertEquals(4, report.getWordCounts()[6]);
+    }
+
+    @Test
+    public void testFirstLetterSectionsSkipPrefixTrie()
+    {
+        final CountryReport report;
+        final CountryReport mixedCase;
+
+        report    = collect(names);
+        mixedCase = collect(List.of("zambia", "Zimbabwe", "peru", "Chad", "chile", "Peru", "Iceland", "india", "Oman"));
+
+        ReportSection.STARTS_WITH_A.render(report);
+        ReportSection.ANY_STARTS_WITH_Z.render(report);
+        ReportSection.UNIQUE_FIRST_LETTERS.render(report);
+
+        assertFalse(report.builtParts().contains("prefix trie"));
+        assertEquals(List.of("Afghanistan"), report.getNamesStartingWithA());
+        assertEquals(report.getPrefixTrie().namesWithUniquePrefix(1), report.getUniqueFirstLetterNames());
+        assertEquals(List.of("Oman"), mixedCase.getUniqueFirstLetterNames());
+        assertEquals(mixedCase.getPrefixTrie().namesWithUniquePrefix(1), mixedCase.getUniqueFirstLetterNames());
+        assertTrue(mixedCase.isAnyStartsWithZ());
+        assertFalse(collect(List.of("Chad", "Peru")).isAnyStartsWithZ());
+    }
+
+    @Test
+    public void testTableReportMatchesCollectedReport()
+    {
+        final CountryTable.Builder builder;
+        final CountryReport        fromTable;
+        final CountryReport        collected;
+
+        builder = new CountryTable.Builder();
+
+        for(final String name : names)
+        {
+            builder.add(name);
+        }
+
+        fromTable = CountryReport.of(builder.build(), 3, 4);
+        collected = collect(names);
+
+        for(final ReportSection section : ReportSection.values())
+        {
+            assertEquals(section.render(collected), section.render(fromTable), section.name());
+        }
+    }
+
+    @Test
+    public void testParsesSectionList()
+    {
+        assertEquals(List.of(ReportSection.TOTAL_COUNT, ReportSection.LONGEST),
+                     ReportSection.parseList(" longest, TOTAL_count ,longest"));
+        assertEquals(ReportSection.CHARACTER_COUNT, ReportSection.forName("character_count"));
+        assertThrows(IllegalArgumentException.class, () -> ReportSection.parseList("total"));
+        assertThrows(IllegalArgumentException.class, () -> ReportSection.parseList(" , "));
+    }
+
+    @Test
+    public void testParsesSectionOptions()
+    {
+        final ReportOptions options;
+
+        options = ReportOptions.parse(new String[]{"--sections=total_count", "--min-char=5", "--min-word=0",
+                                                   "--output=out/count.txt"});
+
+        assertEquals(List.of(ReportSection.TOTAL_COUNT), options.getSections());
+        assertEquals(5, options.getMinChar());
+        assertEquals(0, options.getMinWord());
+        assertEquals("count.txt", options.getOutputPath().getFileName().toString());
+        assertEquals(ReportSection.values().length, ReportOptions.parse(null).getSections().size());
+        assertThrows(IllegalArgumentException.class, () -> ReportOptions.parse(new String[]{"--min-char=-1"}));
+        assertThrows(IllegalArgumentException.class,
+                     () -> ReportOptions.parse(new String[]{"--sections=longest", "--stream"}));
+    }
+
+    private static CountryReport collect(final List<String> names)
+    {
+        return names.stream()
+                    .map(Country::new)
+                    .collect(CountryReport.collector(3, 4));
+    }
+}
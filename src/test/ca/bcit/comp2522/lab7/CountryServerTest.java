@@ -0,0 +1,167 @@
+package ca.bcit.comp2522.lab7;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class CountryServerTest
+{
+
+    final List<String> names;
+    final HttpClient   client;
+
+    public CountryServerTest() {
+        names  = List.of("Finland", "Chad", "United States", "Iceland", "Chile", "Aland \"Islands\"", "Peru");
+        client = HttpClient.newHttpClient();
+    }
+
+    @Test
+    public void testQueriesAnswerFromIndexes() throws Exception
+    {
+        try(final CountryRegistry registry = new CountryRegistry(this::report);
+            final CountryServer server = CountryServer.onLoopback(registry, 0))
+        {
+            assertEquals("{\"version\":1,\"query\":\"prefix\",\"q\":\"ch\",\"count\":2,\"names\":[\"Chad\",\"Chile\"]}",
+                         get(server, "/query/prefix?q=ch").body());
+            assertEquals("{\"version\":1,\"query\":\"suffix\",\"q\":\"land\",\"count\":2,\"names\":[\"Finland\",\"Iceland\"]}",
+                         get(server, "/query/suffix?q=land").body());
+            assertEquals("{\"version\":1,\"query\":\"contains\",\"q\":\"d s\",\"count\":1,\"names\":[\"United States\"]}",
+                         get(server, "/query/contains?q=d%20s").body());
+            assertEquals("{\"version\":1,\"query\":\"length\",\"min\":4,\"max\":5,\"count\":3,\"names\":[\"Chad\",\"Chile\",\"Peru\"]}",
+                         get(server, "/query/length?min=4&max=5").body());
+            assertEquals("{\"version\":1,\"query\":\"length\",\"min\":4,\"max\":5,\"count\":3,\"names\":[\"Chad\"]}",
+                         get(server, "/query/length?min=4&max=5&limit=1").body());
+            assertEquals("{\"version\":1,\"query\":\"fuzzy\",\"q\":\"Chle\",\"k\":2,\"count\":2," +
+                         "\"matches\":[{\"name\":\"Chile\",\"distance\":1},{\"name\":\"Chad\",\"distance\":2}]}",
+                         get(server, "/query/fuzzy?q=Chle").body());
+        }
+    }
+
+    @Test
+    public void testSectionsMatchRenderedReport() throws Exception
+    {
+        try(final CountryRegistry registry = new CountryRegistry(this::report);
+            final CountryServer server = CountryServer.onLoopback(registry, 0))
+        {
+            final HttpResponse<String> response;
+
+            response = get(server, "/sections/ends_with_land");
+
+            assertEquals(200, response.statusCode());
+            assertEquals("application/json; charset=utf-8", response.headers().firstValue("Content-Type").orElse(""));
+            assertEquals("{\"version\":1,\"section\":\"ENDS_WITH_LAND\",\"items\":2,\"text\":" +
+                         CountryServer.quote(ReportSection.ENDS_WITH_LAND.render(registry.current().getReport())) + "}",
+                         response.body());
+            assertTrue(get(server, "/sections").body().startsWith("{\"version\":1,\"sections\":[\"LONG_NAMES\","));
+            assertTrue(get(server, "/sections/ascending").body().contains("Aland \\\"Islands\\\""));
+        }
+    }
+
+    @Test
+    public void testReloadPublishesNewVersion() throws Exception
+    {
+        try(final CountryRegistry registry = new CountryRegistry(this::report);
+            final CountryServer server = CountryServer.onLoopback(registry, 0))
+        {
+            final HttpResponse<String> response;
+
+            response = client.send(HttpRequest.newBuilder(uri(server, "/reload"))
+                                              .POST(HttpRequest.BodyPublishers.noBody())
+                                              .build(),
+                                   HttpResponse.BodyHandlers.ofString());
+
+            assertEquals(200, response.statusCode());
+            assertTrue(response.body().startsWith("{\"version\":2,"));
+            assertTrue(get(server, "/sections/total_count").body().startsWith("{\"version\":2,"));
+            assertEquals(405, get(server, "/reload").statusCode());
+        }
+    }
+
+    @Test
+    public void testBadRequestsGetErrors() throws Exception
+    {
+        try(final CountryRegistry registry = new CountryRegistry(this::report);
+            final CountryServer server = CountryServer.onLoopback(registry, 0))
+        {
+            assertEquals(400, get(server, "/query/prefix").statusCode());
+            assertEquals(400, get(server, "/query/length?min=-1").statusCode());
+            assertEquals(400, get(server, "/query/length?min=5&max=4").statusCode());
+            assertEquals(404, get(server, "/query/regex?q=a").statusCode());
+            assertEquals(404, get(server, "/sections/missing").statusCode());
+            assertEquals("{\"error\":\"No endpoint at /nothing\"}", get(server, "/nothing").body());
+        }
+    }
+
+    @Test
+    public void testConcurrentRequestsOnLoopback() throws Exception
+    {
+        try(final CountryRegistry registry = new CountryRegistry(this::report);
+            final CountryServer server = CountryServer.onLoopback(registry, 0);
+            final ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor())
+        {
+            final List<Future<HttpResponse<String>>> responses;
+
+            responses = new ArrayList<>();
+
+            for(int i = 0; i < 500; i++)
+            {
+                final String path;
+
+                path = i % 2 == 0 ? "/query/prefix?q=c" : "/sections/short_names";
+                responses.add(clients.submit(() -> get(server, path)));
+            }
+
+            for(int i = 0; i < responses.size(); i++)
+            {
+                final HttpResponse<String> response;
+
+                response = responses.get(i).get();
+
+                assertEquals(200, response.statusCode());
+                assertEquals(i % 2 == 0 ? get(server, "/query/prefix?q=c").body()
+                                        : get(server, "/sections/short_names").body(),
+                             response.body());
+            }
+        }
+    }
+
+    @Test
+    public void testServePortMustBeValid()
+    {
+        assertEquals(65535, ReportOptions.parse(new String[]{"--serve=65535"}).getServePort());
+        assertThrows(IllegalArgumentException.class, () -> ReportOptions.parse(new String[]{"--serve=65536"}));
+        assertThrows(IllegalArgumentException.class, () -> ReportOptions.parse(new String[]{"--serve=0"}));
+    }
+
+    @Test
+    public void testQuoteEscapesJson()
+    {
+        assertEquals("\"a\\\"b\\\\c\\n\\u0001\"", CountryServer.quote("a\"b\\c\n\u0001"));
+    }
+
+    private HttpResponse<String> get(final CountryServer server,
+                                     final String path) throws IOException, InterruptedException
+    {
+        return client.send(HttpRequest.newBuilder(uri(server, path)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static URI uri(final CountryServer server,
+                           final String path)
+    {
+        return URI.create("http://127.0.0.1:" + server.getPort() + path);
+    }
+
+    private CountryReport report()
+    {
+        return names.stream().map(Country::new).collect(CountryReport.collector(3, 4));
+    }
+}
@@ -0,0 +1,142 @@
+package ca.bcit.comp2522.lab7;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class CountrySnapshotTest
+{
+
+    final List<String> names;
+
+    public CountrySnapshotTest() {
+        names = List.of("Zambia", "Chad", "United States", "Finland", "Cuba", "Chad",
+                        "Bosnia and Herzegovina", "Iceland", "Afghanistan", "Aland");
+    }
+
+    @Test
+    public void testCachedSnapshotMatchesParsedInput() throws IOException
+    {
+        final Path            directory;
+        final Path            input;
+        final Path            cache;
+        final CountrySnapshot first;
+        final CountrySnapshot second;
+
+        directory = Files.createTempDirectory("snapshot-test");
+        input     = directory.resolve("names.txt");
+        cache     = directory.resolve("cache");
+        Files.write(input, names);
+
+        try
+        {
+            first  = CountrySnapshot.load(input, cache);
+            second = CountrySnapshot.load(input, cache);
+
+            assertFalse(first.isFromCache());
+            assertTrue(second.isFromCache());
+            assertEquals(names.size(), second.getTable().size());
+            assertSameReport(second);
+        } finally
+        {
+            deleteAll(directory);
+        }
+    }
+
+    @Test
+    public void testSortedRowsAreStableNameOrder()
+    {
+        final int[] rows;
+
+        rows = CountrySnapshot.sortedRows(names.toArray(new String[0]));
+
+        assertArrayEquals(new int[]{8, 9, 6, 1, 5, 4, 3, 7, 2, 0}, rows);
+    }
+
+    @Test
+    public void testChangedInputIsParsedAgain() throws IOException
+    {
+        final Path directory;
+        final Path input;
+        final Path cache;
+
+        directory = Files.createTempDirectory("snapshot-test");
+        input     = directory.resolve("names.txt");
+        cache     = directory.resolve("cache");
+        Files.write(input, names);
+
+        try
+        {
+            CountrySnapshot.load(input, cache);
+            Files.writeString(input, System.lineSeparator() + "Peru", StandardOpenOption.APPEND);
+
+            assertFalse(CountrySnapshot.load(input, cache).isFromCache());
+            assertEquals("Peru", CountrySnapshot.load(input, cache).getTable().name(names.size()));
+        } finally
+        {
+            deleteAll(directory);
+        }
+    }
+
+    @Test
+    public void testDamagedSnapshotIsRebuilt() throws IOException
+    {
+        final Path   directory;
+        final Path   input;
+        final Path   cache;
+        final Path   snapshotPath;
+        final byte[] bytes;
+
+        directory    = Files.createTempDirectory("snapshot-test");
+        input        = directory.resolve("names.txt");
+        cache        = directory.resolve("cache");
+        snapshotPath = CountrySnapshot.snapshotPath(input, cache);
+        Files.write(input, names);
+
+        try
+        {
+            CountrySnapshot.load(input, cache);
+            bytes = Files.readAllBytes(snapshotPath);
+            bytes[bytes.length - 1] ^= 1;
+            Files.write(snapshotPath, bytes);
+
+            assertFalse(CountrySnapshot.load(input, cache).isFromCache());
+            assertTrue(CountrySnapshot.load(input, cache).isFromCache());
+        } finally
+        {
+            deleteAll(directory);
+        }
+    }
+
+    private void assertSameReport(final CountrySnapshot snapshot)
+    {
+        final CountryReport expected;
+        final CountryReport actual;
+
+        expected = names.stream()
+                        .map(Country::new)
+                        .collect(CountryReport.collector(3, 4));
+        actual   = CountryReport.of(snapshot, 3, 4);
+
+        for(final ReportSection section : ReportSection.values())
+        {
+            assertEquals(section.render(expected), section.render(actual), section.name());
+        }
+    }
+
+    private void deleteAll(final Path directory) throws IOException
+    {
+        try(final Stream<Path> paths = Files.walk(directory))
+        {
+            for(final Path path : paths.sorted((a, b) -> b.compareTo(a)).toList())
+            {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package ca.bcit.comp2522.lab7;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.util.List;
+
+public class CountryTableTest
+{
+
+    final CountryTable table;
+
+    public CountryTableTest() {
+        table = new CountryTable.Builder()
+                .add("Canada")
+                .add("Côte d'Ivoire")
+                .add("Saint Vincent and the Grenadines")
+                .build();
+    }
+
+    @Test
+    public void testColumnsMatchStringValues()
+    {
+        final List<String> names;
+
+        names = List.of("Canada", "Côte d'Ivoire", "Saint Vincent and the Grenadines");
+
+        assertEquals(names.size(), table.size());
+
+        for (int row = 0; row < names.size(); row++)
+        {
+            assertEquals(names.get(row), table.name(row));
+            assertEquals(names.get(row).length(), table.length(row));
+            assertEquals(NameTokenizer.countWords(names.get(row)), table.wordCount(row));
+        }
+    }
+
+    @Test
+    public void testCountryViewReadsRows()
+    {
+        assertEquals("Côte d'Ivoire", table.asCountries().get(1).getName());
+        assertThrows(IndexOutOfBoundsException.class, () -> table.asCountries().get(3));
+    }
+
+    @Test
+    public void testBlankNamesAreRejected()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new CountryTable.Builder().add("  "));
+    }
+}
@@ -0,0 +1,195 @@
+package ca.bcit.comp2522.lab7;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class FuzzyIndexTest
+{
+
+    final List<String> names;
+    final FuzzyIndex   index;
+
+    public FuzzyIndexTest() {
+        names = List.of("United States", "United Kingdom", "Philippines", "Chad", "Chile", "China",
+                        "Iceland", "Ireland", "Finland", "Chad", "Peru", "Niger", "Nigeria");
+        index = new FuzzyIndex(names);
+    }
+
+    @Test
+    public void testFindsMisspelledNames()
+    {
+        assertEquals("United States", index.closest("Untied States", 2).getName());
+        assertEquals(2, index.closest("Untied States", 2).getDistance());
+        assertEquals("Philippines", index.closest("Phillipines", 2).getName());
+        assertEquals("Chad", index.closest("CHAD", 0).getName());
+        assertNull(index.closest("Atlantis", 2));
+    }
+
+    @Test
+    public void testWithinListsClosestFirstThenInInputOrder()
+    {
+        assertEquals(List.of("Chad (1)", "Chile (2)", "China (2)"),
+                     index.within("Chid", 2).stream().map(FuzzyIndex.Match::toString).toList());
+        assertEquals(List.of("Iceland (1)", "Ireland (1)", "Finland (2)"),
+                     index.within("Ieland", 2).stream().map(FuzzyIndex.Match::toString).toList());
+        assertEquals(12, index.size());
+        assertThrows(IllegalArgumentException.class, () -> index.within("Chad", -1));
+    }
+
+    @Test
+    public void testMatchesLinearScan()
+    {
+        final Random       random;
+        final List<String> corpus;
+        final FuzzyIndex   large;
+
+        random = new Random(2522);
+        corpus = new ArrayList<>();
+
+        for(int i = 0; i < 3000; i++)
+        {
+            corpus.add(randomName(random, 4 + random.nextInt(10)));
+        }
+
+        large = new FuzzyIndex(corpus);
+
+        for(int i = 0; i < 200; i++)
+        {
+            final String query;
+            final int    k;
+
+            query = i % 2 == 0 ? mutate(random, corpus.get(random.nextInt(corpus.size())))
+                               : randomName(random, 4 + random.nextInt(10));
+            k     = i % 4;
+
+            assertEquals(linearScan(corpus, query, k),
+                         large.within(query, k).stream().map(FuzzyIndex.Match::toString).toList(), query);
+            assertEquals(large.within(query, k).stream().findFirst().orElse(null), large.closest(query, k), query);
+        }
+    }
+
+    @Test
+    public void testBatchLooksUpEveryQueryInOrder()
+    {
+        final List<String>           queries;
+        final List<FuzzyIndex.Match> expected;
+
+        queries  = List.of("Untied States", "Atlantis", "Nigerr", "Untied States", "Chlie");
+        expected = new ArrayList<>();
+
+        for(final String query : queries)
+        {
+            expected.add(index.closest(query, 2));
+        }
+
+        assertEquals(expected, index.closestAll(queries, 2, null));
+
+        try(final ForkJoinPool pool = new ForkJoinPool(4))
+        {
+            assertEquals(expected, index.closestAll(queries, 2, pool));
+        }
+
+        assertNull(index.closestAll(queries, 2, null).get(1));
+        assertEquals("Niger", index.closestAll(queries, 2, null).get(2).getName());
+    }
+
+    /*
+     * Lists the distinct names within k of the query by comparing every name, in the index's order.
+     */
+    private static List<String> linearScan(final List<String> corpus,
+                                           final String query,
+                                           final int k)
+    {
+        final List<String> distinct;
+        final List<String> matches;
+
+        distinct = corpus.stream().distinct().toList();
+        matches  = new ArrayList<>();
+
+        for(int distance = 0; distance <= k; distance++)
+        {
+            for(final String name : distinct)
+            {
+                if(levenshtein(name.toLowerCase(), query.toLowerCase()) == distance)
+                {
+                    matches.add(name + " (" + distance + ")");
+                }
+            }
+        }
+
+        return matches;
+    }
+
+    private static int levenshtein(final String first,
+                                   final String second)
+    {
+        final int[][] table;
+
+        table = new int[first.length() + 1][second.length() + 1];
+
+        for(int i = 0; i <= first.length(); i++)
+        {
+            for(int j = 0; j <= second.length(); j++)
+            {
+                if(i == 0 || j == 0)
+                {
+                    table[i][j] = i + j;
+                } else
+                {
+                    table[i][j] = Math.min(table[i - 1][j - 1] + (first.charAt(i - 1) == second.charAt(j - 1) ? 0 : 1),
+                                           Math.min(table[i - 1][j], table[i][j - 1]) + 1);
+                }
+            }
+        }
+
+        return table[first.length()][second.length()];
+    }
+
+    private static String randomName(final Random random,
+                                     final int length)
+    {
+        final char[] chars;
+
+        chars = new char[length];
+
+        for(int i = 0; i < length; i++)
+        {
+            chars[i] = "aeinorstlCU ".charAt(random.nextInt(12));
+        }
+
+        return new String(chars);
+    }
+
+    private static String mutate(final Random random,
+                                 final String name)
+    {
+        final StringBuilder out;
+
+        out = new StringBuilder(name);
+
+        for(int i = 0; i < 1 + random.nextInt(3) && out.length() > 1; i++)
+        {
+            final int at;
+
+            at = random.nextInt(out.length());
+
+            switch(random.nextInt(3))
+            {
+                case 0:
+                    out.deleteCharAt(at);
+                    break;
+                case 1:
+                    out.insert(at, 'x');
+                    break;
+                default:
+                    out.setCharAt(at, 'q');
+            }
+        }
+
+        return out.toString();
+    }
+}
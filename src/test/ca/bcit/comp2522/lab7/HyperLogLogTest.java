@@ -0,0 +1,67 @@
+package ca.bcit.comp2522.lab7;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+public class HyperLogLogTest
+{
+
+    final HyperLogLog sketch;
+
+    public HyperLogLogTest() {
+        sketch = new HyperLogLog();
+    }
+
+    @Test
+    public void testEmptyEstimatesZero()
+    {
+        assertEquals(0, sketch.estimate());
+    }
+
+    @Test
+    public void testDuplicatesCountOnce()
+    {
+        for(int i = 0; i < 10_000; i++)
+        {
+            sketch.add("Country " + (i % 50));
+        }
+
+        assertEquals(50, sketch.estimate());
+    }
+
+    @Test
+    public void testLargeEstimateWithinTwoPercent()
+    {
+        for(int i = 0; i < 200_000; i++)
+        {
+            sketch.add("Republic of " + i);
+        }
+
+        assertEquals(200_000, sketch.estimate(), 4_000);
+    }
+
+    @Test
+    public void testMergeEstimatesUnion()
+    {
+        final HyperLogLog other;
+
+        other = new HyperLogLog();
+
+        for(int i = 0; i < 60_000; i++)
+        {
+            sketch.add("Island " + i);
+            other.add("Island " + (i + 30_000));
+        }
+
+        sketch.merge(other);
+
+        assertEquals(90_000, sketch.estimate(), 1_800);
+    }
+
+    @Test
+    public void testRejectsMismatchedPrecision()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(3));
+        assertThrows(IllegalArgumentException.class, () -> sketch.merge(new HyperLogLog(10)));
+    }
+}
@@ -0,0 +1,138 @@
+package ca.bcit.comp2522.lab7;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class IncrementalReportTest
+{
+
+    final List<String> names;
+    final IncrementalReport report;
+
+    public IncrementalReportTest() {
+        names = new ArrayList<>(List.of("Afghanistan", "Chad", "United States", "Finland", "Zambia",
+                                        "Peru", "Saint Kitts and Nevis", "Cuba", "Chad"));
+        report = new IncrementalReport(names, 3, 4);
+    }
+
+    @Test
+    public void testMatchesFullReport()
+    {
+        assertSameSections(names);
+    }
+
+    @Test
+    public void testAppendOnlyTouchesAffectedSections()
+    {
+        final Set<ReportSection> affected;
+
+        names.add("Bosnia and Herzegovina");
+        affected = applyAndCheck();
+
+        assertTrue(affected.contains(ReportSection.LONG_NAMES));
+        assertTrue(affected.contains(ReportSection.LONGEST));
+        assertFalse(affected.contains(ReportSection.SHORT_NAMES));
+        assertFalse(affected.contains(ReportSection.ENDS_WITH_LAND));
+        assertFalse(affected.contains(ReportSection.ANY_STARTS_WITH_Z));
+    }
+
+    @Test
+    public void testRemovalsAndReplacements()
+    {
+        names.remove("Zambia");
+        applyAndCheck();
+
+        names.remove(0);
+        names.add(2, "Iceland");
+        names.add(3, "Oman");
+        applyAndCheck();
+
+        names.subList(0, 3).clear();
+        applyAndCheck();
+
+        names.clear();
+        applyAndCheck();
+
+        names.addAll(List.of("United Kingdom", "Chad", "Chad"));
+        applyAndCheck();
+    }
+
+    @Test
+    public void testRemovingEarlierDuplicateReordersCharacterCounts()
+    {
+        final IncrementalReport  duplicates;
+        final List<String>       edited;
+        final CountryReport      full;
+        final Set<ReportSection> affected;
+
+        duplicates = new IncrementalReport(List.of("Chad", "Land18", "Chad"), 3, 4);
+        edited     = List.of("Land18", "Chad");
+        full       = edited.stream()
+                           .map(Country::new)
+                           .collect(CountryReport.collector(3, 4));
+        affected   = duplicates.apply(NameDelta.between(duplicates.getNames(), edited));
+
+        assertTrue(affected.contains(ReportSection.CHARACTER_COUNT));
+        assertEquals(List.copyOf(full.getCharacterCounts().keySet()),
+                     List.copyOf(duplicates.getCharacterCounts().keySet()));
+        assertEquals(ReportSection.CHARACTER_COUNT.render(full), ReportSection.CHARACTER_COUNT.render(duplicates));
+    }
+
+    @Test
+    public void testDeltaMustMatchNames()
+    {
+        assertThrows(IllegalArgumentException.class,
+                     () -> report.apply(NameDelta.between(List.of("Peru"), List.of())));
+    }
+
+    /*
+     * Applies the difference between the report's names and the test's names, checks the report
+     * against a full rebuild and checks that every section whose text changed was reported.
+     */
+    private Set<ReportSection> applyAndCheck()
+    {
+        final Map<ReportSection, String> before;
+        final Set<ReportSection>         affected;
+
+        before = new EnumMap<>(ReportSection.class);
+
+        for(final ReportSection section : ReportSection.values())
+        {
+            before.put(section, section.render(report));
+        }
+
+        affected = report.apply(NameDelta.between(report.getNames(), names));
+
+        assertEquals(names, report.getNames());
+        assertSameSections(names);
+
+        for(final ReportSection section : ReportSection.values())
+        {
+            if(!affected.contains(section))
+            {
+                assertEquals(before.get(section), section.render(report), section.name());
+            }
+        }
+
+        return affected;
+    }
+
+    private void assertSameSections(final List<String> expectedNames)
+    {
+        final CountryReport full;
+
+        full = expectedNames.stream()
+                            .map(Country::new)
+                            .collect(CountryReport.collector(3, 4));
+
+        for(final ReportSection section : ReportSection.values())
+        {
+            assertEquals(section.render(full), section.render(report), section.name());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package ca.bcit.comp2522.lab7;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class LengthIndexTest
+{
+
+    final LengthIndex index;
+
+    public LengthIndexTest() {
+        index = new LengthIndex(List.of("Chad", "Afghanistan", "Peru", "Canada", "Bosnia and Herzegovina", "Cuba"));
+    }
+
+    @Test
+    public void testThresholdQueriesKeepInsertionOrder()
+    {
+        assertEquals(List.of("Afghanistan", "Bosnia and Herzegovina"), index.longerThan(10));
+        assertEquals(List.of("Chad", "Peru", "Cuba"), index.shorterThan(5));
+        assertEquals(List.of("Chad", "Peru", "Canada", "Cuba"), index.lengthBetween(4, 6));
+        assertEquals(4, index.countBetween(4, 6));
+    }
+
+    @Test
+    public void testRangesAcrossBucketsKeepInsertionOrder()
+    {
+        final Random       random;
+        final List<String> names;
+        final LengthIndex  large;
+
+        random = new Random(2522);
+        names  = new ArrayList<>();
+
+        for(int i = 0; i < 2_000; i++)
+        {
+            names.add("n".repeat(1 + random.nextInt(30)) + i);
+        }
+
+        large = new LengthIndex(names);
+
+        for(final int[] range : new int[][]{{0, Integer.MAX_VALUE}, {5, 5}, {3, 17}, {20, 40}, {-4, 2}, {50, 60}})
+        {
+            assertEquals(names.stream().filter(name -> name.length() >= range[0] && name.length() <= range[1]).toList(),
+                         large.lengthBetween(range[0], range[1]));
+        }
+    }
+
+    @Test
+    public void testMinAndMaxPreferFirstName()
+    {
+        assertEquals("Chad", index.shortest());
+        assertEquals("Bosnia and Herzegovina", index.longest());
+        assertTrue(index.allLongerThan(3), "Every name has more than 3 characters");
+        assertFalse(index.allLongerThan(4), "Chad has exactly 4 characters");
+    }
+
+    @Test
+    public void testEmptyIndex()
+    {
+        final LengthIndex empty;
+
+        empty = new LengthIndex(List.of());
+
+        assertNull(empty.longest());
+        assertTrue(empty.longerThan(0).isEmpty(), "An empty index has no long names");
+        assertTrue(empty.allLongerThan(100), "allMatch over no names is true");
+    }
+}
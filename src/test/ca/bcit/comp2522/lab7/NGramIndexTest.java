@@ -0,0 +1,39 @@
+package ca.bcit.comp2522.lab7;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.util.List;
+
+public class NGramIndexTest
+{
+
+    final NGramIndex index;
+
+    public NGramIndexTest() {
+        index = new NGramIndex(List.of("United States", "Tanzania", "UNITED KINGDOM", "Chad",
+                                       "United Arab Emirates", "Guinea-Bissau"));
+    }
+
+    @Test
+    public void testContainingIgnoresCase()
+    {
+        assertEquals(List.of("United States", "UNITED KINGDOM", "United Arab Emirates"), index.containing("united"));
+        assertEquals(List.of("UNITED KINGDOM"), index.containing("d kin"));
+        assertTrue(index.anyContaining("NZAN"), "Tanzania should contain 'nzan'");
+    }
+
+    @Test
+    public void testCandidatesAreVerified()
+    {
+        // every trigram of "anzanz" occurs in Tanzania, but the text itself does not
+        assertTrue(index.containing("anzanz").isEmpty(), "Tanzania should be rejected after verification");
+        assertEquals(List.of("United States"), index.containing("ted sta"));
+    }
+
+    @Test
+    public void testShortQueriesFallBackToScanning()
+    {
+        assertEquals(List.of("Chad"), index.containing("ch"));
+        assertEquals(6, index.containing("").size());
+    }
+}
@@ -0,0 +1,57 @@
+package ca.bcit.comp2522.lab7;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class NameTokenizerTest
+{
+
+    final List<String> words;
+
+    public NameTokenizerTest() {
+        words = new ArrayList<>();
+    }
+
+    @Test
+    public void testSeparatorRunsCountAsOneBoundary()
+    {
+        assertEquals(2, NameTokenizer.countWords("Guinea-Bissau"));
+        assertEquals(2, NameTokenizer.countWords(" Guinea \t Bissau  "));
+        assertEquals(4, NameTokenizer.countWords("Saint Kitts and Nevis"));
+        assertEquals(0, NameTokenizer.countWords(" - "));
+        assertEquals(0, NameTokenizer.countWords(""));
+    }
+
+    @Test
+    public void testByteCountMatchesCharCount()
+    {
+        for(final String name : List.of("Côte d'Ivoire", "São Tomé and Príncipe", "Timor-Leste", "  Chad "))
+        {
+            final byte[] bytes;
+
+            bytes = name.getBytes(StandardCharsets.UTF_8);
+            assertEquals(NameTokenizer.countWords(name), NameTokenizer.countWords(bytes, 0, bytes.length));
+        }
+    }
+
+    @Test
+    public void testHasMoreWordsThan()
+    {
+        assertTrue(NameTokenizer.hasMoreWordsThan("Saint Kitts and Nevis", 3));
+        assertFalse(NameTokenizer.hasMoreWordsThan("Saint Kitts and Nevis", 4));
+        assertTrue(NameTokenizer.hasMoreWordsThan("", -1));
+        assertFalse(NameTokenizer.hasMoreWordsThan("Chad", Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testForEachWordReportsPositions()
+    {
+        NameTokenizer.forEachWord("-Bosnia and  Herzegovina ",
+                                  (text, start, end) -> words.add(text.subSequence(start, end).toString()));
+
+        assertEquals(List.of("Bosnia", "and", "Herzegovina"), words);
+    }
+}
@@ -0,0 +1,57 @@
+package ca.bcit.comp2522.lab7;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PrefixTrieTest
+{
+
+    final PrefixTrie trie;
+
+    public PrefixTrieTest() {
+        trie = new PrefixTrie(List.of("Zambia", "Albania", "Oman", "algeria", "Andorra", "Zimbabwe", "Qatar"));
+    }
+
+    @Test
+    public void testPrefixQueriesIgnoreCase()
+    {
+        assertEquals(List.of("Albania", "algeria", "Andorra"), trie.withPrefix("a"));
+        assertEquals(List.of("Albania", "algeria"), trie.withPrefix("AL"));
+        assertEquals(2, trie.countWithPrefix("z"));
+        assertTrue(trie.anyWithPrefix("ZIM"), "Zimbabwe should match the prefix ZIM");
+        assertFalse(trie.anyWithPrefix("Zz"), "No name should match the prefix Zz");
+        assertTrue(trie.withPrefix("Canada").isEmpty(), "Unknown prefixes should return no names");
+    }
+
+    @Test
+    public void testNamesWithUniquePrefix()
+    {
+        assertEquals(List.of("Oman", "Qatar"), trie.namesWithUniquePrefix(1));
+        assertEquals(List.of("Andorra", "Oman", "Qatar", "Zambia", "Zimbabwe"), trie.namesWithUniquePrefix(2));
+    }
+
+    @Test
+    public void testLargeRangesKeepInsertionOrder()
+    {
+        final List<String> names;
+        final PrefixTrie   large;
+
+        names = new ArrayList<>();
+
+        for(int i = 0; i < 1_000; i++)
+        {
+            names.add((i % 3 == 0 ? "chad " : i % 3 == 1 ? "Chile " : "Cuba ") + (999 - i));
+        }
+
+        large = new PrefixTrie(names);
+
+        assertEquals(names, large.withPrefix(""));
+        assertEquals(names.stream().filter(name -> name.startsWith("Ch") || name.startsWith("ch")).toList(),
+                     large.withPrefix("CH"));
+        assertEquals(334, large.countWithPrefix("Chad"));
+        assertEquals(List.of("chad 999"), large.withPrefix("chad 999"));
+        assertTrue(large.namesWithUniquePrefix(2).isEmpty(), "Every two-letter prefix is shared");
+    }
+}
@@ -0,0 +1,93 @@
+package ca.bcit.comp2522.lab7;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.util.List;
+import java.util.Map;
+
+public class QueryBatchTest
+{
+
+    final List<String> names;
+    final QueryBatch batch;
+
+    public QueryBatchTest() {
+        names = List.of("Afghanistan", "Chad", "United States", "Finland", "Zambia", "Peru",
+                        "Saint Kitts and Nevis", "Cuba", "Guinea-Bissau", "Iceland", "United Kingdom");
+        batch = new QueryBatch()
+                .add("long lands", CountryQuery.longerThan(6).and(CountryQuery.endsWith("land")))
+                .add("united or short", CountryQuery.containsIgnoreCase("UNITED").or(CountryQuery.shorterThan(5)))
+                .add("not multi-word", CountryQuery.moreWordsThan(1).not())
+                .add("two words", CountryQuery.wordsBetween(2, 2))
+                .add("nested", CountryQuery.anyOf(CountryQuery.startsWith("Z"),
+                                                  CountryQuery.allOf(CountryQuery.contains("a"),
+                                                                     CountryQuery.lengthBetween(4, 6))))
+                .add("everything", CountryQuery.allOf())
+                .add("nothing", CountryQuery.anyOf());
+    }
+
+    @Test
+    public void testBatchMatchesDirectEvaluation()
+    {
+        final Map<String, List<String>> results;
+
+        results = batch.run(names);
+
+        assertEquals(List.of("long lands", "united or short", "not multi-word", "two words", "nested",
+                             "everything", "nothing"), List.copyOf(results.keySet()));
+        assertEquals(List.of("Finland", "Iceland"), results.get("long lands"));
+        assertEquals(List.of("Chad", "United States", "Peru", "Cuba", "United Kingdom"),
+                     results.get("united or short"));
+        assertEquals(List.of("United States", "Guinea-Bissau", "United Kingdom"), results.get("two words"));
+        assertEquals(names, results.get("everything"));
+        assertEquals(List.of(), results.get("nothing"));
+        assertEquals(names.stream().filter(name -> CountryQuery.moreWordsThan(1).not().test(name)).toList(),
+                     results.get("not multi-word"));
+        assertEquals(List.of("Chad", "Zambia", "Cuba"), results.get("nested"));
+    }
+
+    @Test
+    public void testTableAndListGiveSameResults()
+    {
+        final CountryTable.Builder builder;
+
+        builder = new CountryTable.Builder();
+        names.forEach(builder::add);
+
+        assertEquals(batch.run(names), batch.run(builder.build()));
+    }
+
+    @Test
+    public void testSelectivePredicatesRunFirst()
+    {
+        final QueryBatch plan;
+
+        plan = new QueryBatch()
+                .add("and", CountryQuery.longerThan(2).and(CountryQuery.startsWith("Z")))
+                .add("or", CountryQuery.startsWith("Z").or(CountryQuery.longerThan(2)));
+
+        assertEquals("and: and[startsWith(Z), lengthBetween(3, 2147483647)]" + System.lineSeparator() +
+                     "or: or[lengthBetween(3, 2147483647), startsWith(Z)]" + System.lineSeparator(),
+                     plan.explain(names));
+    }
+
+    @Test
+    public void testInvalidQueriesAreRejected()
+    {
+        assertThrows(IllegalArgumentException.class, () -> batch.add("nothing", CountryQuery.anyOf()));
+        assertThrows(IllegalArgumentException.class, () -> batch.add(" ", CountryQuery.anyOf()));
+        assertThrows(IllegalArgumentException.class, () -> CountryQuery.lengthBetween(5, 4));
+    }
+
+    @Test
+    public void testLengthLimitsAtTheEdgesMatchNothing()
+    {
+        assertTrue(names.stream().noneMatch(CountryQuery.longerThan(Integer.MAX_VALUE)::test));
+        assertTrue(names.stream().noneMatch(CountryQuery.shorterThan(0)::test));
+        assertTrue(names.stream().noneMatch(CountryQuery.shorterThan(Integer.MIN_VALUE)::test));
+        assertEquals(names, names.stream().filter(CountryQuery.longerThan(-1)::test).toList());
+        assertEquals(List.of(), new QueryBatch().add("huge", CountryQuery.longerThan(Integer.MAX_VALUE))
+                                                .run(names)
+                                                .get("huge"));
+    }
+}
@@ -0,0 +1,63 @@
+package ca.bcit.comp2522.lab7;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ReportEngineTest
+{
+
+    final List<Country>       countries;
+    final List<ReportSection> sections;
+
+    public ReportEngineTest() {
+        final CorpusGenerator generator;
+
+        generator = new CorpusGenerator(CorpusGenerator.DEFAULT_SEED);
+        countries = new ArrayList<>();
+        sections  = List.of(ReportSection.values());
+
+        for(int i = 0; i < 20_000; i++)
+        {
+            final String line;
+
+            line = generator.nextLine();
+
+            if(!line.isBlank())
+            {
+                countries.add(new Country(line));
+            }
+        }
+    }
+
+    @Test
+    public void testParallelRenderMatchesSequential()
+    {
+        final List<String> sequential;
+        final List<String> parallel;
+
+        try(final ReportEngine engine = new ReportEngine(1))
+        {
+            sequential = engine.render(engine.collect(countries.stream(), 3, 4), sections);
+        }
+
+        try(final ReportEngine engine = new ReportEngine(4))
+        {
+            parallel = engine.render(engine.collect(countries.stream(), 3, 4), sections);
+        }
+
+        assertEquals(sections.size(), sequential.size());
+
+        for(int i = 0; i < sections.size(); i++)
+        {
+            assertEquals(sequential.get(i), parallel.get(i), sections.get(i).name());
+        }
+    }
+
+    @Test
+    public void testRejectsParallelismBelowOne()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new ReportEngine(0));
+    }
+}
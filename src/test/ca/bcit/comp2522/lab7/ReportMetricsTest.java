@@ -0,0 +1,114 @@
+package ca.bcit.comp2522.lab7;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class ReportMetricsTest
+{
+
+    final List<String>  names;
+    final ReportMetrics metrics;
+
+    public ReportMetricsTest() {
+        names   = List.of("Afghanistan", "Chad", "United States", "Finland", "Zambia", "United Kingdom");
+        metrics = new ReportMetrics();
+    }
+
+    @Test
+    public void testEngineMeasuresCollectAndEverySection()
+    {
+        final CountryReport                   report;
+        final List<ReportMetrics.Measurement> measurements;
+
+        try(final ReportEngine engine = new ReportEngine(2, metrics))
+        {
+            report = engine.collect(names.stream().map(Country::new), 3, 4);
+            engine.render(report, List.of(ReportSection.values()));
+        }
+
+        measurements = metrics.getMeasurements();
+
+        assertEquals(1 + ReportSection.values().length, measurements.size());
+        assertEquals("collect", measurements.get(0).getPhase());
+        assertEquals(names.size(), measurements.get(0).getItems());
+
+        for(final ReportMetrics.Measurement measurement : measurements.subList(1, measurements.size()))
+        {
+            assertEquals("render", measurement.getPhase());
+            assertEquals(measurement.getSection().countItems(report), measurement.getItems());
+            assertTrue(measurement.getWallNanos() >= 0);
+            assertNotEquals(0, measurement.getAllocatedBytes());
+        }
+    }
+
+    @Test
+    public void testCountItems()
+    {
+        final CountryReport report;
+
+        report = names.stream()
+                      .map(Country::new)
+                      .collect(CountryReport.collector(3, 4));
+
+        assertEquals(2, ReportSection.CONTAINS_UNITED.countItems(report));
+        assertEquals(6, ReportSection.TOTAL_COUNT.countItems(report));
+        assertEquals(1, ReportSection.ANY_STARTS_WITH_Z.countItems(report));
+        assertEquals(1, ReportSection.LONGEST.countItems(report));
+    }
+
+    @Test
+    public void testJsonSummary()
+    {
+        final String json;
+
+        metrics.start("load", null).stop(6, 0);
+        metrics.start("write", ReportSection.LONG_NAMES).stop(3, 120);
+        json = metrics.toJson();
+
+        assertTrue(json.startsWith("{\"phases\":["));
+        assertTrue(json.contains("\"phase\":\"load\",\"section\":null"));
+        assertTrue(json.contains("\"section\":\"LONG_NAMES\""));
+        assertTrue(json.contains("\"items\":3,\"bytesWritten\":120}"));
+        assertTrue(json.contains("\"totalBytesWritten\":120}"));
+    }
+
+    @Test
+    public void testCommitsJfrEvents() throws IOException
+    {
+        final Path                output;
+        final List<RecordedEvent> events;
+
+        output = Files.createTempFile("metrics-test", ".jfr");
+
+        try
+        {
+            try(final Recording recording = new Recording())
+            {
+                recording.enable(ReportPhaseEvent.NAME);
+                recording.start();
+                metrics.start("write", ReportSection.SHORT_NAMES).stop(2, 40);
+                recording.stop();
+                recording.dump(output);
+            }
+
+            events = RecordingFile.readAllEvents(output)
+                                  .stream()
+                                  .filter(event -> event.getEventType().getName().equals(ReportPhaseEvent.NAME))
+                                  .toList();
+
+            assertEquals(1, events.size());
+            assertEquals("SHORT_NAMES", events.get(0).getString("section"));
+            assertEquals(40, events.get(0).getLong("bytesWritten"));
+        } finally
+        {
+            Files.delete(output);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package ca.bcit.comp2522.lab7;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.nio.file.Paths;
+import java.util.List;
+
+public class ReportOptionsTest
+{
+
+    final int processors;
+
+    public ReportOptionsTest() {
+        processors = Runtime.getRuntime().availableProcessors();
+    }
+
+    @Test
+    public void testDefaults()
+    {
+        for(final String[] args : new String[][]{null, {}})
+        {
+            final ReportOptions options;
+
+            options = ReportOptions.parse(args);
+
+            assertEquals(1, options.getParallelism());
+            assertFalse(options.isWatch());
+            assertFalse(options.isStream());
+            assertFalse(options.isStdin());
+            assertFalse(options.isSnapshot());
+            assertNull(options.getMetricsPath());
+            assertNull(options.getInput());
+            assertEquals(0, options.getServePort());
+            assertEquals(List.of(ReportSection.values()), options.getSections());
+            assertEquals(CountryLab.MIN_CHAR, options.getMinChar());
+            assertEquals(CountryLab.MIN_WORD, options.getMinWord());
+            assertNull(options.getOutputPath());
+            assertNull(options.getBatchPath());
+            assertEquals(processors, options.getJobs());
+        }
+    }
+
+    @Test
+    public void testValidCombinations()
+    {
+        final ReportOptions report;
+        final ReportOptions stdin;
+        final ReportOptions serve;
+        final ReportOptions batch;
+
+        report = ReportOptions.parse(new String[]{"--parallelism=3", "--snapshot", "--metrics=m.json",
+                                                  "--input=data/shard-*.txt", "--sections=longest,total_count",
+                                                  "--min-char=0", "--min-word=2", "--output=out.txt"});
+        stdin  = ReportOptions.parse(new String[]{"--stdin", "--output=out.txt"});
+        serve  = ReportOptions.parse(new String[]{"--serve=8080", "--parallel", "--input=a.txt"});
+        batch  = ReportOptions.parse(new String[]{"--batch=manifest.txt", "--jobs=2", "--metrics=m.json",
+                                                  "--sections=total_count"});
+
+        assertEquals(3, report.getParallelism());
+        assertTrue(report.isSnapshot());
+        assertEquals(Paths.get("m.json"), report.getMetricsPath());
+        assertEquals("data/shard-*.txt", report.getInput());
+        assertEquals(List.of(ReportSection.TOTAL_COUNT, ReportSection.LONGEST), report.getSections());
+        assertEquals(0, report.getMinChar());
+        assertEquals(2, report.getMinWord());
+        assertEquals(Paths.get("out.txt"), report.getOutputPath());
+
+        assertTrue(stdin.isStream(), "--stdin implies stream mode");
+        assertTrue(stdin.isStdin());
+
+        assertEquals(8080, serve.getServePort());
+        assertEquals(processors, serve.getParallelism());
+
+        assertEquals(Paths.get("manifest.txt"), batch.getBatchPath());
+        assertEquals(2, batch.getJobs());
+
+        assertTrue(ReportOptions.parse(new String[]{"--watch", "--input=a.txt"}).isWatch());
+    }
+
+    @Test
+    public void testRejectsConflictingModes()
+    {
+        for(final String[] args : new String[][]{
+            {"--watch", "--stream"},
+            {"--watch", "--stdin"},
+            {"--snapshot", "--watch"},
+            {"--snapshot", "--stream"},
+            {"--snapshot", "--stdin"},
+            {"--metrics=m.json", "--watch"},
+            {"--metrics=m.json", "--stream"},
+            {"--serve=8080", "--watch"},
+            {"--serve=8080", "--stream"},
+            {"--serve=8080", "--snapshot"},
+            {"--serve=8080", "--metrics=m.json"},
+            {"--serve=8080", "--sections=longest"},
+            {"--serve=8080", "--output=out.txt"},
+            {"--sections=longest", "--watch"},
+            {"--sections=longest", "--stdin"},
+            {"--batch=manifest.txt", "--parallelism=2"},
+            {"--batch=manifest.txt", "--watch"},
+            {"--batch=manifest.txt", "--stream"},
+            {"--batch=manifest.txt", "--snapshot"},
+            {"--batch=manifest.txt", "--serve=8080"},
+            {"--batch=manifest.txt", "--input=a.txt"},
+            {"--batch=manifest.txt", "--output=out.txt"},
+            {"--jobs=2"}})
+        {
+            assertThrows(IllegalArgumentException.class, () -> ReportOptions.parse(args), String.join(" ", args));
+        }
+    }
+
+    @Test
+    public void testRejectsBadValues()
+    {
+        for(final String arg : new String[]{"--parallelism=0", "--parallelism=two", "--parallelism=",
+                                            "--jobs=0", "--jobs=-1", "--min-char=-1", "--min-char=3.5",
+                                            "--min-word=", "--min-word=99999999999", "--serve=0", "--serve=65536",
+                                            "--serve=http", "--sections=", "--sections=nope",
+                                            "--input=", "--output=", "--metrics=", "--batch=", "--verbose"})
+        {
+            assertThrows(IllegalArgumentException.class, () -> ReportOptions.parse(new String[]{arg}), arg);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package ca.bcit.comp2522.lab7;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+public class ReportPublisherTest
+{
+
+    final List<ReportSection> sections;
+    final AtomicInteger       writes;
+
+    public ReportPublisherTest() {
+        sections = List.of(ReportSection.TOTAL_COUNT, ReportSection.LONGEST);
+        writes   = new AtomicInteger();
+    }
+
+    @Test
+    public void testSkipsUnchangedReport() throws IOException
+    {
+        final Path directory;
+
+        directory = Files.createTempDirectory("publisher");
+
+        try
+        {
+            final ReportPublisher publisher;
+            final Path            target;
+
+            target    = directory.resolve("out").resolve("data.txt");
+            publisher = new ReportPublisher(target, directory.resolve("hashes"));
+
+            assertTrue(publish(publisher, List.of("count 3\n", "Chad\n")));
+            assertEquals("count 3\nChad\n", Files.readString(target));
+            assertFalse(publish(publisher, List.of("count 3\n", "Chad\n")));
+            assertFalse(publish(new ReportPublisher(target, directory.resolve("hashes")), List.of("count 3\n", "Chad\n")));
+            assertEquals(1, writes.get());
+
+            assertTrue(publish(publisher, List.of("count 3\n", "Peru\n")));
+            assertEquals("count 3\nPeru\n", Files.readString(target));
+            assertEquals(2, writes.get());
+            assertEquals(List.of("data.txt"), listNames(target.getParent()));
+        } finally
+        {
+            deleteAll(directory);
+        }
+    }
+
+    @Test
+    public void testRewritesTargetChangedOutside() throws IOException
+    {
+        final Path directory;
+
+        directory = Files.createTempDirectory("publisher");
+
+        try
+        {
+            final ReportPublisher publisher;
+            final Path            target;
+
+            target    = directory.resolve("out").resolve("data.txt");
+            publisher = new ReportPublisher(target, directory.resolve("hashes"));
+
+            publish(publisher, List.of("count 3\n", "Chad\n"));
+            Files.writeString(target, "edited");
+            Files.setLastModifiedTime(target, FileTime.fromMillis(0));
+
+            assertTrue(publish(publisher, List.of("count 3\n", "Chad\n")));
+            assertEquals("count 3\nChad\n", Files.readString(target));
+
+            Files.delete(target);
+            assertTrue(publish(publisher, List.of("count 3\n", "Chad\n")));
+        } finally
+        {
+            deleteAll(directory);
+        }
+    }
+
+    @Test
+    public void testWholeReportHashWhenSectionsUnknown() throws IOException
+    {
+        final Path directory;
+
+        directory = Files.createTempDirectory("publisher");
+
+        try
+        {
+            final ReportPublisher publisher;
+            final Path            target;
+
+            target    = directory.resolve("out").resolve("data.txt");
+            publisher = new ReportPublisher(target, directory.resolve("hashes"));
+
+            assertTrue(publisher.publish(null, writer -> writer.writeString("streamed\n")));
+            assertFalse(publisher.publish(null, writer -> writer.writeString("streamed\n")));
+            assertTrue(publisher.publish(null, writer -> writer.writeString("streamed again\n")));
+            assertEquals("streamed again\n", Files.readString(target));
+            assertEquals(List.of("data.txt"), listNames(target.getParent()));
+        } finally
+        {
+            deleteAll(directory);
+        }
+    }
+
+    @Test
+    public void testFailedWriteKeepsOldReport() throws IOException
+    {
+        final Path directory;
+
+        directory = Files.createTempDirectory("publisher");
+
+        try
+        {
+            final ReportPublisher publisher;
+            final Path            target;
+
+            target    = directory.resolve("out").resolve("data.txt");
+            publisher = new ReportPublisher(target, directory.resolve("hashes"));
+
+            publish(publisher, List.of("count 3\n", "Chad\n"));
+
+            assertThrows(IOException.class, () -> publisher.publish(null, writer ->
+            {
+                writer.writeString("half");
+                writer.flush();
+                throw new IOException("disk full");
+            }));
+            assertEquals("count 3\nChad\n", Files.readString(target));
+            assertEquals(List.of("data.txt"), listNames(target.getParent()));
+        } finally
+        {
+            deleteAll(directory);
+        }
+    }
+
+    @Test
+    public void testReadersNeverSeePartialReport() throws Exception
+    {
+        final Path directory;
+
+        directory = Files.createTempDirectory("publisher");
+
+        try
+        {
+            final ReportPublisher publisher;
+            final Path            target;
+            final String          first;
+            final String          second;
+            final AtomicBoolean   done;
+            final AtomicInteger   torn;
+            final Thread          reader;
+
+            target    = directory.resolve("out").resolve("data.txt");
+            publisher = new ReportPublisher(target, directory.resolve("hashes"));
+            first     = "a".repeat(200_000);
+            second    = "b".repeat(300_000);
+            done      = new AtomicBoolean();
+            torn      = new AtomicInteger();
+
+            publish(publisher, List.of(first, ""));
+
+            reader = new Thread(() ->
+            {
+                while(!done.get())
+                {
+                    try
+                    {
+                        final String text;
+
+                        text = Files.readString(target);
+
+                        if(!text.equals(first) && !text.equals(second))
+                        {
+                            torn.incrementAndGet();
+                        }
+                    } catch(final IOException e)
+                    {
+                        torn.incrementAndGet();
+                    }
+                }
+            });
+            reader.start();
+
+            for(int i = 0; i < 50; i++)
+            {
+                publish(publisher, List.of(i % 2 == 0 ? second : first, ""));
+            }
+
+            done.set(true);
+            reader.join();
+
+            assertEquals(0, torn.get());
+        } finally
+        {
+            deleteAll(directory);
+        }
+    }
+
+    private boolean publish(final ReportPublisher publisher,
+                            final List<String> texts) throws IOException
+    {
+        return publisher.publish(ReportPublisher.hashSections(sections, texts), writer ->
+        {
+            writes.incrementAndGet();
+
+            for(final String text : texts)
+            {
+                writer.writeString(text);
+            }
+        });
+    }
+
+    private static List<String> listNames(final Path directory) throws IOException
+    {
+        try(final Stream<Path> files = Files.list(directory))
+        {
+            return files.map(path -> path.getFileName().toString())
+                        .sorted()
+                        .toList();
+        }
+    }
+
+    private static void deleteAll(final Path directory) throws IOException
+    {
+        try(final Stream<Path> paths = Files.walk(directory))
+        {
+            for(final Path path : paths.sorted(Comparator.reverseOrder()).toList())
+            {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package ca.bcit.comp2522.lab7;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public class ReportWatcherTest
+{
+
+    final long timeoutMillis;
+
+    public ReportWatcherTest() {
+        timeoutMillis = 10_000;
+    }
+
+    @Test
+    public void testUpdateRewritesChangedSections() throws IOException
+    {
+        final Path directory;
+
+        directory = Files.createTempDirectory("watch");
+
+        try
+        {
+            final Path input;
+            final Path output;
+
+            input  = directory.resolve("countries.txt");
+            output = directory.resolve("report.txt");
+            Files.writeString(input, "Finland\nChad\nPeru\n");
+
+            try(final ReportWatcher watcher = new ReportWatcher(input, output, 3, 4))
+            {
+                final Set<ReportSection> affected;
+
+                assertEquals(expected("Finland", "Chad", "Peru"), Files.readString(output));
+                assertEquals(Set.of(), watcher.update());
+
+                Files.writeString(input, "Finland\nChad\nPeru\nZambia\n");
+                affected = watcher.update();
+
+                assertTrue(affected.contains(ReportSection.TOTAL_COUNT));
+                assertTrue(affected.contains(ReportSection.ANY_STARTS_WITH_Z));
+                assertEquals(expected("Finland", "Chad", "Peru", "Zambia"), Files.readString(output));
+            }
+        } finally
+        {
+            deleteAll(directory);
+        }
+    }
+
+    @Test
+    public void testRunPublishesEditedInput() throws Exception
+    {
+        final Path directory;
+
+        directory = Files.createTempDirectory("watch");
+
+        try
+        {
+            final Path          input;
+            final Path          output;
+            final ReportWatcher watcher;
+            final Thread        thread;
+            final String        edited;
+
+            input   = directory.resolve("countries.txt");
+            output  = directory.resolve("report.txt");
+            Files.writeString(input, "Finland\nChad\n");
+            watcher = new ReportWatcher(input, output, 3, 4);
+            thread  = new Thread(() ->
+            {
+                try
+                {
+                    watcher.run();
+                } catch(final IOException e)
+                {
+                    throw new RuntimeException(e);
+                }
+            });
+            edited  = expected("Iceland", "Chad", "United States");
+
+            try
+            {
+                thread.start();
+                Files.writeString(input, "Iceland\nChad\nUnited States\n");
+
+                assertTrue(awaitContent(output, edited), "report was not republished after the edit");
+            } finally
+            {
+                watcher.close();
+            }
+
+            thread.join(timeoutMillis);
+            assertFalse(thread.isAlive());
+        } finally
+        {
+            deleteAll(directory);
+        }
+    }
+
+    /*
+     * Polls the file until it holds the expected text or the timeout passes.
+     */
+    private boolean awaitContent(final Path file,
+                                 final String expected) throws IOException, InterruptedException
+    {
+        final long deadline;
+
+        deadline = System.currentTimeMillis() + timeoutMillis;
+
+        while(System.currentTimeMillis() < deadline)
+        {
+            if(expected.equals(Files.readString(file)))
+            {
+                return true;
+            }
+
+            Thread.sleep(20);
+        }
+
+        return false;
+    }
+
+    private static String expected(final String... names)
+    {
+        final CountryReport report;
+        final StringBuilder out;
+
+        report = Stream.of(names)
+                       .map(Country::new)
+                       .collect(CountryReport.collector(3, 4));
+        out    = new StringBuilder();
+
+        for(final ReportSection section : ReportSection.values())
+        {
+            out.append(section.render(report));
+        }
+
+        return out.toString();
+    }
+
+    private static void deleteAll(final Path directory) throws IOException
+    {
+        try(final Stream<Path> paths = Files.walk(directory))
+        {
+            for(final Path path : paths.sorted(Comparator.reverseOrder()).toList())
+            {
+                Files.delete(path);
+            }
+        }
+    }
+}
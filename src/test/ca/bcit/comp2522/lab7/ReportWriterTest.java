@@ -0,0 +1,109 @@
+package ca.bcit.comp2522.lab7;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class ReportWriterTest
+{
+
+    final String multiByteText;
+
+    public ReportWriterTest() {
+        multiByteText = "Côte d'Ivoire, São Tomé and Príncipe, Україна, 日本, 🇨🇦\n".repeat(5);
+    }
+
+    @Test
+    public void testOverflowAtMinimumBufferKeepsMultiByteText() throws IOException
+    {
+        final Path output;
+
+        output = Files.createTempFile("report", ".txt");
+
+        try
+        {
+            final long bytes;
+
+            bytes = multiByteText.getBytes(StandardCharsets.UTF_8).length;
+
+            try(final ReportWriter writer = new ReportWriter(output, ReportWriter.MIN_BUFFER_SIZE))
+            {
+                writer.writeString(multiByteText);
+                writer.writeString(42);
+
+                assertEquals(bytes + 2, writer.getPosition());
+                assertTrue(writer.getFlushCount() > 1);
+            }
+
+            assertEquals(multiByteText + "42", Files.readString(output, StandardCharsets.UTF_8));
+        } finally
+        {
+            Files.delete(output);
+        }
+    }
+
+    @Test
+    public void testWriteFileAppendsAfterBufferedText() throws IOException
+    {
+        final Path output;
+        final Path source;
+
+        output = Files.createTempFile("report", ".txt");
+        source = Files.createTempFile("section", ".txt");
+
+        try
+        {
+            Files.writeString(source, multiByteText, StandardCharsets.UTF_8);
+
+            try(final ReportWriter writer = new ReportWriter(output, ByteBuffer.allocateDirect(64)))
+            {
+                writer.writeString("Header\n");
+                writer.writeFile(source);
+                writer.writeString("Footer\n");
+
+                assertEquals(7 + Files.size(source) + 7, writer.getPosition());
+            }
+
+            assertEquals("Header\n" + multiByteText + "Footer\n", Files.readString(output, StandardCharsets.UTF_8));
+        } finally
+        {
+            Files.delete(output);
+            Files.delete(source);
+        }
+    }
+
+    @Test
+    public void testPositionCountsFlushedAndBufferedBytes() throws IOException
+    {
+        final Path output;
+
+        output = Files.createTempFile("report", ".txt");
+
+        try(final ReportWriter writer = new ReportWriter(output))
+        {
+            writer.writeString("Chad\n");
+            assertEquals(0, writer.getBytesWritten());
+            assertEquals(5, writer.getPosition());
+
+            writer.flush();
+            assertEquals(5, writer.getBytesWritten());
+            assertEquals(5, writer.getPosition());
+            assertEquals(1, writer.getFlushCount());
+
+            writer.writeString("Perú\n");
+            assertEquals(5, writer.getBytesWritten());
+            assertEquals(11, writer.getPosition());
+        } finally
+        {
+            Files.delete(output);
+        }
+
+        assertThrows(IllegalArgumentException.class,
+                     () -> new ReportWriter(output, ReportWriter.MIN_BUFFER_SIZE - 1));
+        assertFalse(Files.exists(output));
+    }
+}
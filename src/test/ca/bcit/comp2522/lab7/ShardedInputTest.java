@@ -0,0 +1,133 @@
+package ca.bcit.comp2522.lab7;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+public class ShardedInputTest
+{
+
+    final List<String> names;
+
+    public ShardedInputTest() {
+        names = new ArrayList<>();
+
+        for(int i = 0; i < 30_000; i++)
+        {
+            names.add(List.of("Finland", "Chad", "United States", "Iceland", "Zambia", "Aland", "Peru")
+                          .get(i % 7) + " " + (i * 7919 % 211));
+        }
+    }
+
+    @Test
+    public void testShardsMergeToSameReportAsOneFile() throws IOException
+    {
+        final Path directory;
+
+        directory = writeShards(9);
+
+        try
+        {
+            final List<Path> shards;
+
+            shards = ShardedInput.resolve(directory.toString());
+
+            assertEquals(9, shards.size());
+            assertSameReport(ShardedInput.load(shards, null));
+
+            try(final ForkJoinPool pool = new ForkJoinPool(4))
+            {
+                assertSameReport(ShardedInput.load(shards, pool));
+            }
+        } finally
+        {
+            deleteAll(directory);
+        }
+    }
+
+    @Test
+    public void testResolvesGlobInPathOrder() throws IOException
+    {
+        final Path directory;
+
+        directory = writeShards(3);
+
+        try
+        {
+            Files.writeString(directory.resolve("notes.md"), "Chad");
+
+            assertEquals(List.of(directory.resolve("shard-00.txt"),
+                                 directory.resolve("shard-01.txt"),
+                                 directory.resolve("shard-02.txt")),
+                         ShardedInput.resolve(directory + "/shard-*.txt"));
+            assertThrows(IOException.class, () -> ShardedInput.resolve(directory + "/*.csv"));
+        } finally
+        {
+            deleteAll(directory);
+        }
+    }
+
+    @Test
+    public void testConcatTables()
+    {
+        final CountryTable table;
+
+        table = CountryTable.concat(new CountryTable.Builder().add("Chad").add("Côte d'Ivoire").build(),
+                                    new CountryTable.Builder().add("Peru").build());
+
+        assertEquals(3, table.size());
+        assertEquals("Côte d'Ivoire", table.name(1));
+        assertEquals("Peru", table.name(2));
+        assertEquals(4, table.length(2));
+    }
+
+    private Path writeShards(final int count) throws IOException
+    {
+        final Path directory;
+        final int  size;
+
+        directory = Files.createTempDirectory("shards-test");
+        size      = (names.size() + count - 1) / count;
+
+        for(int shard = 0; shard < count; shard++)
+        {
+            Files.write(directory.resolve(String.format("shard-%02d.txt", shard)),
+                        names.subList(shard * size, Math.min(names.size(), (shard + 1) * size)));
+        }
+
+        return directory;
+    }
+
+    private void assertSameReport(final CountrySnapshot snapshot)
+    {
+        final CountryReport expected;
+        final CountryReport actual;
+
+        expected = names.stream()
+                        .map(Country::new)
+                        .collect(CountryReport.collector(3, 4));
+        actual   = CountryReport.of(snapshot, 3, 4);
+
+        for(final ReportSection section : ReportSection.values())
+        {
+            assertEquals(section.render(expected), section.render(actual), section.name());
+        }
+    }
+
+    private void deleteAll(final Path directory) throws IOException
+    {
+        try(final Stream<Path> paths = Files.walk(directory))
+        {
+            for(final Path path : paths.sorted((a, b) -> b.compareTo(a)).toList())
+            {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package ca.bcit.comp2522.lab7;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.util.List;
+
+public class SortedCountryIndexTest
+{
+
+    final SortedCountryIndex index;
+
+    public SortedCountryIndexTest() {
+        index = new SortedCountryIndex(List.of("Chad", "Bahamas", "Denmark", "Albania", "Cuba", "Belize"));
+    }
+
+    @Test
+    public void testAscendingAndDescendingShareOneSort()
+    {
+        assertEquals(List.of("Albania", "Bahamas", "Belize", "Chad", "Cuba", "Denmark"), index.ascending());
+        assertEquals(List.of("Denmark", "Cuba", "Chad", "Belize", "Bahamas", "Albania"), index.descending());
+    }
+
+    @Test
+    public void testRangeBetweenLetters()
+    {
+        assertEquals(List.of("Bahamas", "Belize", "Chad", "Cuba"), index.range("B", "D"));
+        assertEquals(List.of("Cuba", "Chad", "Belize", "Bahamas"), index.descendingRange("B", "D"));
+        assertTrue(index.range("X", "Z").isEmpty(), "No names should fall between X and Z");
+    }
+
+    @Test
+    public void testInvertedRangeIsRejected()
+    {
+        assertThrows(IllegalArgumentException.class, () -> index.range("D", "B"));
+    }
+}
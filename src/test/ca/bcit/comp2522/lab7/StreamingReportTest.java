@@ -0,0 +1,188 @@
+package ca.bcit.comp2522.lab7;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class StreamingReportTest
+{
+
+    final List<String> names;
+
+    public StreamingReportTest() {
+        names = new ArrayList<>(List.of("Afghanistan", "Chad", "United States", "Finland", "Zambia",
+                                        "Peru", "Saint Kitts and Nevis", "Cuba", "Chad", "Iceland",
+                                        "Bosnia and Herzegovina", "Oman", "Finland", "Aland"));
+    }
+
+    @Test
+    public void testMatchesInMemoryReport() throws IOException
+    {
+        assertEquals(renderInMemory(names), renderStreamed(names, 4));
+    }
+
+    @Test
+    public void testMatchesInMemoryReportAcrossManyRuns() throws IOException
+    {
+        final List<String> many;
+
+        many = new ArrayList<>();
+
+        for(int i = 0; i < 3000; i++)
+        {
+            many.add(names.get(i % names.size()) + " " + (i * 7919 % 1000));
+        }
+
+        assertEquals(renderInMemory(many), renderStreamed(many, 97));
+    }
+
+    @Test
+    public void testEmptyStream() throws IOException
+    {
+        assertEquals(renderInMemory(List.of()), renderStreamed(List.of(), 4));
+    }
+
+    @Test
+    public void testReadsStream() throws IOException
+    {
+        final String text;
+
+        text = String.join("\n", names);
+
+        try(final StreamingReport report = new StreamingReport(3, 4, 4))
+        {
+            report.addAll(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+
+            assertEquals(names.size(), report.getCount());
+            assertTrue(report.getRunCount() > 0);
+            assertEquals(12, report.getDistinctEstimate());
+            assertEquals(List.of("Bosnia and Herzegovina", "Saint Kitts and Nevis", "United States"),
+                         report.getLongestNames().subList(0, 3));
+        }
+    }
+
+    @Test
+    public void testSorterMergesRunsBothWays() throws IOException
+    {
+        final Path         directory;
+        final List<String> ascending;
+        final List<String> descending;
+
+        directory  = Files.createTempDirectory("sorter-test");
+        ascending  = new ArrayList<>();
+        descending = new ArrayList<>();
+
+        try(final ExternalSorter sorter = new ExternalSorter(directory, 3))
+        {
+            for(final String name : names)
+            {
+                sorter.add(name);
+            }
+
+            sorter.forEachSorted(false, ascending::add);
+            sorter.forEachSorted(true, descending::add);
+
+            assertEquals(5, sorter.runCount());
+        } finally
+        {
+            Files.delete(directory);
+        }
+
+        assertEquals(names.stream().sorted().toList(), ascending);
+        assertEquals(names.stream().sorted(Comparator.reverseOrder()).toList(), descending);
+    }
+
+    @Test
+    public void testSorterMergesManyRunsInPasses() throws IOException
+    {
+        final Path         directory;
+        final List<String> ascending;
+        final List<String> again;
+        final List<String> descending;
+
+        directory  = Files.createTempDirectory("sorter-test");
+        ascending  = new ArrayList<>();
+        again      = new ArrayList<>();
+        descending = new ArrayList<>();
+
+        try(final ExternalSorter sorter = new ExternalSorter(directory, 1, 3))
+        {
+            for(final String name : names)
+            {
+                sorter.add(name);
+            }
+
+            sorter.forEachSorted(false, ascending::add);
+            sorter.forEachSorted(false, again::add);
+            sorter.forEachSorted(true, descending::add);
+
+            assertEquals(names.size(), sorter.runCount());
+
+            try(final Stream<Path> runs = Files.list(directory))
+            {
+                assertTrue(runs.count() <= 2 * 3);
+            }
+        } finally
+        {
+            Files.delete(directory);
+        }
+
+        assertEquals(names.stream().sorted().toList(), ascending);
+        assertEquals(ascending, again);
+        assertEquals(names.stream().sorted(Comparator.reverseOrder()).toList(), descending);
+        assertThrows(IllegalArgumentException.class, () -> new ExternalSorter(directory, 1, 1));
+    }
+
+    private String renderInMemory(final List<String> countryNames)
+    {
+        final CountryReport report;
+        final StringBuilder out;
+
+        report = countryNames.stream()
+                             .map(Country::new)
+                             .collect(CountryReport.collector(3, 4));
+        out    = new StringBuilder();
+
+        for(final ReportSection section : ReportSection.values())
+        {
+            out.append(section.render(report));
+        }
+
+        return out.toString();
+    }
+
+    private String renderStreamed(final List<String> countryNames,
+                                  final int runSize) throws IOException
+    {
+        final Path output;
+
+        output = Files.createTempFile("streaming-test", ".txt");
+
+        try
+        {
+            try(final StreamingReport report = new StreamingReport(3, 4, runSize);
+                final ReportWriter writer = new ReportWriter(output))
+            {
+                for(final String name : countryNames)
+                {
+                    report.add(name);
+                }
+
+                report.writeTo(writer);
+            }
+
+            return Files.readString(output);
+        } finally
+        {
+            Files.delete(output);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package ca.bcit.comp2522.lab7;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.util.List;
+
+public class SuffixIndexTest
+{
+
+    final SuffixIndex index;
+
+    public SuffixIndexTest() {
+        index = new SuffixIndex(List.of("Poland", "Kazakhstan", "Iceland", "land", "Pakistan", "LAND", "Island", "Chad"));
+    }
+
+    @Test
+    public void testEndingWithKeepsInsertionOrder()
+    {
+        assertEquals(List.of("Poland", "Iceland", "land", "Island"), index.endingWith("land"));
+        assertEquals(List.of("Kazakhstan", "Pakistan"), index.endingWith("stan"));
+    }
+
+    @Test
+    public void testSuffixMatchingIsCaseSensitive()
+    {
+        assertEquals(List.of("LAND"), index.endingWith("LAND"));
+        assertEquals(0, index.countEndingWith("Land"));
+        assertFalse(index.anyEndingWith("ia"), "No name should end with 'ia'");
+    }
+
+    @Test
+    public void testEmptySuffixMatchesEveryName()
+    {
+        assertEquals(8, index.countEndingWith(""));
+    }
+}